@@ -93,6 +93,6 @@ public class WsAgentModule extends AbstractModule {
     @Provides
     @SuppressWarnings("unchecked")
     Pair<String, String>[] propagateEventsProvider(@Named("event.bus.url") String eventBusURL) {
-        return new Pair[] {Pair.of(eventBusURL, "")};
+        return new Pair[] {Pair.of(eventBusURL, ""), Pair.of(eventBusURL, "wsagent")};
     }
 }
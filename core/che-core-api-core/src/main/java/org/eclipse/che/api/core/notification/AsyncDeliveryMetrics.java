@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Statistic of delivery of events to subscriber that is registered with
+ * {@link EventService#subscribeAsync(EventSubscriber, int, EventService.OverflowPolicy)}. Dispatch latency is time between
+ * publishing of event and call of {@link EventSubscriber#onEvent(Object)}.
+ */
+public final class AsyncDeliveryMetrics {
+    private final IntSupplier queueSize;
+    private final LongAdder   deliveredEvents   = new LongAdder();
+    private final LongAdder   droppedEvents     = new LongAdder();
+    private final LongAdder   totalLatencyNanos = new LongAdder();
+    private final AtomicLong  maxLatencyNanos   = new AtomicLong();
+
+    AsyncDeliveryMetrics(IntSupplier queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    void eventDelivered(long latencyNanos) {
+        deliveredEvents.increment();
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    void eventDropped() {
+        droppedEvents.increment();
+    }
+
+    /** Number of events that are waiting for delivery. */
+    public int getQueueSize() {
+        return queueSize.getAsInt();
+    }
+
+    public long getDeliveredEvents() {
+        return deliveredEvents.sum();
+    }
+
+    /** Number of events that are dropped because queue of subscriber is full. */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    public long getAverageDispatchLatencyMillis() {
+        final long delivered = deliveredEvents.sum();
+        return delivered == 0 ? 0 : NANOSECONDS.toMillis(totalLatencyNanos.sum() / delivered);
+    }
+
+    public long getMaxDispatchLatencyMillis() {
+        return NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncDeliveryMetrics{" +
+               "queueSize=" + getQueueSize() +
+               ", deliveredEvents=" + getDeliveredEvents() +
+               ", droppedEvents=" + getDroppedEvents() +
+               ", averageDispatchLatencyMillis=" + getAverageDispatchLatencyMillis() +
+               ", maxDispatchLatencyMillis=" + getMaxDispatchLatencyMillis() +
+               '}';
+    }
+}
@@ -56,8 +56,26 @@ public class EventOriginClientPropagationPolicy implements ClientEventPropagatio
 
     @Override
     public boolean shouldPropagated(URI uri, Object event) {
-        final EventOrigin eventOrigin = event.getClass().getAnnotation(EventOrigin.class);
+        final EventOrigin eventOrigin = getEventOrigin(event.getClass());
         final Set<String> set = forPropagation.get(uri);
         return set != null && eventOrigin != null && set.contains(eventOrigin.value());
     }
+
+    /**
+     * Gets origin of event from its class or, if class isn't annotated, from interfaces it implements. Generated implementations
+     * of DTO don't copy annotations of DTO interface.
+     */
+    private static EventOrigin getEventOrigin(Class<?> eventClass) {
+        final EventOrigin eventOrigin = eventClass.getAnnotation(EventOrigin.class);
+        if (eventOrigin != null) {
+            return eventOrigin;
+        }
+        for (Class<?> anInterface : eventClass.getInterfaces()) {
+            final EventOrigin interfaceEventOrigin = anInterface.getAnnotation(EventOrigin.class);
+            if (interfaceEventOrigin != null) {
+                return interfaceEventOrigin;
+            }
+        }
+        return null;
+    }
 }
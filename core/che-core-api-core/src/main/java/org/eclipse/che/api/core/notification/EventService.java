@@ -13,20 +13,31 @@ package org.eclipse.che.api.core.notification;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.stream.Collectors.toMap;
 
 /**
  * Dispatchers events to listeners. Usage example:
@@ -40,6 +51,10 @@ import java.util.concurrent.CopyOnWriteArraySet;
  *     });
  *     bus.publish(new MyEvent());
  * </pre>
+ * By default subscribers are notified in the thread that publishes event. Subscriber that is slow, e.g. sends events over network,
+ * or doesn't need to get events immediately may be registered with {@link #subscribeAsync(EventSubscriber, int, OverflowPolicy)}.
+ * Such subscriber gets own bounded queue of events that is drained by shared pool of threads. Events are delivered to it in the
+ * same order as they are published, but publisher doesn't wait for delivery.
  *
  * @author andrew00x
  */
@@ -51,12 +66,39 @@ public class EventService {
     private static final int CACHE_MASK = CACHE_NUM - 1;
     private static final int SEG_SIZE   = 32;
 
-    private final LoadingCache<Class<?>, Set<Class<?>>>[]       typeCache;
-    private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByEventType;
+    /** Default capacity of queue of asynchronous subscriber. */
+    public static final int  DEFAULT_ASYNC_QUEUE_CAPACITY = 1024;
+    /** Max number of events that are delivered to one subscriber before thread is given to other subscribers. */
+    private static final int ASYNC_DISPATCH_BATCH_SIZE    = 64;
+    private static final int ASYNC_DISPATCH_THREADS       = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /** What to do with event when queue of asynchronous subscriber is full. */
+    public enum OverflowPolicy {
+        /** Discard the published event. */
+        DROP_NEWEST,
+        /** Discard the oldest event in queue to make room for the published event. */
+        DROP_OLDEST,
+        /**
+         * Block publisher until there is room in queue. Event that is published from thread which delivers events to asynchronous
+         * subscribers is discarded instead, since such thread may be the only one that can make room in queue.
+         */
+        BLOCK
+    }
+
+    private final LoadingCache<Class<?>, Set<Class<?>>>[]               typeCache;
+    private final ConcurrentMap<Class<?>, Set<EventSubscriber>>         subscribersByEventType;
+    private final ConcurrentMap<EventSubscriber<?>, AsyncSubscriber<?>> asyncSubscribers;
+
+    /** Set in threads while they deliver events to asynchronous subscribers. */
+    private final ThreadLocal<Boolean> delivering;
+
+    private volatile ExecutorService asyncExecutor;
 
     @SuppressWarnings("unchecked")
     public EventService() {
         subscribersByEventType = new ConcurrentHashMap<>();
+        asyncSubscribers = new ConcurrentHashMap<>();
+        delivering = new ThreadLocal<>();
         typeCache = new LoadingCache[CACHE_NUM];
         for (int i = 0; i < CACHE_NUM; i++) {
             typeCache[i] = CacheBuilder.newBuilder().concurrencyLevel(SEG_SIZE).build(
@@ -134,6 +176,88 @@ public class EventService {
         doSubscribe(subscriber, eventType);
     }
 
+    /**
+     * Subscribe event listener that gets events asynchronously, with queue of {@link #DEFAULT_ASYNC_QUEUE_CAPACITY} events and
+     * {@link OverflowPolicy#DROP_OLDEST} policy.
+     *
+     * @see #subscribeAsync(EventSubscriber, int, OverflowPolicy)
+     */
+    public void subscribeAsync(EventSubscriber<?> subscriber) {
+        subscribeAsync(subscriber, DEFAULT_ASYNC_QUEUE_CAPACITY, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Subscribe event listener that gets events asynchronously. The event to subscribe to is inferred by checking the generic type
+     * arguments of the given subscriber.
+     *
+     * @param subscriber
+     *         event subscriber
+     * @param queueCapacity
+     *         max number of events that may wait for delivery to the subscriber
+     * @param overflowPolicy
+     *         what to do with published event when queue of subscriber is full
+     */
+    public void subscribeAsync(EventSubscriber<?> subscriber, int queueCapacity, OverflowPolicy overflowPolicy) {
+        doSubscribe(newAsyncSubscriber(subscriber, queueCapacity, overflowPolicy), getEventType(subscriber));
+    }
+
+    /**
+     * Subscribe event listener that gets events of the specified type asynchronously.
+     *
+     * @see #subscribeAsync(EventSubscriber, int, OverflowPolicy)
+     */
+    public <T> void subscribeAsync(EventSubscriber<? extends T> subscriber,
+                                   Class<T> eventType,
+                                   int queueCapacity,
+                                   OverflowPolicy overflowPolicy) {
+        doSubscribe(newAsyncSubscriber(subscriber, queueCapacity, overflowPolicy), eventType);
+    }
+
+    /** Returns statistic of delivery of events to each asynchronous subscriber. */
+    public Map<EventSubscriber<?>, AsyncDeliveryMetrics> getAsyncDeliveryMetrics() {
+        return asyncSubscribers.entrySet().stream().collect(toMap(Map.Entry::getKey, e -> e.getValue().metrics));
+    }
+
+    /** Stops threads that deliver events to asynchronous subscribers. Events that are not delivered yet are discarded. */
+    @PreDestroy
+    public void stop() {
+        final ExecutorService executor = asyncExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private AsyncSubscriber<?> newAsyncSubscriber(EventSubscriber<?> subscriber, int queueCapacity, OverflowPolicy overflowPolicy) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException(String.format("Invalid queue capacity: %d", queueCapacity));
+        }
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Null overflow policy.");
+        }
+        final AsyncSubscriber<?> asyncSubscriber = new AsyncSubscriber<>(subscriber, queueCapacity, overflowPolicy);
+        final AsyncSubscriber<?> existing = asyncSubscribers.putIfAbsent(subscriber, asyncSubscriber);
+        if (existing != null) {
+            throw new IllegalArgumentException(String.format("%s is already subscribed", subscriber));
+        }
+        return asyncSubscriber;
+    }
+
+    private ExecutorService getAsyncExecutor() {
+        ExecutorService executor = asyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = asyncExecutor;
+                if (executor == null) {
+                    asyncExecutor = executor = Executors.newFixedThreadPool(ASYNC_DISPATCH_THREADS,
+                                                                            new ThreadFactoryBuilder().setDaemon(true)
+                                                                                                      .setNameFormat("EventService-%d")
+                                                                                                      .build());
+                }
+            }
+        }
+        return executor;
+    }
+
     private void doSubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
         Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
         if (entries == null) {
@@ -154,9 +278,13 @@ public class EventService {
      */
     public void unsubscribe(EventSubscriber<?> subscriber) {
         final Class<?> eventType = getEventType(subscriber);
+        final AsyncSubscriber<?> asyncSubscriber = asyncSubscribers.remove(subscriber);
+        if (asyncSubscriber != null) {
+            asyncSubscriber.cancel();
+        }
         final Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
         if (entries != null && !entries.isEmpty()) {
-            boolean changed = entries.remove(subscriber);
+            boolean changed = entries.remove(asyncSubscriber != null ? asyncSubscriber : subscriber);
             if (changed) {
                 if (entries.isEmpty()) {
                     subscribersByEventType.remove(eventType);
@@ -190,4 +318,125 @@ public class EventService {
         }
         return eventType;
     }
+
+    /**
+     * Queues events for the delegate subscriber. Only one task that delivers events to the delegate is submitted to executor at
+     * time, so events are delivered in the same order as they are queued.
+     */
+    private class AsyncSubscriber<T> implements EventSubscriber<T>, Runnable {
+        final EventSubscriber<T>     delegate;
+        final OverflowPolicy         overflowPolicy;
+        final BlockingQueue<Pending> queue;
+        final AtomicBoolean          scheduled;
+        final AsyncDeliveryMetrics   metrics;
+
+        volatile boolean cancelled;
+
+        @SuppressWarnings("unchecked")
+        AsyncSubscriber(EventSubscriber<?> delegate, int queueCapacity, OverflowPolicy overflowPolicy) {
+            this.delegate = (EventSubscriber<T>)delegate;
+            this.overflowPolicy = overflowPolicy;
+            this.queue = new LinkedBlockingQueue<>(queueCapacity);
+            this.scheduled = new AtomicBoolean();
+            this.metrics = new AsyncDeliveryMetrics(queue::size);
+        }
+
+        @Override
+        public void onEvent(T event) {
+            if (cancelled) {
+                return;
+            }
+            final Pending pending = new Pending(event, System.nanoTime());
+            switch (overflowPolicy) {
+                case DROP_NEWEST:
+                    if (!queue.offer(pending)) {
+                        metrics.eventDropped();
+                    }
+                    break;
+                case DROP_OLDEST:
+                    while (!queue.offer(pending)) {
+                        if (queue.poll() != null) {
+                            metrics.eventDropped();
+                        }
+                    }
+                    break;
+                case BLOCK:
+                    if (delivering.get() != null) {
+                        if (!queue.offer(pending)) {
+                            LOG.error("Queue of {} is full, event {} published while delivering other event is discarded", delegate, event);
+                            metrics.eventDropped();
+                        }
+                        break;
+                    }
+                    try {
+                        queue.put(pending);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        metrics.eventDropped();
+                    }
+                    break;
+            }
+            schedule();
+        }
+
+        /** Discards queued events, events which are published or taken from queue after this call are not delivered. */
+        void cancel() {
+            cancelled = true;
+            queue.clear();
+        }
+
+        void schedule() {
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                try {
+                    getAsyncExecutor().execute(this);
+                } catch (RejectedExecutionException e) {
+                    LOG.warn("Unable deliver events to {}, event service is stopped", delegate);
+                    queue.clear();
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            delivering.set(Boolean.TRUE);
+            try {
+                Pending pending;
+                for (int i = 0; i < ASYNC_DISPATCH_BATCH_SIZE && (pending = queue.poll()) != null; i++) {
+                    if (cancelled) {
+                        queue.clear();
+                        break;
+                    }
+                    metrics.eventDelivered(System.nanoTime() - pending.publishedNanos);
+                    try {
+                        LOG.debug("Publish event {} for {}", pending.event, delegate);
+                        delegate.onEvent((T)pending.event);
+                    } catch (RuntimeException e) {
+                        LOG.error(e.getMessage(), e);
+                    }
+                }
+            } finally {
+                delivering.remove();
+                scheduled.set(false);
+            }
+            // events which are queued while this task was completing or which didn't fit in batch
+            schedule();
+        }
+
+        @Override
+        public String toString() {
+            return "AsyncSubscriber{" + delegate + '}';
+        }
+    }
+
+    private static class Pending {
+        final Object event;
+        final long   publishedNanos;
+
+        Pending(Object event, long publishedNanos) {
+            this.event = event;
+            this.publishedNanos = publishedNanos;
+        }
+    }
 }
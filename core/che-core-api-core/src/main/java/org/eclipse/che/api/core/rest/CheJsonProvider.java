@@ -14,6 +14,7 @@ import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.dto.server.JsonSerializable;
 import org.eclipse.che.dto.shared.DTO;
+import org.everrest.core.ApplicationContext;
 import org.everrest.core.impl.provider.JsonEntityProvider;
 
 import javax.inject.Inject;
@@ -25,11 +26,13 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
@@ -37,12 +40,19 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
  * Implementation of {@link MessageBodyReader} and {@link MessageBodyWriter} needed for binding JSON content to and from Java Objects.
+ * <p/>
+ * DTOs and collections of DTOs are written in compact form, see {@link JsonSerializable#toCompactJson(Writer)}, if client lists
+ * {@link #COMPACT_JSON} in {@code Accept} header, Content-Type of such responses is {@link #COMPACT_JSON}. Other clients get regular
+ * JSON, responses with DTOs get {@code Vary: Accept} header in both cases. Request bodies with Content-Type {@link #COMPACT_JSON} are
+ * read in compact form.
  *
  * @author andrew00x
  * @see DTO
@@ -50,9 +60,13 @@ import java.util.Set;
  */
 @Singleton
 @Provider
-@Produces({MediaType.APPLICATION_JSON})
-@Consumes({MediaType.APPLICATION_JSON})
+@Produces({MediaType.APPLICATION_JSON, CheJsonProvider.COMPACT_JSON})
+@Consumes({MediaType.APPLICATION_JSON, CheJsonProvider.COMPACT_JSON})
 public class CheJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWriter<T> {
+    /** Media type of DTOs written in compact form, as JSON arrays of values of their properties. */
+    public static final String    COMPACT_JSON      = "application/vnd.che.compact+json";
+    public static final MediaType COMPACT_JSON_TYPE = MediaType.valueOf(COMPACT_JSON);
+
     private Set<Class> ignoredClasses;
     private final JsonEntityProvider delegate = new JsonEntityProvider<>();
 
@@ -64,7 +78,8 @@ public class CheJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWrit
     @SuppressWarnings("unchecked")
     @Override
     public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
-        return !ignoredClasses.contains(type) &&
+        // Entity may be already serialized, e.g. by ETagResponseFilter
+        return !ignoredClasses.contains(type) && !StreamingOutput.class.isAssignableFrom(type) &&
                (type.isAnnotationPresent(DTO.class) || delegate.isWriteable(type, genericType, annotations, mediaType));
     }
 
@@ -79,9 +94,19 @@ public class CheJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWrit
                         MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException, WebApplicationException {
         // Add Cache-Control before start write body.
         httpHeaders.putSingle(HttpHeaders.CACHE_CONTROL, "public, no-cache, no-store, no-transform");
-        if (t instanceof JsonSerializable) {
+        final boolean compactJsonWriteable = isCompactJsonWriteable(t);
+        if (compactJsonWriteable) {
+            // Body depends on Accept header, shared caches must not give compact body to clients which asked for regular JSON.
+            addVaryAccept(httpHeaders);
+        }
+        if (compactJsonWriteable && isCompactJsonAcceptable(mediaType)) {
+            httpHeaders.putSingle(HttpHeaders.CONTENT_TYPE, COMPACT_JSON_TYPE);
+            try (Writer w = new OutputStreamWriter(entityStream, StandardCharsets.UTF_8)) {
+                writeCompactJson(t, w);
+            }
+        } else if (t instanceof JsonSerializable) {
             try (Writer w = new OutputStreamWriter(entityStream, Charset.forName("UTF-8"))) {
-                w.write(((JsonSerializable)t).toJson());
+                ((JsonSerializable)t).toJson(w);
             }
         } else {
             delegate.writeTo(t, type, genericType, annotations, mediaType, httpHeaders, entityStream);
@@ -99,6 +124,16 @@ public class CheJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWrit
     @Override
     public T readFrom(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType,
                       MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException, WebApplicationException {
+        if (isCompactJson(mediaType)) {
+            if (type.isAnnotationPresent(DTO.class)) {
+                return DtoFactory.getInstance().createDtoFromCompactJson(new InputStreamReader(entityStream, StandardCharsets.UTF_8), type);
+            }
+            final Class<?> elementClass = getDtoElementClass(type, genericType);
+            if (elementClass != null) {
+                return (T)DtoFactory.getInstance().createListDtoFromCompactJson(new InputStreamReader(entityStream, StandardCharsets.UTF_8),
+                                                                                elementClass);
+            }
+        }
         if (type.isAnnotationPresent(DTO.class)) {
             return DtoFactory.getInstance().createDtoFromJson(entityStream, type);
         } else if (type.isAssignableFrom(List.class) && genericType instanceof ParameterizedType) {
@@ -114,6 +149,121 @@ public class CheJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWrit
         return (T)delegate.readFrom(type, genericType, annotations, mediaType, httpHeaders, entityStream);
     }
 
+    /** Gets type of elements of list of DTOs or {@code null} if type isn't a list of DTOs. */
+    private Class<?> getDtoElementClass(Class<?> type, Type genericType) {
+        if (type.isAssignableFrom(List.class) && genericType instanceof ParameterizedType) {
+            final Type elementType = ((ParameterizedType)genericType).getActualTypeArguments()[0];
+            if (elementType instanceof Class && ((Class<?>)elementType).isAnnotationPresent(DTO.class)) {
+                return (Class<?>)elementType;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isCompactJson(MediaType mediaType) {
+        return mediaType != null
+               && COMPACT_JSON_TYPE.getType().equalsIgnoreCase(mediaType.getType())
+               && COMPACT_JSON_TYPE.getSubtype().equalsIgnoreCase(mediaType.getSubtype());
+    }
+
+    /**
+     * Checks whether response may be written in compact form. Resources usually produce only regular JSON, so the choice is made by
+     * {@code Accept} header of request. Wildcards don't count, client must name {@link #COMPACT_JSON} explicitly with quality which
+     * is above zero and isn't lower than quality of regular JSON.
+     */
+    private static boolean isCompactJsonAcceptable(MediaType mediaType) {
+        if (isCompactJson(mediaType)) {
+            return true;
+        }
+        final ApplicationContext context = ApplicationContext.getCurrent();
+        if (context == null || context.getHttpHeaders() == null) {
+            return false;
+        }
+        final List<String> acceptHeaders = context.getHttpHeaders().getRequestHeader(HttpHeaders.ACCEPT);
+        if (acceptHeaders == null) {
+            return false;
+        }
+        float compactJsonQuality = 0;
+        float jsonQuality = 0;
+        for (String acceptHeader : acceptHeaders) {
+            // Header is parsed here since quality isn't guaranteed to be kept in parameters of acceptable media types.
+            for (String range : acceptHeader.split(",")) {
+                final MediaType accepted;
+                try {
+                    accepted = MediaType.valueOf(range.trim());
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                if (isCompactJson(accepted)) {
+                    compactJsonQuality = Math.max(compactJsonQuality, getQuality(accepted));
+                } else if (accepted.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+                    jsonQuality = Math.max(jsonQuality, getQuality(accepted));
+                }
+            }
+        }
+        return compactJsonQuality > 0 && compactJsonQuality >= jsonQuality;
+    }
+
+    /** Gets quality of media type from {@code Accept} header, it is 1 if not specified. */
+    private static float getQuality(MediaType mediaType) {
+        final String quality = mediaType.getParameters().get("q");
+        if (quality == null) {
+            return 1;
+        }
+        try {
+            return Float.parseFloat(quality.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void addVaryAccept(MultivaluedMap<String, Object> httpHeaders) {
+        final List<Object> vary = httpHeaders.get(HttpHeaders.VARY);
+        if (vary != null) {
+            for (Object value : vary) {
+                for (String field : value.toString().split(",")) {
+                    if (HttpHeaders.ACCEPT.equalsIgnoreCase(field.trim()) || "*".equals(field.trim())) {
+                        return;
+                    }
+                }
+            }
+        }
+        httpHeaders.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    private static boolean isCompactJsonWriteable(Object entity) {
+        if (entity instanceof Collection) {
+            for (Object element : (Collection<?>)entity) {
+                if (element != null && !(element instanceof JsonSerializable)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return entity instanceof JsonSerializable;
+    }
+
+    private static void writeCompactJson(Object entity, Writer w) throws IOException {
+        if (!(entity instanceof Collection)) {
+            ((JsonSerializable)entity).toCompactJson(w);
+            return;
+        }
+        w.write('[');
+        boolean first = true;
+        for (Object element : (Collection<?>)entity) {
+            if (!first) {
+                w.write(',');
+            }
+            first = false;
+            if (element == null) {
+                w.write("null");
+            } else {
+                ((JsonSerializable)element).toCompactJson(w);
+            }
+        }
+        w.write(']');
+    }
+
     /**
      * Get Set of classes that we never try to serialize or deserialize. Returned Set is mutable and new classes may be added in ignored
      * Set.
@@ -0,0 +1,391 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.everrest.websockets.WSConnectionContext;
+import org.everrest.websockets.message.ChannelBroadcastMessage;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Line consumer that sends lines to specified websocket channel in frames. Lines are accumulated until frame gets
+ * {@code maxFrameLines} lines or {@code maxFrameSize} characters, or until {@code flushDelayMillis} is elapsed since the first
+ * line of frame is written, whatever happens first. Writer never waits for websocket, frames are sent by threads that are shared
+ * by all instances of this class.
+ * <p/>
+ * Each channel has at most one frame in flight. Lines that are written while frame is being sent wait in queue and go to the next
+ * frame, so client that doesn't keep up with output gets bigger frames rather than more of them. Thread that sends frame is given
+ * back once the frame is sent, thus channel with slow client holds at most one thread and doesn't delay frames of other channels.
+ * <p/>
+ * If client doesn't keep up with output and number of lines that are waiting for sending reaches {@code capacity} then
+ * {@link OverflowPolicy} of channel is applied: writer is blocked until there is room for line or lines are dropped. In the
+ * last case the next frame starts with line returned by {@link #dropMarker(long)}.
+ * <p/>
+ * By default body of frame is lines of frame separated by {@code '\n'}, subclasses may change it with
+ * {@link #encodeFrame(List)}.
+ */
+public class BatchingWebsocketLineConsumer implements LineConsumer {
+    private static final Logger LOG = getLogger(BatchingWebsocketLineConsumer.class);
+
+    public static final int  DEFAULT_MAX_FRAME_LINES = 256;
+    public static final int  DEFAULT_MAX_FRAME_SIZE  = 32 * 1024;
+    public static final long DEFAULT_FLUSH_DELAY_MS  = 200;
+    public static final int  DEFAULT_CAPACITY        = 8192;
+
+    /** What to do with line when capacity of channel is reached. */
+    public enum OverflowPolicy {
+        /** Discard the written line. */
+        DROP_NEWEST,
+        /** Discard the oldest line that waits for sending to make room for the written line. */
+        DROP_OLDEST,
+        /** Block writer until there is room for line. Must not be used if writer is a thread that is shared with other tasks. */
+        BLOCK
+    }
+
+    /** Starts flush of channels when their flush delay is elapsed, never sends frames itself. */
+    private static final ScheduledExecutorService FLUSH_TIMER;
+    /** Sends frames, thread is taken for one frame only. Number of threads is limited by number of channels with frame in flight. */
+    private static final ExecutorService          FRAME_SENDER;
+
+    static {
+        final ScheduledThreadPoolExecutor timer =
+                new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setDaemon(true)
+                                                                             .setNameFormat("WebsocketOutputTimer-%d")
+                                                                             .build());
+        timer.setRemoveOnCancelPolicy(true);
+        FLUSH_TIMER = timer;
+        FRAME_SENDER = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true)
+                                                                               .setNameFormat("WebsocketOutput-%d")
+                                                                               .build());
+    }
+
+    private final String                  channel;
+    private final int                     maxFrameLines;
+    private final int                     maxFrameSize;
+    private final long                    flushDelayMillis;
+    private final int                     capacity;
+    private final OverflowPolicy          overflowPolicy;
+    private final ArrayDeque<PendingLine> pending;
+    private final Runnable                sendTask;
+    private final Runnable                delayElapsedTask;
+    private final WebsocketChannelMetrics metrics;
+
+    // guarded by this
+    private int     pendingChars;
+    private long    droppedLines;
+    private boolean delayedFlushScheduled;
+    private boolean flushDue;
+    private boolean sending;
+    private boolean closed;
+
+    public BatchingWebsocketLineConsumer(String channel) {
+        this(channel, DEFAULT_MAX_FRAME_LINES, DEFAULT_MAX_FRAME_SIZE, DEFAULT_FLUSH_DELAY_MS, DEFAULT_CAPACITY,
+             OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * @param channel
+     *         websocket channel
+     * @param maxFrameLines
+     *         max number of lines in one frame
+     * @param maxFrameSize
+     *         max number of characters in one frame, frame always gets at least one line even if line is longer
+     * @param flushDelayMillis
+     *         max time in milliseconds that line may wait for other lines of frame
+     * @param capacity
+     *         max number of lines that may wait for sending
+     * @param overflowPolicy
+     *         what to do with line when {@code capacity} is reached
+     */
+    public BatchingWebsocketLineConsumer(String channel,
+                                         int maxFrameLines,
+                                         int maxFrameSize,
+                                         long flushDelayMillis,
+                                         int capacity,
+                                         OverflowPolicy overflowPolicy) {
+        if (maxFrameLines < 1 || maxFrameSize < 1 || capacity < 1 || flushDelayMillis < 0) {
+            throw new IllegalArgumentException("Frame limits and capacity must be positive, flush delay must not be negative");
+        }
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Null overflow policy.");
+        }
+        this.channel = channel;
+        this.maxFrameLines = maxFrameLines;
+        this.maxFrameSize = maxFrameSize;
+        this.flushDelayMillis = flushDelayMillis;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.pending = new ArrayDeque<>();
+        this.sendTask = this::sendNextFrame;
+        this.delayElapsedTask = this::onFlushDelayElapsed;
+        this.metrics = new WebsocketChannelMetrics(this::getPendingLines);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public WebsocketChannelMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void writeLine(String line) throws IOException {
+        if (line == null) {
+            return;
+        }
+        synchronized (this) {
+            if (closed) {
+                metrics.lineDropped();
+                return;
+            }
+            if (pending.size() >= capacity && !makeRoom()) {
+                metrics.lineDropped();
+                droppedLines++;
+                return;
+            }
+            if (droppedLines > 0 && overflowPolicy != OverflowPolicy.DROP_OLDEST) {
+                // newest lines are dropped, marker must be placed between pending lines and this line
+                final String marker = dropMarker(droppedLines);
+                droppedLines = 0;
+                if (marker != null) {
+                    enqueue(marker);
+                }
+            }
+            enqueue(line);
+            metrics.lineWritten();
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Sends all lines that are waiting for sending and stops accepting lines. Lines written after this method is called are
+     * dropped. Lines are sent by the calling thread once the frame that is in flight, if any, is sent.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            flushDue = true;
+            notifyAll();
+            try {
+                while (sending) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            sending = true;
+        }
+        while (sendPendingFrame()) {
+            // send until nothing is left
+        }
+        synchronized (this) {
+            sending = false;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Returns line that is sent in front of lines which are written after {@code dropped} lines are lost or {@code null} if
+     * dropped lines must not be marked.
+     */
+    protected String dropMarker(long dropped) {
+        return "[... " + dropped + " lines skipped ...]";
+    }
+
+    /** Creates body of websocket message from lines of frame. */
+    protected String encodeFrame(List<String> lines) {
+        return String.join("\n", lines);
+    }
+
+    /** Sends body of frame to websocket channel. */
+    protected void sendFrame(String body) {
+        final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
+        bm.setChannel(channel);
+        bm.setBody(body);
+        try {
+            WSConnectionContext.sendMessage(bm);
+        } catch (Exception e) {
+            LOG.error("A problem occurred while sending websocket message", e);
+        }
+    }
+
+    private synchronized int getPendingLines() {
+        return pending.size();
+    }
+
+    /** Applies overflow policy, returns {@code true} if new line may be added in queue. Must be called with lock on this. */
+    private boolean makeRoom() {
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                final PendingLine oldest = pending.poll();
+                pendingChars -= oldest.line.length();
+                metrics.lineDropped();
+                droppedLines++;
+                return true;
+            case BLOCK:
+                try {
+                    while (pending.size() >= capacity && !closed) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                return !closed;
+            default:
+                return false;
+        }
+    }
+
+    /** Must be called with lock on this. */
+    private void enqueue(String line) {
+        pending.add(new PendingLine(line, System.nanoTime()));
+        pendingChars += line.length();
+    }
+
+    /**
+     * Submits sending of the next frame if frame is full or flush delay is elapsed, otherwise starts flush delay. Does nothing
+     * while frame is in flight, the sending task calls this method once the frame is sent, and after close, since then lines are
+     * sent by the closing thread. Must be called with lock on this.
+     */
+    private void scheduleFlush() {
+        if (sending || closed) {
+            return;
+        }
+        if (flushDue || isFrameFull()) {
+            sending = true;
+            FRAME_SENDER.execute(sendTask);
+        } else if (!delayedFlushScheduled && !pending.isEmpty()) {
+            delayedFlushScheduled = true;
+            FLUSH_TIMER.schedule(delayElapsedTask, flushDelayMillis, MILLISECONDS);
+        }
+    }
+
+    private synchronized void onFlushDelayElapsed() {
+        delayedFlushScheduled = false;
+        if (!closed) {
+            flushDue = true;
+            scheduleFlush();
+        }
+    }
+
+    private void sendNextFrame() {
+        try {
+            sendPendingFrame();
+        } finally {
+            synchronized (this) {
+                sending = false;
+                notifyAll();
+                scheduleFlush();
+            }
+        }
+    }
+
+    /**
+     * Takes one frame from queue and sends it. If flush delay isn't elapsed yet only full frame is taken. Returns {@code false} if
+     * there was nothing to send.
+     */
+    private boolean sendPendingFrame() {
+        final List<String> lines = new ArrayList<>();
+        final long enqueuedNanos;
+        synchronized (this) {
+            if (pending.isEmpty() && droppedLines == 0 || !flushDue && !isFrameFull()) {
+                flushDue = false;
+                return false;
+            }
+            enqueuedNanos = pending.isEmpty() ? System.nanoTime() : pending.peek().enqueuedNanos;
+            int frameChars = 0;
+            if (droppedLines > 0 && (overflowPolicy == OverflowPolicy.DROP_OLDEST || pending.isEmpty())) {
+                // lines older than any pending line are dropped
+                frameChars += addDropMarker(lines);
+            }
+            PendingLine next;
+            while (lines.size() < maxFrameLines
+                   && (next = pending.peek()) != null
+                   && (lines.isEmpty() || frameChars + next.line.length() <= maxFrameSize)) {
+                pending.poll();
+                lines.add(next.line);
+                frameChars += next.line.length();
+                pendingChars -= next.line.length();
+            }
+            if (pending.isEmpty() && droppedLines > 0 && lines.size() < maxFrameLines && frameChars < maxFrameSize) {
+                // newest lines are dropped after the last line of frame
+                addDropMarker(lines);
+            }
+            if (pending.isEmpty() && droppedLines == 0) {
+                flushDue = false;
+            }
+            if (overflowPolicy == OverflowPolicy.BLOCK) {
+                notifyAll();
+            }
+        }
+        if (!lines.isEmpty()) {
+            try {
+                final String body = encodeFrame(lines);
+                sendFrame(body);
+                metrics.frameSent(lines.size(), body.length(), System.nanoTime() - enqueuedNanos);
+            } catch (RuntimeException e) {
+                LOG.error(String.format("Unable send output to websocket channel %s", channel), e);
+            }
+        }
+        return true;
+    }
+
+    /** Must be called with lock on this. */
+    private boolean isFrameFull() {
+        return pending.size() >= maxFrameLines || pendingChars >= maxFrameSize;
+    }
+
+    /** Adds marker of dropped lines to {@code lines} and returns its length. Must be called with lock on this. */
+    private int addDropMarker(List<String> lines) {
+        final String marker = dropMarker(droppedLines);
+        droppedLines = 0;
+        if (marker == null) {
+            return 0;
+        }
+        lines.add(marker);
+        return marker.length();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchingWebsocketLineConsumer{channel='" + channel + "'}";
+    }
+
+    private static class PendingLine {
+        final String line;
+        final long   enqueuedNanos;
+
+        PendingLine(String line, long enqueuedNanos) {
+            this.line = line;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
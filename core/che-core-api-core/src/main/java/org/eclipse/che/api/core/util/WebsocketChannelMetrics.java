@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Throughput and lag of websocket channel that is written with {@link BatchingWebsocketLineConsumer}. Lag of frame is time between
+ * writing of the oldest line of the frame and sending of the frame to websocket.
+ */
+public final class WebsocketChannelMetrics {
+    private final IntSupplier pendingLines;
+    private final long        createdNanos  = System.nanoTime();
+    private final LongAdder   writtenLines  = new LongAdder();
+    private final LongAdder   droppedLines  = new LongAdder();
+    private final LongAdder   sentLines     = new LongAdder();
+    private final LongAdder   sentFrames    = new LongAdder();
+    private final LongAdder   sentChars     = new LongAdder();
+    private final LongAdder   totalLagNanos = new LongAdder();
+    private final AtomicLong  maxLagNanos   = new AtomicLong();
+
+    WebsocketChannelMetrics(IntSupplier pendingLines) {
+        this.pendingLines = pendingLines;
+    }
+
+    void lineWritten() {
+        writtenLines.increment();
+    }
+
+    void lineDropped() {
+        droppedLines.increment();
+    }
+
+    void frameSent(int lines, int chars, long lagNanos) {
+        sentFrames.increment();
+        sentLines.add(lines);
+        sentChars.add(chars);
+        totalLagNanos.add(lagNanos);
+        maxLagNanos.accumulateAndGet(lagNanos, Math::max);
+    }
+
+    /** Number of lines that are waiting for sending. */
+    public int getPendingLines() {
+        return pendingLines.getAsInt();
+    }
+
+    public long getWrittenLines() {
+        return writtenLines.sum();
+    }
+
+    /** Number of lines that are dropped because client didn't keep up with output. */
+    public long getDroppedLines() {
+        return droppedLines.sum();
+    }
+
+    public long getSentLines() {
+        return sentLines.sum();
+    }
+
+    public long getSentFrames() {
+        return sentFrames.sum();
+    }
+
+    /** Number of characters in bodies of sent frames. */
+    public long getSentChars() {
+        return sentChars.sum();
+    }
+
+    /** Lines sent per second since channel is created. */
+    public double getLinesPerSecond() {
+        final long nanos = System.nanoTime() - createdNanos;
+        return nanos == 0 ? 0 : getSentLines() * 1e9 / nanos;
+    }
+
+    public long getAverageLagMillis() {
+        final long frames = sentFrames.sum();
+        return frames == 0 ? 0 : NANOSECONDS.toMillis(totalLagNanos.sum() / frames);
+    }
+
+    public long getMaxLagMillis() {
+        return NANOSECONDS.toMillis(maxLagNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "WebsocketChannelMetrics{" +
+               "pendingLines=" + getPendingLines() +
+               ", writtenLines=" + getWrittenLines() +
+               ", droppedLines=" + getDroppedLines() +
+               ", sentLines=" + getSentLines() +
+               ", sentFrames=" + getSentFrames() +
+               ", sentChars=" + getSentChars() +
+               ", linesPerSecond=" + (long)getLinesPerSecond() +
+               ", averageLagMillis=" + getAverageLagMillis() +
+               ", maxLagMillis=" + getMaxLagMillis() +
+               '}';
+    }
+}
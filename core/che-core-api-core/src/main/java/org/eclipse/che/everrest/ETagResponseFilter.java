@@ -20,15 +20,30 @@ import org.everrest.core.ApplicationContext;
 import org.everrest.core.Filter;
 import org.everrest.core.GenericContainerResponse;
 import org.everrest.core.ResponseFilter;
+import org.everrest.core.impl.OutputHeadersMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyWriter;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
 import java.nio.charset.Charset;
 import java.util.List;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 import static org.eclipse.che.everrest.ETagResponseFilter.EntityType.JSON_SERIALIZABLE;
 import static org.eclipse.che.everrest.ETagResponseFilter.EntityType.STRING;
@@ -38,11 +53,25 @@ import static org.eclipse.che.everrest.ETagResponseFilter.EntityType.UNKNOWN;
  * Filter implementing {@link org.everrest.core.ResponseFilter} in order to generate ETag for clients that want to use conditional
  * requests.
  * It is applying on GET method and JSON content type only.
+ * <p/>
+ * DTOs and lists of DTOs are serialized once, with the same {@link MessageBodyWriter} that would write them, into a pooled buffer and
+ * hashed while they are written. The buffer is used for the ETag and then becomes the body of the response, so the entity isn't
+ * serialized twice.
  *
  * @author Florent Benoit
  */
 @Filter
 public class ETagResponseFilter implements ResponseFilter {
+    private static final Logger LOG = LoggerFactory.getLogger(ETagResponseFilter.class);
+
+    /** Time spent for serialization and hashing of entities larger than this is logged. */
+    private static final int LARGE_ENTITY_SIZE      = 256 * 1024;
+    /** Buffers that grew larger than this aren't kept for reuse, so each request thread keeps at most this much memory. */
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    private static final ThreadLocal<SerializedEntity> BUFFERS = new ThreadLocal<>();
 
     public enum EntityType {
         JSON_SERIALIZABLE,
@@ -80,6 +109,11 @@ public class ETagResponseFilter implements ResponseFilter {
             return;
         }
 
+        if (isJsonSerializable(entity)) {
+            filterSerializedEntity(containerResponse, applicationContext, request, entity);
+            return;
+        }
+
         // calculate hash with MD5
         HashFunction hashFunction = Hashing.md5();
         Hasher hasher = hashFunction.newHasher();
@@ -122,6 +156,77 @@ public class ETagResponseFilter implements ResponseFilter {
 
     }
 
+    /**
+     * Serializes entity into pooled buffer, evaluates preconditions of request with ETag computed while entity was written and
+     * replaces entity of the response with content of the buffer. Response is left unchanged if there is no writer for the entity or
+     * the entity can't be written.
+     */
+    @SuppressWarnings("unchecked")
+    private void filterSerializedEntity(GenericContainerResponse containerResponse,
+                                        ApplicationContext applicationContext,
+                                        Request request,
+                                        Object entity) {
+        final MediaType contentType = containerResponse.getContentType();
+        final Type entityType = containerResponse.getEntityType() == null ? entity.getClass() : containerResponse.getEntityType();
+        final MessageBodyWriter writer =
+                applicationContext.getProviders().getMessageBodyWriter(entity.getClass(), entityType, NO_ANNOTATIONS, contentType);
+        if (writer == null) {
+            return;
+        }
+
+        final SerializedEntity serialized = SerializedEntity.take();
+        final MultivaluedMap<String, Object> writerHeaders = new OutputHeadersMap();
+        final long start = System.nanoTime();
+        try {
+            writer.writeTo(entity, entity.getClass(), entityType, NO_ANNOTATIONS, contentType, writerHeaders, serialized);
+        } catch (IOException | RuntimeException e) {
+            serialized.release();
+            LOG.warn("Unable to compute ETag of {}: {}", entity.getClass().getName(), e.getMessage());
+            return;
+        }
+        final EntityTag entityTag = new EntityTag(serialized.hash().toString());
+        final long elapsed = System.nanoTime() - start;
+        if (serialized.size() >= LARGE_ENTITY_SIZE) {
+            LOG.debug("Serialized and hashed {} bytes of {} in {} ms", serialized.size(), entity.getClass().getName(),
+                      NANOSECONDS.toMillis(elapsed));
+        }
+
+        final Response.ResponseBuilder builder = request.evaluatePreconditions(entityTag);
+        if (builder != null) {
+            serialized.release();
+            containerResponse.setResponse(builder.tag(entityTag).build());
+            return;
+        }
+        final Response.ResponseBuilder responseBuilder = Response.fromResponse(containerResponse.getResponse())
+                                                                 .entity(serialized)
+                                                                 .tag(entityTag);
+        // Headers that the writer sets, e.g. Content-Type of negotiated format, must be sent with already serialized body
+        for (Map.Entry<String, List<Object>> header : writerHeaders.entrySet()) {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey())) {
+                responseBuilder.type(header.getValue().get(0).toString());
+            } else {
+                responseBuilder.header(header.getKey(), null);
+                for (Object value : header.getValue()) {
+                    responseBuilder.header(header.getKey(), value);
+                }
+            }
+        }
+        containerResponse.setResponse(responseBuilder.build());
+    }
+
+    /** Checks whether entity is {@link JsonSerializable} or list of them. */
+    private boolean isJsonSerializable(Object entity) {
+        if (entity instanceof List) {
+            for (Object element : (List<?>)entity) {
+                if (!(element instanceof JsonSerializable)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return entity instanceof JsonSerializable;
+    }
+
     /**
      * Helper method to add entity to hash. If there is an invalid entity type it will return false
      *
@@ -187,5 +292,56 @@ public class ETagResponseFilter implements ResponseFilter {
         return UNKNOWN;
 
     }
-}
 
+    /**
+     * Body of response serialized in memory. Bytes are hashed while they are written. Buffer is taken from the pool of the current
+     * thread and returned back once its content is sent to the client.
+     */
+    private static final class SerializedEntity extends ByteArrayOutputStream implements StreamingOutput {
+        private Hasher hasher;
+
+        static SerializedEntity take() {
+            SerializedEntity serialized = BUFFERS.get();
+            if (serialized == null) {
+                serialized = new SerializedEntity();
+            } else {
+                BUFFERS.remove();
+            }
+            serialized.reset();
+            serialized.hasher = Hashing.md5().newHasher();
+            return serialized;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            super.write(b);
+            hasher.putByte((byte)b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            super.write(b, off, len);
+            hasher.putBytes(b, off, len);
+        }
+
+        HashCode hash() {
+            return hasher.hash();
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            try {
+                writeTo(output);
+            } finally {
+                release();
+            }
+        }
+
+        void release() {
+            if (buf.length <= MAX_POOLED_BUFFER_SIZE) {
+                reset();
+                BUFFERS.set(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import org.eclipse.che.commons.lang.Pair;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class EventOriginClientPropagationPolicyTest {
+    private static final URI EVENT_BUS     = URI.create("ws://localhost:8080/api/eventbus/");
+    private static final URI OTHER_SERVICE = URI.create("ws://localhost:8080/api/other/");
+
+    private EventOriginClientPropagationPolicy policy;
+
+    @BeforeMethod
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        policy = new EventOriginClientPropagationPolicy(new Pair[] {Pair.of(EVENT_BUS.toString(), "wsagent")});
+    }
+
+    @Test
+    public void propagatesEventWhichClassIsAnnotatedWithConfiguredOrigin() {
+        assertTrue(policy.shouldPropagated(EVENT_BUS, new AnnotatedEvent()));
+    }
+
+    @Test
+    public void propagatesEventWhichInterfaceIsAnnotatedWithConfiguredOrigin() {
+        // the way generated DTO implementations look like
+        assertTrue(policy.shouldPropagated(EVENT_BUS, new AnnotatedEventDtoImpl()));
+    }
+
+    @Test
+    public void doesNotPropagateEventToServiceWhichIsNotConfiguredForItsOrigin() {
+        assertFalse(policy.shouldPropagated(OTHER_SERVICE, new AnnotatedEventDtoImpl()));
+    }
+
+    @Test
+    public void doesNotPropagateEventWithOtherOrigin() {
+        assertFalse(policy.shouldPropagated(EVENT_BUS, new OtherOriginEvent()));
+    }
+
+    @Test
+    public void doesNotPropagateEventWithoutOrigin() {
+        assertFalse(policy.shouldPropagated(EVENT_BUS, "event"));
+    }
+
+    @EventOrigin("wsagent")
+    static class AnnotatedEvent {
+    }
+
+    @EventOrigin("wsagent")
+    interface AnnotatedEventDto {
+    }
+
+    static class AnnotatedEventDtoImpl implements AnnotatedEventDto {
+    }
+
+    @EventOrigin("project")
+    static class OtherOriginEvent {
+    }
+}
@@ -11,12 +11,18 @@
 package org.eclipse.che.api.core.notification;
 
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * @author andrew00x
@@ -29,6 +35,11 @@ public class EventServiceTest {
         bus = new EventService();
     }
 
+    @AfterMethod
+    public void tearDown() {
+        bus.stop();
+    }
+
     @Test
     public void testSimpleEvent() {
         final List<Object> events = new ArrayList<>();
@@ -157,4 +168,169 @@ public class EventServiceTest {
         bus.publish(new Event());
         Assert.assertEquals(events.size(), 0);
     }
+
+    @Test
+    public void testAsyncSubscriberGetsEventsInOrder() throws Exception {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch delivered = new CountDownLatch(1000);
+        bus.subscribeAsync(new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                events.add(event);
+                delivered.countDown();
+            }
+        }, 1000, EventService.OverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 1000; i++) {
+            bus.publish(String.valueOf(i));
+        }
+
+        Assert.assertTrue(delivered.await(5, SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(events.get(i), String.valueOf(i));
+        }
+    }
+
+    @Test
+    public void testPublisherIsNotBlockedBySlowAsyncSubscriber() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> syncEvents = new ArrayList<>();
+        final EventSubscriber<String> slow = new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        bus.subscribeAsync(slow, 2, EventService.OverflowPolicy.DROP_NEWEST);
+        bus.subscribe(new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                syncEvents.add(event);
+            }
+        });
+
+        for (int i = 0; i < 10; i++) {
+            bus.publish(String.valueOf(i));
+        }
+
+        Assert.assertEquals(syncEvents.size(), 10);
+        AsyncDeliveryMetrics metrics = bus.getAsyncDeliveryMetrics().get(slow);
+        // first event may be taken by delivery thread before others are published
+        Assert.assertTrue(metrics.getDroppedEvents() >= 7);
+        Assert.assertTrue(metrics.getQueueSize() <= 2);
+        release.countDown();
+    }
+
+    @Test
+    public void testDropsOldestEventsWhenQueueOfAsyncSubscriberIsFull() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch delivered = new CountDownLatch(3);
+        bus.subscribeAsync(new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                events.add(event);
+                delivered.countDown();
+            }
+        }, 2, EventService.OverflowPolicy.DROP_OLDEST);
+
+        bus.publish("first");
+        Assert.assertTrue(started.await(5, SECONDS));
+        for (int i = 0; i < 10; i++) {
+            bus.publish(String.valueOf(i));
+        }
+        release.countDown();
+
+        Assert.assertTrue(delivered.await(5, SECONDS));
+        Assert.assertEquals(events, Arrays.asList("first", "8", "9"));
+    }
+
+    @Test
+    public void testUnsubscribeAsyncSubscriber() throws Exception {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        EventSubscriber<String> subscriber = new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                events.add(event);
+            }
+        };
+        bus.subscribeAsync(subscriber);
+        bus.unsubscribe(subscriber);
+
+        bus.publish("hello");
+
+        Assert.assertTrue(events.isEmpty());
+        Assert.assertTrue(bus.getAsyncDeliveryMetrics().isEmpty());
+    }
+
+    @Test
+    public void testDoesNotDeliverQueuedEventsAfterUnsubscribe() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch delivered = new CountDownLatch(1);
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        EventSubscriber<String> subscriber = new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                events.add(event);
+                delivered.countDown();
+            }
+        };
+        bus.subscribeAsync(subscriber);
+
+        bus.publish("first");
+        Assert.assertTrue(started.await(5, SECONDS));
+        for (int i = 0; i < 10; i++) {
+            bus.publish(String.valueOf(i));
+        }
+        bus.unsubscribe(subscriber);
+        release.countDown();
+
+        Assert.assertTrue(delivered.await(5, SECONDS));
+        // give delivery thread chance to deliver events that are left in queue
+        Thread.sleep(100);
+        Assert.assertEquals(events, Collections.singletonList("first"));
+    }
+
+    @Test(timeOut = 5000)
+    public void testAsyncSubscriberWithBlockPolicyMayPublishEventsToItself() throws Exception {
+        final CountDownLatch delivered = new CountDownLatch(2);
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        EventSubscriber<String> subscriber = new EventSubscriber<String>() {
+            @Override
+            public void onEvent(String event) {
+                events.add(event);
+                if ("first".equals(event)) {
+                    // queue has room for one event only, so publishing of the second one must not block delivery thread
+                    bus.publish("second");
+                    bus.publish("third");
+                }
+                delivered.countDown();
+            }
+        };
+        bus.subscribeAsync(subscriber, 1, EventService.OverflowPolicy.BLOCK);
+
+        bus.publish("first");
+
+        delivered.await();
+        Assert.assertEquals(events, Arrays.asList("first", "second"));
+        Assert.assertEquals(bus.getAsyncDeliveryMetrics().get(subscriber).getDroppedEvents(), 1);
+    }
 }
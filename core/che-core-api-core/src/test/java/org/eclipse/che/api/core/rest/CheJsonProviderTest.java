@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import org.eclipse.che.api.core.rest.shared.dto.ServiceError;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.everrest.core.ApplicationContext;
+import org.everrest.core.impl.ContainerRequest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
+import static org.everrest.core.ApplicationContext.anApplicationContext;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class CheJsonProviderTest {
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    private final ServiceError dto = DtoFactory.newDto(ServiceError.class).withMessage("hello");
+
+    @AfterMethod
+    public void tearDown() {
+        ApplicationContext.setCurrent(null);
+    }
+
+    @Test
+    public void writesCompactJsonWhenClientAcceptsIt() throws Exception {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+
+        write(dto, "application/vnd.che.compact+json, application/json", headers);
+
+        assertEquals(headers.getFirst(HttpHeaders.CONTENT_TYPE), CheJsonProvider.COMPACT_JSON_TYPE);
+        assertEquals(headers.get(HttpHeaders.VARY), Collections.singletonList(HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    public void writesRegularJsonWhenCompactJsonHasZeroQuality() throws Exception {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+
+        String body = write(dto, "application/vnd.che.compact+json;q=0, application/json", headers);
+
+        assertEquals(body, DtoFactory.getInstance().toJson(dto));
+        assertNull(headers.getFirst(HttpHeaders.CONTENT_TYPE));
+        assertEquals(headers.get(HttpHeaders.VARY), Collections.singletonList(HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    public void writesRegularJsonWhenClientPrefersIt() throws Exception {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+
+        String body = write(dto, "application/json, application/vnd.che.compact+json;q=0.5", headers);
+
+        assertEquals(body, DtoFactory.getInstance().toJson(dto));
+        assertNull(headers.getFirst(HttpHeaders.CONTENT_TYPE));
+    }
+
+    @Test
+    public void addsVaryAcceptToResponseWithDtoWhenAcceptHeaderIsNotSent() throws Exception {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        write(dto, null, headers);
+
+        assertEquals(headers.get(HttpHeaders.VARY), asList(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    public void doesNotAddVaryAcceptToResponseWhichCanNotBeCompact() throws Exception {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+
+        write(Collections.singletonMap("message", "hello"), "application/vnd.che.compact+json, application/json", headers);
+
+        assertNull(headers.get(HttpHeaders.VARY));
+    }
+
+    @SuppressWarnings("unchecked")
+    private String write(Object entity, String accept, MultivaluedMap<String, Object> headers) throws Exception {
+        final MultivaluedMap<String, String> requestHeaders = new MultivaluedHashMap<>();
+        if (accept != null) {
+            requestHeaders.putSingle(HttpHeaders.ACCEPT, accept);
+        }
+        final URI uri = URI.create("http://localhost/service");
+        final ContainerRequest request = new ContainerRequest("GET", uri, uri, null, requestHeaders, null);
+        ApplicationContext.setCurrent(anApplicationContext().withRequest(request).build());
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CheJsonProvider<>(null).writeTo(entity, entity.getClass(), entity.getClass(), NO_ANNOTATIONS, APPLICATION_JSON_TYPE, headers, out);
+        return new String(out.toByteArray(), UTF_8);
+    }
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.util;
+
+import org.eclipse.che.api.core.util.BatchingWebsocketLineConsumer.OverflowPolicy;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class BatchingWebsocketLineConsumerTest {
+
+    @Test
+    public void sendsLinesInOneFrameWhenFlushDelayIsElapsed() throws Exception {
+        final CollectingConsumer consumer = new CollectingConsumer(10, 1024, 50, 100, OverflowPolicy.DROP_OLDEST, 1);
+
+        consumer.writeLine("a");
+        consumer.writeLine("b");
+        consumer.writeLine("c");
+
+        assertTrue(consumer.sent.await(2, TimeUnit.SECONDS));
+        assertEquals(consumer.frames, asList("a\nb\nc"));
+        // waits for frame in flight, so its metrics are recorded
+        consumer.close();
+        assertEquals(consumer.getMetrics().getSentFrames(), 1);
+        assertEquals(consumer.getMetrics().getSentLines(), 3);
+    }
+
+    @Test
+    public void sendsFrameWithoutDelayWhenFrameIsFull() throws Exception {
+        final CollectingConsumer consumer = new CollectingConsumer(2, 1024, 60_000, 100, OverflowPolicy.DROP_OLDEST, 2);
+
+        for (String line : asList("a", "b", "c", "d")) {
+            consumer.writeLine(line);
+        }
+
+        assertTrue(consumer.sent.await(2, TimeUnit.SECONDS));
+        assertEquals(consumer.frames, asList("a\nb", "c\nd"));
+    }
+
+    @Test
+    public void splitsFramesBySize() throws Exception {
+        final CollectingConsumer consumer = new CollectingConsumer(100, 5, 60_000, 100, OverflowPolicy.DROP_OLDEST, 0);
+
+        consumer.writeLine("aaa");
+        consumer.writeLine("bbb");
+        consumer.writeLine("cccccccc");
+        consumer.close();
+
+        assertEquals(consumer.frames, asList("aaa", "bbb", "cccccccc"));
+    }
+
+    @Test
+    public void marksDroppedLinesWhenCapacityIsReached() throws Exception {
+        final CollectingConsumer consumer = new CollectingConsumer(100, 1024, 60_000, 2, OverflowPolicy.DROP_OLDEST, 0);
+
+        for (String line : asList("a", "b", "c", "d")) {
+            consumer.writeLine(line);
+        }
+        consumer.close();
+
+        assertEquals(consumer.frames, asList("[... 2 lines skipped ...]\nc\nd"));
+        assertEquals(consumer.getMetrics().getWrittenLines(), 4);
+        assertEquals(consumer.getMetrics().getDroppedLines(), 2);
+    }
+
+    @Test
+    public void dropsNewestLinesWhenCapacityIsReached() throws Exception {
+        final CollectingConsumer consumer = new CollectingConsumer(100, 1024, 60_000, 2, OverflowPolicy.DROP_NEWEST, 0);
+
+        for (String line : asList("a", "b", "c", "d")) {
+            consumer.writeLine(line);
+        }
+        consumer.close();
+
+        assertEquals(consumer.frames, asList("a\nb\n[... 2 lines skipped ...]"));
+    }
+
+    @Test
+    public void blocksWriterUntilThereIsRoomForLine() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CollectingConsumer consumer = new CollectingConsumer(1, 1024, 0, 1, OverflowPolicy.BLOCK, 3) {
+            @Override
+            protected void sendFrame(String body) {
+                try {
+                    release.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.sendFrame(body);
+            }
+        };
+
+        final Thread writer = new Thread(() -> {
+            try {
+                for (String line : asList("a", "b", "c")) {
+                    consumer.writeLine(line);
+                }
+            } catch (Exception ignored) {
+            }
+        });
+        writer.start();
+        release.countDown();
+        writer.join(2000);
+
+        assertTrue(consumer.sent.await(2, TimeUnit.SECONDS));
+        assertEquals(consumer.frames, asList("a", "b", "c"));
+        assertEquals(consumer.getMetrics().getDroppedLines(), 0);
+    }
+
+    @Test
+    public void sendsLinesWrittenWhileFrameIsInFlightInNextFrame() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch inFlight = new CountDownLatch(1);
+        final CollectingConsumer consumer = new CollectingConsumer(100, 1024, 0, 100, OverflowPolicy.DROP_OLDEST, 2) {
+            @Override
+            protected void sendFrame(String body) {
+                inFlight.countDown();
+                try {
+                    release.await(2, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.sendFrame(body);
+            }
+        };
+
+        consumer.writeLine("a");
+        assertTrue(inFlight.await(2, TimeUnit.SECONDS));
+        consumer.writeLine("b");
+        consumer.writeLine("c");
+        release.countDown();
+
+        assertTrue(consumer.sent.await(2, TimeUnit.SECONDS));
+        assertEquals(consumer.frames, asList("a", "b\nc"));
+    }
+
+    @Test
+    public void slowChannelDoesNotDelayOtherChannels() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<CollectingConsumer> slow = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            slow.add(new CollectingConsumer(1, 1024, 0, 100, OverflowPolicy.DROP_OLDEST, 1) {
+                @Override
+                protected void sendFrame(String body) {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    super.sendFrame(body);
+                }
+            });
+        }
+        final CollectingConsumer fast = new CollectingConsumer(1, 1024, 0, 100, OverflowPolicy.DROP_OLDEST, 1);
+
+        for (CollectingConsumer consumer : slow) {
+            consumer.writeLine("slow");
+        }
+        fast.writeLine("fast");
+
+        try {
+            assertTrue(fast.sent.await(2, TimeUnit.SECONDS));
+            assertEquals(fast.frames, asList("fast"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void dropsLinesWrittenAfterClose() throws Exception {
+        final CollectingConsumer consumer = new CollectingConsumer(100, 1024, 60_000, 100, OverflowPolicy.DROP_OLDEST, 0);
+
+        consumer.writeLine("a");
+        consumer.close();
+        consumer.writeLine("b");
+        consumer.close();
+
+        assertEquals(consumer.frames, asList("a"));
+        assertEquals(consumer.getMetrics().getDroppedLines(), 1);
+    }
+
+    private static class CollectingConsumer extends BatchingWebsocketLineConsumer {
+        final List<String>   frames = new CopyOnWriteArrayList<>();
+        final CountDownLatch sent;
+
+        CollectingConsumer(int maxFrameLines, int maxFrameSize, long flushDelayMillis, int capacity, OverflowPolicy overflowPolicy,
+                           int expectedFrames) {
+            super("test", maxFrameLines, maxFrameSize, flushDelayMillis, capacity, overflowPolicy);
+            this.sent = new CountDownLatch(expectedFrames);
+        }
+
+        @Override
+        protected void sendFrame(String body) {
+            frames.add(body);
+            sent.countDown();
+        }
+    }
+}
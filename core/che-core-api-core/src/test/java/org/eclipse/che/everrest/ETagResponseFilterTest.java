@@ -10,7 +10,12 @@
  *******************************************************************************/
 package org.eclipse.che.everrest;
 
+import com.google.common.hash.Hashing;
+
 import org.eclipse.che.api.core.rest.ApiExceptionMapper;
+import org.eclipse.che.api.core.rest.CheJsonProvider;
+import org.eclipse.che.api.core.rest.shared.dto.ServiceError;
+import org.eclipse.che.dto.server.DtoFactory;
 import org.everrest.core.ApplicationContext;
 import org.everrest.core.impl.ApplicationProviderBinder;
 import org.everrest.core.impl.ContainerRequest;
@@ -20,6 +25,7 @@ import org.everrest.core.impl.EverrestProcessor;
 import org.everrest.core.impl.RequestDispatcher;
 import org.everrest.core.impl.RequestHandlerImpl;
 import org.everrest.core.impl.ResourceBinderImpl;
+import org.everrest.core.tools.ByteArrayContainerResponseWriter;
 import org.everrest.core.tools.DependencySupplierImpl;
 import org.everrest.core.tools.ResourceLauncher;
 import org.testng.Assert;
@@ -40,6 +46,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
 import static javax.ws.rs.core.Response.Status.OK;
@@ -84,6 +91,13 @@ public class ETagResponseFilterTest {
         }
 
 
+        @GET
+        @Path("/dto")
+        @Produces(APPLICATION_JSON)
+        public ServiceError getDto() {
+            return DtoFactory.newDto(ServiceError.class).withMessage("hello");
+        }
+
         @GET
         @Path("/modify")
         @Produces(APPLICATION_JSON)
@@ -114,6 +128,7 @@ public class ETagResponseFilterTest {
         final ApplicationProviderBinder providers = new ApplicationProviderBinder();
         providers.addExceptionMapper(ApiExceptionMapper.class);
         providers.addResponseFilter(ETagResponseFilter.class);
+        providers.addMessageBodyWriter(new CheJsonProvider<>(null));
         final URI uri = new URI(BASE_URI);
         final ContainerRequest req = new ContainerRequest(null, uri, uri, null, null, null);
         final ApplicationContext contextImpl = anApplicationContext().withRequest(req).withProviders(providers).build();
@@ -222,4 +237,35 @@ public class ETagResponseFilterTest {
         Assert.assertNull(response.getEntity());
     }
 
+    /**
+     * Check if DTO is serialized once and ETag is hash of the sent body
+     */
+    @Test
+    public void filterDtoEntityTest() throws Exception {
+        final ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        final ContainerResponse response =
+                resourceLauncher.service(HttpMethod.GET, SERVICE_PATH + "/dto", BASE_URI, null, null, writer, null);
+        assertEquals(response.getStatus(), OK.getStatusCode());
+
+        final String body = new String(writer.getBody(), UTF_8);
+        assertEquals(body, DtoFactory.getInstance().toJson(DtoFactory.newDto(ServiceError.class).withMessage("hello")));
+        List<Object> headerTags = response.getHttpHeaders().get("ETag");
+        Assert.assertNotNull(headerTags);
+        Assert.assertEquals(headerTags.size(), 1);
+        Assert.assertEquals(headerTags.get(0), new EntityTag(Hashing.md5().hashString(body, UTF_8).toString()));
+    }
+
+    /**
+     * Check if ETag of DTO sent with header is redirecting to NOT_MODIFIED
+     */
+    @Test
+    public void filterDtoEntityTestWithEtag() throws Exception {
+        final String body = DtoFactory.getInstance().toJson(DtoFactory.newDto(ServiceError.class).withMessage("hello"));
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-None-Match", Collections.singletonList(new EntityTag(Hashing.md5().hashString(body, UTF_8).toString()).toString()));
+
+        final ContainerResponse response = resourceLauncher.service(HttpMethod.GET, SERVICE_PATH + "/dto", BASE_URI, headers, null, null);
+        assertEquals(response.getStatus(), NOT_MODIFIED.getStatusCode());
+        Assert.assertNull(response.getEntity());
+    }
 }
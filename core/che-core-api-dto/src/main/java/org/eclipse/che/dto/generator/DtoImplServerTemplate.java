@@ -27,12 +27,14 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 
 /** Generates the source code for a generated Server DTO impl. */
@@ -70,8 +72,11 @@ public class DtoImplServerTemplate extends DtoImpl {
         // equals, hashCode, serialization and copy constructor
         emitEqualsAndHashCode(methods, builder);
         emitSerializer(methods, builder);
+        emitStreamingSerializer(methods, builder);
         emitDeserializer(methods, builder);
         emitDeserializerShortcut(builder);
+        emitStreamingDeserializer(methods, builder);
+        emitCompactSerializerAndDeserializer(methods, builder);
         emitCopyConstructor(methods, builder);
         // Delegation DTO methods.
         emitDelegateMethods(builder);
@@ -301,8 +306,14 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("\n");
         builder.append("    @Override\n");
         builder.append("    public String toJson() {\n");
-        // The default toJson() creates its own JSON for internal printing, thus keeping JSONs values is safe
-        builder.append("      return gson.toJson(toJsonElementInt(false));\n");
+        // Write JSON directly without building tree of JsonElements
+        builder.append("      java.io.StringWriter writer = new java.io.StringWriter();\n");
+        builder.append("      try {\n");
+        builder.append("        toJson(writer);\n");
+        builder.append("      } catch (java.io.IOException e) {\n");
+        builder.append("        throw new com.google.gson.JsonIOException(e);\n");
+        builder.append("      }\n");
+        builder.append("      return writer.toString();\n");
         builder.append("    }\n");
         builder.append("\n");
         builder.append("    @Override\n");
@@ -451,6 +462,142 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
     }
 
+    /**
+     * Generates methods that write DTO straight to {@code JsonWriter}. Output is the same as output of {@code toJsonElement()} written
+     * with gson: fields are written in the same order and null values of fields are omitted.
+     */
+    private void emitStreamingSerializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void toJson(java.io.Writer writer) throws java.io.IOException {\n");
+        builder.append("      JsonWriter out = new JsonWriter(writer);\n");
+        builder.append("      out.setLenient(true);\n");
+        builder.append("      out.setSerializeNulls(false);\n");
+        builder.append("      writeJsonInt(out);\n");
+        builder.append("      out.flush();\n");
+        builder.append("    }\n\n");
+        builder.append("    public void writeJsonInt(JsonWriter out) throws java.io.IOException {\n");
+        if (isCompactJson()) {
+            // Layout of compact DTO depends on presence of trailing fields, write it through the tree.
+            builder.append("      gson.toJson(toJsonElementInt(false), out);\n");
+        } else {
+            builder.append("      out.beginObject();\n");
+            for (Method getter : getters) {
+                final String fieldName = getJavaFieldName(getter.getName());
+                builder.append("      out.name(").append(quoteStringLiteral(getJsonFieldName(getter))).append(");\n");
+                List<Type> expandedTypes = expandType(getter.getGenericReturnType());
+                emitWriterImpl(expandedTypes, 0, builder, fieldName, "      ", false);
+            }
+            builder.append("      out.endObject();\n");
+        }
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to write the type with the given variable name to {@code JsonWriter}.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param inVar
+     *         the java type that will be the input for serialization
+     * @param i
+     *         indentation string
+     * @param compact
+     *         whether nested DTOs are written in compact form
+     */
+    private void emitWriterImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String inVar, String i, boolean compact) {
+        Type type = expandedTypes.get(depth);
+        String childInVar = inVar + "_";
+        String entryVar = "entry" + depth;
+        String value = depth == 0 ? "this." + inVar : inVar;
+        Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass)) {
+            String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            if (depth == 0) {
+                builder.append(i).append("this.").append(getEnsureName(inVar)).append("();\n");
+            }
+            builder.append(i).append("out.beginArray();\n");
+            builder.append(i).append("for (").append(childInTypeName).append(" ").append(childInVar).append(" : ").append(value)
+                   .append(") {\n");
+            emitWriterImpl(expandedTypes, depth + 1, builder, childInVar, i + "  ", compact);
+            builder.append(i).append("}\n");
+            builder.append(i).append("out.endArray();\n");
+        } else if (isMap(rawClass)) {
+            String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            if (depth == 0) {
+                builder.append(i).append("this.").append(getEnsureName(inVar)).append("();\n");
+            }
+            builder.append(i).append("out.beginObject();\n");
+            builder.append(i).append("for (java.util.Map.Entry<String, ").append(childInTypeName).append("> ").append(entryVar)
+                   .append(" : ").append(value).append(".entrySet()) {\n");
+            builder.append(i).append("  out.name(").append(entryVar).append(".getKey());\n");
+            builder.append(i).append("  ").append(childInTypeName).append(" ").append(childInVar).append(" = ").append(entryVar)
+                   .append(".getValue();\n");
+            emitWriterImpl(expandedTypes, depth + 1, builder, childInVar, i + "  ", compact);
+            builder.append(i).append("}\n");
+            builder.append(i).append("out.endObject();\n");
+        } else if (rawClass.isEnum()) {
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  out.value(").append(value).append(".name());\n");
+            builder.append(i).append("}\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            emitWriteDto(getImplNameForDto(rawClass), value, builder, i, compact);
+        } else if (rawClass.equals(String.class)) {
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (rawClass == boolean.class) {
+            builder.append(i).append("out.value(").append(value).append(");\n");
+        } else if (rawClass == int.class
+                   || rawClass == long.class
+                   || rawClass == double.class
+                   || rawClass == float.class
+                   || rawClass == short.class
+                   || rawClass == byte.class) {
+            // Box value to get the same text as JsonPrimitive does, e.g. float must not be widened to double.
+            builder.append(i).append("out.value(").append(Primitives.wrap(rawClass).getName()).append(".valueOf(").append(value)
+                   .append("));\n");
+        } else if (rawClass == Boolean.class
+                   || rawClass == Integer.class
+                   || rawClass == Long.class
+                   || rawClass == Double.class
+                   || rawClass == Float.class
+                   || rawClass == Short.class
+                   || rawClass == Byte.class) {
+            builder.append(i).append("if (").append(value).append(" == null) {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  out.value(").append(value).append(rawClass == Boolean.class ? ".booleanValue()" : "")
+                   .append(");\n");
+            builder.append(i).append("}\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("if (").append(value).append(" instanceof JsonElement) {\n");
+            builder.append(i).append("  gson.toJson((JsonElement)").append(value).append(", out);\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  out.nullValue();\n");
+            builder.append(i).append("}\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                emitWriteDto(dtoImplementation.getCanonicalName(), value, builder, i, compact);
+            } else {
+                throw new IllegalArgumentException("Unable to generate server implementation for DTO interface " +
+                                                   getDtoInterface().getCanonicalName() + ". Type " + rawClass +
+                                                   " is not allowed to use in DTO interface.");
+            }
+        }
+    }
+
+    private void emitWriteDto(String implClassName, String value, StringBuilder builder, String i, boolean compact) {
+        builder.append(i).append("if (").append(value).append(" == null) {\n");
+        builder.append(i).append("  out.nullValue();\n");
+        builder.append(i).append("} else {\n");
+        builder.append(i).append("  ((").append(implClassName).append(")").append(value).append(").")
+               .append(compact ? "writeCompactJsonInt" : "writeJsonInt").append("(out);\n");
+        builder.append(i).append("}\n");
+    }
+
     /** Generates a static factory method that creates a new instance based on a JsonElement. */
     private void emitDeserializer(List<Method> getters, StringBuilder builder) {
         // The default fromJsonElement(json) works in unsafe mode and clones the JSON's for 'any' properties
@@ -489,6 +636,231 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("    }\n\n");
     }
 
+    /**
+     * Generates a static factory method that reads a new instance from {@code JsonReader} without building tree of JsonElements.
+     * Unknown fields are skipped.
+     */
+    private void emitStreamingDeserializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName()).append(" fromJsonReader(JsonReader in) throws java.io.IOException {\n");
+        final Set<String> jsonFieldNames = new HashSet<>();
+        boolean uniqueFieldNames = true;
+        for (Method getter : getters) {
+            uniqueFieldNames &= jsonFieldNames.add(getJsonFieldName(getter));
+        }
+        if (isCompactJson() || !uniqueFieldNames) {
+            // JSON with positional layout or with few properties bound to the same field name are read through the tree.
+            builder.append("      return fromJsonElement(new JsonParser().parse(in), false);\n");
+            builder.append("    }\n\n");
+            return;
+        }
+        builder.append("      if (in.peek() == JsonToken.NULL) {\n");
+        builder.append("        in.nextNull();\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n\n");
+        builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+        builder.append("      in.beginObject();\n");
+        builder.append("      while (in.hasNext()) {\n");
+        builder.append("        switch (in.nextName()) {\n");
+        for (Method getter : getters) {
+            final String fieldName = getFieldNameFromGetterName(getter.getName());
+            final String fieldNameOut = fieldName + "Out";
+            builder.append("          case ").append(quoteStringLiteral(getJsonFieldName(getter))).append(": {\n");
+            emitReaderImpl(expandType(getter.getGenericReturnType()), 0, builder, fieldNameOut, "            ", false);
+            builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+            builder.append("            break;\n");
+            builder.append("          }\n");
+        }
+        builder.append("          default:\n");
+        builder.append("            in.skipValue();\n");
+        builder.append("        }\n");
+        builder.append("      }\n");
+        builder.append("      in.endObject();\n");
+        builder.append("      return dto;\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Produces code to read the type with the given variable name from {@code JsonReader}.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param outVar
+     *         the java variable that will be the output for deserialization
+     * @param i
+     *         indentation string
+     * @param compact
+     *         whether nested DTOs are read in compact form
+     */
+    private void emitReaderImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String outVar, String i, boolean compact) {
+        Type type = expandedTypes.get(depth);
+        String childOutVar = outVar + "_";
+        Class<?> rawClass = getRawClass(type);
+        if (isList(rawClass)) {
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (in.peek() == JsonToken.NULL) {\n");
+            builder.append(i).append("  in.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true)).append("();\n");
+            builder.append(i).append("  in.beginArray();\n");
+            builder.append(i).append("  while (in.hasNext()) {\n");
+            emitReaderImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ", compact);
+            builder.append(i).append("    ").append(outVar).append(".add(").append(childOutVar).append(");\n");
+            builder.append(i).append("  }\n");
+            builder.append(i).append("  in.endArray();\n");
+            builder.append(i).append("}\n");
+        } else if (isMap(rawClass)) {
+            String keyVar = "key" + depth;
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (in.peek() == JsonToken.NULL) {\n");
+            builder.append(i).append("  in.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true)).append("();\n");
+            builder.append(i).append("  in.beginObject();\n");
+            builder.append(i).append("  while (in.hasNext()) {\n");
+            builder.append(i).append("    String ").append(keyVar).append(" = in.nextName();\n");
+            emitReaderImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ", compact);
+            builder.append(i).append("    ").append(outVar).append(".put(").append(keyVar).append(", ").append(childOutVar).append(");\n");
+            builder.append(i).append("  }\n");
+            builder.append(i).append("  in.endObject();\n");
+            builder.append(i).append("}\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                   .append(getImplNameForDto(rawClass)).append(compact ? ".fromCompactJsonReader" : ".fromJsonReader").append("(in);\n");
+        } else if (rawClass.isPrimitive()) {
+            builder.append(i).append(rawClass.getSimpleName()).append(" ").append(outVar).append(" = ");
+            if (rawClass == boolean.class) {
+                builder.append("in.nextBoolean()");
+            } else if (rawClass == long.class) {
+                builder.append("in.nextLong()");
+            } else if (rawClass == double.class) {
+                builder.append("in.nextDouble()");
+            } else if (rawClass == float.class) {
+                builder.append("(float)in.nextDouble()");
+            } else if (rawClass == int.class) {
+                builder.append("in.nextInt()");
+            } else if (rawClass == char.class) {
+                builder.append("in.nextString().charAt(0)");
+            } else {
+                builder.append("(").append(rawClass.getSimpleName()).append(")in.nextInt()");
+            }
+            builder.append(";\n");
+        } else if (isAny(rawClass)) {
+            // JSON is created from the stream, no need to copy it
+            builder.append(i).append("JsonElement ").append(outVar).append(" = new JsonParser().parse(in);\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                       .append(dtoImplementation.getCanonicalName()).append(compact ? ".fromCompactJsonReader" : ".fromJsonReader")
+                       .append("(in);\n");
+            } else {
+                // Use gson to handle all other types.
+                String rawClassName = rawClass.getName().replace('$', '.');
+                builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = gson.fromJson(in, ").append(rawClassName)
+                       .append(".class);\n");
+            }
+        }
+    }
+
+    /**
+     * Generates methods that write and read DTO in compact form, see {@link #getCompactLayout(List)}. Compact reader accepts regular
+     * JSON object as well. DTO that can't be written in compact form fall back to regular JSON.
+     */
+    private void emitCompactSerializerAndDeserializer(List<Method> getters, StringBuilder builder) {
+        final List<Method> layout = isCompactJson() ? null : getCompactLayout(getters);
+        builder.append("    @Override\n");
+        builder.append("    public void toCompactJson(java.io.Writer writer) throws java.io.IOException {\n");
+        builder.append("      JsonWriter out = new JsonWriter(writer);\n");
+        builder.append("      out.setLenient(true);\n");
+        builder.append("      out.setSerializeNulls(false);\n");
+        builder.append("      writeCompactJsonInt(out);\n");
+        builder.append("      out.flush();\n");
+        builder.append("    }\n\n");
+        builder.append("    public void writeCompactJsonInt(JsonWriter out) throws java.io.IOException {\n");
+        if (layout == null) {
+            builder.append("      writeJsonInt(out);\n");
+        } else {
+            builder.append("      out.beginArray();\n");
+            for (Method getter : layout) {
+                if (getter == null) {
+                    builder.append("      out.nullValue();\n");
+                } else {
+                    List<Type> expandedTypes = expandType(getter.getGenericReturnType());
+                    emitWriterImpl(expandedTypes, 0, builder, getJavaFieldName(getter.getName()), "      ", true);
+                }
+            }
+            builder.append("      out.endArray();\n");
+        }
+        builder.append("    }\n\n");
+
+        builder.append("    public static ").append(getImplClassName())
+               .append(" fromCompactJsonReader(JsonReader in) throws java.io.IOException {\n");
+        if (layout == null) {
+            builder.append("      return fromJsonReader(in);\n");
+            builder.append("    }\n\n");
+            return;
+        }
+        builder.append("      if (in.peek() != JsonToken.BEGIN_ARRAY) {\n");
+        builder.append("        return fromJsonReader(in);\n");
+        builder.append("      }\n\n");
+        builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+        builder.append("      in.beginArray();\n");
+        builder.append("      for (int index = 0; in.hasNext(); index++) {\n");
+        builder.append("        switch (index) {\n");
+        for (int index = 0; index < layout.size(); index++) {
+            final Method getter = layout.get(index);
+            if (getter == null) {
+                continue;
+            }
+            final String fieldName = getFieldNameFromGetterName(getter.getName());
+            final String fieldNameOut = fieldName + "Out";
+            builder.append("          case ").append(index).append(": {\n");
+            emitReaderImpl(expandType(getter.getGenericReturnType()), 0, builder, fieldNameOut, "            ", true);
+            builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(fieldNameOut).append(");\n");
+            builder.append("            break;\n");
+            builder.append("          }\n");
+        }
+        builder.append("          default:\n");
+        builder.append("            in.skipValue();\n");
+        builder.append("        }\n");
+        builder.append("      }\n");
+        builder.append("      in.endArray();\n");
+        builder.append("      return dto;\n");
+        builder.append("    }\n\n");
+    }
+
+    /**
+     * Returns layout of DTO in compact JSON, i.e. property for each position in JSON array. If all properties have {@link
+     * SerializationIndex} then positions are taken from annotations and gaps are filled with {@code null}s, otherwise properties are
+     * ordered by names of JSON fields. Returns {@code null} if few properties are bound to the same JSON field, such DTO can't be
+     * written in compact form.
+     */
+    private List<Method> getCompactLayout(List<Method> getters) {
+        final Map<String, Method> byJsonFieldName = new TreeMap<>();
+        final Map<Integer, Method> byIndex = new HashMap<>();
+        boolean indexed = true;
+        for (Method getter : getters) {
+            if (byJsonFieldName.put(getJsonFieldName(getter), getter) != null) {
+                return null;
+            }
+            final SerializationIndex serializationIndex = getter.getAnnotation(SerializationIndex.class);
+            indexed &= serializationIndex != null
+                       && serializationIndex.value() > 0
+                       && byIndex.put(serializationIndex.value(), getter) == null;
+        }
+        if (!indexed || byIndex.isEmpty()) {
+            return new ArrayList<>(byJsonFieldName.values());
+        }
+        final int size = Collections.max(byIndex.keySet());
+        final List<Method> layout = new ArrayList<>(size);
+        for (int index = 1; index <= size; index++) {
+            layout.add(byIndex.get(index));
+        }
+        return layout;
+    }
+
     private void emitDeserializeFieldForMethod(Method method, StringBuilder builder) {
         final String fieldName = getFieldNameFromGetterName(method.getName());
         final String fieldNameIn = fieldName + "In";
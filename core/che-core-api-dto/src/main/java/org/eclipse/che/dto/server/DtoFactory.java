@@ -16,18 +16,22 @@ import com.google.common.cache.LoadingCache;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
 
 import org.eclipse.che.commons.lang.reflect.ParameterizedTypeImpl;
 import org.eclipse.che.dto.shared.DTO;
 import org.eclipse.che.dto.shared.JsonArray;
 import org.eclipse.che.dto.shared.JsonStringMap;
 
-import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -143,6 +147,20 @@ public final class DtoFactory {
         throw new IllegalArgumentException("JsonSerializable instance required. ");
     }
 
+    /** Serializes DTO to compact JSON format, see {@link JsonSerializable#toCompactJson(java.io.Writer)}. */
+    public <T> String toCompactJson(T dto) {
+        if (dto instanceof JsonSerializable) {
+            final StringWriter writer = new StringWriter();
+            try {
+                ((JsonSerializable)dto).toCompactJson(writer);
+            } catch (IOException e) {
+                throw new JsonIOException(e);
+            }
+            return writer.toString();
+        }
+        throw new IllegalArgumentException("JsonSerializable instance required. ");
+    }
+
     public <T> JsonElement toJsonElement(T dto) {
         if (dto instanceof JsonSerializable) {
             return ((JsonSerializable)dto).toJsonElement();
@@ -208,14 +226,24 @@ public final class DtoFactory {
      *         if an i/o error occurs
      */
     public <T> T createDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
-        DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        StringBuilder sb = new StringBuilder();
-        BufferedReader br = new BufferedReader(json);
-        String line;
-        while ((line = br.readLine()) != null) {
-            sb.append(line);
-        }
-        return dtoProvider.fromJson(sb.toString());
+        return readDto(json, getDtoProvider(dtoInterface), false);
+    }
+
+    /**
+     * Creates new instance of class which implements specified DTO interface and initializes it with data written in compact form,
+     * see {@link JsonSerializable#toCompactJson(java.io.Writer)}. Regular JSON is accepted as well.
+     *
+     * @param json
+     *         JSON data
+     * @param dtoInterface
+     *         DTO interface
+     * @throws IllegalArgumentException
+     *         if can't provide any implementation for specified interface
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> T createDtoFromCompactJson(Reader json, Class<T> dtoInterface) throws IOException {
+        return readDto(json, getDtoProvider(dtoInterface), true);
     }
 
     /**
@@ -271,22 +299,23 @@ public final class DtoFactory {
      *         if can't provide any implementation for specified interface
      */
     public <T> JsonArray<T> createListDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
-        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final List<JsonElement> list;
-        try {
-            list = gson.fromJson(json, listTypeCache.getUnchecked(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
-            }
-            throw e;
-        }
-        final List<T> result = new ArrayList<>(list.size());
-        for (JsonElement e : list) {
-            result.add(dtoProvider.fromJson(e));
-        }
-        return new JsonArrayImpl<>(result);
+        return readListDto(json, getDtoProvider(dtoInterface), false);
+    }
+
+    /**
+     * Parses the JSON data from the specified reader into list of objects of the specified type. Objects are expected in compact form,
+     * see {@link JsonSerializable#toCompactJson(java.io.Writer)}, but regular JSON is accepted as well.
+     *
+     * @param json
+     *         JSON data
+     * @param dtoInterface
+     *         DTO interface
+     * @return list of DTO
+     * @throws IllegalArgumentException
+     *         if can't provide any implementation for specified interface
+     */
+    public <T> JsonArray<T> createListDtoFromCompactJson(Reader json, Class<T> dtoInterface) throws IOException {
+        return readListDto(json, getDtoProvider(dtoInterface), true);
     }
 
     /**
@@ -431,4 +460,44 @@ public final class DtoFactory {
 
     private DtoFactory() {
     }
+
+    private static <T> T readDto(Reader json, DtoProvider<T> dtoProvider, boolean compact) throws IOException {
+        final JsonReader reader = newJsonReader(json);
+        try {
+            reader.peek();
+        } catch (EOFException e) {
+            // Empty document, the same as gson's JsonParser does.
+            return null;
+        } catch (MalformedJsonException e) {
+            throw new JsonSyntaxException(e);
+        }
+        try {
+            return compact ? dtoProvider.fromCompactJson(reader) : dtoProvider.fromJson(reader);
+        } catch (IllegalStateException | NumberFormatException | MalformedJsonException | EOFException e) {
+            // Malformed or truncated JSON is reported the same as when DTO is read from String.
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static <T> JsonArray<T> readListDto(Reader json, DtoProvider<T> dtoProvider, boolean compact) throws IOException {
+        final JsonReader reader = newJsonReader(json);
+        final List<T> result = new ArrayList<>();
+        try {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                result.add(compact ? dtoProvider.fromCompactJson(reader) : dtoProvider.fromJson(reader));
+            }
+            reader.endArray();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+        return new JsonArrayImpl<>(result);
+    }
+
+    /** Creates lenient reader, the same as gson's JsonParser does, DTO are read from it without building tree of JsonElements. */
+    private static JsonReader newJsonReader(Reader json) {
+        final JsonReader reader = new JsonReader(json);
+        reader.setLenient(true);
+        return reader;
+    }
 }
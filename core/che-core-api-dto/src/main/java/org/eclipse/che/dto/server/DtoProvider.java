@@ -11,6 +11,10 @@
 package org.eclipse.che.dto.server;
 
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
 
 /**
  * Provides implementation of DTO interface.
@@ -24,6 +28,16 @@ public interface DtoProvider<DTO> {
 
     DTO fromJson(JsonElement json);
 
+    /** Reads DTO from the stream. Implementation should not build tree of JsonElements if possible. */
+    default DTO fromJson(JsonReader json) throws IOException {
+        return fromJson(new JsonParser().parse(json));
+    }
+
+    /** Reads DTO written in compact form, see {@link JsonSerializable#toCompactJson(java.io.Writer)}. */
+    default DTO fromCompactJson(JsonReader json) throws IOException {
+        return fromJson(json);
+    }
+
     DTO newInstance();
 
     DTO clone(DTO origin);
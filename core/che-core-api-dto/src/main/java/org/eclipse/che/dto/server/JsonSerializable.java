@@ -13,7 +13,9 @@
 // limitations under the License.
 package org.eclipse.che.dto.server;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.Writer;
 
 import com.google.gson.JsonElement;
 
@@ -23,6 +25,20 @@ public interface JsonSerializable extends Serializable {
     /** Serializes DTO to JSON format. */
     String toJson();
 
+    /** Serializes DTO to JSON format and writes it to the specified writer. Writer is not closed. */
+    default void toJson(Writer writer) throws IOException {
+        writer.write(toJson());
+    }
+
+    /**
+     * Serializes DTO to compact JSON format and writes it to the specified writer. In compact format DTO is written as JSON array of
+     * values of its properties without names of properties. Implementations that don't support compact format write regular JSON.
+     * Writer is not closed.
+     */
+    default void toCompactJson(Writer writer) throws IOException {
+        toJson(writer);
+    }
+
     /** Serializes DTO to JSON object. */
     JsonElement toJsonElement();
 }
\ No newline at end of file
@@ -10,11 +10,13 @@
  *******************************************************************************/
 package org.eclipse.che.dto;
 
+import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
 
 import org.eclipse.che.dto.definitions.ComplicatedDto;
 import org.eclipse.che.dto.definitions.DTOHierarchy;
@@ -26,9 +28,12 @@ import org.eclipse.che.dto.definitions.model.Model;
 import org.eclipse.che.dto.definitions.model.ModelComponentDto;
 import org.eclipse.che.dto.definitions.model.ModelDto;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonSerializable;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -325,6 +330,108 @@ public class ServerDtoTest {
         assertEquals(complicatedDto.getArrayOfArrayOfEnum().get(0).get(2), ComplicatedDto.SimpleEnum.THREE);
     }
 
+    @Test
+    public void testStreamingSerializerWritesTheSameJsonAsTree() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("Something").withId(1);
+        Map<String, SimpleDto> mapDtos = new HashMap<>(1);
+        mapDtos.put("Something", simpleDto);
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                       .withStrings(asList("Something 1", null))
+                                       .withMap(mapDtos)
+                                       .withSimpleDtos(asList(simpleDto, null))
+                                       .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE, null)));
+
+        StringWriter writer = new StringWriter();
+        ((JsonSerializable)dto).toJson(writer);
+
+        String expected = new Gson().toJson(dtoFactory.toJsonElement(dto));
+        assertEquals(writer.toString(), expected);
+        assertEquals(dtoFactory.toJson(dto), expected);
+    }
+
+    @Test
+    public void testDtoDeserializerFromReader() throws Exception {
+        String json = "{\"unknown\":{\"name\":\"x\",\"list\":[1,2]}," +
+                      "\"strings\":[\"Something\"]," +
+                      "\"simpleEnum\":\"TWO\"," +
+                      "\"map\":{\"Something\":{\"name\":\"Something\",\"id\":1,\"default\":\"test_default_keyword\"}}," +
+                      "\"simpleDtos\":null," +
+                      "\"arrayOfArrayOfEnum\":[[\"ONE\",\"THREE\"]]}";
+
+        ComplicatedDto dto = dtoFactory.createDtoFromJson(new StringReader(json), ComplicatedDto.class);
+
+        assertEquals(dto, dtoFactory.createDtoFromJson(json, ComplicatedDto.class));
+        assertEquals(dto.getStrings(), asList("Something"));
+        assertEquals(dto.getSimpleEnum(), ComplicatedDto.SimpleEnum.TWO);
+        checkSimpleDto(dto.getMap().get("Something"), "Something", 1, "test_default_keyword");
+        assertTrue(dto.getSimpleDtos().isEmpty());
+        assertEquals(dto.getArrayOfArrayOfEnum(), asList(asList(ComplicatedDto.SimpleEnum.ONE, ComplicatedDto.SimpleEnum.THREE)));
+    }
+
+    @Test
+    public void testListDtoDeserializerFromReader() throws Exception {
+        String json = "[{\"name\":\"Something 1\",\"id\":1},null,{\"name\":\"Something 2\",\"id\":2,\"unknown\":[]}]";
+
+        List<SimpleDto> dtos = dtoFactory.createListDtoFromJson(new StringReader(json), SimpleDto.class);
+
+        assertEquals(dtos.size(), 3);
+        checkSimpleDto(dtos.get(0), "Something 1", 1, null);
+        assertEquals(dtos.get(1), null);
+        checkSimpleDto(dtos.get(2), "Something 2", 2, null);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testMalformedJsonFromReaderIsReportedAsSyntaxError() throws Exception {
+        dtoFactory.createDtoFromJson(new StringReader("{\"name\":\"Something\",,}"), SimpleDto.class);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testTruncatedJsonFromReaderIsReportedAsSyntaxError() throws Exception {
+        dtoFactory.createDtoFromJson(new StringReader("{\"name\":\"Something\""), SimpleDto.class);
+    }
+
+    @Test
+    public void testEmptyDocumentIsReadAsNull() throws Exception {
+        assertEquals(dtoFactory.createDtoFromJson(new StringReader(""), SimpleDto.class), null);
+    }
+
+    @Test
+    public void testCompactSerializerWritesPropertiesOrderedByName() throws Exception {
+        SimpleDto dto = dtoFactory.createDto(SimpleDto.class).withName("Something").withId(1).withDefault("test_default_keyword");
+
+        assertEquals(dtoFactory.toCompactJson(dto), "[\"test_default_keyword\",1,\"Something\"]");
+    }
+
+    @Test
+    public void testCompactSerializerAndDeserializer() throws Exception {
+        SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("Something").withId(1);
+        Map<String, SimpleDto> mapDtos = new HashMap<>(1);
+        mapDtos.put("Something", simpleDto);
+        ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                       .withStrings(asList("Something 1", "Something 2"))
+                                       .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                                       .withMap(mapDtos)
+                                       .withSimpleDtos(asList(simpleDto))
+                                       .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.ONE)));
+
+        String json = dtoFactory.toCompactJson(dto);
+
+        assertEquals(json, "[[[\"ONE\"]],{\"Something\":[null,1,\"Something\"]},[[null,1,\"Something\"]],\"TWO\"," +
+                           "[\"Something 1\",\"Something 2\"]]");
+        assertEquals(dtoFactory.createDtoFromCompactJson(new StringReader(json), ComplicatedDto.class), dto);
+    }
+
+    @Test
+    public void testCompactDeserializerAcceptsRegularJson() throws Exception {
+        String json = "[[null,1,\"Something 1\"],{\"name\":\"Something 2\",\"id\":2}]";
+
+        List<SimpleDto> dtos = dtoFactory.createListDtoFromCompactJson(new StringReader(json), SimpleDto.class);
+
+        assertEquals(dtos.size(), 2);
+        checkSimpleDto(dtos.get(0), "Something 1", 1, null);
+        checkSimpleDto(dtos.get(1), "Something 2", 2, null);
+    }
+
     private void checkSimpleDto(SimpleDto dto, String expectedName, int expectedId, String expectedDefault) {
         assertEquals(dto.getName(), expectedName);
         assertEquals(dto.getId(), expectedId);
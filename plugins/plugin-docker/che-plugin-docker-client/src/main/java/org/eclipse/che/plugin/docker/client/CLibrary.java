@@ -11,6 +11,8 @@
 package org.eclipse.che.plugin.docker.client;
 
 import com.sun.jna.Library;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Platform;
 import com.sun.jna.Structure;
 import com.sun.jna.ptr.LongByReference;
 
@@ -25,6 +27,21 @@ public interface CLibrary extends Library {
     int AF_UNIX     = 1; // Defined in 'sys/socket.h'
     int SOCK_STREAM = 1; // Defined in 'sys/socket.h'
 
+    int MSG_PEEK     = 0x02; // Defined in 'sys/socket.h'
+    int MSG_DONTWAIT = 0x40; // Defined in 'sys/socket.h'
+    int EAGAIN       = 11;   // Defined in 'errno.h'
+
+    short POLLIN   = 0x01; // Defined in 'poll.h'
+    short POLLERR  = 0x08; // Defined in 'poll.h'
+    short POLLHUP  = 0x10; // Defined in 'poll.h'
+    short POLLNVAL = 0x20; // Defined in 'poll.h'
+    int   EINTR    = 4;    // Defined in 'errno.h'
+
+    int EPOLLIN       = 0x01;  // Defined in 'sys/epoll.h'
+    int EPOLL_CTL_ADD = 1;     // Defined in 'sys/epoll.h'
+    int EPOLL_CTL_DEL = 2;     // Defined in 'sys/epoll.h'
+    int EFD_NONBLOCK  = 04000; // Defined in 'sys/eventfd.h'
+
     // Defined in 'unix.h', see http://man7.org/linux/man-pages/man7/unix.7.html
     class SockAddrUn extends Structure {
         public static final int UNIX_PATH_MAX = 108;
@@ -49,6 +66,34 @@ public interface CLibrary extends Library {
         }
     }
 
+    // Defined in 'poll.h', see http://man7.org/linux/man-pages/man2/poll.2.html
+    class PollFd extends Structure {
+        public int   fd;
+        public short events;
+        public short revents;
+
+        @Override
+        protected List getFieldOrder() {
+            return Arrays.asList("fd", "events", "revents");
+        }
+    }
+
+    // Defined in 'sys/epoll.h', see http://man7.org/linux/man-pages/man2/epoll_ctl.2.html
+    class EpollEvent extends Structure {
+        public int  events;
+        public long data;
+
+        public EpollEvent() {
+            // structure is packed on x86
+            super(Platform.isIntel() ? ALIGN_NONE : ALIGN_DEFAULT);
+        }
+
+        @Override
+        protected List getFieldOrder() {
+            return Arrays.asList("events", "data");
+        }
+    }
+
     int socket(int domain, int type, int protocol);
 
     int connect(int fd, SockAddrUn sock_addr, int addr_len);
@@ -69,6 +114,16 @@ public interface CLibrary extends Library {
 
     int eventfd_read(int fd, LongByReference val);
 
+    int eventfd_write(int fd, long val);
+
+    int poll(PollFd[] fds, NativeLong nfds, int timeout);
+
+    int epoll_create1(int flags);
+
+    int epoll_ctl(int epfd, int op, int fd, EpollEvent event);
+
+    int epoll_wait(int epfd, EpollEvent[] events, int maxevents, int timeout);
+
     int open(String path, int mode);
 
     int O_RDONLY = 0x00;
@@ -11,6 +11,7 @@
 package org.eclipse.che.plugin.docker.client;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.jna.Native;
 import com.sun.jna.ptr.LongByReference;
 
 import org.eclipse.che.api.core.util.SystemInfo;
@@ -18,6 +19,7 @@ import org.eclipse.che.commons.lang.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -27,23 +29,41 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.eclipse.che.plugin.docker.client.CLibrary.EFD_NONBLOCK;
+import static org.eclipse.che.plugin.docker.client.CLibrary.EINTR;
+import static org.eclipse.che.plugin.docker.client.CLibrary.EPOLLIN;
+import static org.eclipse.che.plugin.docker.client.CLibrary.EPOLL_CTL_ADD;
+import static org.eclipse.che.plugin.docker.client.CLibrary.EPOLL_CTL_DEL;
+import static org.eclipse.che.plugin.docker.client.CLibrary.EpollEvent;
 import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 
 /**
- * Docker container OOM detector based on cgroup usage
+ * Docker container OOM detector based on cgroup usage.
+ * <p>
+ * Eventfd descriptors which get OOM notifications of all containers are registered in single epoll instance,
+ * so one thread waits for OOM of any number of containers. The thread is started with detection for the first container.
  *
  * @author Alexander Garagatyi
  */
 public class CgroupOOMDetector implements DockerOOMDetector {
     private static final Logger LOG = LoggerFactory.getLogger(CgroupOOMDetector.class);
 
+    private static final int MAX_EVENTS = 64;
+    // epoll data of eventfd which wakes up watcher on close
+    private static final long WAKEUP_ID = 0;
+
     private final Map<String, OOMDetector> oomDetectors;
+    private final Map<Long, OOMDetector>   oomDetectorsById;
+    private final AtomicLong               detectorIds;
     private final URI                      dockerDaemonUri;
     private final DockerConnector          dockerConnector;
-    private final ExecutorService          executor;
+    private final String                   cgroupMount;
+    private final boolean                  systemd;
+
+    private OOMWatcher watcher;
+    private boolean    closed;
 
     @Inject
     public CgroupOOMDetector(DockerConnectorConfiguration connectorConfiguration, DockerConnector dockerConnector) {
@@ -51,12 +71,17 @@ public class CgroupOOMDetector implements DockerOOMDetector {
     }
 
     public CgroupOOMDetector(URI dockerDaemonUri, DockerConnector dockerConnector) {
+        this(dockerDaemonUri, dockerConnector, detectedCgroupMount, detectedSystemd);
+    }
+
+    CgroupOOMDetector(URI dockerDaemonUri, DockerConnector dockerConnector, String cgroupMount, boolean systemd) {
         this.dockerDaemonUri = dockerDaemonUri;
         this.dockerConnector = dockerConnector;
+        this.cgroupMount = cgroupMount;
+        this.systemd = systemd;
         this.oomDetectors = new ConcurrentHashMap<>();
-        this.executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("CgroupOOMDetector-%d")
-                                                                                .setDaemon(true)
-                                                                                .build());
+        this.oomDetectorsById = new ConcurrentHashMap<>();
+        this.detectorIds = new AtomicLong(WAKEUP_ID);
     }
 
     @Override
@@ -76,16 +101,45 @@ public class CgroupOOMDetector implements DockerOOMDetector {
             }
             try {
                 final long memory = dockerConnector.inspectContainer(container).getConfig().getHostConfig().getMemory();
-                OOMDetector oomDetector = new OOMDetector(container, containerLogProcessor, memory);
-                oomDetectors.putIfAbsent(container, oomDetector);
-                oomDetector = oomDetectors.get(container);
-                oomDetector.start();
+                final OOMWatcher watcher = getWatcher();
+                final OOMDetector oomDetector = new OOMDetector(container, containerLogProcessor, memory);
+                if (oomDetectors.putIfAbsent(container, oomDetector) == null && !oomDetector.start(watcher)) {
+                    oomDetectors.remove(container, oomDetector);
+                }
             } catch (IOException e) {
                 LOG.error(e.getLocalizedMessage(), e);
             }
         }
     }
 
+    /** Stops detection for all containers and thread which waits for OOM events. */
+    @PreDestroy
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        oomDetectors.keySet().forEach(this::stopDetection);
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    private synchronized OOMWatcher getWatcher() throws IOException {
+        if (closed) {
+            throw new IOException("OOM detector is closed");
+        }
+        if (watcher == null) {
+            watcher = new OOMWatcher();
+            new ThreadFactoryBuilder().setNameFormat("CgroupOOMDetector-%d")
+                                      .setDaemon(true)
+                                      .build()
+                                      .newThread(watcher)
+                                      .start();
+        }
+        return watcher;
+    }
+
     private boolean needStartOOMDetector(String container) {
         if (! oomDetectors.containsKey(container)) {
             if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
@@ -129,8 +183,8 @@ public class CgroupOOMDetector implements DockerOOMDetector {
      *     2. Usage of cgroup notification mechanism.
      * Good article about this: https://access.redhat.com/documentation/en-US/Red_Hat_Enterprise_Linux/6/html/Resource_Management_Guide/sec-Using_the_Notification_API.html
      */
-    private static String  cgroupMount;
-    private static boolean systemd;
+    private static String  detectedCgroupMount;
+    private static boolean detectedSystemd;
 
     static {
         if (SystemInfo.isLinux()) {
@@ -149,9 +203,9 @@ public class CgroupOOMDetector implements DockerOOMDetector {
                             || path.endsWith("memory")
                             || path.endsWith("devices")
                             || path.endsWith("freezer")) {
-                            cgroupMount = Paths.get(path).getParent().toString();
+                            detectedCgroupMount = Paths.get(path).getParent().toString();
                         } else if (path.endsWith("systemd")) {
-                            systemd = true;
+                            detectedSystemd = true;
                         }
                     }
                 }
@@ -161,22 +215,108 @@ public class CgroupOOMDetector implements DockerOOMDetector {
         }
     }
 
+    /** Waits for events of all registered eventfd descriptors with epoll and passes them to {@link OOMDetector}s. */
+    private class OOMWatcher implements Runnable {
+        private final CLibrary cLib;
+        private final int      epfd;
+        private final int      wakeupfd;
+
+        private volatile boolean stopped;
+        private boolean          closed;
+
+        OOMWatcher() throws IOException {
+            cLib = getCLibrary();
+            if ((epfd = cLib.epoll_create1(0)) == -1) {
+                throw new IOException("Unable create epoll instance: " + cLib.strerror(Native.getLastError()));
+            }
+            if ((wakeupfd = cLib.eventfd(0, EFD_NONBLOCK)) == -1) {
+                cLib.close(epfd);
+                throw new IOException("Unable create a file descriptor for event notification");
+            }
+            if (!add(wakeupfd, WAKEUP_ID)) {
+                cLib.close(wakeupfd);
+                cLib.close(epfd);
+                throw new IOException("Unable register file descriptor in epoll: " + cLib.strerror(Native.getLastError()));
+            }
+        }
+
+        synchronized boolean add(int efd, long id) {
+            if (closed) {
+                return false;
+            }
+            final EpollEvent event = new EpollEvent();
+            event.events = EPOLLIN;
+            event.data = id;
+            return cLib.epoll_ctl(epfd, EPOLL_CTL_ADD, efd, event) == 0;
+        }
+
+        synchronized void remove(int efd) {
+            if (!closed) {
+                // event is ignored but must not be null for kernels older than 2.6.9
+                cLib.epoll_ctl(epfd, EPOLL_CTL_DEL, efd, new EpollEvent());
+            }
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            if (!closed) {
+                cLib.eventfd_write(wakeupfd, 1);
+            }
+        }
+
+        private synchronized void closeDescriptors() {
+            closed = true;
+            cLib.close(wakeupfd);
+            cLib.close(epfd);
+        }
+
+        @Override
+        public void run() {
+            final EpollEvent[] events = (EpollEvent[])new EpollEvent().toArray(MAX_EVENTS);
+            try {
+                while (!stopped) {
+                    final int n = cLib.epoll_wait(epfd, events, MAX_EVENTS, -1);
+                    if (n == -1) {
+                        final int errno = Native.getLastError();
+                        if (errno == EINTR) {
+                            continue;
+                        }
+                        LOG.error("Unable wait for OOM events: {}", cLib.strerror(errno));
+                        return;
+                    }
+                    for (int i = 0; i < n; i++) {
+                        final OOMDetector oomDetector = oomDetectorsById.get(events[i].data);
+                        if (oomDetector != null) {
+                            oomDetector.onEvent();
+                        }
+                    }
+                }
+            } finally {
+                closeDescriptors();
+            }
+        }
+    }
+
     /**
      * Detects OOM with cgroup notification mechanism.
      * <p/>
      * https://access.redhat.com/documentation/en-US/Red_Hat_Enterprise_Linux/6/html/Resource_Management_Guide/sec-Using_the_Notification_API.html
      */
-    private class OOMDetector implements Runnable {
+    private class OOMDetector {
+        private final long                         id;
         private final String                       container;
         private final MessageProcessor<LogMessage> containerLogProcessor;
         private final long                         memory;
         private final CLibrary                     cLib;
         private final String                       containerCgroup;
 
-        private volatile boolean stopped = false;
-        private boolean started = false;
+        private OOMWatcher watcher;
+        private int        efd   = -1;
+        private int        oomfd = -1;
+        private boolean    stopped;
 
         OOMDetector(String container, MessageProcessor<LogMessage> containerLogProcessor, long memory) {
+            this.id = detectorIds.incrementAndGet();
             this.container = container;
             this.containerLogProcessor = containerLogProcessor;
             this.memory = memory;
@@ -189,67 +329,75 @@ public class CgroupOOMDetector implements DockerOOMDetector {
             }
         }
 
-        @Override
-        public void run() {
+        /** Registers eventfd for OOM notifications of container cgroup and adds it to watcher. */
+        synchronized boolean start(OOMWatcher watcher) {
             final String cf = containerCgroup + "cgroup.event_control";
             final String oomf = containerCgroup + "memory.oom_control";
-            int efd = -1;
-            int oomfd = -1;
+            if ((efd = cLib.eventfd(0, EFD_NONBLOCK)) == -1) {
+                LOG.error("Unable create a file descriptor for event notification");
+                return false;
+            }
+            final int cfd;
+            if ((cfd = cLib.open(cf, CLibrary.O_WRONLY)) == -1) {
+                LOG.error("Unable open event control file '{}' for write", cf);
+                closeDescriptors();
+                return false;
+            }
             try {
-                if ((efd = cLib.eventfd(0, 1)) == -1) {
-                    LOG.error("Unable create a file descriptor for event notification");
-                    return;
-                }
-                int cfd;
-                if ((cfd = cLib.open(cf, CLibrary.O_WRONLY)) == -1) {
-                    LOG.error("Unable open event control file '{}' for write", cf);
-                    return;
-                }
                 if ((oomfd = cLib.open(oomf, CLibrary.O_RDONLY)) == -1) {
                     LOG.error("Unable open OOM event file '{}' for read", oomf);
-                    return;
+                    closeDescriptors();
+                    return false;
                 }
                 final byte[] data = String.format("%d %d", efd, oomfd).getBytes();
                 if (cLib.write(cfd, data, data.length) != data.length) {
                     LOG.error("Unable write event control data to file '{}'", cf);
-                    return;
+                    closeDescriptors();
+                    return false;
                 }
+            } finally {
                 if (cLib.close(cfd) == -1) {
                     LOG.error("Error closing of event control file '{}'", cf);
-                    return;
-                }
-                final LongByReference eventHolder = new LongByReference();
-                if (cLib.eventfd_read(efd, eventHolder) == 0) {
-                    if (stopped) {
-                        return;
-                    }
-                    LOG.warn("OOM event received for container '{}'", container);
-                    if (readCgroupValue("memory.failcnt") > 0) {
-                        try {
-                            containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
-                                                                         "[ERROR] The processes in this machine need more RAM. This machine started with " +
-                                                                         Size.toHumanSize(memory)));
-                            containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
-                                                                         "[ERROR] Create a new machine configuration that allocates additional RAM or increase" +
-                                                                         " the workspace RAM limit in the user dashboard."));
-                        } catch (/*IOException*/ Exception e) {
-                            LOG.warn(e.getMessage(), e);
-                        }
-                    }
-                }
-            } finally {
-                if (!stopped) {
-                    stopDetection(container);
                 }
-                close(oomfd);
-                close(efd);
             }
+            oomDetectorsById.put(id, this);
+            if (!watcher.add(efd, id)) {
+                LOG.error("Unable register OOM event of container '{}' in epoll", container);
+                oomDetectorsById.remove(id);
+                closeDescriptors();
+                return false;
+            }
+            this.watcher = watcher;
+            return true;
         }
 
-        private void close(int fd) {
-            if (fd != -1) {
-                cLib.close(fd);
+        /** Called by watcher when eventfd is notified, that happens on OOM or when cgroup is removed. */
+        synchronized void onEvent() {
+            if (stopped) {
+                return;
+            }
+            try {
+                if (cLib.eventfd_read(efd, new LongByReference()) != 0) {
+                    return;
+                }
+                LOG.warn("OOM event received for container '{}'", container);
+                if (readCgroupValue("memory.failcnt") > 0) {
+                    try {
+                        containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
+                                                                     "[ERROR] The processes in this machine need more RAM. This machine started with " +
+                                                                     Size.toHumanSize(memory)));
+                        containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
+                                                                     "[ERROR] Create a new machine configuration that allocates additional RAM or increase" +
+                                                                     " the workspace RAM limit in the user dashboard."));
+                    } catch (/*IOException*/ Exception e) {
+                        LOG.warn(e.getMessage(), e);
+                    }
+                }
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
             }
+            oomDetectors.remove(container, this);
+            stop();
         }
 
         long readCgroupValue(String cgroupFile) {
@@ -264,15 +412,30 @@ public class CgroupOOMDetector implements DockerOOMDetector {
             return 0;
         }
 
-        synchronized void start() {
-            if (!started) {
-                started = true;
-                executor.execute(this);
+        /** Removes eventfd from watcher and closes descriptors. */
+        synchronized void stop() {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            oomDetectorsById.remove(id);
+            if (watcher != null) {
+                watcher.remove(efd);
             }
+            closeDescriptors();
         }
 
-        void stop() {
-            stopped = true;
+        private void closeDescriptors() {
+            close(oomfd);
+            close(efd);
+            oomfd = -1;
+            efd = -1;
+        }
+
+        private void close(int fd) {
+            if (fd != -1) {
+                cLib.close(fd);
+            }
         }
     }
 }
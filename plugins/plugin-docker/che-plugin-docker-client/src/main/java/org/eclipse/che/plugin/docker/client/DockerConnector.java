@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.client;
 
+import com.google.common.base.Throwables;
 import com.google.common.io.CharStreams;
 import com.google.common.reflect.TypeToken;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -26,6 +27,7 @@ import org.eclipse.che.plugin.docker.client.connection.CloseConnectionInputStrea
 import org.eclipse.che.plugin.docker.client.connection.DockerConnection;
 import org.eclipse.che.plugin.docker.client.connection.DockerConnectionFactory;
 import org.eclipse.che.plugin.docker.client.connection.DockerResponse;
+import org.eclipse.che.plugin.docker.client.connection.DockerStreamListener;
 import org.eclipse.che.plugin.docker.client.exception.ContainerNotFoundException;
 import org.eclipse.che.plugin.docker.client.exception.DockerException;
 import org.eclipse.che.plugin.docker.client.exception.ImageNotFoundException;
@@ -92,6 +94,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -99,6 +102,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -431,6 +436,7 @@ public class DockerConnector {
         final Boolean stream = params.isStream();
 
         try (DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
+                                                            .keepAlive(false)
                                                             .method("POST")
                                                             .path(apiVersionPathPrefix + "/containers/" + params.getContainer() + "/attach")
                                                             .query("stdout", 1)
@@ -441,9 +447,7 @@ public class DockerConnector {
             if (OK.getStatusCode() != response.getStatus()) {
                 throw getDockerException(response);
             }
-            try (InputStream responseStream = response.getInputStream()) {
-                new LogMessagePumper(responseStream, containerLogsProcessor).start();
-            }
+            readLogMessages(connection, response, containerLogsProcessor);
         }
     }
 
@@ -459,30 +463,74 @@ public class DockerConnector {
      */
     public void getContainerLogs(final GetContainerLogsParams params, MessageProcessor<LogMessage> containerLogsProcessor)
             throws IOException {
-        try (DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
-                                                            .method("GET")
-                                                            .path(apiVersionPathPrefix + "/containers/" + params.getContainer() + "/logs")
-                                                            .query("stdout", 1)
-                                                            .query("stderr", 1)) {
-            addQueryParamIfNotNull(connection, "details", params.isDetails());
-            addQueryParamIfNotNull(connection, "follow", params.isFollow());
-            addQueryParamIfNotNull(connection, "since", params.getSince());
-            addQueryParamIfNotNull(connection, "timestamps", params.isTimestamps());
-            addQueryParamIfNotNull(connection, "tail", params.getTail());
+        try (DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)) {
+            final DockerResponse response = requestContainerLogs(connection, params);
+            readLogMessages(connection, response, containerLogsProcessor);
+        }
+    }
 
-            final DockerResponse response = connection.request();
-            final int status = response.getStatus();
-            if (status == 404) {
-                throw new ContainerNotFoundException(readAndCloseQuietly(response.getInputStream()));
-            }
-            if (status != OK.getStatusCode()) {
-                throw getDockerException(response);
+    /**
+     * Get stdout and stderr logs from container without blocking of current thread.
+     * Logs of unix socket connections are read by I/O threads shared by all streams of connector,
+     * so {@code containerLogsProcessor} should not block.
+     *
+     * @param containerLogsProcessor
+     *         output for container logs
+     * @return future which is completed when the end of logs is reached, e.g. container is stopped if logs are followed,
+     * cancellation of future stops reading of logs
+     * @throws ContainerNotFoundException
+     *         when container not found by docker (docker api returns 404)
+     * @throws IOException
+     *         when a problem occurs with docker api calls
+     */
+    public CompletableFuture<Void> getContainerLogsAsync(final GetContainerLogsParams params,
+                                                         MessageProcessor<LogMessage> containerLogsProcessor) throws IOException {
+        final DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri);
+        try {
+            final DockerResponse response = requestContainerLogs(connection, params);
+            final CompletableFuture<Void> stream = connection.stream(new LogMessageDecoder(containerLogsProcessor));
+            if (stream != null) {
+                connection.close();
+                return stream;
             }
+            // connection doesn't support reading in background, read logs in separate thread
+            final CompletableFuture<Void> logs = CompletableFuture.runAsync(() -> {
+                try (InputStream responseStream = response.getInputStream()) {
+                    new LogMessagePumper(responseStream, containerLogsProcessor).start();
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+            // closing of connection also interrupts reading if future is cancelled
+            logs.whenComplete((ignored, error) -> connection.close());
+            return logs;
+        } catch (IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
 
-            try (InputStream responseStream = response.getInputStream()) {
-                new LogMessagePumper(responseStream, containerLogsProcessor).start();
-            }
+    private DockerResponse requestContainerLogs(DockerConnection connection, GetContainerLogsParams params) throws IOException {
+        connection.keepAlive(false)
+                  .method("GET")
+                  .path(apiVersionPathPrefix + "/containers/" + params.getContainer() + "/logs")
+                  .query("stdout", 1)
+                  .query("stderr", 1);
+        addQueryParamIfNotNull(connection, "details", params.isDetails());
+        addQueryParamIfNotNull(connection, "follow", params.isFollow());
+        addQueryParamIfNotNull(connection, "since", params.getSince());
+        addQueryParamIfNotNull(connection, "timestamps", params.isTimestamps());
+        addQueryParamIfNotNull(connection, "tail", params.getTail());
+
+        final DockerResponse response = connection.request();
+        final int status = response.getStatus();
+        if (status == 404) {
+            throw new ContainerNotFoundException(readAndCloseQuietly(response.getInputStream()));
         }
+        if (status != OK.getStatusCode()) {
+            throw getDockerException(response);
+        }
+        return response;
     }
 
     /**
@@ -526,6 +574,7 @@ public class DockerConnector {
 
         byte[] entityBytesArray = toJson(execStart).getBytes(StandardCharsets.UTF_8);
         try (DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
+                                                            .keepAlive(false)
                                                             .method("POST")
                                                             .path(apiVersionPathPrefix + "/exec/" + params.getExecId() + "/start")
                                                             .header("Content-Type", MediaType.APPLICATION_JSON)
@@ -539,9 +588,7 @@ public class DockerConnector {
                 throw getDockerException(response);
             }
             if (status != NO_CONTENT.getStatusCode() && execOutputProcessor != null) {
-                try (InputStream responseStream = response.getInputStream()) {
-                    new LogMessagePumper(responseStream, execOutputProcessor).start();
-                }
+                readLogMessages(connection, response, execOutputProcessor);
             }
         }
     }
@@ -622,6 +669,7 @@ public class DockerConnector {
         DockerConnection connection = null;
         try {
             connection = connectionFactory.openConnection(dockerDaemonUri)
+                                          .keepAlive(false)
                                           .method("GET")
                                           .path(apiVersionPathPrefix + "/containers/" + params.getContainer() + "/archive")
                                           .query("path", params.getSourcePath());
@@ -696,6 +744,7 @@ public class DockerConnector {
         final Filters filters = params.getFilters();
 
         try (DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
+                                                            .keepAlive(false)
                                                             .method("GET")
                                                             .path(apiVersionPathPrefix + "/events")) {
             addQueryParamIfNotNull(connection, "since", params.getSinceSecond());
@@ -728,6 +777,7 @@ public class DockerConnector {
         if (params.getRemote() != null) {
             // build context provided by remote URL
             DockerConnection dockerConnection = connectionFactory.openConnection(dockerDaemonUri)
+                                                                 .keepAlive(false)
                                                                  .query("remote", params.getRemote());
             return buildImage(dockerConnection,
                               params,
@@ -742,6 +792,7 @@ public class DockerConnector {
             createTarArchive(tar, files);
             try (InputStream tarInput = new FileInputStream(tar)) {
                 DockerConnection dockerConnection = connectionFactory.openConnection(dockerDaemonUri)
+                                                                     .keepAlive(false)
                                                                      .header("Content-Type", "application/x-compressed-tar")
                                                                      .header("Content-Length", tar.length())
                                                                      .entity(tarInput);
@@ -888,6 +939,7 @@ public class DockerConnector {
         final String fullRepo = params.getFullRepo();
 
         try (DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
+                                                            .keepAlive(false)
                                                             .method("POST")
                                                             .path(apiVersionPathPrefix + "/images/" + fullRepo + "/push")
                                                             .header("X-Registry-Auth",
@@ -997,6 +1049,7 @@ public class DockerConnector {
                         final ProgressMonitor progressMonitor,
                         final URI dockerDaemonUri) throws IOException {
         try (DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
+                                                            .keepAlive(false)
                                                             .method("POST")
                                                             .path(apiVersionPathPrefix + "/images/create")
                                                             .query("fromImage", params.getFullRepo())
@@ -1305,6 +1358,33 @@ public class DockerConnector {
         }
     }
 
+    /**
+     * Reads log messages from response and blocks until the end of stream. Responses of connections which
+     * are able to {@link DockerConnection#stream(DockerStreamListener) stream} are read by I/O threads of connection,
+     * current thread only waits and stops reading when it is interrupted.
+     */
+    private void readLogMessages(DockerConnection connection,
+                                 DockerResponse response,
+                                 MessageProcessor<LogMessage> logMessageProcessor) throws IOException {
+        final CompletableFuture<Void> stream = connection.stream(new LogMessageDecoder(logMessageProcessor));
+        if (stream == null) {
+            try (InputStream responseStream = response.getInputStream()) {
+                new LogMessagePumper(responseStream, logMessageProcessor).start();
+            }
+            return;
+        }
+        try {
+            stream.get();
+        } catch (InterruptedException e) {
+            stream.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Reading of docker stream was interrupted");
+        } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(e.getCause(), IOException.class);
+            throw new IOException(e.getCause().getLocalizedMessage(), e.getCause());
+        }
+    }
+
     private void createTarArchive(File tar, File... files) throws IOException {
         TarUtils.tarFiles(tar, 0, files);
     }
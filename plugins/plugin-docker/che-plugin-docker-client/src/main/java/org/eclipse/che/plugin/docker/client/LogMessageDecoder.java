@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.eclipse.che.plugin.docker.client.connection.DockerStreamListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits multiplexed stdout and stderr of container into lines and passes them to {@link MessageProcessor} as {@link LogMessage}s.
+ * Each frame of stream has 8 bytes header, the first byte is type of stream and the last four bytes are length of frame payload.
+ * Data may come in portions of any size, frame headers and lines may be split between portions.
+ * <p>
+ * Lines are ended with LF or CR LF. Lonely CR ends line too but it is kept in log message, that is how progress bars
+ * are usually printed. Lines which are longer than {@link #MAX_LINE_LENGTH} bytes are split.
+ */
+class LogMessageDecoder implements DockerStreamListener {
+    private static final Logger LOG = LoggerFactory.getLogger(LogMessageDecoder.class);
+
+    private static final int STREAM_HEADER_LENGTH = 8;
+    private static final int MAX_LINE_LENGTH      = 1024;
+
+    private final MessageProcessor<LogMessage> target;
+    private final byte[]                       header;
+    private final byte[]                       line;
+
+    private int             headerLength;
+    private int             remaining;
+    private int             lineLength;
+    private boolean         carriageReturn;
+    private LogMessage.Type logMessageType;
+
+    LogMessageDecoder(MessageProcessor<LogMessage> target) {
+        this.target = target;
+        header = new byte[STREAM_HEADER_LENGTH];
+        line = new byte[MAX_LINE_LENGTH];
+        logMessageType = LogMessage.Type.DOCKER;
+    }
+
+    @Override
+    public void onData(byte[] data, int offset, int length) {
+        final int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            if (remaining == 0) {
+                header[headerLength++] = data[i++];
+                if (headerLength == STREAM_HEADER_LENGTH) {
+                    headerLength = 0;
+                    logMessageType = getLogMessageType(header);
+                    remaining = getPayloadLength(header);
+                }
+                continue;
+            }
+            final int payloadEnd = i + Math.min(remaining, end - i);
+            remaining -= payloadEnd - i;
+            for (; i < payloadEnd; i++) {
+                final byte b = data[i];
+                if (carriageReturn) {
+                    carriageReturn = false;
+                    if (b == '\n') {
+                        // CR LF, don't include CR in log message
+                        processLine(false);
+                        continue;
+                    }
+                    processLine(true);
+                }
+                if (b == '\n') {
+                    processLine(false);
+                } else if (b == '\r') {
+                    carriageReturn = true;
+                } else {
+                    if (lineLength == MAX_LINE_LENGTH) {
+                        processLine(false);
+                    }
+                    line[lineLength++] = b;
+                }
+            }
+            if (remaining == 0 && carriageReturn) {
+                // don't wait for the next frame, CR at the end of frame is kept in log message
+                carriageReturn = false;
+                processLine(true);
+            }
+        }
+    }
+
+    @Override
+    public void onEnd() {
+        if (headerLength != 0) {
+            LOG.debug("Invalid stream, can't read header. Header of each frame must contain 8 bytes but got {}", headerLength);
+        }
+        if (carriageReturn) {
+            carriageReturn = false;
+            processLine(true);
+        } else if (lineLength > 0) {
+            processLine(false);
+        }
+    }
+
+    private void processLine(boolean includeCarriageReturn) {
+        final String content = new String(line, 0, lineLength);
+        lineLength = 0;
+        target.process(new LogMessage(logMessageType, includeCarriageReturn ? content + '\r' : content));
+    }
+
+    private int getPayloadLength(byte[] header) {
+        return (header[7] & 0xFF) + ((header[6] & 0xFF) << 8) + ((header[5] & 0xFF) << 16) + ((header[4] & 0xFF) << 24);
+    }
+
+    private LogMessage.Type getLogMessageType(byte[] header) {
+        switch (header[0]) {
+            case 0:
+                return LogMessage.Type.STDIN;
+            case 1:
+                return LogMessage.Type.STDOUT;
+            case 2:
+                return LogMessage.Type.STDERR;
+            default:
+                throw new IllegalArgumentException(String.format("Invalid docker stream type %d", header[0]));
+        }
+    }
+}
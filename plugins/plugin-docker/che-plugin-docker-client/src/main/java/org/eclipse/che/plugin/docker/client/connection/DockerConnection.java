@@ -20,6 +20,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author andrew00x
@@ -30,8 +31,9 @@ public abstract class DockerConnection implements Closeable {
     private String    method;
     private String    path;
     private Entity<?> entity;
-    private StringBuilder         query   = new StringBuilder();
-    private List<Pair<String, ?>> headers = new LinkedList<>();
+    private StringBuilder         query     = new StringBuilder();
+    private List<Pair<String, ?>> headers   = new LinkedList<>();
+    private boolean               keepAlive = true;
 
     public DockerConnection method(String method) {
         this.method = method;
@@ -91,6 +93,16 @@ public abstract class DockerConnection implements Closeable {
         return this;
     }
 
+    /**
+     * Sets whether connection may be reused for the next requests once response is read, by default it may be reused.
+     * Requests which stream output, e.g. logs or events, should not be kept alive, they get dedicated connection which
+     * is closed when this connection is closed.
+     */
+    public DockerConnection keepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
     public DockerResponse request() throws IOException {
         return request(method, path, query.toString(), headers, entity);
     }
@@ -101,8 +113,28 @@ public abstract class DockerConnection implements Closeable {
                                               List<Pair<String, ?>> headers,
                                               Entity<?> entity) throws IOException;
 
+    /**
+     * Reads body of response to the {@link #request() request} in background and passes it to the {@code listener}.
+     * Threads aren't blocked while waiting for data, so this is the way to read long living streams, e.g. logs of container.
+     * Connection gives up the response, it should be closed as usual, but doesn't affect reading of the stream.
+     * Cancellation of returned future stops reading and closes underlying socket.
+     * <p>
+     * Default implementation returns {@code null}, response is read with {@link DockerResponse#getInputStream()} in this case.
+     *
+     * @return future which is completed when the whole body is read or {@code null} if connection can't read response in background
+     * @throws IOException
+     *         if reading can't be started
+     */
+    public CompletableFuture<Void> stream(DockerStreamListener listener) throws IOException {
+        return null;
+    }
+
     public abstract void close();
 
+    protected boolean isKeepAlive() {
+        return keepAlive;
+    }
+
     static abstract class Entity<T> {
         final T entity;
 
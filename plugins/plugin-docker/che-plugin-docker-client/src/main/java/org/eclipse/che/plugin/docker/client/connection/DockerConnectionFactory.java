@@ -16,19 +16,38 @@ import org.eclipse.che.plugin.docker.client.DockerCertificates;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.DockerConnectorConfiguration;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.net.ssl.SSLSocketFactory;
 import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
  * Factory for connections to docker API.
  *
  * <p>Detects connection implementation by checking docker daemon URI.
  *
+ * <p>Connections which are {@link DockerConnection#keepAlive(boolean) kept alive} reuse sockets of previous requests
+ * to the same daemon. For unix socket the factory keeps pool of idle sockets per daemon, see {@link UnixSocketPool}.
+ * For TCP sockets are kept by {@link java.net.HttpURLConnection}, factory shares {@link SSLSocketFactory}
+ * between connections to make sockets of https connections reusable.
+ *
+ * <p>Unix socket connections {@link DockerConnection#stream(DockerStreamListener) stream} responses with the few I/O threads
+ * shared by all connections, see {@link UnixSocketStreamReactor}.
+ *
  * @author Alexander Garagatyi
  */
+@Singleton
 public class DockerConnectionFactory {
-    public static final String CONNECTION_TIMEOUT_MS_PROPERTY      = "docker.connection.tcp.connection_timeout_ms";
-    public static final String CONNECTION_READ_TIMEOUT_MS_PROPERTY = "docker.connection.tcp.read_timeout_ms";
+    public static final String CONNECTION_TIMEOUT_MS_PROPERTY       = "docker.connection.tcp.connection_timeout_ms";
+    public static final String CONNECTION_READ_TIMEOUT_MS_PROPERTY  = "docker.connection.tcp.read_timeout_ms";
+    public static final String UNIX_SOCKET_MAX_IDLE_PROPERTY        = "docker.connection.unix_socket.max_idle_connections";
+    public static final String UNIX_SOCKET_IDLE_TIMEOUT_MS_PROPERTY = "docker.connection.unix_socket.idle_timeout_ms";
+    public static final String UNIX_SOCKET_IO_THREADS_PROPERTY      = "docker.connection.unix_socket.io_threads";
 
     @Inject(optional = true)
     @Named(CONNECTION_TIMEOUT_MS_PROPERTY)
@@ -38,18 +57,66 @@ public class DockerConnectionFactory {
     @Named(CONNECTION_READ_TIMEOUT_MS_PROPERTY)
     private int connectionReadTimeoutMs = 60000;
 
-    private final DockerCertificates dockerCertificates;
+    @Inject(optional = true)
+    @Named(UNIX_SOCKET_MAX_IDLE_PROPERTY)
+    private int unixSocketMaxIdle = 8;
+
+    @Inject(optional = true)
+    @Named(UNIX_SOCKET_IDLE_TIMEOUT_MS_PROPERTY)
+    private long unixSocketIdleTimeoutMs = 30000;
+
+    @Inject(optional = true)
+    @Named(UNIX_SOCKET_IO_THREADS_PROPERTY)
+    private int unixSocketIoThreads = 2;
+
+    private final SSLSocketFactory                      sslSocketFactory;
+    private final ConcurrentMap<String, UnixSocketPool> unixSocketPools;
+
+    private volatile UnixSocketStreamReactor streamReactor;
 
     @Inject
     public DockerConnectionFactory(DockerConnectorConfiguration connectorConfiguration) {
-        this.dockerCertificates = connectorConfiguration.getDockerCertificates();
+        final DockerCertificates dockerCertificates = connectorConfiguration.getDockerCertificates();
+        this.sslSocketFactory = dockerCertificates == null ? null : dockerCertificates.getSslContext().getSocketFactory();
+        this.unixSocketPools = new ConcurrentHashMap<>();
     }
 
     public DockerConnection openConnection(URI dockerDaemonUri) {
         if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
-            return new UnixSocketConnection(dockerDaemonUri.getPath());
+            final String socketPath = dockerDaemonUri.getPath();
+            return new UnixSocketConnection(socketPath,
+                                            unixSocketPools.computeIfAbsent(socketPath, this::createPool),
+                                            getStreamReactor());
         } else {
-            return new TcpConnection(dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs);
+            return new TcpConnection(dockerDaemonUri, sslSocketFactory, connectionTimeoutMs, connectionReadTimeoutMs);
         }
     }
+
+    @PreDestroy
+    void close() {
+        unixSocketPools.values().forEach(UnixSocketPool::close);
+        synchronized (this) {
+            if (streamReactor != null) {
+                streamReactor.close();
+            }
+        }
+    }
+
+    private UnixSocketStreamReactor getStreamReactor() {
+        UnixSocketStreamReactor reactor = streamReactor;
+        if (reactor == null) {
+            synchronized (this) {
+                reactor = streamReactor;
+                if (reactor == null) {
+                    // threads are started with the first stream
+                    streamReactor = reactor = new UnixSocketStreamReactor(unixSocketIoThreads);
+                }
+            }
+        }
+        return reactor;
+    }
+
+    private UnixSocketPool createPool(String socketPath) {
+        return new UnixSocketPool(socketPath, unixSocketMaxIdle, MILLISECONDS.toNanos(unixSocketIdleTimeoutMs));
+    }
 }
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import java.io.IOException;
+
+/**
+ * Receives body of docker API response which is read without blocking of caller, see {@link DockerConnection#stream(DockerStreamListener)}.
+ * Methods are called from I/O thread, implementations must not block.
+ */
+public interface DockerStreamListener {
+    /**
+     * Called when the next part of response body is read. Content of {@code data} is valid only during this call.
+     *
+     * @throws IOException
+     *         if data can't be processed, reading of response is stopped in this case
+     */
+    void onData(byte[] data, int offset, int length) throws IOException;
+
+    /** Called once the whole response body is read. */
+    void onEnd() throws IOException;
+}
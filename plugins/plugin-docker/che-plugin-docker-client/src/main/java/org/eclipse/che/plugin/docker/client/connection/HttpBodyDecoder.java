@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import java.io.IOException;
+
+/**
+ * Push counterpart of {@link LimitedInputStream} and {@link ChunkedInputStream}. Gets raw data of HTTP response body
+ * in portions of any size, as they are read from socket, and passes decoded body to {@link DockerStreamListener}.
+ */
+abstract class HttpBodyDecoder {
+    /** Body which ends with end of stream. */
+    static HttpBodyDecoder identity(DockerStreamListener listener) {
+        return new HttpBodyDecoder(listener) {
+            @Override
+            void doDecode(byte[] data, int offset, int length) throws IOException {
+                listener.onData(data, offset, length);
+            }
+
+            @Override
+            void endOfStream() throws IOException {
+                complete();
+            }
+        };
+    }
+
+    /** Body with known length, see 'Content-Length' header. */
+    static HttpBodyDecoder limited(DockerStreamListener listener, long contentLength) {
+        return new HttpBodyDecoder(listener) {
+            long remaining = contentLength;
+
+            @Override
+            void doDecode(byte[] data, int offset, int length) throws IOException {
+                final int n = (int)Math.min(remaining, length);
+                listener.onData(data, offset, n);
+                remaining -= n;
+                if (remaining == 0) {
+                    complete();
+                }
+            }
+        };
+    }
+
+    /** Body with 'chunked' transfer encoding. */
+    static HttpBodyDecoder chunked(DockerStreamListener listener) {
+        return new ChunkedBodyDecoder(listener);
+    }
+
+    final DockerStreamListener listener;
+
+    private boolean complete;
+
+    HttpBodyDecoder(DockerStreamListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Decodes the next portion of raw response data.
+     *
+     * @return {@code true} if the whole body is decoded, the rest of data, if any, doesn't belong to the body
+     */
+    final boolean decode(byte[] data, int offset, int length) throws IOException {
+        if (!complete && length > 0) {
+            doDecode(data, offset, length);
+        }
+        return complete;
+    }
+
+    /** Called when the peer closes connection. */
+    void endOfStream() throws IOException {
+        if (!complete) {
+            throw new IOException("Unexpected end of response from docker API");
+        }
+    }
+
+    final void complete() throws IOException {
+        if (!complete) {
+            complete = true;
+            listener.onEnd();
+        }
+    }
+
+    abstract void doDecode(byte[] data, int offset, int length) throws IOException;
+
+    private static class ChunkedBodyDecoder extends HttpBodyDecoder {
+        private static final int CHUNK_SIZE = 0;
+        private static final int CHUNK_DATA = 1;
+        private static final int CHUNK_CR   = 2;
+        private static final int CHUNK_LF   = 3;
+        private static final int TRAILER    = 4;
+
+        private int     state = CHUNK_SIZE;
+        private int     chunkSize;
+        private int     sizeDigits;
+        private boolean sizeEnd;
+        private int     remaining;
+        private int     trailerLineLength;
+
+        ChunkedBodyDecoder(DockerStreamListener listener) {
+            super(listener);
+        }
+
+        @Override
+        void doDecode(byte[] data, int offset, int length) throws IOException {
+            final int end = offset + length;
+            int i = offset;
+            while (i < end) {
+                switch (state) {
+                    case CHUNK_SIZE:
+                        readChunkSize(data[i++]);
+                        break;
+                    case CHUNK_DATA:
+                        final int n = Math.min(remaining, end - i);
+                        listener.onData(data, i, n);
+                        i += n;
+                        remaining -= n;
+                        if (remaining == 0) {
+                            state = CHUNK_CR;
+                        }
+                        break;
+                    case CHUNK_CR:
+                        if (data[i++] != '\r') {
+                            throw new IOException("CR character is missing");
+                        }
+                        state = CHUNK_LF;
+                        break;
+                    case CHUNK_LF:
+                        if (data[i++] != '\n') {
+                            throw new IOException("LF character is missing");
+                        }
+                        state = CHUNK_SIZE;
+                        break;
+                    case TRAILER:
+                        final byte b = data[i++];
+                        if (b == '\n') {
+                            if (trailerLineLength == 0) {
+                                complete();
+                                return;
+                            }
+                            trailerLineLength = 0;
+                        } else if (b != '\r') {
+                            trailerLineLength++;
+                        }
+                        break;
+                }
+            }
+        }
+
+        private void readChunkSize(byte b) throws IOException {
+            if (b == '\n') {
+                if (sizeDigits == 0) {
+                    throw new IOException("Invalid chunk size");
+                }
+                state = chunkSize == 0 ? TRAILER : CHUNK_DATA;
+                remaining = chunkSize;
+                chunkSize = 0;
+                sizeDigits = 0;
+                sizeEnd = false;
+                return;
+            }
+            final int digit = Character.digit(b, 16);
+            if (digit == -1) {
+                // '\r' or chunk extension
+                sizeEnd = true;
+            } else if (!sizeEnd) {
+                if (chunkSize > (Integer.MAX_VALUE >> 4)) {
+                    throw new IOException("Invalid chunk size");
+                }
+                chunkSize = (chunkSize << 4) + digit;
+                sizeDigits++;
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.plugin.docker.client.DockerCertificates;
 
 import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
@@ -24,27 +25,44 @@ import java.net.URL;
 import java.util.List;
 
 /**
+ * Connection to docker API over TCP.
+ *
+ * <p>Connection which is {@link #keepAlive(boolean) kept alive} relies on the keep-alive cache of {@link HttpURLConnection}:
+ * underlying socket is returned to the cache when response is read and the connection is closed.
+ * The cache is bounded by system property {@code http.maxConnections} (number of idle connections per destination),
+ * idle connections are closed after keep-alive timeout of server or 5 seconds.
+ * For https connections socket may be reused only by connection that has the same {@link SSLSocketFactory} instance,
+ * so the factory should be shared by connections to the same daemon.
+ *
  * @author andrew00x
  * @author Alexander Garagatyi
  */
 public class TcpConnection extends DockerConnection {
-    private final URI                baseUri;
-    private final DockerCertificates certificates;
-    private final int                connectionTimeout;
-    private final int                readTimeout;
+    private final URI              baseUri;
+    private final SSLSocketFactory sslSocketFactory;
+    private final int              connectionTimeout;
+    private final int              readTimeout;
 
     private HttpURLConnection connection;
+    private boolean           requested;
 
     public TcpConnection(URI baseUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs) {
+        this(baseUri,
+             certificates == null ? null : certificates.getSslContext().getSocketFactory(),
+             connectionTimeoutMs,
+             readTimeoutMs);
+    }
+
+    public TcpConnection(URI baseUri, SSLSocketFactory sslSocketFactory, int connectionTimeoutMs, int readTimeoutMs) {
         if ("https".equals(baseUri.getScheme())) {
-            if (certificates == null) {
+            if (sslSocketFactory == null) {
                 throw new IllegalArgumentException("Certificates are required for https connection.");
             }
         } else if (!("http".equals(baseUri.getScheme()))) {
             throw new IllegalArgumentException(String.format("Invalid URL '%s', only http and https protocols are supported.", baseUri));
         }
         this.baseUri = baseUri;
-        this.certificates = certificates;
+        this.sslSocketFactory = sslSocketFactory;
         this.connectionTimeout = connectionTimeoutMs;
         this.readTimeout = readTimeoutMs;
     }
@@ -59,11 +77,13 @@ public class TcpConnection extends DockerConnection {
         connection.setConnectTimeout(connectionTimeout);
         connection.setReadTimeout(readTimeout);
         if ("https".equals(protocol)) {
-            ((HttpsURLConnection)connection).setSSLSocketFactory(certificates.getSslContext().getSocketFactory());
+            ((HttpsURLConnection)connection).setSSLSocketFactory(sslSocketFactory);
         }
         connection.setRequestMethod(method);
-        // needed to fix bug https://github.com/docker/docker/issues/12845
-        connection.setRequestProperty("Connection", "close");
+        if (!isKeepAlive()) {
+            // needed to fix bug https://github.com/docker/docker/issues/12845
+            connection.setRequestProperty("Connection", "close");
+        }
         for (Pair<String, ?> header : headers) {
             connection.setRequestProperty(header.first, String.valueOf(header.second));
         }
@@ -79,13 +99,25 @@ public class TcpConnection extends DockerConnection {
                 entity.writeTo(output);
             }
         }
+        requested = true;
         return new TcpDockerResponse(connection);
     }
 
     @Override
     public void close() {
-        if (connection != null) {
-            connection.disconnect();
+        if (connection == null) {
+            return;
+        }
+        if (isKeepAlive() && requested) {
+            // closing of response stream returns socket to the keep-alive cache,
+            // the rest of response is skipped by HttpURLConnection
+            try {
+                new TcpDockerResponse(connection).getInputStream().close();
+                return;
+            } catch (IOException e) {
+                // socket is broken, there is nothing to return to the cache
+            }
         }
+        connection.disconnect();
     }
 }
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.io.ByteStreams;
+import com.sun.jna.Native;
+
+import org.eclipse.che.plugin.docker.client.CLibrary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+
+import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.plugin.docker.client.CLibrary.EAGAIN;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_DONTWAIT;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_PEEK;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+
+/**
+ * Connected unix socket with buffered streams. Streams are kept for the whole life of socket,
+ * so the socket may be used for number of HTTP requests one after another.
+ */
+class UnixSocket implements Closeable {
+    static UnixSocket connect(String socketPath) throws ConnectException {
+        final CLibrary cLib = getCLibrary();
+        final int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
+        if (fd == -1) {
+            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", socketPath));
+        }
+        final SockAddrUn sockAddr = new SockAddrUn(socketPath);
+        if (cLib.connect(fd, sockAddr, sockAddr.size()) == -1) {
+            cLib.close(fd);
+            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", socketPath));
+        }
+        return new UnixSocket(fd);
+    }
+
+    private final int          fd;
+    private final InputStream  input;
+    private final OutputStream output;
+
+    private long    idleSince;
+    private boolean closed;
+
+    private UnixSocket(int fd) {
+        this.fd = fd;
+        this.input = new BufferedInputStream(new UnixSocketInputStream(fd));
+        this.output = new BufferedOutputStream(new UnixSocketOutputStream(fd));
+    }
+
+    int getFd() {
+        return fd;
+    }
+
+    InputStream getInputStream() {
+        return input;
+    }
+
+    OutputStream getOutputStream() {
+        return output;
+    }
+
+    /** Reads data which is already received and buffered by input stream of this socket. Doesn't block. */
+    byte[] readBuffered() throws IOException {
+        final byte[] buffered = new byte[input.available()];
+        ByteStreams.readFully(input, buffered);
+        return buffered;
+    }
+
+    /** Time in nanoseconds, as returned by {@link System#nanoTime()}, since the socket doesn't serve any request. */
+    long getIdleSince() {
+        return idleSince;
+    }
+
+    void setIdleSince(long idleSince) {
+        this.idleSince = idleSince;
+    }
+
+    /**
+     * Checks that idle socket may be used for the next request: peer hasn't closed it and there is no unexpected data in it.
+     * Check doesn't block.
+     */
+    boolean isHealthy() {
+        if (closed) {
+            return false;
+        }
+        final CLibrary cLib = getCLibrary();
+        // 0 means peer closed connection, positive value means that there are unread data
+        return cLib.recv(fd, new byte[1], 1, MSG_PEEK | MSG_DONTWAIT) == -1 && Native.getLastError() == EAGAIN;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            getCLibrary().close(fd);
+        }
+    }
+}
@@ -13,68 +13,108 @@ package org.eclipse.che.plugin.docker.client.connection;
 import com.google.common.base.Strings;
 
 import org.eclipse.che.commons.lang.Pair;
-import org.eclipse.che.plugin.docker.client.CLibrary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.net.ConnectException;
 import java.util.List;
-
-import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
-import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
-import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
-import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author andrew00x
  * @author Alexander Garagatyi
  */
 public class UnixSocketConnection extends DockerConnection {
-    private final String dockerSocketPath;
+    private static final Logger LOG = LoggerFactory.getLogger(UnixSocketConnection.class);
+
+    private final String                  dockerSocketPath;
+    private final UnixSocketPool          pool;
+    private final UnixSocketStreamReactor streamReactor;
 
-    private int fd = -1;
+    private UnixSocket               socket;
+    private UnixSocketDockerResponse response;
 
     public UnixSocketConnection(String dockerSocketPath) {
+        this(dockerSocketPath, null, null);
+    }
+
+    /**
+     * Creates connection which takes socket from the {@code pool} and returns it back once response is read,
+     * if {@code pool} is {@code null} or connection is not {@link #keepAlive(boolean) kept alive} socket is
+     * opened for single request. If {@code streamReactor} isn't {@code null} responses may be {@link #stream(DockerStreamListener)
+     * streamed} by it.
+     */
+    UnixSocketConnection(String dockerSocketPath, UnixSocketPool pool, UnixSocketStreamReactor streamReactor) {
         this.dockerSocketPath = dockerSocketPath;
+        this.pool = pool;
+        this.streamReactor = streamReactor;
     }
 
     @Override
     protected DockerResponse request(String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
             throws IOException {
-        fd = connect();
-        final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
+        socket = isPooled() ? pool.acquire() : UnixSocket.connect(dockerSocketPath);
+        final OutputStream output = socket.getOutputStream();
         writeHttpHeaders(output, method, path, query, headers);
         if (entity != null) {
             entity.writeTo(output);
         }
-        return new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
+        return response = new UnixSocketDockerResponse(socket.getInputStream());
     }
 
-
     @Override
-    public void close() {
-        if (fd != -1) {
-            getCLibrary().close(fd);
+    public CompletableFuture<Void> stream(DockerStreamListener listener) throws IOException {
+        if (streamReactor == null) {
+            return null;
+        }
+        if (response == null) {
+            throw new IllegalStateException("Request isn't sent");
+        }
+        final HttpBodyDecoder decoder = response.getBodyDecoder(listener);
+        // socket isn't returned to the pool, it's closed when stream ends
+        final UnixSocket streamSocket = socket;
+        socket = null;
+        response = null;
+        if (decoder == null) {
+            streamSocket.close();
+            listener.onEnd();
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return streamReactor.register(streamSocket, decoder);
+        } catch (IOException e) {
+            streamSocket.close();
+            throw e;
         }
     }
 
-    private int connect() throws IOException {
-        final CLibrary cLib = getCLibrary();
-        int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
-        if (fd == -1) {
-            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
+    @Override
+    public void close() {
+        if (socket == null) {
+            return;
+        }
+        boolean reusable = false;
+        if (isPooled() && response != null) {
+            try {
+                reusable = response.drain();
+            } catch (IOException e) {
+                LOG.debug(e.getLocalizedMessage(), e);
+            }
         }
-        final SockAddrUn sockAddr = new SockAddrUn(dockerSocketPath);
-        int c = cLib.connect(fd, sockAddr, sockAddr.size());
-        if (c == -1) {
-            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
+        if (reusable) {
+            pool.release(socket);
+        } else {
+            socket.close();
         }
-        return fd;
+        socket = null;
+        response = null;
+    }
+
+    private boolean isPooled() {
+        return pool != null && isKeepAlive();
     }
 
     private void writeHttpHeaders(OutputStream output, String method, String path, String query, List<Pair<String, ?>> headers)
@@ -94,16 +134,11 @@ public class UnixSocketConnection extends DockerConnection {
             writer.write(String.valueOf(header.second));
             writer.write("\r\n");
         }
+        if (!isKeepAlive()) {
+            writer.write("Connection: close\r\n");
+        }
         // Host header is mandatory in HTTP 1.1
         writer.write("Host: \r\n\r\n");
         writer.flush();
     }
-
-    private InputStream openInputStream(int fd) {
-        return new UnixSocketInputStream(fd);
-    }
-
-    private OutputStream openOutputStream(int fd) {
-        return new UnixSocketOutputStream(fd);
-    }
 }
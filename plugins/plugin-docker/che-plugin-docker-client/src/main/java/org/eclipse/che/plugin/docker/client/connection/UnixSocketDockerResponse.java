@@ -19,6 +19,9 @@ import java.util.List;
 * @author andrew00x
 */
 public class UnixSocketDockerResponse implements DockerResponse {
+    // max number of unread bytes of response body that are skipped to reuse connection
+    private static final int MAX_DRAIN_BYTES = 8192;
+
     private static final InputStream EMPTY = new InputStream() {
         @Override
         public int read() throws IOException {
@@ -143,8 +146,10 @@ public class UnixSocketDockerResponse implements DockerResponse {
             }
         }
         this.headersFields = headerFields.toArray(new String[headerFields.size()]);
+        final int status = getStatus();
         final int contentLength = getContentLength();
-        if (contentLength == 0) {
+        // responses with 204 and 304 status never have body
+        if (contentLength == 0 || status == 204 || status == 304) {
             return data = EMPTY;
         }
         if (contentLength > 0) {
@@ -152,4 +157,42 @@ public class UnixSocketDockerResponse implements DockerResponse {
         }
         return data = "chunked".equals(getHeader("Transfer-Encoding")) ? new ChunkedInputStream(rawData) : rawData;
     }
+
+    /**
+     * Creates decoder for reading body of this response without blocking.
+     *
+     * @return decoder or {@code null} if response doesn't have body
+     */
+    synchronized HttpBodyDecoder getBodyDecoder(DockerStreamListener listener) throws IOException {
+        final InputStream body = getInputStream();
+        if (body == EMPTY) {
+            return null;
+        }
+        if (body instanceof LimitedInputStream) {
+            return HttpBodyDecoder.limited(listener, getContentLength());
+        }
+        return body instanceof ChunkedInputStream ? HttpBodyDecoder.chunked(listener) : HttpBodyDecoder.identity(listener);
+    }
+
+    /**
+     * Skips the rest of response body if it is not bigger than {@link #MAX_DRAIN_BYTES}.
+     *
+     * @return {@code true} if the whole response is read and connection may be used for the next request
+     */
+    synchronized boolean drain() throws IOException {
+        if (headersFields == null || data == rawData || "close".equalsIgnoreCase(getHeader("Connection"))) {
+            // response isn't read or its end is the end of stream
+            return false;
+        }
+        final byte[] buf = new byte[MAX_DRAIN_BYTES];
+        int drained = 0;
+        int n;
+        while ((n = data.read(buf, 0, buf.length)) != -1) {
+            drained += n;
+            if (drained > MAX_DRAIN_BYTES) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps idle connections to single docker daemon unix socket to reuse them for the next requests.
+ *
+ * <p>Number of idle connections is limited, connection that is released when pool is full is closed.
+ * Pool doesn't limit number of connections in use. Connections that are idle longer than idle timeout
+ * are closed when pool is accessed next time. Idle connection is checked before it is given for request,
+ * connection closed by daemon is discarded.
+ */
+class UnixSocketPool {
+    private final String            socketPath;
+    private final int               maxIdle;
+    private final long              idleTimeoutNanos;
+    // most recently used first
+    private final Deque<UnixSocket> idle;
+
+    private boolean closed;
+
+    UnixSocketPool(String socketPath, int maxIdle, long idleTimeoutNanos) {
+        this.socketPath = socketPath;
+        this.maxIdle = maxIdle;
+        this.idleTimeoutNanos = idleTimeoutNanos;
+        this.idle = new ArrayDeque<>(maxIdle);
+    }
+
+    /** Gets idle connection or opens new one if there is no healthy idle connection. */
+    UnixSocket acquire() throws IOException {
+        closeAll(evictExpired());
+        for (; ; ) {
+            final UnixSocket socket;
+            synchronized (this) {
+                socket = idle.pollFirst();
+            }
+            if (socket == null) {
+                return UnixSocket.connect(socketPath);
+            }
+            if (socket.isHealthy()) {
+                return socket;
+            }
+            socket.close();
+        }
+    }
+
+    /** Returns connection which doesn't have unread data to the pool. */
+    void release(UnixSocket socket) {
+        final List<UnixSocket> expired = evictExpired();
+        boolean pooled = false;
+        synchronized (this) {
+            if (!closed && idle.size() < maxIdle) {
+                socket.setIdleSince(System.nanoTime());
+                idle.addFirst(socket);
+                pooled = true;
+            }
+        }
+        if (!pooled) {
+            socket.close();
+        }
+        closeAll(expired);
+    }
+
+    /** Number of idle connections in the pool. */
+    synchronized int getIdleCount() {
+        return idle.size();
+    }
+
+    /** Closes all idle connections, connections released after that are closed. */
+    void close() {
+        final List<UnixSocket> all;
+        synchronized (this) {
+            closed = true;
+            all = new ArrayList<>(idle);
+            idle.clear();
+        }
+        closeAll(all);
+    }
+
+    private synchronized List<UnixSocket> evictExpired() {
+        List<UnixSocket> expired = null;
+        final long now = System.nanoTime();
+        // the least recently used connections are at the end
+        UnixSocket socket;
+        while ((socket = idle.peekLast()) != null && now - socket.getIdleSince() >= idleTimeoutNanos) {
+            if (expired == null) {
+                expired = new ArrayList<>();
+            }
+            expired.add(idle.pollLast());
+        }
+        return expired;
+    }
+
+    private void closeAll(List<UnixSocket> sockets) {
+        if (sockets != null) {
+            sockets.forEach(UnixSocket::close);
+        }
+    }
+}
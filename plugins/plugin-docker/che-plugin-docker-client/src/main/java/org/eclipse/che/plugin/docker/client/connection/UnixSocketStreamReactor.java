@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.ptr.LongByReference;
+
+import org.eclipse.che.plugin.docker.client.CLibrary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.eclipse.che.plugin.docker.client.CLibrary.EAGAIN;
+import static org.eclipse.che.plugin.docker.client.CLibrary.EINTR;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_DONTWAIT;
+import static org.eclipse.che.plugin.docker.client.CLibrary.POLLIN;
+import static org.eclipse.che.plugin.docker.client.CLibrary.PollFd;
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+
+/**
+ * Reads responses of docker API from unix sockets without blocking of threads which wait for them.
+ * <p>
+ * Each of a few I/O threads runs its own event loop: waits with {@code poll} until any of its sockets has data,
+ * reads available data without blocking and pushes it to {@link HttpBodyDecoder} of the socket. So number of threads
+ * doesn't depend on number of streams, e.g. logs of containers, which are read at the same time.
+ * New stream is given to the loop which has the least number of streams. Threads are started with the first stream.
+ * <p>
+ * Cancellation of future returned by {@link #register(UnixSocket, HttpBodyDecoder)} stops reading of stream and closes
+ * its socket right away, it doesn't wait for the next data from the socket.
+ */
+class UnixSocketStreamReactor implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(UnixSocketStreamReactor.class);
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final int nThreads;
+
+    private EventLoop[]     loops;
+    private ExecutorService executor;
+    private boolean         closed;
+
+    UnixSocketStreamReactor(int nThreads) {
+        if (nThreads < 1) {
+            throw new IllegalArgumentException("Number of I/O threads must be positive");
+        }
+        this.nThreads = nThreads;
+    }
+
+    /**
+     * Starts reading of response from {@code socket}. The reactor owns the socket from now and closes it when response is read,
+     * reading fails or returned future is cancelled.
+     *
+     * @return future which is completed when the whole response is read
+     * @throws IOException
+     *         if reactor is closed or can't be started
+     */
+    CompletableFuture<Void> register(UnixSocket socket, HttpBodyDecoder decoder) throws IOException {
+        final byte[] buffered = socket.readBuffered();
+        final EventLoop loop = getEventLoop();
+        final Stream stream = new Stream(loop, socket, decoder, buffered);
+        loop.register(stream);
+        return stream;
+    }
+
+    /** Number of streams which are being read at the moment. */
+    synchronized int getStreamCount() {
+        int count = 0;
+        if (loops != null) {
+            for (EventLoop loop : loops) {
+                count += loop.streamCount.get();
+            }
+        }
+        return count;
+    }
+
+    /** Stops all I/O threads, streams which are not read to the end fail. */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (loops != null) {
+            for (EventLoop loop : loops) {
+                loop.running = false;
+                loop.wakeup();
+            }
+            executor.shutdown();
+        }
+    }
+
+    private synchronized EventLoop getEventLoop() throws IOException {
+        if (closed) {
+            throw new IOException("Reading of docker streams is stopped");
+        }
+        if (loops == null) {
+            final EventLoop[] newLoops = new EventLoop[nThreads];
+            try {
+                for (int i = 0; i < nThreads; i++) {
+                    newLoops[i] = new EventLoop();
+                }
+            } catch (IOException e) {
+                for (EventLoop loop : newLoops) {
+                    if (loop != null) {
+                        getCLibrary().close(loop.wakeupFd);
+                    }
+                }
+                throw e;
+            }
+            loops = newLoops;
+            executor = Executors.newFixedThreadPool(nThreads, new ThreadFactoryBuilder().setNameFormat("DockerStreamReactor-%d")
+                                                                                        .setDaemon(true)
+                                                                                        .build());
+            for (EventLoop loop : loops) {
+                executor.execute(loop);
+            }
+        }
+        EventLoop leastLoaded = loops[0];
+        for (int i = 1; i < loops.length; i++) {
+            if (loops[i].streamCount.get() < leastLoaded.streamCount.get()) {
+                leastLoaded = loops[i];
+            }
+        }
+        return leastLoaded;
+    }
+
+    private static class EventLoop implements Runnable {
+        final CLibrary      cLib;
+        final int           wakeupFd;
+        final Queue<Stream> registered;
+        final AtomicInteger streamCount;
+
+        // accessed only by thread of event loop
+        final List<Stream> streams;
+        final byte[]       readBuffer;
+        PollFd[]           pollFds;
+
+        volatile boolean running;
+        boolean          wakeupClosed;
+
+        EventLoop() throws IOException {
+            cLib = getCLibrary();
+            wakeupFd = cLib.eventfd(0, 0);
+            if (wakeupFd == -1) {
+                throw new IOException("Unable create eventfd: " + cLib.strerror(Native.getLastError()));
+            }
+            registered = new ConcurrentLinkedQueue<>();
+            streamCount = new AtomicInteger();
+            streams = new ArrayList<>();
+            readBuffer = new byte[READ_BUFFER_SIZE];
+            running = true;
+        }
+
+        void register(Stream stream) {
+            streamCount.incrementAndGet();
+            registered.add(stream);
+            if (running) {
+                wakeup();
+            } else {
+                // loop is stopped and may not see the stream
+                stream.completeExceptionally(new IOException("Reading of docker streams is stopped"));
+                stream.socket.close();
+            }
+        }
+
+        synchronized void wakeup() {
+            // eventfd is closed once loop is stopped, its descriptor may be already reused
+            if (!wakeupClosed) {
+                cLib.eventfd_write(wakeupFd, 1);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    Stream stream;
+                    while ((stream = registered.poll()) != null) {
+                        streams.add(stream);
+                        stream.start();
+                    }
+                    streams.removeIf(this::closeIfDone);
+                    if (!running) {
+                        break;
+                    }
+                    poll();
+                }
+            } catch (RuntimeException e) {
+                LOG.error(e.getMessage(), e);
+            } finally {
+                running = false;
+                Stream stream;
+                while ((stream = registered.poll()) != null) {
+                    streams.add(stream);
+                }
+                for (Stream s : streams) {
+                    s.completeExceptionally(new IOException("Reading of docker streams is stopped"));
+                    s.socket.close();
+                }
+                streams.clear();
+                closeWakeup();
+            }
+        }
+
+        private synchronized void closeWakeup() {
+            wakeupClosed = true;
+            cLib.close(wakeupFd);
+        }
+
+        private void poll() {
+            final int nfds = streams.size() + 1;
+            if (pollFds == null || pollFds.length < nfds) {
+                pollFds = (PollFd[])new PollFd().toArray(Math.max(nfds, pollFds == null ? 16 : pollFds.length * 2));
+            }
+            pollFds[0].fd = wakeupFd;
+            pollFds[0].events = POLLIN;
+            for (int i = 1; i < nfds; i++) {
+                pollFds[i].fd = streams.get(i - 1).socket.getFd();
+                pollFds[i].events = POLLIN;
+            }
+            if (cLib.poll(pollFds, new NativeLong(nfds), -1) == -1) {
+                final int errno = Native.getLastError();
+                if (errno != EINTR) {
+                    final IOException error = new IOException("Unable poll docker streams: " + cLib.strerror(errno));
+                    streams.forEach(s -> s.completeExceptionally(error));
+                }
+                return;
+            }
+            if (pollFds[0].revents != 0) {
+                cLib.eventfd_read(wakeupFd, new LongByReference());
+            }
+            for (int i = 1; i < nfds; i++) {
+                // error and hang up are discovered by read
+                if (pollFds[i].revents != 0) {
+                    streams.get(i - 1).read(readBuffer);
+                }
+            }
+        }
+
+        private boolean closeIfDone(Stream stream) {
+            if (stream.isDone()) {
+                stream.socket.close();
+                streamCount.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class Stream extends CompletableFuture<Void> {
+        final EventLoop       loop;
+        final UnixSocket      socket;
+        final HttpBodyDecoder decoder;
+
+        byte[] buffered;
+
+        Stream(EventLoop loop, UnixSocket socket, HttpBodyDecoder decoder, byte[] buffered) {
+            this.loop = loop;
+            this.socket = socket;
+            this.decoder = decoder;
+            this.buffered = buffered;
+        }
+
+        /** Processes data which was read from socket together with headers of response. */
+        void start() {
+            if (buffered.length > 0) {
+                process(buffered, buffered.length);
+            }
+            buffered = null;
+        }
+
+        void read(byte[] buf) {
+            if (isDone()) {
+                return;
+            }
+            final CLibrary cLib = loop.cLib;
+            final int n = cLib.recv(socket.getFd(), buf, buf.length, MSG_DONTWAIT);
+            if (n > 0) {
+                process(buf, n);
+            } else if (n == 0) {
+                try {
+                    decoder.endOfStream();
+                    complete(null);
+                } catch (IOException | RuntimeException e) {
+                    completeExceptionally(e);
+                }
+            } else {
+                final int errno = Native.getLastError();
+                if (errno != EAGAIN && errno != EINTR) {
+                    completeExceptionally(new IOException("error: " + cLib.strerror(errno)));
+                }
+            }
+        }
+
+        private void process(byte[] data, int length) {
+            if (isDone()) {
+                return;
+            }
+            try {
+                if (decoder.decode(data, 0, length)) {
+                    complete(null);
+                }
+            } catch (IOException | RuntimeException e) {
+                completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                // let event loop close socket
+                loop.wakeup();
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.eclipse.che.api.core.util.SystemInfo;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.plugin.docker.client.json.ContainerConfig;
+import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.json.HostConfig;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests OOM detection with fake cgroup tree. Instead of kernel test notifies eventfd
+ * which detector writes to 'cgroup.event_control' file of container.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class CgroupOOMDetectorTest {
+    private static final URI  DOCKER_DAEMON_URI = URI.create("unix:///var/run/docker.sock");
+    private static final long MEMORY            = 1024 * 1024 * 1024;
+
+    @Mock
+    private DockerConnector dockerConnector;
+
+    private Path              cgroupMount;
+    private CgroupOOMDetector oomDetector;
+
+    @BeforeClass
+    public void checkSystem() {
+        if (!SystemInfo.isLinux()) {
+            throw new SkipException("OOM detection works only on linux");
+        }
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        cgroupMount = Files.createTempDirectory("cgroup");
+        final ContainerInfo containerInfo = new ContainerInfo();
+        containerInfo.setConfig(new ContainerConfig().withHostConfig(new HostConfig().withMemory(MEMORY)));
+        when(dockerConnector.inspectContainer(anyString())).thenReturn(containerInfo);
+        oomDetector = new CgroupOOMDetector(DOCKER_DAEMON_URI, dockerConnector, cgroupMount.toString(), false);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        oomDetector.close();
+        IoUtil.deleteRecursive(cgroupMount.toFile());
+    }
+
+    @Test
+    public void shouldReportOOMToProcessorOfContainerWhichHitMemoryLimit() throws Exception {
+        createCgroup("container1", 1);
+        createCgroup("container2", 0);
+        final List<LogMessage> logs1 = new CopyOnWriteArrayList<>();
+        final List<LogMessage> logs2 = new CopyOnWriteArrayList<>();
+        oomDetector.startDetection("container1", logs1::add);
+        oomDetector.startDetection("container2", logs2::add);
+
+        notifyOOM("container1");
+
+        waitFor(() -> logs1.size() == 2);
+        assertTrue(logs1.get(0).getContent().startsWith("[ERROR] The processes in this machine need more RAM."));
+        assertTrue(logs2.isEmpty());
+    }
+
+    @Test
+    public void shouldNotReportOOMIfMemoryLimitIsNotHit() throws Exception {
+        createCgroup("container1", 0);
+        final List<LogMessage> logs = new CopyOnWriteArrayList<>();
+        oomDetector.startDetection("container1", logs::add);
+        final int efd = getEventFd("container1");
+
+        // the same happens when cgroup is removed
+        notifyOOM("container1");
+
+        waitFor(() -> !isEventFd(efd));
+        assertTrue(logs.isEmpty());
+    }
+
+    @Test
+    public void shouldCloseEventFdWhenDetectionIsStopped() throws Exception {
+        createCgroup("container1", 0);
+        oomDetector.startDetection("container1", message -> {});
+        final int efd = getEventFd("container1");
+        assertTrue(isEventFd(efd));
+
+        oomDetector.stopDetection("container1");
+
+        assertFalse(isEventFd(efd));
+    }
+
+    @Test
+    public void shouldNotStartDetectionIfContainerCgroupDoesNotExist() throws Exception {
+        oomDetector.startDetection("container1", message -> {});
+
+        // detection may be started again once cgroup exists
+        createCgroup("container1", 0);
+        oomDetector.startDetection("container1", message -> {});
+        assertTrue(isEventFd(getEventFd("container1")));
+    }
+
+    private void createCgroup(String container, long failCount) throws Exception {
+        final Path cgroup = Files.createDirectories(cgroupMount.resolve("memory/docker/" + container));
+        Files.createFile(cgroup.resolve("cgroup.event_control"));
+        Files.write(cgroup.resolve("memory.oom_control"), "oom_kill_disable 0\nunder_oom 0\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(cgroup.resolve("memory.failcnt"), (failCount + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Gets eventfd which detector wrote to event control file, the file has format '<eventfd> <oom_control fd>'. */
+    private int getEventFd(String container) throws Exception {
+        final Path eventControl = cgroupMount.resolve("memory/docker/" + container + "/cgroup.event_control");
+        return Integer.parseInt(new String(Files.readAllBytes(eventControl), StandardCharsets.UTF_8).split(" ")[0]);
+    }
+
+    private void notifyOOM(String container) throws Exception {
+        assertEquals(getCLibrary().eventfd_write(getEventFd(container), 1), 0);
+    }
+
+    private static boolean isEventFd(int fd) throws Exception {
+        final Path fdPath = Paths.get("/proc/self/fd/" + fd);
+        return Files.exists(fdPath) && Files.readSymbolicLink(fdPath).toString().equals("anon_inode:[eventfd]");
+    }
+
+    private static void waitFor(Condition condition) throws Exception {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.isMet()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition is not met in 5 seconds");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private interface Condition {
+        boolean isMet() throws Exception;
+    }
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Collections.nCopies;
+import static org.testng.Assert.assertEquals;
+
+public class LogMessageDecoderTest {
+    private List<LogMessage>  messages;
+    private LogMessageDecoder decoder;
+
+    @BeforeMethod
+    public void setUp() {
+        messages = new ArrayList<>();
+        decoder = new LogMessageDecoder(messages::add);
+    }
+
+    @Test
+    public void shouldDecodeFramesWhichComeByteByByte() throws Exception {
+        final byte[] stream = stream(frame(1, "first\nsec"), frame(2, "ond\r\nthird\n"));
+
+        for (int i = 0; i < stream.length; i++) {
+            decoder.onData(stream, i, 1);
+        }
+        decoder.onEnd();
+
+        assertEquals(contents(), Arrays.asList("first", "second", "third"));
+        assertEquals(messages.get(0).getType(), LogMessage.Type.STDOUT);
+        assertEquals(messages.get(2).getType(), LogMessage.Type.STDERR);
+    }
+
+    @Test
+    public void shouldDecodeFramesWhichComeInOnePortion() throws Exception {
+        final byte[] stream = stream(frame(1, "first\n"), frame(1, ""), frame(2, "second\n"));
+
+        decoder.onData(stream, 0, stream.length);
+        decoder.onEnd();
+
+        assertEquals(contents(), Arrays.asList("first", "second"));
+    }
+
+    @Test
+    public void shouldKeepLonelyCarriageReturnInLogMessage() throws Exception {
+        final byte[] stream = stream(frame(1, "10%\r20%\r\n"));
+
+        decoder.onData(stream, 0, stream.length);
+        decoder.onEnd();
+
+        assertEquals(contents(), Arrays.asList("10%\r", "20%"));
+    }
+
+    @Test
+    public void shouldProcessIncompleteLineAtTheEndOfStream() throws Exception {
+        final byte[] stream = stream(frame(1, "first\nlast"));
+
+        decoder.onData(stream, 0, stream.length);
+        assertEquals(contents(), Arrays.asList("first"));
+        decoder.onEnd();
+
+        assertEquals(contents(), Arrays.asList("first", "last"));
+    }
+
+    @Test
+    public void shouldSplitTooLongLines() throws Exception {
+        final String longLine = String.join("", nCopies(1500, "a"));
+        final byte[] stream = stream(frame(1, longLine + '\n'));
+
+        decoder.onData(stream, 0, stream.length);
+        decoder.onEnd();
+
+        assertEquals(contents(), Arrays.asList(longLine.substring(0, 1024), longLine.substring(1024)));
+    }
+
+    private List<String> contents() {
+        final List<String> contents = new ArrayList<>(messages.size());
+        for (LogMessage message : messages) {
+            contents.add(message.getContent());
+        }
+        return contents;
+    }
+
+    private static byte[] frame(int type, String payload) {
+        final byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        final int length = payloadBytes.length;
+        final byte[] frame = new byte[8 + length];
+        frame[0] = (byte)type;
+        frame[4] = (byte)(length >> 24);
+        frame[5] = (byte)(length >> 16);
+        frame[6] = (byte)(length >> 8);
+        frame[7] = (byte)length;
+        System.arraycopy(payloadBytes, 0, frame, 8, length);
+        return frame;
+    }
+
+    private static byte[] stream(byte[]... frames) {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (byte[] frame : frames) {
+            stream.write(frame, 0, frame.length);
+        }
+        return stream.toByteArray();
+    }
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class HttpBodyDecoderTest {
+    private Body body;
+
+    @BeforeMethod
+    public void setUp() {
+        body = new Body();
+    }
+
+    @Test
+    public void shouldDecodeChunkedBodyWhichComesByteByByte() throws Exception {
+        final byte[] data = bytes("5\r\nhello\r\n6;name=value\r\n world\r\n0\r\nTrailer: value\r\n\r\n");
+        final HttpBodyDecoder decoder = HttpBodyDecoder.chunked(body);
+
+        for (int i = 0; i < data.length - 1; i++) {
+            assertFalse(decoder.decode(data, i, 1));
+        }
+        assertTrue(decoder.decode(data, data.length - 1, 1));
+
+        assertEquals(body.toString(), "hello world");
+        assertEquals(body.ends, 1);
+    }
+
+    @Test
+    public void shouldIgnoreDataAfterTheLastChunk() throws Exception {
+        final byte[] data = bytes("5\r\nhello\r\n0\r\n\r\nHTTP/1.1 200 OK");
+        final HttpBodyDecoder decoder = HttpBodyDecoder.chunked(body);
+
+        assertTrue(decoder.decode(data, 0, data.length));
+
+        assertEquals(body.toString(), "hello");
+        assertEquals(body.ends, 1);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldFailIfStreamEndsBeforeTheLastChunk() throws Exception {
+        final byte[] data = bytes("5\r\nhello\r\n");
+        final HttpBodyDecoder decoder = HttpBodyDecoder.chunked(body);
+
+        decoder.decode(data, 0, data.length);
+        decoder.endOfStream();
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldFailIfChunkSizeIsInvalid() throws Exception {
+        final byte[] data = bytes("xyz\r\nhello\r\n");
+
+        HttpBodyDecoder.chunked(body).decode(data, 0, data.length);
+    }
+
+    @Test
+    public void shouldDecodeBodyWithContentLength() throws Exception {
+        final byte[] data = bytes("hello world");
+        final HttpBodyDecoder decoder = HttpBodyDecoder.limited(body, 5);
+
+        assertFalse(decoder.decode(data, 0, 3));
+        assertTrue(decoder.decode(data, 3, data.length - 3));
+
+        assertEquals(body.toString(), "hello");
+        assertEquals(body.ends, 1);
+    }
+
+    @Test
+    public void shouldDecodeBodyWhichEndsWithStream() throws Exception {
+        final byte[] data = bytes("hello world");
+        final HttpBodyDecoder decoder = HttpBodyDecoder.identity(body);
+
+        assertFalse(decoder.decode(data, 0, data.length));
+        decoder.endOfStream();
+
+        assertEquals(body.toString(), "hello world");
+        assertEquals(body.ends, 1);
+    }
+
+    private static byte[] bytes(String data) {
+        return data.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class Body implements DockerStreamListener {
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        int ends;
+
+        @Override
+        public void onData(byte[] data, int offset, int length) {
+            this.data.write(data, offset, length);
+        }
+
+        @Override
+        public void onEnd() {
+            ends++;
+        }
+
+        @Override
+        public String toString() {
+            return new String(data.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
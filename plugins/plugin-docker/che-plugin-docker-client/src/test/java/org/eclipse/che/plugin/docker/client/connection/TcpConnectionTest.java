@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.net.ssl.SSLSocketFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Runs requests against local stand-in of docker daemon which counts accepted connections.
+ */
+public class TcpConnectionTest {
+    private static final String RESPONSE = "HTTP/1.1 200 OK\r\n" +
+                                           "Content-Type: application/json\r\n" +
+                                           "Content-Length: 2\r\n" +
+                                           "\r\n" +
+                                           "{}";
+
+    private ServerSocket    serverSocket;
+    private ExecutorService executor;
+    private AtomicInteger   acceptedConnections;
+    private URI             daemonUri;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        serverSocket = new ServerSocket(0);
+        executor = Executors.newCachedThreadPool();
+        acceptedConnections = new AtomicInteger();
+        daemonUri = new URI("http://localhost:" + serverSocket.getLocalPort());
+        executor.execute(() -> {
+            try {
+                for (; ; ) {
+                    final Socket socket = serverSocket.accept();
+                    acceptedConnections.incrementAndGet();
+                    executor.execute(() -> serve(socket));
+                }
+            } catch (IOException ignored) {
+                // server socket is closed
+            }
+        });
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldReuseSocketForRequestsWhichAreKeptAlive() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            try (DockerConnection connection = newConnection().method("GET").path("/info")) {
+                final DockerResponse response = connection.request();
+
+                assertEquals(response.getStatus(), 200);
+            }
+        }
+
+        assertEquals(acceptedConnections.get(), 1);
+    }
+
+    @Test
+    public void shouldOpenSocketForEachRequestWhichIsNotKeptAlive() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            try (DockerConnection connection = newConnection().keepAlive(false).method("GET").path("/events")) {
+                final DockerResponse response = connection.request();
+
+                assertEquals(response.getStatus(), 200);
+            }
+        }
+
+        assertEquals(acceptedConnections.get(), 3);
+    }
+
+    private DockerConnection newConnection() {
+        return new TcpConnection(daemonUri, (SSLSocketFactory)null, 1000, 1000);
+    }
+
+    private void serve(Socket socket) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             OutputStream output = socket.getOutputStream()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                boolean close = false;
+                // requests of test don't have body, read headers only
+                for (; line != null && !line.isEmpty(); line = reader.readLine()) {
+                    close |= line.equalsIgnoreCase("Connection: close");
+                }
+                output.write(RESPONSE.getBytes(StandardCharsets.US_ASCII));
+                output.flush();
+                if (close) {
+                    return;
+                }
+            }
+        } catch (IOException ignored) {
+        }
+    }
+}
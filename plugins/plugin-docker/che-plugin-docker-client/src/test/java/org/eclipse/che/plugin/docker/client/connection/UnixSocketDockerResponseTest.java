@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import com.google.common.io.ByteStreams;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class UnixSocketDockerResponseTest {
+    @Test
+    public void shouldDrainResponseWithContentLengthAndLeaveNextResponseInStream() throws Exception {
+        final InputStream stream = stream("HTTP/1.1 200 OK\r\nContent-Length: 3\r\n\r\n{}\n" +
+                                          "HTTP/1.1 404 Not Found\r\nContent-Length: 5\r\n\r\nerror");
+
+        final UnixSocketDockerResponse first = new UnixSocketDockerResponse(stream);
+        assertEquals(first.getStatus(), 200);
+        assertEquals(first.getInputStream().read(), '{');
+        assertTrue(first.drain());
+
+        final UnixSocketDockerResponse second = new UnixSocketDockerResponse(stream);
+        assertEquals(second.getStatus(), 404);
+        assertEquals(new String(ByteStreams.toByteArray(second.getInputStream()), StandardCharsets.UTF_8), "error");
+    }
+
+    @Test
+    public void shouldDrainChunkedResponse() throws Exception {
+        final InputStream stream = stream("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n2\r\n{}\r\n0\r\n\r\n" +
+                                          "HTTP/1.1 204 No Content\r\n\r\n");
+
+        final UnixSocketDockerResponse first = new UnixSocketDockerResponse(stream);
+        assertEquals(first.getStatus(), 200);
+        assertTrue(first.drain());
+
+        final UnixSocketDockerResponse second = new UnixSocketDockerResponse(stream);
+        assertEquals(second.getStatus(), 204);
+        assertEquals(second.getInputStream().read(), -1);
+        assertTrue(second.drain());
+    }
+
+    @Test
+    public void shouldNotReuseConnectionIfEndOfResponseIsEndOfStream() throws Exception {
+        final UnixSocketDockerResponse response = new UnixSocketDockerResponse(stream("HTTP/1.1 200 OK\r\n" +
+                                                                                      "Content-Type: application/vnd.docker.raw-stream\r\n" +
+                                                                                      "\r\n" +
+                                                                                      "output"));
+        assertEquals(response.getStatus(), 200);
+
+        assertFalse(response.drain());
+    }
+
+    @Test
+    public void shouldNotReuseConnectionClosedByDaemon() throws Exception {
+        final UnixSocketDockerResponse response = new UnixSocketDockerResponse(stream("HTTP/1.1 200 OK\r\n" +
+                                                                                      "Connection: close\r\n" +
+                                                                                      "Content-Length: 2\r\n" +
+                                                                                      "\r\n" +
+                                                                                      "{}"));
+        assertEquals(response.getStatus(), 200);
+
+        assertFalse(response.drain());
+    }
+
+    @Test
+    public void shouldNotReuseConnectionIfResponseIsNotRead() throws Exception {
+        final UnixSocketDockerResponse response = new UnixSocketDockerResponse(stream("HTTP/1.1 200 OK\r\n" +
+                                                                                      "Content-Length: 2\r\n" +
+                                                                                      "\r\n" +
+                                                                                      "{}"));
+
+        assertFalse(response.drain());
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -12,10 +12,10 @@ package org.eclipse.che.plugin.docker.machine;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.ObjectArrays;
 import com.google.common.collect.Sets;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
@@ -81,8 +81,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -119,9 +120,18 @@ public class DockerInstanceProvider implements InstanceProvider {
 
     public static final Pattern SNAPSHOT_LOCATION_PATTERN = Pattern.compile("(.+/)?" + MACHINE_SNAPSHOT_PREFIX + ".+");
 
+    /**
+     * Label of container with id of machine the container is created for.
+     */
+    public static final String MACHINE_ID_LABEL = "che:machine:id";
+
+    /**
+     * Label of container with id of workspace the container is created for.
+     */
+    public static final String WORKSPACE_ID_LABEL = "che:workspace:id";
+
     private final DockerConnector                               docker;
     private final UserSpecificDockerRegistryCredentialsProvider dockerCredentials;
-    private final ExecutorService                               executor;
     private final DockerInstanceStopDetector                    dockerInstanceStopDetector;
     private final DockerContainerNameGenerator                  containerNameGenerator;
     private final RecipeRetriever                               recipeRetriever;
@@ -224,10 +234,6 @@ public class DockerInstanceProvider implements InstanceProvider {
         } else {
             this.allMachinesExtraHosts = ObjectArrays.concat(allMachinesExtraHosts.split(","), cheHostAlias);
         }
-
-        executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("MachineLogsStreamer-%d")
-                                                                           .setDaemon(true)
-                                                                           .build());
     }
 
     /**
@@ -553,7 +559,9 @@ public class DockerInstanceProvider implements InstanceProvider {
             final ContainerConfig config = new ContainerConfig().withImage(imageName)
                                                                 .withExposedPorts(portsToExpose)
                                                                 .withHostConfig(hostConfig)
-                                                                .withEnv(env.toArray(new String[env.size()]));
+                                                                .withEnv(env.toArray(new String[env.size()]))
+                                                                .withLabels(ImmutableMap.of(MACHINE_ID_LABEL, machine.getId(),
+                                                                                            WORKSPACE_ID_LABEL, machine.getWorkspaceId()));
 
             final String containerId = docker.createContainer(CreateContainerParams.create(config)
                                                                                    .withContainerName(containerName))
@@ -562,29 +570,7 @@ public class DockerInstanceProvider implements InstanceProvider {
 
             docker.startContainer(StartContainerParams.create(containerId));
 
-            executor.execute(() -> {
-                long lastProcessedLogDate = 0;
-                boolean isContainerRunning = true;
-                while (isContainerRunning) {
-                    try {
-                        docker.getContainerLogs(GetContainerLogsParams.create(containerId)
-                                                                      .withFollow(true)
-                                                                      .withSince(lastProcessedLogDate),
-                                                new LogMessagePrinter(outputConsumer));
-                        isContainerRunning = false;
-                    } catch (SocketTimeoutException ste) {
-                        lastProcessedLogDate = System.currentTimeMillis() / 1000L;
-                        // reconnect to container
-                    } catch (ContainerNotFoundException e) {
-                        isContainerRunning = false;
-                    } catch (IOException e) {
-                        LOG.error("Failed to get logs from machine {} backed by container {} with {} id",
-                                  machine,
-                                  containerName,
-                                  containerId);
-                    }
-                }
-            });
+            streamContainerLogs(containerId, 0, outputConsumer, machine, containerName);
 
             final DockerNode node = dockerMachineFactory.createNode(machine.getWorkspaceId(), containerId);
             if (machine.getConfig().isDev()) {
@@ -609,6 +595,38 @@ public class DockerInstanceProvider implements InstanceProvider {
         }
     }
 
+    /**
+     * Follows logs of container without holding a thread and reconnects if connection times out.
+     * Streaming stops when container is stopped.
+     */
+    private void streamContainerLogs(String containerId,
+                                     long since,
+                                     LineConsumer outputConsumer,
+                                     Machine machine,
+                                     String containerName) {
+        final CompletableFuture<Void> logs;
+        try {
+            logs = docker.getContainerLogsAsync(GetContainerLogsParams.create(containerId)
+                                                                      .withFollow(true)
+                                                                      .withSince(since),
+                                                new LogMessagePrinter(outputConsumer));
+        } catch (ContainerNotFoundException e) {
+            return;
+        } catch (IOException e) {
+            LOG.error("Failed to get logs from machine {} backed by container {} with {} id", machine, containerName, containerId);
+            return;
+        }
+        logs.whenComplete((ignored, error) -> {
+            final Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause instanceof SocketTimeoutException) {
+                // reconnect to container
+                streamContainerLogs(containerId, System.currentTimeMillis() / 1000L, outputConsumer, machine, containerName);
+            } else if (cause != null && !(cause instanceof CancellationException)) {
+                LOG.error("Failed to get logs from machine {} backed by container {} with {} id", machine, containerName, containerId);
+            }
+        });
+    }
+
     private void cleanUpContainer(Optional<String> containerIdOptional) {
         try {
             if (containerIdOptional.isPresent()) {
@@ -41,6 +41,8 @@ public interface DockerMachineFactory {
      *         full path to pid file of the process
      * @param pid
      *         id of the {@code InstanceProcess}. It's external PID that may differ from PID inside container
+     * @param supervisor
+     *         supervisor of processes of the container
      * @throws MachineException
      *         if error occurs on creation of {@code InstanceProcess}
      */
@@ -48,7 +50,8 @@ public interface DockerMachineFactory {
                                   @Assisted("container") String container,
                                   @Assisted("outputChannel") String outputChannel,
                                   @Assisted("pid_file_path") String pidFilePath,
-                                  @Assisted int pid) throws MachineException;
+                                  @Assisted int pid,
+                                  @Assisted DockerProcessSupervisor supervisor) throws MachineException;
 
     /**
      * Creates docker implementation of {@link Instance}
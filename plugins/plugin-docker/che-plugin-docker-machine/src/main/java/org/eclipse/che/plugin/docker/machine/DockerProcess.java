@@ -16,7 +16,6 @@ import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.model.machine.Command;
 import org.eclipse.che.api.core.util.LineConsumer;
-import org.eclipse.che.api.core.util.ListLineConsumer;
 import org.eclipse.che.api.core.util.ValueHolder;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.spi.InstanceProcess;
@@ -43,10 +42,11 @@ import static java.lang.String.format;
  * @author Alexander Garagatyi
  */
 public class DockerProcess extends AbstractMachineProcess implements InstanceProcess {
-    private final DockerConnector     docker;
-    private final String              container;
-    private final String              pidFilePath;
-    private final String              commandLine;
+    private final DockerConnector         docker;
+    private final DockerProcessSupervisor supervisor;
+    private final String                  container;
+    private final String                  pidFilePath;
+    private final String                  commandLine;
 
     private volatile boolean started;
 
@@ -56,9 +56,11 @@ public class DockerProcess extends AbstractMachineProcess implements InstancePro
                          @Assisted("container") String container,
                          @Nullable @Assisted("outputChannel") String outputChannel,
                          @Assisted("pid_file_path") String pidFilePath,
-                         @Assisted int pid) {
+                         @Assisted int pid,
+                         @Assisted DockerProcessSupervisor supervisor) {
         super(command, pid, outputChannel);
         this.docker = docker;
+        this.supervisor = supervisor;
         this.container = container;
         this.commandLine = command.getCommandLine();
         this.pidFilePath = pidFilePath;
@@ -104,8 +106,13 @@ public class DockerProcess extends AbstractMachineProcess implements InstancePro
                                               Arrays.toString(command), container, e.getMessage()), e);
         }
         started = true;
+        supervisor.started(pidFilePath);
         try {
             docker.startExec(StartExecParams.create(exec.getId()), output == null ? null : new LogMessagePrinter(output));
+            if (output != null) {
+                // output of process is read until its end
+                supervisor.exited(pidFilePath);
+            }
         } catch (IOException e) {
             if (output != null && e instanceof SocketTimeoutException) {
                 throw new MachineException(getErrorMessage());
@@ -118,25 +125,8 @@ public class DockerProcess extends AbstractMachineProcess implements InstancePro
 
     @Override
     public void checkAlive() throws MachineException, NotFoundException {
-        // Read pid from file and run 'kill -0 [pid]' command.
-        final String isAliveCmd = format("[ -r %1$s ] && kill -0 $(cat %1$s) || echo 'Unable read PID file'", pidFilePath);
-        final ListLineConsumer output = new ListLineConsumer();
-        final String[] command = {"/bin/bash", "-c", isAliveCmd};
-        Exec exec;
-        try {
-            exec = docker.createExec(CreateExecParams.create(container, command).withDetach(false));
-        } catch (IOException e) {
-            throw new MachineException(format("Error occurs while initializing command %s in docker container %s: %s",
-                                              Arrays.toString(command), container, e.getMessage()), e);
-        }
-        try {
-            docker.startExec(StartExecParams.create(exec.getId()), new LogMessagePrinter(output));
-        } catch (IOException e) {
-            throw new MachineException(format("Error occurs while executing command %s in docker container %s: %s",
-                                              Arrays.toString(exec.getCommand()), container, e.getMessage()), e);
-        }
-        // 'kill -0 [pid]' is silent if process is running or print "No such process" message otherwise
-        if (!output.getText().isEmpty()) {
+        // state of process is cached by supervisor and checked in container together with other processes
+        if (!supervisor.isAlive(pidFilePath)) {
             throw new NotFoundException(format("Process with pid %s not found", getPid()));
         }
     }
@@ -159,6 +149,8 @@ public class DockerProcess extends AbstractMachineProcess implements InstancePro
             } catch (IOException e) {
                 throw new MachineException(format("Error occurs while executing command %s in docker container %s: %s",
                                                   Arrays.toString(exec.getCommand()), container, e.getMessage()), e);
+            } finally {
+                supervisor.invalidate(pidFilePath);
             }
         }
     }
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+
+import org.eclipse.che.api.machine.server.exception.MachineException;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.Exec;
+import org.eclipse.che.plugin.docker.client.LogMessage;
+import org.eclipse.che.plugin.docker.client.params.CreateExecParams;
+import org.eclipse.che.plugin.docker.client.params.StartExecParams;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Keeps state of processes of one docker container.
+ *
+ * <p>Processes are identified by their pid files. State of process is updated when process is started and when its
+ * end is known to {@link DockerProcess}. Other changes are found by a single exec that checks all processes of the container,
+ * it is run only when state of requested process was checked more than {@link #MAX_STALENESS_MS} ago.
+ */
+public class DockerProcessSupervisor {
+    /** Max time after which state of process must be checked in container. */
+    static final long MAX_STALENESS_MS = 2000;
+
+    private final DockerConnector           docker;
+    private final String                    container;
+    private final Ticker                    ticker;
+    private final long                      maxStalenessNanos;
+    private final Map<String, ProcessState> processes;
+
+    public DockerProcessSupervisor(DockerConnector docker, String container) {
+        this(docker, container, Ticker.systemTicker(), MILLISECONDS.toNanos(MAX_STALENESS_MS));
+    }
+
+    @VisibleForTesting
+    DockerProcessSupervisor(DockerConnector docker, String container, Ticker ticker, long maxStalenessNanos) {
+        this.docker = docker;
+        this.container = container;
+        this.ticker = ticker;
+        this.maxStalenessNanos = maxStalenessNanos;
+        this.processes = new ConcurrentHashMap<>();
+    }
+
+    /** Registers process which is started in container. */
+    void started(String pidFilePath) {
+        processes.put(pidFilePath, new ProcessState(ticker.read()));
+    }
+
+    /** Notifies that process is ended. */
+    void exited(String pidFilePath) {
+        final ProcessState state = processes.get(pidFilePath);
+        if (state != null) {
+            state.exited = true;
+        }
+    }
+
+    /** Makes next request of state of process check it in container, e.g. when process was killed. */
+    void invalidate(String pidFilePath) {
+        final ProcessState state = processes.get(pidFilePath);
+        if (state != null) {
+            state.checked = state.started - maxStalenessNanos - 1;
+        }
+    }
+
+    /** Stops tracking of process. */
+    void forget(String pidFilePath) {
+        processes.remove(pidFilePath);
+    }
+
+    void clear() {
+        processes.clear();
+    }
+
+    /**
+     * Checks whether process is running.
+     *
+     * @throws MachineException
+     *         if state of process can't be checked in container
+     */
+    boolean isAlive(String pidFilePath) throws MachineException {
+        final ProcessState state = processes.get(pidFilePath);
+        if (state == null || state.exited) {
+            return false;
+        }
+        if (isStale(state, ticker.read())) {
+            refresh();
+        }
+        return !state.exited;
+    }
+
+    /**
+     * Returns pid files of processes which are running.
+     *
+     * @throws MachineException
+     *         if state of processes can't be checked in container
+     */
+    Set<String> getAlive() throws MachineException {
+        final long now = ticker.read();
+        if (processes.values().stream().anyMatch(state -> isStale(state, now))) {
+            refresh();
+        }
+        final Set<String> alive = new HashSet<>();
+        processes.forEach((pidFilePath, state) -> {
+            if (!state.exited) {
+                alive.add(pidFilePath);
+            }
+        });
+        return alive;
+    }
+
+    private boolean isStale(ProcessState state, long now) {
+        return !state.exited && now - state.checked > maxStalenessNanos;
+    }
+
+    /** Checks all running processes which state is stale with one exec. Process which is not found is considered ended. */
+    private synchronized void refresh() throws MachineException {
+        final long checkStart = ticker.read();
+        final List<String> pidFiles = new ArrayList<>();
+        processes.forEach((pidFilePath, state) -> {
+            if (isStale(state, checkStart)) {
+                pidFiles.add(pidFilePath);
+            }
+        });
+        if (pidFiles.isEmpty()) {
+            // checked by concurrent request
+            return;
+        }
+        // prints pid files of processes that are running
+        final String checkCmd = format("for pidFile in %s; do kill -0 \"$(cat ${pidFile} 2>/dev/null)\" 2>/dev/null && echo \"${pidFile}\"; done",
+                                       String.join(" ", pidFiles));
+        final String[] command = {"/bin/bash", "-c", checkCmd};
+        final Set<String> alive = new HashSet<>();
+        Exec exec;
+        try {
+            exec = docker.createExec(CreateExecParams.create(container, command).withDetach(false));
+        } catch (IOException e) {
+            throw new MachineException(format("Error occurs while initializing command %s in docker container %s: %s",
+                                              checkCmd, container, e.getMessage()), e);
+        }
+        try {
+            docker.startExec(StartExecParams.create(exec.getId()), message -> {
+                if (message.getType() == LogMessage.Type.STDOUT) {
+                    alive.add(message.getContent().trim());
+                }
+            });
+        } catch (IOException e) {
+            throw new MachineException(format("Error occurs while executing command %s in docker container %s: %s",
+                                              checkCmd, container, e.getMessage()), e);
+        }
+        for (String pidFile : pidFiles) {
+            final ProcessState state = processes.get(pidFile);
+            // pid file of just started process may be not written yet
+            if (state != null && !alive.contains(pidFile) && checkStart - state.started > maxStalenessNanos) {
+                state.exited = true;
+            } else if (state != null) {
+                state.checked = checkStart;
+            }
+        }
+    }
+
+    private static class ProcessState {
+        final long started;
+
+        volatile boolean exited;
+        volatile long    checked;
+
+        ProcessState(long started) {
+            this.started = started;
+            this.checked = started;
+        }
+    }
+}
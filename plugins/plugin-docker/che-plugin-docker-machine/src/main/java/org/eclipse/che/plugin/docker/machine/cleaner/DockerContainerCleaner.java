@@ -10,92 +10,244 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.machine.cleaner;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
 import org.eclipse.che.api.machine.server.MachineRegistry;
-import org.eclipse.che.commons.schedule.ScheduleRate;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.json.ContainerListEntry;
-import org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator;
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.eclipse.che.plugin.docker.client.json.Filters;
+import org.eclipse.che.plugin.docker.client.params.GetEventsParams;
+import org.eclipse.che.plugin.docker.client.params.ListContainersParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
-import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.plugin.docker.client.params.RemoveContainerParams.create;
-import static org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator.ContainerNameInfo;
+import static org.eclipse.che.plugin.docker.machine.DockerInstanceProvider.MACHINE_ID_LABEL;
 
 /**
- * Job for periodically clean up inactive docker containers
+ * Cleans up docker containers of machines which are not registered in {@link MachineRegistry}.
+ *
+ * <p>Cleaner keeps view of containers labeled with {@link org.eclipse.che.plugin.docker.machine.DockerInstanceProvider#MACHINE_ID_LABEL}
+ * up to date with docker events and cleans up container as soon as it is found that machine of the container doesn't exist.
+ * Containers are listed only when events might be lost, i.e. on start and after failure of events stream.
  *
  * @author Alexander Andrienko
  */
 @Singleton
-public class DockerContainerCleaner implements Runnable {
+public class DockerContainerCleaner {
 
     private static final Logger LOG = LoggerFactory.getLogger(DockerContainerCleaner.class);
 
-    private final MachineRegistry              machineRegistry;
-    private final DockerConnector              dockerConnector;
-    private final DockerContainerNameGenerator nameGenerator;
+    /**
+     * Delay of clean up of container found by event. Machine is removed from registry before its container is destroyed,
+     * so container is cleaned up only if it still exists when the delay expires.
+     */
+    private static final long ORPHAN_CLEANUP_DELAY_SEC = 30;
+
+    private final MachineRegistry          machineRegistry;
+    private final DockerConnector          dockerConnector;
+    private final Map<String, Container>   containers;
+    private final Set<String>              pendingCleanups;
+    private final ExecutorService          eventsExecutor;
+    private final ScheduledExecutorService cleanupExecutor;
+
+    private volatile long lastEventTime;
 
     @Inject
-    public DockerContainerCleaner(MachineRegistry machineRegistry,
-                                  DockerConnector dockerConnector,
-                                  DockerContainerNameGenerator nameGenerator) {
+    public DockerContainerCleaner(MachineRegistry machineRegistry, DockerConnector dockerConnector) {
         this.machineRegistry = machineRegistry;
         this.dockerConnector = dockerConnector;
-        this.nameGenerator = nameGenerator;
+        this.containers = new ConcurrentHashMap<>();
+        this.pendingCleanups = ConcurrentHashMap.newKeySet();
+        this.eventsExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("DockerContainerCleaner-%d")
+                                                                                          .setDaemon(true)
+                                                                                          .build());
+        this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("DockerContainerCleaner-CleanUp-%d")
+                                          .setDaemon(true)
+                                          .build());
+    }
+
+    @PostConstruct
+    private void start() {
+        eventsExecutor.execute(this::trackContainers);
+    }
+
+    @PreDestroy
+    private void stop() {
+        eventsExecutor.shutdownNow();
+        cleanupExecutor.shutdownNow();
     }
 
-    @ScheduleRate(periodParameterName = "machine.docker.unused_containers_cleanup_period_min",
-                  initialDelayParameterName = "machine.docker.unused_containers_cleanup_period_min",
-                  unit = TimeUnit.MINUTES)
-    @Override
-    public void run() {
+    /**
+     * Lists containers of machines, replaces view of containers with the list and cleans up containers of machines which
+     * don't exist.
+     *
+     * @return {@code false} if containers can't be listed, {@code true} otherwise
+     */
+    public boolean reconcile() {
+        final Map<String, Container> actual = new HashMap<>();
+        final ListContainersParams params = ListContainersParams.create()
+                                                                .withAll(true)
+                                                                .withFilters(new Filters().withFilter("label", MACHINE_ID_LABEL));
         try {
-            for (ContainerListEntry container : dockerConnector.listContainers()) {
-                Optional<ContainerNameInfo> optional = nameGenerator.parse(container.getNames()[0]);
-                if (optional.isPresent() && !machineRegistry.isExist(optional.get().getMachineId())) {
-                    cleanUp(container);
+            for (ContainerListEntry entry : dockerConnector.listContainers(params)) {
+                final String machineId = entry.getLabels() == null ? null : entry.getLabels().get(MACHINE_ID_LABEL);
+                if (machineId != null) {
+                    final Container container = new Container(entry.getId(),
+                                                              entry.getNames()[0],
+                                                              machineId,
+                                                              entry.getStatus().startsWith("Up"));
+                    actual.put(container.id, container);
+                    // events of containers listed here are not interesting, replay of events starts from the latest container
+                    lastEventTime = Math.max(lastEventTime, entry.getCreated());
                 }
             }
         } catch (IOException e) {
             LOG.error("Failed to get list docker containers", e);
-        } catch (Exception e) {
-            LOG.error("Failed to clean up inactive containers", e);
+            return false;
+        }
+        containers.keySet().retainAll(actual.keySet());
+        containers.putAll(actual);
+        for (Container container : actual.values()) {
+            if (!machineRegistry.isExist(container.machineId)) {
+                cleanUp(container);
+            }
+        }
+        return true;
+    }
+
+    /** Number of containers of machines known to the cleaner. */
+    public int getContainerCount() {
+        return containers.size();
+    }
+
+    private void trackContainers() {
+        boolean reconcile = true;
+        while (!Thread.currentThread().isInterrupted()) {
+            if (reconcile) {
+                reconcile = !reconcile();
+            }
+            try {
+                // events after the last seen one are replayed by docker, so reconnection doesn't lose events
+                dockerConnector.getEvents(GetEventsParams.create()
+                                                         .withSinceSecond(lastEventTime)
+                                                         .withFilters(new Filters().withFilter("label", MACHINE_ID_LABEL)
+                                                                                   .withFilter("event",
+                                                                                               "create", "start", "die", "destroy")),
+                                          this::processEvent);
+                // stream is closed by docker, it may be restarted and lose its events
+                reconcile = true;
+            } catch (SocketTimeoutException e) {
+                LOG.debug(e.getLocalizedMessage(), e);
+            } catch (IOException e) {
+                LOG.warn("Docker events stream failed. {}", e.getLocalizedMessage());
+                reconcile = true;
+            }
+            if (reconcile) {
+                try {
+                    SECONDS.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
         }
     }
 
-    private void cleanUp(ContainerListEntry container) {
-        String containerId = container.getId();
-        String containerName = container.getNames()[0];
+    void processEvent(Event event) {
+        if (event.getType() != null && !"container".equals(event.getType())) {
+            // docker swarm doesn't filter events by type
+            return;
+        }
+        lastEventTime = Math.max(lastEventTime, event.getTime());
+        final Map<String, String> attributes = event.getActor() == null ? null : event.getActor().getAttributes();
+        final String machineId = attributes == null ? null : attributes.get(MACHINE_ID_LABEL);
+        if (machineId == null) {
+            return;
+        }
+        final String containerId = event.getId();
+        switch (event.getStatus()) {
+            case "create":
+            case "start":
+            case "die":
+                final Container container = new Container(containerId,
+                                                          attributes.get("name"),
+                                                          machineId,
+                                                          "start".equals(event.getStatus()));
+                containers.put(containerId, container);
+                if (!machineRegistry.isExist(machineId) && pendingCleanups.add(containerId)) {
+                    cleanupExecutor.schedule(() -> cleanUpIfOrphan(containerId), ORPHAN_CLEANUP_DELAY_SEC, SECONDS);
+                }
+                break;
+            case "destroy":
+                containers.remove(containerId);
+                break;
+            default:
+                // we don't care about other event types
+        }
+    }
 
-        killContainer(containerId, containerName, container.getStatus());
-        removeContainer(containerId, containerName);
+    void cleanUpIfOrphan(String containerId) {
+        pendingCleanups.remove(containerId);
+        final Container container = containers.get(containerId);
+        if (container != null && !machineRegistry.isExist(container.machineId)) {
+            cleanUp(container);
+        }
+    }
+
+    private void cleanUp(Container container) {
+        killContainer(container);
+        removeContainer(container);
     }
 
-    private void killContainer(String containerId, String containerName, String containerStatus) {
+    private void killContainer(Container container) {
         try {
-            if (containerStatus.startsWith("Up")) {
-                dockerConnector.killContainer(containerId);
-                LOG.warn("Unused container with 'id': '{}' and 'name': '{}' was killed ", containerId, containerName);
+            if (container.running) {
+                dockerConnector.killContainer(container.id);
+                LOG.warn("Unused container with 'id': '{}' and 'name': '{}' was killed ", container.id, container.name);
             }
         } catch (IOException e) {
-            LOG.error(format("Failed to kill unused container with 'id': '%s' and 'name': '%s'", containerId, containerName), e);
+            LOG.error(format("Failed to kill unused container with 'id': '%s' and 'name': '%s'", container.id, container.name), e);
         }
     }
 
-    private void removeContainer(String containerId, String containerName) {
+    private void removeContainer(Container container) {
         try {
-            dockerConnector.removeContainer(create(containerId).withForce(true).withRemoveVolumes(true));
-            LOG.warn("Unused container with 'id': '{}' and 'name': '{}' was removed", containerId, containerName);
+            dockerConnector.removeContainer(create(container.id).withForce(true).withRemoveVolumes(true));
+            LOG.warn("Unused container with 'id': '{}' and 'name': '{}' was removed", container.id, container.name);
         } catch (IOException e) {
-            LOG.error(format("Failed to delete unused container with 'id': '%s' and 'name': '%s'", containerId, containerName), e);
+            LOG.error(format("Failed to delete unused container with 'id': '%s' and 'name': '%s'", container.id, container.name), e);
+        }
+    }
+
+    private static class Container {
+        final String  id;
+        final String  name;
+        final String  machineId;
+        final boolean running;
+
+        Container(String id, String name, String machineId, boolean running) {
+            this.id = id;
+            this.name = name;
+            this.machineId = machineId;
+            this.running = running;
         }
     }
 }
@@ -37,6 +37,7 @@ import org.eclipse.che.plugin.docker.client.json.ContainerCreated;
 import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
 import org.eclipse.che.plugin.docker.client.json.ContainerState;
 import org.eclipse.che.plugin.docker.client.params.CreateContainerParams;
+import org.eclipse.che.plugin.docker.client.params.GetContainerLogsParams;
 import org.eclipse.che.plugin.docker.client.params.InspectContainerParams;
 import org.eclipse.che.plugin.docker.client.params.BuildImageParams;
 import org.eclipse.che.plugin.docker.client.params.PullParams;
@@ -64,6 +65,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static java.util.Arrays.asList;
@@ -168,6 +170,7 @@ public class DockerInstanceProviderTest {
         when(dockerConnector.createContainer(any(CreateContainerParams.class)))
                 .thenReturn(new ContainerCreated(CONTAINER_ID, new String[0]));
         when(dockerConnector.inspectContainer(any(InspectContainerParams.class))).thenReturn(containerInfo);
+        when(dockerConnector.getContainerLogsAsync(any(GetContainerLogsParams.class), any())).thenReturn(new CompletableFuture<>());
         when(containerInfo.getState()).thenReturn(containerState);
         when(containerState.isRunning()).thenReturn(false);
     }
@@ -336,6 +339,17 @@ public class DockerInstanceProviderTest {
         assertEquals(argumentCaptor.getValue().getContainerConfig().getImage(), "eclipse-che/" + generatedContainerId);
     }
 
+    @Test
+    public void shouldLabelContainerWithIdsOfMachineAndWorkspace() throws Exception {
+        createInstanceFromRecipe();
+
+        ArgumentCaptor<CreateContainerParams> argumentCaptor = ArgumentCaptor.forClass(CreateContainerParams.class);
+        verify(dockerConnector).createContainer(argumentCaptor.capture());
+        Map<String, String> labels = argumentCaptor.getValue().getContainerConfig().getLabels();
+        assertEquals(labels.get(DockerInstanceProvider.MACHINE_ID_LABEL), MACHINE_ID);
+        assertEquals(labels.get(DockerInstanceProvider.WORKSPACE_ID_LABEL), WORKSPACE_ID);
+    }
+
     @Test
     public void shouldStartContainerOnCreateInstanceFromRecipe() throws Exception {
         createInstanceFromRecipe();
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.base.Ticker;
+
+import org.eclipse.che.api.machine.server.exception.MachineException;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.Exec;
+import org.eclipse.che.plugin.docker.client.LogMessage;
+import org.eclipse.che.plugin.docker.client.MessageProcessor;
+import org.eclipse.che.plugin.docker.client.params.CreateExecParams;
+import org.eclipse.che.plugin.docker.client.params.StartExecParams;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link DockerProcessSupervisor}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class DockerProcessSupervisorTest {
+    private static final String CONTAINER     = "container144";
+    private static final String EXEC_ID       = "exec_id12";
+    private static final long   MAX_STALENESS = 1000;
+    private static final String PID_FILE_1    = "/tmp/docker-exec-1.pid";
+    private static final String PID_FILE_2    = "/tmp/docker-exec-2.pid";
+    private static final String PID_FILE_3    = "/tmp/docker-exec-3.pid";
+
+    @Mock
+    private DockerConnector docker;
+    @Mock
+    private Exec            exec;
+
+    private FakeTicker              ticker;
+    private Set<String>             runningInContainer;
+    private Map<String, LogMessage> output;
+    private DockerProcessSupervisor supervisor;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        ticker = new FakeTicker();
+        runningInContainer = new HashSet<>();
+        output = new HashMap<>();
+        for (String pidFile : asList(PID_FILE_1, PID_FILE_2, PID_FILE_3)) {
+            output.put(pidFile, stdout(pidFile));
+        }
+        supervisor = new DockerProcessSupervisor(docker, CONTAINER, ticker, MAX_STALENESS);
+        when(docker.createExec(any(CreateExecParams.class))).thenReturn(exec);
+        when(exec.getId()).thenReturn(EXEC_ID);
+        doAnswer(invoke -> {
+            @SuppressWarnings("unchecked")
+            MessageProcessor<LogMessage> processor = (MessageProcessor<LogMessage>)invoke.getArguments()[1];
+            for (String pidFile : runningInContainer) {
+                processor.process(output.get(pidFile));
+            }
+            return null;
+        }).when(docker).startExec(any(StartExecParams.class), any());
+    }
+
+    @Test
+    public void shouldNotCheckProcessInContainerUntilItsStateIsStale() throws Exception {
+        supervisor.started(PID_FILE_1);
+        ticker.advance(MAX_STALENESS);
+
+        assertTrue(supervisor.isAlive(PID_FILE_1));
+        verify(docker, never()).createExec(any(CreateExecParams.class));
+    }
+
+    @Test
+    public void shouldCheckAllStaleProcessesWithSingleExec() throws Exception {
+        supervisor.started(PID_FILE_1);
+        supervisor.started(PID_FILE_2);
+        supervisor.started(PID_FILE_3);
+        runningInContainer.addAll(asList(PID_FILE_1, PID_FILE_3));
+        ticker.advance(MAX_STALENESS + 1);
+
+        assertTrue(supervisor.isAlive(PID_FILE_1));
+        assertFalse(supervisor.isAlive(PID_FILE_2));
+        assertTrue(supervisor.isAlive(PID_FILE_3));
+        assertEquals(supervisor.getAlive(), new HashSet<>(asList(PID_FILE_1, PID_FILE_3)));
+
+        ArgumentCaptor<CreateExecParams> captor = ArgumentCaptor.forClass(CreateExecParams.class);
+        verify(docker).createExec(captor.capture());
+        String checkCmd = captor.getValue().getCmd()[2];
+        assertTrue(checkCmd.contains(PID_FILE_1));
+        assertTrue(checkCmd.contains(PID_FILE_2));
+        assertTrue(checkCmd.contains(PID_FILE_3));
+    }
+
+    @Test
+    public void shouldNotCheckEndedProcessAgain() throws Exception {
+        supervisor.started(PID_FILE_1);
+        supervisor.started(PID_FILE_2);
+        runningInContainer.add(PID_FILE_1);
+        ticker.advance(MAX_STALENESS + 1);
+        supervisor.getAlive();
+        runningInContainer.clear();
+        ticker.advance(MAX_STALENESS + 1);
+
+        assertTrue(supervisor.getAlive().isEmpty());
+
+        ArgumentCaptor<CreateExecParams> captor = ArgumentCaptor.forClass(CreateExecParams.class);
+        verify(docker, times(2)).createExec(captor.capture());
+        assertFalse(captor.getValue().getCmd()[2].contains(PID_FILE_2));
+    }
+
+    @Test
+    public void shouldAnswerFromExitNotificationWithoutCheckInContainer() throws Exception {
+        supervisor.started(PID_FILE_1);
+        supervisor.exited(PID_FILE_1);
+        ticker.advance(MAX_STALENESS + 1);
+
+        assertFalse(supervisor.isAlive(PID_FILE_1));
+        assertTrue(supervisor.getAlive().isEmpty());
+        verify(docker, never()).createExec(any(CreateExecParams.class));
+    }
+
+    @Test
+    public void shouldNotConsiderJustStartedProcessEndedIfItsPidFileIsNotFound() throws Exception {
+        supervisor.started(PID_FILE_1);
+        supervisor.invalidate(PID_FILE_1);
+
+        assertTrue(supervisor.isAlive(PID_FILE_1));
+        verify(docker).createExec(any(CreateExecParams.class));
+    }
+
+    @Test
+    public void shouldCheckInvalidatedProcessInContainer() throws Exception {
+        supervisor.started(PID_FILE_1);
+        runningInContainer.add(PID_FILE_1);
+        ticker.advance(MAX_STALENESS + 1);
+        assertTrue(supervisor.isAlive(PID_FILE_1));
+        runningInContainer.clear();
+
+        supervisor.invalidate(PID_FILE_1);
+
+        assertFalse(supervisor.isAlive(PID_FILE_1));
+        verify(docker, times(2)).createExec(any(CreateExecParams.class));
+    }
+
+    @Test
+    public void shouldNotTrackForgottenProcess() throws Exception {
+        supervisor.started(PID_FILE_1);
+        supervisor.forget(PID_FILE_1);
+        ticker.advance(MAX_STALENESS + 1);
+
+        assertFalse(supervisor.isAlive(PID_FILE_1));
+        assertTrue(supervisor.getAlive().isEmpty());
+        verify(docker, never()).createExec(any(CreateExecParams.class));
+    }
+
+    @Test(expectedExceptions = MachineException.class)
+    public void shouldThrowMachineExceptionWhenCheckInContainerFails() throws Exception {
+        doThrow(new IOException("connection refused")).when(docker).startExec(any(StartExecParams.class), any());
+        supervisor.started(PID_FILE_1);
+        ticker.advance(MAX_STALENESS + 1);
+
+        supervisor.isAlive(PID_FILE_1);
+    }
+
+    private static LogMessage stdout(String content) {
+        LogMessage message = mock(LogMessage.class);
+        when(message.getType()).thenReturn(LogMessage.Type.STDOUT);
+        when(message.getContent()).thenReturn(content);
+        return message;
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        void advance(long nanos) {
+            this.nanos += nanos;
+        }
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+    }
+}
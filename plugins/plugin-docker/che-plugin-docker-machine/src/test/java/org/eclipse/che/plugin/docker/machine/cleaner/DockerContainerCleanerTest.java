@@ -10,13 +10,17 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.machine.cleaner;
 
+import com.google.common.collect.ImmutableMap;
+
 import org.eclipse.che.api.machine.server.MachineRegistry;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.json.Actor;
 import org.eclipse.che.plugin.docker.client.json.ContainerListEntry;
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.eclipse.che.plugin.docker.client.params.ListContainersParams;
 import org.eclipse.che.plugin.docker.client.params.RemoveContainerParams;
-import org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator;
 import org.mockito.InjectMocks;
 import org.mockito.Matchers;
 import org.mockito.Mock;
@@ -26,16 +30,17 @@ import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
-import java.util.Optional;
 
-import static java.util.Optional.of;
 import static java.util.Arrays.asList;
-import static org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator.ContainerNameInfo;
+import static java.util.Collections.singletonMap;
+import static org.eclipse.che.plugin.docker.machine.DockerInstanceProvider.MACHINE_ID_LABEL;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 /**
  * Test for {@link DockerContainerCleaner}
@@ -48,8 +53,8 @@ public class DockerContainerCleanerTest {
     private static final String machineId1   = "machineid1";
     private static final String workspaceId1 = "workspaceid1";
 
-    private static final String machineId2   = "machineid2";
-    private static final String workspaceId2 = "workspaceid2";
+    private static final String machineId2 = "machineid2";
+    private static final String machineId3 = "machineid3";
 
     private static final String containerName1 = "containerName1";
     private static final String containerId1   = "containerId1";
@@ -64,11 +69,9 @@ public class DockerContainerCleanerTest {
     private static final String RUNNING_STATUS = "Up 6 hour ago";
 
     @Mock
-    private MachineRegistry              machineRegistry;
-    @Mock
-    private DockerConnector              dockerConnector;
+    private MachineRegistry machineRegistry;
     @Mock
-    private DockerContainerNameGenerator nameGenerator;
+    private DockerConnector dockerConnector;
 
     @Mock
     private MachineImpl machineImpl1;
@@ -82,13 +85,6 @@ public class DockerContainerCleanerTest {
     @Mock
     private ContainerListEntry container3;
 
-    @Mock
-    private ContainerNameInfo containerNameInfo1;
-    @Mock
-    private ContainerNameInfo containerNameInfo2;
-    @Mock
-    private ContainerNameInfo containerNameInfo3;
-
     @InjectMocks
     private DockerContainerCleaner cleaner;
 
@@ -98,39 +94,31 @@ public class DockerContainerCleanerTest {
         when(machineImpl1.getId()).thenReturn(machineId1);
         when(machineImpl1.getWorkspaceId()).thenReturn(workspaceId1);
 
-        when(dockerConnector.listContainers()).thenReturn(asList(container1, container2, container3));
+        when(dockerConnector.listContainers(any(ListContainersParams.class))).thenReturn(asList(container1, container2, container3));
 
         when(container1.getNames()).thenReturn(new String[] {containerName1});
         when(container1.getStatus()).thenReturn(RUNNING_STATUS);
         when(container1.getId()).thenReturn(containerId1);
+        when(container1.getLabels()).thenReturn(singletonMap(MACHINE_ID_LABEL, machineId1));
 
         when(container2.getNames()).thenReturn(new String[] {containerName2});
         when(container2.getStatus()).thenReturn(RUNNING_STATUS);
         when(container2.getId()).thenReturn(containerId2);
+        when(container2.getLabels()).thenReturn(singletonMap(MACHINE_ID_LABEL, machineId2));
 
         when(container3.getNames()).thenReturn(new String[] {containerName3});
         when(container3.getStatus()).thenReturn(RUNNING_STATUS);
         when(container3.getId()).thenReturn(containerId3);
-
-        when(nameGenerator.parse(containerName1)).thenReturn(of(containerNameInfo1));
-        when(nameGenerator.parse(containerName2)).thenReturn(of(containerNameInfo2));
-        when(nameGenerator.parse(containerName3)).thenReturn(of(containerNameInfo3));
-
-        when(containerNameInfo1.getMachineId()).thenReturn(machineId1);
-        when(containerNameInfo1.getWorkspaceId()).thenReturn(workspaceId1);
-
-        when(containerNameInfo2.getMachineId()).thenReturn(machineId2);
-        when(containerNameInfo2.getWorkspaceId()).thenReturn(workspaceId2);
+        when(container3.getLabels()).thenReturn(singletonMap(MACHINE_ID_LABEL, machineId3));
     }
 
     @Test
-    public void cleanerShouldKillAndRemoveContainerIfThisContainerIsRunningAndContainerNameInfoIsNotEmptyAndContainerIsNotExistInTheAPI()
+    public void cleanerShouldKillAndRemoveContainerIfThisContainerIsRunningAndItsMachineIsNotExistInTheAPI()
             throws MachineException, IOException {
-        cleaner.run();
+        cleaner.reconcile();
 
-        verify(dockerConnector).listContainers();
+        verify(dockerConnector).listContainers(any(ListContainersParams.class));
 
-        verify(nameGenerator, times(3)).parse(anyString());
         verify(machineRegistry, times(3)).isExist(anyString());
 
         verify(dockerConnector, times(2)).killContainer(anyString());
@@ -143,7 +131,7 @@ public class DockerContainerCleanerTest {
     @Test
     public void cleanerShouldRemoveButShouldNotKillContainerWithStatusNotRunning() throws IOException, MachineException {
         when(container2.getStatus()).thenReturn(EXITED_STATUS);
-        cleaner.run();
+        cleaner.reconcile();
 
         verify(dockerConnector, never()).killContainer(containerId2);
         verify(dockerConnector).removeContainer(RemoveContainerParams.create(containerId2).withForce(true).withRemoveVolumes(true));
@@ -153,7 +141,7 @@ public class DockerContainerCleanerTest {
     public void cleanerShouldNotKillAndRemoveContainerIfMachineManagerDetectedExistingThisContainerInTheAPI() throws IOException {
         when(machineRegistry.isExist(anyString())).thenReturn(true);
 
-        cleaner.run();
+        cleaner.reconcile();
 
         verify(dockerConnector, never()).killContainer(anyString());
 
@@ -161,13 +149,89 @@ public class DockerContainerCleanerTest {
     }
 
     @Test
-    public void cleanerShouldNotKillAndRemoveContainerIfContainerNameInfoIsEmpty() throws IOException {
-        when(nameGenerator.parse(anyString())).thenReturn(Optional.empty());
+    public void cleanerShouldNotKillAndRemoveContainerWithoutMachineLabel() throws IOException {
+        when(container1.getLabels()).thenReturn(null);
+        when(container2.getLabels()).thenReturn(null);
+        when(container3.getLabels()).thenReturn(null);
 
-        cleaner.run();
+        cleaner.reconcile();
 
         verify(dockerConnector, never()).killContainer(anyString());
 
         verify(dockerConnector, never()).removeContainer(Matchers.<RemoveContainerParams>anyObject());
     }
+
+    @Test
+    public void cleanerShouldForgetContainersWhichAreNotListed() throws IOException {
+        cleaner.reconcile();
+        when(dockerConnector.listContainers(any(ListContainersParams.class))).thenReturn(asList(container1));
+
+        cleaner.reconcile();
+
+        assertEquals(cleaner.getContainerCount(), 1);
+    }
+
+    @Test
+    public void cleanerShouldKillAndRemoveContainerFoundByEventIfItsMachineDoesNotExist() throws IOException {
+        cleaner.processEvent(containerEvent("start", containerId2, containerName2, machineId2));
+
+        cleaner.cleanUpIfOrphan(containerId2);
+
+        verify(dockerConnector).killContainer(containerId2);
+        verify(dockerConnector).removeContainer(RemoveContainerParams.create(containerId2).withForce(true).withRemoveVolumes(true));
+    }
+
+    @Test
+    public void cleanerShouldRemoveButShouldNotKillDiedContainerFoundByEvent() throws IOException {
+        cleaner.processEvent(containerEvent("start", containerId2, containerName2, machineId2));
+        cleaner.processEvent(containerEvent("die", containerId2, containerName2, machineId2));
+
+        cleaner.cleanUpIfOrphan(containerId2);
+
+        verify(dockerConnector, never()).killContainer(anyString());
+        verify(dockerConnector).removeContainer(RemoveContainerParams.create(containerId2).withForce(true).withRemoveVolumes(true));
+    }
+
+    @Test
+    public void cleanerShouldNotCleanUpContainerFoundByEventIfItIsDestroyedBeforeCleanUp() throws IOException {
+        cleaner.processEvent(containerEvent("start", containerId2, containerName2, machineId2));
+        cleaner.processEvent(containerEvent("destroy", containerId2, containerName2, machineId2));
+
+        cleaner.cleanUpIfOrphan(containerId2);
+
+        verify(dockerConnector, never()).killContainer(anyString());
+        verify(dockerConnector, never()).removeContainer(Matchers.<RemoveContainerParams>anyObject());
+        assertEquals(cleaner.getContainerCount(), 0);
+    }
+
+    @Test
+    public void cleanerShouldNotCleanUpContainerFoundByEventIfItsMachineExists() throws IOException {
+        cleaner.processEvent(containerEvent("start", containerId1, containerName1, machineId1));
+
+        cleaner.cleanUpIfOrphan(containerId1);
+
+        verify(dockerConnector, never()).killContainer(anyString());
+        verify(dockerConnector, never()).removeContainer(Matchers.<RemoveContainerParams>anyObject());
+        assertEquals(cleaner.getContainerCount(), 1);
+    }
+
+    @Test
+    public void cleanerShouldIgnoreEventsOfContainersWithoutMachineLabel() throws IOException {
+        cleaner.processEvent(new Event().withType("container")
+                                        .withStatus("start")
+                                        .withId(containerId2)
+                                        .withActor(new Actor().withAttributes(singletonMap("name", containerName2))));
+
+        cleaner.cleanUpIfOrphan(containerId2);
+
+        verify(dockerConnector, never()).removeContainer(Matchers.<RemoveContainerParams>anyObject());
+        assertEquals(cleaner.getContainerCount(), 0);
+    }
+
+    private static Event containerEvent(String status, String containerId, String containerName, String machineId) {
+        return new Event().withType("container")
+                          .withStatus(status)
+                          .withId(containerId)
+                          .withActor(new Actor().withAttributes(ImmutableMap.of(MACHINE_ID_LABEL, machineId, "name", containerName)));
+    }
 }
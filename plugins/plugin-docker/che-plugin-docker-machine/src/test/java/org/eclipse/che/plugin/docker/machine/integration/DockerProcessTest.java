@@ -28,6 +28,7 @@ import org.eclipse.che.plugin.docker.client.params.RemoveContainerParams;
 import org.eclipse.che.plugin.docker.client.params.StartContainerParams;
 import org.eclipse.che.plugin.docker.client.params.StopContainerParams;
 import org.eclipse.che.plugin.docker.machine.DockerProcess;
+import org.eclipse.che.plugin.docker.machine.DockerProcessSupervisor;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -102,7 +103,8 @@ public class DockerProcessTest {
                                                               container,
                                                               "outputChannel",
                                                               "/tmp/chetests",
-                                                              pidGenerator.incrementAndGet());
+                                                              pidGenerator.incrementAndGet(),
+                                                              new DockerProcessSupervisor(docker, container));
 
         dockerProcess.start(new SOUTLineConsumer());
     }
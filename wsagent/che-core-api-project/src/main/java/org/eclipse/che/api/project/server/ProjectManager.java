@@ -11,6 +11,7 @@
 package org.eclipse.che.api.project.server;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
@@ -25,6 +26,7 @@ import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.api.project.server.handlers.CreateProjectHandler;
 import org.eclipse.che.api.project.server.handlers.ProjectHandlerRegistry;
 import org.eclipse.che.api.project.server.importer.ProjectImportOutputWSLineConsumer;
+import org.eclipse.che.api.project.server.importer.ProjectImportOutputWSLineConsumer.OutputMode;
 import org.eclipse.che.api.project.server.importer.ProjectImporter;
 import org.eclipse.che.api.project.server.importer.ProjectImporterRegistry;
 import org.eclipse.che.api.project.server.type.AttributeValue;
@@ -33,12 +35,13 @@ import org.eclipse.che.api.project.server.type.ProjectTypeDef;
 import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
 import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
-import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.impl.file.FileTreeWatcher;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherBulkNotificationListener;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherEvent;
 import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
 import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
 import org.eclipse.che.api.vfs.impl.file.event.LoEvent;
@@ -49,7 +52,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.IOException;
 import java.nio.file.PathMatcher;
@@ -69,6 +72,9 @@ import java.util.concurrent.Executors;
 public final class ProjectManager {
     private static final Logger LOG = LoggerFactory.getLogger(ProjectManager.class);
 
+    /** Default delay in milliseconds between messages with output of project import. */
+    public static final int DEFAULT_IMPORT_OUTPUT_DELAY_MS = 300;
+
     private final VirtualFileSystem              vfs;
     private final EventService                   eventService;
     private final ProjectTypeRegistry            projectTypeRegistry;
@@ -80,6 +86,9 @@ public final class ProjectManager {
     private final ExecutorService                executor;
     private final WorkspaceProjectsSyncer        workspaceProjectsHolder;
 
+    private int        importOutputDelayMillis;
+    private OutputMode importOutputMode;
+
     @Inject
     public ProjectManager(VirtualFileSystemProvider vfsProvider,
                           EventService eventService,
@@ -103,32 +112,94 @@ public final class ProjectManager {
         executor = Executors.newFixedThreadPool(1 + Runtime.getRuntime().availableProcessors(),
                                                 new ThreadFactoryBuilder().setNameFormat("ProjectService-IndexingThread-")
                                                                           .setDaemon(true).build());
+        importOutputDelayMillis = DEFAULT_IMPORT_OUTPUT_DELAY_MS;
+        importOutputMode = OutputMode.FULL;
+    }
+
+    /** Sets delay in milliseconds between messages with output of project import, lines written below the delay are coalesced. */
+    @Inject(optional = true)
+    public void setImportOutputDelay(@Named("project.importer.output_delay_ms") int delayMillis) {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException(String.format("Invalid import output delay: %d", delayMillis));
+        }
+        this.importOutputDelayMillis = delayMillis;
+    }
+
+    /**
+     * Sets content of messages with output of project import, see {@link OutputMode}. Value is
+     * case insensitive name of mode, e.g. {@code full} or {@code summary}.
+     */
+    @Inject(optional = true)
+    public void setImportOutputMode(@Named("project.importer.output_mode") String mode) {
+        this.importOutputMode = OutputMode.valueOf(mode.toUpperCase());
     }
 
     @PostConstruct
     void initWatcher() throws IOException {
-        FileWatcherNotificationListener defaultListener =
-                new FileWatcherNotificationListener(file -> !(file.getPath().toString().contains(".codenvy")
-                                                              || file.getPath().toString().contains(".#"))) {
+        FileWatcherBulkNotificationListener defaultListener =
+                new FileWatcherBulkNotificationListener(file -> !(file.getPath().toString().contains(".codenvy")
+                                                                  || file.getPath().toString().contains(".#"))) {
                     @Override
-                    public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
-                        LOG.debug("FS event detected: " + eventType + " " + virtualFile.getPath().toString() + " " + virtualFile.isFile());
-                        eventService.publish(LoEvent.newInstance()
-                                                    .withPath(virtualFile.getPath().toString())
-                                                    .withName(virtualFile.getName())
-                                                    .withItemType(virtualFile.isFile()
-                                                                           ? LoEvent.ItemType.FILE
-                                                                           : LoEvent.ItemType.DIR)
-                                                    .withTime(System.currentTimeMillis())
-                                                    .withEventType(eventType));
+                    public void onFileWatcherEvents(List<FileWatcherEvent> events) {
+                        updateSearcher(events);
+                        for (FileWatcherEvent event : events) {
+                            final VirtualFile virtualFile = event.getFile();
+                            LOG.debug("FS event detected: " + event.getType() + " " + virtualFile.getPath().toString() + " " +
+                                      virtualFile.isFile());
+                            eventService.publish(LoEvent.newInstance()
+                                                        .withPath(virtualFile.getPath().toString())
+                                                        .withName(virtualFile.getName())
+                                                        .withItemType(virtualFile.isFile()
+                                                                      ? LoEvent.ItemType.FILE
+                                                                      : LoEvent.ItemType.DIR)
+                                                        .withTime(System.currentTimeMillis())
+                                                        .withEventType(event.getType()));
+                        }
                     }
                 };
-        fileWatchNotifier.addNotificationListener(defaultListener);
+        fileWatchNotifier.addBulkNotificationListener(defaultListener);
         try {
             fileWatcher.startup();
         } catch (IOException e) {
             LOG.error(e.getMessage(), e);
-            fileWatchNotifier.removeNotificationListener(defaultListener);
+            fileWatchNotifier.removeBulkNotificationListener(defaultListener);
+        }
+    }
+
+    /**
+     * Applies changes made outside of virtual filesystem, e.g. by git or maven, to search index. Watcher reports changes made through
+     * virtual filesystem too, they are already in index and are skipped by searcher.
+     */
+    private void updateSearcher(List<FileWatcherEvent> events) {
+        final Searcher searcher;
+        try {
+            searcher = getSearcher();
+        } catch (NotFoundException | ServerException e) {
+            LOG.debug(e.getMessage());
+            return;
+        }
+        for (FileWatcherEvent event : events) {
+            if (searcher.isClosed()) {
+                return;
+            }
+            final VirtualFile virtualFile = event.getFile();
+            try {
+                switch (event.getType()) {
+                    case CREATED:
+                        searcher.refresh(virtualFile);
+                        break;
+                    case MODIFIED:
+                        if (virtualFile.isFile()) {
+                            searcher.refresh(virtualFile);
+                        }
+                        break;
+                    case DELETED:
+                        searcher.delete(virtualFile.getPath().toString(), virtualFile.isFile());
+                        break;
+                }
+            } catch (ServerException e) {
+                LOG.warn("Unable update search index for {}: {}", virtualFile.getPath(), e.getMessage());
+            }
         }
     }
 
@@ -158,6 +229,14 @@ public final class ProjectManager {
         fileWatchNotifier.removeNotificationListener(listener);
     }
 
+    public void addWatchListener(FileWatcherBulkNotificationListener listener) {
+        fileWatchNotifier.addBulkNotificationListener(listener);
+    }
+
+    public void removeWatchListener(FileWatcherBulkNotificationListener listener) {
+        fileWatchNotifier.removeBulkNotificationListener(listener);
+    }
+
     public void addWatchExcludeMatcher(PathMatcher matcher) {
         fileWatcher.addExcludeMatcher(matcher);
     }
@@ -320,7 +399,10 @@ public final class ProjectManager {
 
         // Preparing websocket output publisher to broadcast output of import process to the ide clients while importing
         final LineConsumerFactory outputOutputConsumerFactory =
-                () -> new ProjectImportOutputWSLineConsumer(path, workspaceProjectsHolder.getWorkspaceId(), 300);
+                () -> new ProjectImportOutputWSLineConsumer(path,
+                                                            workspaceProjectsHolder.getWorkspaceId(),
+                                                            importOutputDelayMillis,
+                                                            importOutputMode);
 
         String normalizePath = (path.startsWith("/")) ? path : "/".concat(path);
         FolderEntry folder = asFolder(normalizePath);
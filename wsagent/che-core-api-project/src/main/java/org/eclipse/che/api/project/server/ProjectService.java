@@ -43,6 +43,7 @@ import org.eclipse.che.api.vfs.search.QueryExpression;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.search.Searcher;
+import org.eclipse.che.api.vfs.util.FileChannelInputStream;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
 import org.eclipse.che.commons.env.EnvironmentContext;
@@ -64,10 +65,13 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -112,6 +116,9 @@ public class ProjectService extends Service {
     private static final Logger LOG  = LoggerFactory.getLogger(ProjectService.class);
     private static final Tika   TIKA = new Tika();
 
+    /** Response header with token for retrieving next page of search results. */
+    static final String NEXT_PAGE_AFTER_HEADER = "X-Next-Page-After";
+
     private final ProjectManager projectManager;
     private final EventService   eventService;
     private final String         workspace;
@@ -453,7 +460,7 @@ public class ProjectService extends Service {
         if (file == null) {
             throw new NotFoundException("File not found for " + path);
         }
-        return Response.ok().entity(file.getInputStream()).type(TIKA.detect(file.getName())).build();
+        return Response.ok().entity(asEntity(file.getInputStream())).type(TIKA.detect(file.getName())).build();
     }
 
     @PUT
@@ -690,8 +697,8 @@ public class ProjectService extends Service {
                    @ApiResponse(code = 403, message = "User not authorized to call this operation"),
                    @ApiResponse(code = 404, message = "Not found"),
                    @ApiResponse(code = 500, message = "Internal Server Error")})
-    public InputStream exportZip(@ApiParam(value = "Path to resource to be exported")
-                                 @PathParam("path") String path) throws NotFoundException, ForbiddenException, ServerException {
+    public Response exportZip(@ApiParam(value = "Path to resource to be exported")
+                              @PathParam("path") String path) throws NotFoundException, ForbiddenException, ServerException {
 
         final FolderEntry folder = projectManager.asFolder(path);
 
@@ -699,7 +706,16 @@ public class ProjectService extends Service {
             throw new NotFoundException("Folder not found " + path);
         }
 
-        return folder.getVirtualFile().zip();
+        final VirtualFile virtualFile = folder.getVirtualFile();
+        // Zip entries are written to the response while the folder is visited, there is no need to build whole archive before.
+        final StreamingOutput zip = output -> {
+            try {
+                virtualFile.zip(output);
+            } catch (ForbiddenException | ServerException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        };
+        return Response.ok(zip, ExtMediaType.APPLICATION_ZIP).build();
     }
 
     @GET
@@ -715,14 +731,45 @@ public class ProjectService extends Service {
         }
 
         final VirtualFile virtualFile = file.getVirtualFile();
+        final InputStream content = virtualFile.getContent();
 
-        return Response.ok(virtualFile.getContent(), TIKA.detect(virtualFile.getName()))
+        return Response.ok(asEntity(content), TIKA.detect(virtualFile.getName()))
                        .lastModified(new Date(virtualFile.getLastModificationDate()))
-                       .header(HttpHeaders.CONTENT_LENGTH, Long.toString(virtualFile.getLength()))
+                       .header(HttpHeaders.CONTENT_LENGTH, Long.toString(getContentLength(content, virtualFile)))
                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + virtualFile.getName() + '"')
                        .build();
     }
 
+    /**
+     * Content of big files is streamed directly from the file channel to the response output stream, other content is written
+     * by regular InputStream provider.
+     */
+    private static Object asEntity(InputStream content) {
+        if (content instanceof FileChannelInputStream) {
+            return (StreamingOutput)output -> {
+                try (FileChannelInputStream fileContent = (FileChannelInputStream)content) {
+                    fileContent.transferTo(output);
+                }
+            };
+        }
+        return content;
+    }
+
+    /** Gets length of content which is sent to client, file may be updated after its content was opened. */
+    private static long getContentLength(InputStream content, VirtualFile virtualFile) throws ServerException {
+        try {
+            if (content instanceof FileChannelInputStream) {
+                return ((FileChannelInputStream)content).size();
+            }
+            if (content instanceof ByteArrayInputStream) {
+                return content.available();
+            }
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        return virtualFile.getLength();
+    }
+
     @GET
     @Path("/children/{parent:.*}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -812,33 +859,41 @@ public class ProjectService extends Service {
     @Path("/search/{path:.*}")
     @Produces(MediaType.APPLICATION_JSON)
     @ApiOperation(value = "Search for resources",
-                  notes = "Search for resources applying a number of search filters as query parameters",
+                  notes = "Search for resources applying a number of search filters as query parameters. If there are more results " +
+                          "than returned, response contains header '" + NEXT_PAGE_AFTER_HEADER + "' with token that may be sent " +
+                          "as 'after' parameter for retrieving the next page",
                   response = ItemReference.class,
                   responseContainer = "List")
     @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 400, message = "Invalid token of the next page"),
                    @ApiResponse(code = 403, message = "User not authorized to call this operation"),
                    @ApiResponse(code = 404, message = "Not found"),
                    @ApiResponse(code = 409, message = "Conflict error"),
                    @ApiResponse(code = 500, message = "Internal Server Error")})
-    public List<ItemReference> search(@ApiParam(value = "Path to resource, i.e. where to search?", required = true)
-                                      @PathParam("path") String path,
-                                      @ApiParam(value = "Resource name")
-                                      @QueryParam("name") String name,
-                                      @ApiParam(value = "Search keywords")
-                                      @QueryParam("text") String text,
-                                      @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
-                                      @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
-                                      @ApiParam(value = "Skip count")
-                                      @QueryParam("skipCount") int skipCount) throws NotFoundException,
-                                                                                     ForbiddenException,
-                                                                                     ConflictException,
-                                                                                     ServerException {
+    public Response search(@ApiParam(value = "Path to resource, i.e. where to search?", required = true)
+                           @PathParam("path") String path,
+                           @ApiParam(value = "Resource name")
+                           @QueryParam("name") String name,
+                           @ApiParam(value = "Fragment of resource path, e.g. 'ctservice' finds 'ProjectService.java'")
+                           @QueryParam("pathFragment") String pathFragment,
+                           @ApiParam(value = "Search keywords")
+                           @QueryParam("text") String text,
+                           @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
+                           @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
+                           @ApiParam(value = "Skip count")
+                           @QueryParam("skipCount") int skipCount,
+                           @ApiParam(value = "Token of the last item of previous page of results")
+                           @QueryParam("after") String after) throws NotFoundException,
+                                                                     ForbiddenException,
+                                                                     ConflictException,
+                                                                     BadRequestException,
+                                                                     ServerException {
         final Searcher searcher;
         try {
             searcher = projectManager.getSearcher();
         } catch (NotFoundException e) {
             LOG.warn(e.getLocalizedMessage());
-            return Collections.emptyList();
+            return Response.ok(new GenericEntity<List<ItemReference>>(Collections.emptyList()) {}).build();
         }
 
         if (skipCount < 0) {
@@ -848,9 +903,11 @@ public class ProjectService extends Service {
         final QueryExpression expr = new QueryExpression()
                 .setPath(path.startsWith("/") ? path : ('/' + path))
                 .setName(name)
+                .setPathFragment(pathFragment)
                 .setText(text)
                 .setMaxItems(maxItems)
-                .setSkipCount(skipCount);
+                .setSkipCount(skipCount)
+                .setAfter(after);
 
         final SearchResult result = searcher.search(expr);
         final List<SearchResultEntry> searchResultEntries = result.getResults();
@@ -865,7 +922,11 @@ public class ProjectService extends Service {
             }
         }
 
-        return items;
+        final Response.ResponseBuilder response = Response.ok(new GenericEntity<List<ItemReference>>(items) {});
+        if (result.getNextPageQueryExpression().isPresent()) {
+            response.header(NEXT_PAGE_AFTER_HEADER, result.getNextPageQueryExpression().get().getAfter());
+        }
+        return response.build();
     }
 
     private void logProjectCreatedEvent(@NotNull String projectName, @NotNull String projectType) {
@@ -10,8 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server.importer;
 
-import org.eclipse.che.api.core.util.LineConsumer;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.eclipse.che.api.core.util.BatchingWebsocketLineConsumer;
 
 import org.everrest.core.impl.provider.json.JsonUtils;
 import org.everrest.websockets.WSConnectionContext;
@@ -19,68 +18,75 @@ import org.everrest.websockets.message.ChannelBroadcastMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Send project import output to WS by skipping output messages written below the delay specified.
+ * Send project import output to WS. Lines written below the delay specified are sent in one message, depending on
+ * {@link OutputMode} message contains all lines or only the last one and number of lines it stands for.
+ * <p/>
+ * Consumer doesn't have own threads, messages are sent by threads that are shared by all {@link BatchingWebsocketLineConsumer}s.
  */
-public class ProjectImportOutputWSLineConsumer implements LineConsumer {
+public class ProjectImportOutputWSLineConsumer extends BatchingWebsocketLineConsumer {
     private static final Logger LOG = LoggerFactory.getLogger(ProjectImportOutputWSLineConsumer.class);
 
-    protected final AtomicInteger            lineCounter;
-    protected final String                   projectName;
-    protected final String                   workspaceId;
-    protected final BlockingQueue<String>    lineToSendQueue;
-    protected final ScheduledExecutorService executor;
+    /** Content of message that is sent for lines written below the delay. */
+    public enum OutputMode {
+        /** All lines separated by {@code '\n'}. */
+        FULL,
+        /** The last line, message contains number of lines in field {@code lines} if there are more than one line. */
+        SUMMARY
+    }
+
+    protected final AtomicInteger lineCounter;
+    protected final String        projectName;
+    protected final String        workspaceId;
+    protected final OutputMode    outputMode;
+
+    /** Set when marker of dropped lines is created for the frame that is being encoded. */
+    private volatile boolean dropMarkerInFrame;
 
     public ProjectImportOutputWSLineConsumer(String projectName, String workspaceId, int delayBetweenMessages) {
+        this(projectName, workspaceId, delayBetweenMessages, OutputMode.FULL);
+    }
+
+    public ProjectImportOutputWSLineConsumer(String projectName,
+                                             String workspaceId,
+                                             int delayBetweenMessages,
+                                             OutputMode outputMode) {
+        super("importProject:output:" + workspaceId + ":" + projectName,
+              DEFAULT_MAX_FRAME_LINES,
+              DEFAULT_MAX_FRAME_SIZE,
+              delayBetweenMessages,
+              DEFAULT_CAPACITY,
+              OverflowPolicy.DROP_OLDEST);
         this.projectName = projectName;
         this.workspaceId = workspaceId;
-        lineToSendQueue = new ArrayBlockingQueue<>(1024);
-        executor = Executors.newSingleThreadScheduledExecutor(
-                new ThreadFactoryBuilder().setNameFormat(ProjectImportOutputWSLineConsumer.class.getSimpleName()+"-%d").setDaemon(true).build());
-        executor.scheduleAtFixedRate(new Runnable() {
-            @Override
-            public void run() {
-                String lineToSend = null;
-                while (!lineToSendQueue.isEmpty()) {
-                    lineToSend = lineToSendQueue.poll();
-                }
-                if (lineToSend == null) {
-                    return;
-                }
-                sendMessage(lineToSend);
-            }
-        }, 0, delayBetweenMessages, TimeUnit.MILLISECONDS);
+        this.outputMode = outputMode;
         lineCounter = new AtomicInteger(1);
     }
 
     @Override
-    public void close() throws IOException {
-        executor.shutdown();
+    protected String dropMarker(long dropped) {
+        // marker of lines lost under DROP_OLDEST is created for the frame in which it's sent, right before the frame is encoded
+        dropMarkerInFrame = true;
+        return super.dropMarker(dropped);
     }
 
     @Override
-    public void writeLine(String line) throws IOException {
-        try {
-            lineToSendQueue.put(line);
-        } catch (InterruptedException ignored) {
-            // ignore if interrupted
+    protected String encodeFrame(List<String> lines) {
+        final boolean withDropMarker = dropMarkerInFrame;
+        dropMarkerInFrame = false;
+        if (outputMode == OutputMode.SUMMARY) {
+            // marker isn't a line of output
+            return toMessageBody(lines.get(lines.size() - 1), withDropMarker ? lines.size() - 1 : lines.size());
         }
+        return toMessageBody(super.encodeFrame(lines), 1);
     }
 
-    protected void sendMessage(String line) {
-        final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
-        bm.setChannel("importProject:output:" + workspaceId + ":" + projectName);
-        bm.setBody(String.format("{\"num\":%d, \"line\":%s}",
-                                 lineCounter.getAndIncrement(), JsonUtils.getJsonString(line)));
-        sendMessageToWS(bm);
+    @Override
+    protected void sendFrame(String body) {
+        sendMessageToWS(toBroadcastMessage(body));
     }
 
     protected void sendMessageToWS(final ChannelBroadcastMessage bm) {
@@ -90,4 +96,19 @@ public class ProjectImportOutputWSLineConsumer implements LineConsumer {
             LOG.error("A problem occurred while sending websocket message", e);
         }
     }
+
+    private ChannelBroadcastMessage toBroadcastMessage(String body) {
+        final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
+        bm.setChannel(getChannel());
+        bm.setBody(body);
+        return bm;
+    }
+
+    private String toMessageBody(String line, int lines) {
+        if (lines > 1) {
+            return String.format("{\"num\":%d, \"line\":%s, \"lines\":%d}",
+                                 lineCounter.getAndIncrement(), JsonUtils.getJsonString(line), lines);
+        }
+        return String.format("{\"num\":%d, \"line\":%s}", lineCounter.getAndIncrement(), JsonUtils.getJsonString(line));
+    }
 }
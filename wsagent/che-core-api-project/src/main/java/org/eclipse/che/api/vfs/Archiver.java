@@ -27,7 +27,8 @@ public abstract class Archiver {
     }
 
     /**
-     * Write compressed content of folder to specified output.
+     * Write compressed content of folder to specified output. Archive entries are written to the output while the folder is
+     * visited. Output is flushed but not closed.
      *
      * @param compressOutput
      *         output for compressed content
@@ -35,7 +36,8 @@ public abstract class Archiver {
     public abstract void compress(OutputStream compressOutput) throws IOException, ServerException;
 
     /**
-     * Write compressed content of folder to specified output.
+     * Write compressed content of folder to specified output. Archive entries are written to the output while the folder is
+     * visited. Output is flushed but not closed.
      *
      * @param compressOutput
      *         output for compressed content
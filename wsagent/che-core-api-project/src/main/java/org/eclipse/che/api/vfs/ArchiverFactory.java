@@ -10,13 +10,33 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import java.util.zip.Deflater;
+
 public class ArchiverFactory {
+    private final int zipCompressionLevel;
+
+    public ArchiverFactory() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param zipCompressionLevel
+     *         compression level of zip archives, see {@link Deflater}
+     */
+    public ArchiverFactory(int zipCompressionLevel) {
+        if ((zipCompressionLevel < Deflater.NO_COMPRESSION || zipCompressionLevel > Deflater.BEST_COMPRESSION)
+            && zipCompressionLevel != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException(String.format("Invalid zip compression level %d", zipCompressionLevel));
+        }
+        this.zipCompressionLevel = zipCompressionLevel;
+    }
+
     public Archiver createArchiver(VirtualFile folder, String archiveType) {
         if (archiveType == null) {
             throw new IllegalArgumentException("Archive type might not be null");
         }
         if ("zip".equals(archiveType.toLowerCase())) {
-            return new ZipArchiver(folder);
+            return new ZipArchiver(folder, zipCompressionLevel);
         } else if ("tar".equals(archiveType.toLowerCase())) {
             return new TarArchiver(folder);
         }
@@ -10,6 +10,18 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Advisory file locks. It does not prevent access to the file from other programs.
  * <p/>
@@ -30,15 +42,26 @@ package org.eclipse.che.api.vfs;
  *         }
  *      }
  * </pre>
+ * Locks are hierarchical: exclusive lock of the path prevents locking of any of its ancestors or descendants by other threads,
+ * shared lock of the path prevents exclusive locking of its ancestors or descendants by other threads. Thread that already
+ * holds lock may lock the same path or any related path again.
+ * <p/>
+ * Every locked path and each of its ancestors is represented with separate lock node. Before locking of the path all its
+ * ancestors get intention lock, from the root down to the parent of the path. Intention locks are compatible with each other
+ * and are counted without monitor of the node as long as nobody holds or waits for shared or exclusive lock of the same node,
+ * so locking of unrelated sub-trees never blocks each other even on their common ancestors. Shared and exclusive locks are
+ * taken under monitor of the node, waiters are notified only about changes of the node they wait for. Node is removed as soon
+ * as it is not held and nobody waits for it.
  *
  * @author andrew00x>
  */
 public final class PathLockFactory {
-    private static final int MAX_RECURSIVE_LOCKS = (1 << 10) - 1;
+    private static final int  MAX_RECURSIVE_LOCKS = (1 << 10) - 1;
+    private static final long NO_TIMEOUT          = -1;
+
     /** Max number of threads allowed to access file. */
-    private final int maxThreads;
-    // Tail of the "lock table".
-    private final Node tail = new Node(null, 0, null);
+    private final int                     maxThreads;
+    private final ConcurrentMap<Path, Node> nodes;
 
     /**
      * @param maxThreads
@@ -50,145 +73,317 @@ public final class PathLockFactory {
             throw new IllegalArgumentException();
         }
         this.maxThreads = maxThreads;
+        this.nodes = new ConcurrentHashMap<>();
     }
 
     public PathLock getLock(Path path, boolean exclusive) {
-        return new PathLock(path, exclusive ? maxThreads : 1);
+        return new PathLock(path, exclusive);
     }
 
-    private synchronized void acquire(Path path, int permits) {
-        while (!tryAcquire(path, permits)) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                notifyAll();
-                throw new RuntimeException(e);
+    private void acquire(Path path, boolean exclusive, long threadId, long timeoutMilliseconds) {
+        final long endTime = timeoutMilliseconds == NO_TIMEOUT ? NO_TIMEOUT : System.currentTimeMillis() + timeoutMilliseconds;
+        final List<Path> ancestors = getAncestors(path);
+        final Mode intention = exclusive ? Mode.INTENTION_EXCLUSIVE : Mode.INTENTION_SHARED;
+        int acquiredAncestors = 0;
+        try {
+            for (Path ancestor : ancestors) {
+                acquireNode(ancestor, intention, threadId, path, endTime);
+                acquiredAncestors++;
+            }
+            acquireNode(path, exclusive ? Mode.EXCLUSIVE : Mode.SHARED, threadId, path, endTime);
+        } catch (RuntimeException | Error e) {
+            for (int i = acquiredAncestors - 1; i >= 0; i--) {
+                releaseNode(ancestors.get(i), intention, threadId);
+            }
+            throw e;
+        }
+    }
+
+    private void release(Path path, boolean exclusive, long threadId) {
+        releaseNode(path, exclusive ? Mode.EXCLUSIVE : Mode.SHARED, threadId);
+        final List<Path> ancestors = getAncestors(path);
+        final Mode intention = exclusive ? Mode.INTENTION_EXCLUSIVE : Mode.INTENTION_SHARED;
+        for (int i = ancestors.size() - 1; i >= 0; i--) {
+            releaseNode(ancestors.get(i), intention, threadId);
+        }
+    }
+
+    private void acquireNode(Path path, Mode mode, long threadId, Path requestedPath, long endTime) {
+        final Node node = referenceNode(path);
+        boolean acquired = false;
+        try {
+            if (mode.isIntention()) {
+                acquireIntention(node, mode, threadId, requestedPath, endTime);
+            } else {
+                acquireLock(node, mode, threadId, requestedPath, endTime);
+            }
+            acquired = true;
+        } finally {
+            if (!acquired) {
+                // Waiter that gives up must remove node if it was the last one who needs it.
+                dereferenceNode(node);
+            }
+        }
+    }
+
+    private void acquireIntention(Node node, Mode mode, long threadId, Path requestedPath, long endTime) {
+        node.addIntention(mode, threadId, 1);
+        if (node.guards.get() == 0) {
+            // Nobody holds or waits for shared or exclusive lock of the node, it sees our intention when it comes.
+            return;
+        }
+        removeIntention(node, mode, threadId);
+        node.lock.lock();
+        try {
+            while (!node.isCompatible(mode, threadId)) {
+                awaitChanges(node, requestedPath, endTime);
             }
+            node.addIntention(mode, threadId, 1);
+        } finally {
+            node.lock.unlock();
         }
     }
 
-    private synchronized void acquire(Path path, int permits, long timeoutMilliseconds) {
-        final long endTime = System.currentTimeMillis() + timeoutMilliseconds;
-        long waitTime = timeoutMilliseconds;
-        while (!tryAcquire(path, permits)) {
+    private void acquireLock(Node node, Mode mode, long threadId, Path requestedPath, long endTime) {
+        node.lock.lock();
+        try {
+            // Must be visible to threads that take intention lock before we check their intentions.
+            node.guards.incrementAndGet();
+            boolean acquired = false;
             try {
-                wait(waitTime);
-            } catch (InterruptedException e) {
-                notifyAll();
-                throw new RuntimeException(e);
-            }
-            long now = System.currentTimeMillis();
-            if (now >= endTime) {
-                throw new RuntimeException(String.format("Get lock timeout for '%s'. ", path));
-            }
-            waitTime = endTime - now;
-        }
-    }
-
-    private synchronized void release(Path path, int permits) {
-        Node node = tail;
-        while (node != null) {
-            Node prev = node.prev;
-            if (prev == null) {
-                break;
-            }
-            if (prev.path.equals(path)) {
-                if (prev.threadDeep == 1) {
-                    // If last recursive lock.
-                    prev.permits += permits;
-                    if (prev.permits >= maxThreads) {
-                        // remove
-                        node.prev = prev.prev;
-                        prev.prev = null;
-                    }
-                } else {
-                    --prev.threadDeep;
+                while (!node.isCompatible(mode, threadId)) {
+                    awaitChanges(node, requestedPath, endTime);
+                }
+                node.hold(mode, threadId);
+                acquired = true;
+            } finally {
+                if (!acquired) {
+                    node.guards.decrementAndGet();
+                    node.changed.signalAll();
                 }
             }
-            node = node.prev;
+        } finally {
+            node.lock.unlock();
         }
-        notifyAll();
-        //System.err.printf(">>>>> release: %s : %d%n", path, permits);
     }
 
-    private boolean tryAcquire(Path path, int permits) {
-        //System.err.printf(">>>>> acquire: %s : %d%n", path, permits);
-        Node node = tail.prev;
-        final Thread current = Thread.currentThread();
-        while (node != null) {
-            if (node.path.equals(path)) {
-                if (node.threadId == current.getId()) {
-                    // Current thread already has direct lock for this path
-                    if (node.threadDeep > MAX_RECURSIVE_LOCKS) {
-                        throw new Error("Max number of recursive locks exceeded. ");
-                    }
-                    ++node.threadDeep;
-                    return true;
-                }
-                if (node.permits > permits) {
-                    // Lock already exists and current thread is not owner of this lock,
-                    // but lock is not exclusive and we can "share" it for other thread.
-                    node.permits -= permits; // decrement number of allowed concurrent threads
-                    return true;
+    private void awaitChanges(Node node, Path requestedPath, long endTime) {
+        try {
+            if (endTime == NO_TIMEOUT) {
+                node.changed.await();
+            } else {
+                final long waitTime = endTime - System.currentTimeMillis();
+                if (waitTime <= 0 || !node.changed.await(waitTime, TimeUnit.MILLISECONDS)) {
+                    throw new RuntimeException(String.format("Get lock timeout for '%s'. ", requestedPath));
                 }
-                // Lock is exclusive or max number of allowed concurrent thread is reached.
-                return false;
-            } else if ((node.path.isChild(path) || path.isChild(node.path)) && node.permits <= permits) {
-                // Found some path which already has lock that prevents us to get required permits.
-                // There is two possibilities:
-                // 1. Parent of the path we try to lock already locked
-                // 2. Child of the path we try to lock already locked
-                // Need to check is such lock obtained by current thread or not.
-                // If such lock obtained by other thread stop here immediately there is no reasons to continue.
-                if (node.threadId != current.getId()) {
-                    return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void releaseNode(Path path, Mode mode, long threadId) {
+        final Node node = nodes.get(path);
+        if (node == null) {
+            throw new IllegalStateException(String.format("Path '%s' is not locked", path));
+        }
+        if (mode.isIntention()) {
+            removeIntention(node, mode, threadId);
+        } else {
+            node.lock.lock();
+            try {
+                node.release(mode, threadId);
+                node.guards.decrementAndGet();
+                node.changed.signalAll();
+            } finally {
+                node.lock.unlock();
+            }
+        }
+        dereferenceNode(node);
+    }
+
+    private void removeIntention(Node node, Mode mode, long threadId) {
+        node.addIntention(mode, threadId, -1);
+        if (node.guards.get() > 0) {
+            // Somebody may wait for shared or exclusive lock until our intention is gone.
+            node.lock.lock();
+            try {
+                node.changed.signalAll();
+            } finally {
+                node.lock.unlock();
+            }
+        }
+    }
+
+    /** Gets node of the path and counts one more reference to it, node that is being removed is never returned. */
+    private Node referenceNode(Path path) {
+        for (; ; ) {
+            final Node node = nodes.computeIfAbsent(path, Node::new);
+            for (int refs = node.refs.get(); refs >= 0; refs = node.refs.get()) {
+                if (node.refs.compareAndSet(refs, refs + 1)) {
+                    return node;
                 }
             }
-            node = node.prev;
+            // Node was removed after we got it from the map, try again with new one.
+        }
+    }
+
+    private void dereferenceNode(Node node) {
+        if (node.refs.decrementAndGet() == 0 && node.refs.compareAndSet(0, -1)) {
+            nodes.remove(node.path, node);
+        }
+    }
+
+    private static List<Path> getAncestors(Path path) {
+        final List<Path> ancestors = new ArrayList<>(path.length());
+        for (Path parent = path.getParent(); parent != null; parent = parent.getParent()) {
+            ancestors.add(parent);
         }
-        // If we are here there is no lock for path yet.
-        tail.prev = new Node(path, maxThreads - permits, tail.prev);
-        return true;
+        Collections.reverse(ancestors);
+        return ancestors;
     }
 
-    public synchronized void checkClean() {
-        assert tail.prev == null;
+    public void checkClean() {
+        assert nodes.isEmpty();
     }
 
    /* =============================================== */
 
-    private static class Node {
-        final Path path;
-        final long threadId = Thread.currentThread().getId();
-        int  permits;
-        int  threadDeep;
-        Node prev;
+    private enum Mode {
+        INTENTION_SHARED,
+        INTENTION_EXCLUSIVE,
+        SHARED,
+        EXCLUSIVE;
+
+        boolean isIntention() {
+            return this == INTENTION_SHARED || this == INTENTION_EXCLUSIVE;
+        }
+
+        boolean isCompatibleWith(Mode other) {
+            switch (this) {
+                case INTENTION_SHARED:
+                    return other != EXCLUSIVE;
+                case INTENTION_EXCLUSIVE:
+                    return other == INTENTION_SHARED || other == INTENTION_EXCLUSIVE;
+                case SHARED:
+                    return other == INTENTION_SHARED || other == SHARED;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private final class Node {
+        final Path          path;
+        final ReentrantLock lock    = new ReentrantLock();
+        final Condition     changed = lock.newCondition();
+        /** Number of threads which hold, wait for or release the node. Node with -1 is removed and must not be used. */
+        final AtomicInteger refs    = new AtomicInteger();
+        /** Number of holds and waiters of shared and exclusive locks. While it is 0 intention locks don't need monitor. */
+        final AtomicInteger guards  = new AtomicInteger();
+        /** Number of holds of intention locks per thread, indexed by ordinal of intention {@link Mode}. Arrays are immutable. */
+        final ConcurrentMap<Long, int[]> intentions = new ConcurrentHashMap<>(4);
+        /** Number of holds of shared and exclusive locks per thread, guarded by {@link #lock}. */
+        final Map<Long, int[]>           holders    = new HashMap<>(4);
 
-        Node(Path path, int permits, Node prev) {
+        Node(Path path) {
             this.path = path;
-            this.permits = permits;
-            this.prev = prev;
-            threadDeep = 1;
+        }
+
+        boolean isCompatible(Mode mode, long threadId) {
+            if (!isCompatible(mode, threadId, holders) || !isCompatible(mode, threadId, intentions)) {
+                return false;
+            }
+            if (mode != Mode.SHARED) {
+                return true;
+            }
+            int sharedHolders = 0;
+            for (Map.Entry<Long, int[]> entry : holders.entrySet()) {
+                if (entry.getKey() != threadId && entry.getValue()[Mode.SHARED.ordinal()] > 0) {
+                    sharedHolders++;
+                }
+            }
+            return sharedHolders < maxThreads;
+        }
+
+        private boolean isCompatible(Mode mode, long threadId, Map<Long, int[]> holds) {
+            for (Map.Entry<Long, int[]> entry : holds.entrySet()) {
+                if (entry.getKey() == threadId) {
+                    // Locks of current thread never prevent it from getting new lock.
+                    continue;
+                }
+                final int[] counts = entry.getValue();
+                for (Mode held : Mode.values()) {
+                    if (counts[held.ordinal()] > 0 && !mode.isCompatibleWith(held)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        void addIntention(Mode mode, long threadId, int delta) {
+            intentions.compute(threadId, (id, counts) -> {
+                final int[] updated = counts == null ? new int[Mode.values().length] : counts.clone();
+                updated[mode.ordinal()] += delta;
+                if (updated[mode.ordinal()] < 0) {
+                    throw new IllegalStateException(String.format("Path '%s' is not locked by thread %d", path, threadId));
+                }
+                if (updated[mode.ordinal()] > MAX_RECURSIVE_LOCKS) {
+                    throw new Error("Max number of recursive locks exceeded. ");
+                }
+                return updated[Mode.INTENTION_SHARED.ordinal()] == 0 && updated[Mode.INTENTION_EXCLUSIVE.ordinal()] == 0
+                       ? null : updated;
+            });
+        }
+
+        void hold(Mode mode, long threadId) {
+            final int[] holds = holders.computeIfAbsent(threadId, id -> new int[Mode.values().length]);
+            int total = 0;
+            for (int count : holds) {
+                total += count;
+            }
+            if (total >= MAX_RECURSIVE_LOCKS) {
+                throw new Error("Max number of recursive locks exceeded. ");
+            }
+            holds[mode.ordinal()]++;
+        }
+
+        void release(Mode mode, long threadId) {
+            final int[] holds = holders.get(threadId);
+            if (holds == null || holds[mode.ordinal()] == 0) {
+                throw new IllegalStateException(String.format("Path '%s' is not locked by thread %d", path, threadId));
+            }
+            holds[mode.ordinal()]--;
+            for (int count : holds) {
+                if (count > 0) {
+                    return;
+                }
+            }
+            holders.remove(threadId);
         }
 
         @Override
         public String toString() {
             return "Node{" +
                    "path=" + path +
-                   ", threadId=" + threadId +
-                   ", permits=" + permits +
-                   ", prev=" + prev +
+                   ", holders=" + holders.keySet() +
+                   ", intentions=" + intentions.keySet() +
+                   ", refs=" + refs +
                    '}';
         }
     }
 
     public final class PathLock {
-        private final Path path;
-        private final int  permits;
+        private final Path    path;
+        private final boolean exclusive;
+
+        private volatile long ownerId;
 
-        private PathLock(Path path, int permits) {
+        private PathLock(Path path, boolean exclusive) {
             this.path = path;
-            this.permits = permits;
+            this.exclusive = exclusive;
         }
 
         /**
@@ -197,7 +392,9 @@ public final class PathLockFactory {
          * @return this PathLock instance
          */
         public PathLock acquire() {
-            PathLockFactory.this.acquire(path, permits);
+            final long threadId = Thread.currentThread().getId();
+            PathLockFactory.this.acquire(path, exclusive, threadId, NO_TIMEOUT);
+            ownerId = threadId;
             return this;
         }
 
@@ -212,18 +409,20 @@ public final class PathLockFactory {
          *         if waiting timeout reached
          */
         public PathLock acquire(long timeoutMilliseconds) {
-            PathLockFactory.this.acquire(path, permits, timeoutMilliseconds);
+            final long threadId = Thread.currentThread().getId();
+            PathLockFactory.this.acquire(path, exclusive, threadId, Math.max(0, timeoutMilliseconds));
+            ownerId = threadId;
             return this;
         }
 
-        /** Release file permit. */
+        /** Release file permit. Permit is released on behalf of the thread that acquired it. */
         public void release() {
-            PathLockFactory.this.release(path, permits);
+            PathLockFactory.this.release(path, exclusive, ownerId);
         }
 
         /** Returns <code>true</code> if this lock is exclusive and <code>false</code> otherwise. */
         public boolean isExclusive() {
-            return permits == PathLockFactory.this.maxThreads;
+            return exclusive;
         }
     }
 }
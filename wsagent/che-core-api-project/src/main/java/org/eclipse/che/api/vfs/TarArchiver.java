@@ -36,24 +36,26 @@ public class TarArchiver extends Archiver {
 
     @Override
     public void compress(OutputStream tarOutput, VirtualFileFilter filter) throws IOException, ServerException {
-        try (TarArchiveOutputStream tarOutputStream = new TarArchiveOutputStream(tarOutput)) {
-            tarOutputStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
-            folder.accept(new VirtualFileVisitor() {
-                @Override
-                public void visit(VirtualFile visitedVirtualFile) throws ServerException {
-                    if (filter.accept(visitedVirtualFile)) {
-                        if (!visitedVirtualFile.equals(folder)) {
-                            addTarEntry(visitedVirtualFile, tarOutputStream);
-                        }
-                        if (visitedVirtualFile.isFolder()) {
-                            for (VirtualFile child : visitedVirtualFile.getChildren()) {
-                                child.accept(this);
-                            }
+        final TarArchiveOutputStream tarOutputStream = new TarArchiveOutputStream(tarOutput);
+        tarOutputStream.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        folder.accept(new VirtualFileVisitor() {
+            @Override
+            public void visit(VirtualFile visitedVirtualFile) throws ServerException {
+                if (filter.accept(visitedVirtualFile)) {
+                    if (!visitedVirtualFile.equals(folder)) {
+                        addTarEntry(visitedVirtualFile, tarOutputStream);
+                    }
+                    if (visitedVirtualFile.isFolder()) {
+                        for (VirtualFile child : visitedVirtualFile.getChildren()) {
+                            child.accept(this);
                         }
                     }
                 }
-            });
-        }
+            }
+        });
+        // Do not close tar stream, it closes output stream that we don't own.
+        tarOutputStream.finish();
+        tarOutputStream.flush();
     }
 
     private String getTarEntryName(VirtualFile virtualFile) {
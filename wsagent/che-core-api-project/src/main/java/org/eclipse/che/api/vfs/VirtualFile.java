@@ -18,6 +18,7 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.commons.lang.Pair;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -504,6 +505,19 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      */
     InputStream zip() throws ForbiddenException, ServerException;
 
+    /**
+     * Writes content of folder denoted by this VirtualFile as zip archive to the {@code output}. Unlike to {@link #zip()} archive
+     * is not built before it is returned but written to the {@code output} while the folder is visited. Output is not closed.
+     *
+     * @param output
+     *         output for zipped content of folder denoted by this VirtualFile
+     * @throws ForbiddenException
+     *         if this item does not denote a folder
+     * @throws ServerException
+     *         if other error occurs
+     */
+    void zip(OutputStream output) throws ForbiddenException, ServerException;
+
     /**
      * Extracts zip archive to the folder denoted by this VirtualFile.
      *
@@ -537,6 +551,19 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      */
     InputStream tar() throws ForbiddenException, ServerException;
 
+    /**
+     * Writes content of folder denoted by this VirtualFile as TAR archive to the {@code output}. Unlike to {@link #tar()} archive
+     * is not built before it is returned but written to the {@code output} while the folder is visited. Output is not closed.
+     *
+     * @param output
+     *         output for content of folder denoted by this VirtualFile as TAR archive
+     * @throws ForbiddenException
+     *         if this item does not denote a folder
+     * @throws ServerException
+     *         if other error occurs
+     */
+    void tar(OutputStream output) throws ForbiddenException, ServerException;
+
     /**
      * Extracts tar archive to the folder denoted by this VirtualFile.
      *
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.io.ByteStreams;
 
 import org.eclipse.che.api.core.ConflictException;
@@ -18,16 +19,38 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.util.NotClosableInputStream;
 import org.eclipse.che.api.vfs.util.ZipContent;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 public class ZipArchiver extends Archiver {
+    /** Extensions of files which content is compressed already. Such files are stored in archive without compression. */
+    private static final Set<String> COMPRESSED_FILE_EXTENSIONS = ImmutableSet.of("zip", "jar", "war", "ear", "gz", "tgz", "bz2", "xz",
+                                                                                  "7z", "rar", "png", "jpg", "jpeg", "gif", "webp",
+                                                                                  "mp3", "mp4", "avi", "mov", "woff", "woff2");
+
+    private final int compressionLevel;
+
     public ZipArchiver(VirtualFile folder) {
+        this(folder, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param compressionLevel
+     *         compression level for zip entries, see {@link Deflater}. With value {@link Deflater#NO_COMPRESSION} all entries
+     *         are stored without compression
+     */
+    public ZipArchiver(VirtualFile folder, int compressionLevel) {
         super(folder);
+        this.compressionLevel = compressionLevel;
     }
 
     @Override
@@ -37,23 +60,31 @@ public class ZipArchiver extends Archiver {
 
     @Override
     public void compress(OutputStream zipOutput, VirtualFileFilter filter) throws IOException, ServerException {
-        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipOutput)) {
-            folder.accept(new VirtualFileVisitor() {
-                @Override
-                public void visit(VirtualFile visitedVirtualFile) throws ServerException {
-                    if (filter.accept(visitedVirtualFile)) {
-                        if (!visitedVirtualFile.equals(folder)) {
-                            addZipEntry(visitedVirtualFile, zipOutputStream);
-                        }
-                        if (visitedVirtualFile.isFolder()) {
-                            for (VirtualFile child : visitedVirtualFile.getChildren()) {
-                                child.accept(this);
-                            }
+        final ZipOutputStream zipOutputStream = new ZipOutputStream(zipOutput);
+        folder.accept(new VirtualFileVisitor() {
+            @Override
+            public void visit(VirtualFile visitedVirtualFile) throws ServerException {
+                if (filter.accept(visitedVirtualFile)) {
+                    if (!visitedVirtualFile.equals(folder)) {
+                        addZipEntry(visitedVirtualFile, zipOutputStream);
+                    }
+                    if (visitedVirtualFile.isFolder()) {
+                        for (VirtualFile child : visitedVirtualFile.getChildren()) {
+                            child.accept(this);
                         }
                     }
                 }
-            });
-        }
+            }
+        });
+        // Do not close zip stream, it closes output stream that we don't own.
+        zipOutputStream.finish();
+        zipOutputStream.flush();
+    }
+
+    private boolean isCompressed(VirtualFile virtualFile) {
+        final String name = virtualFile.getName();
+        final int dot = name.lastIndexOf('.');
+        return dot > 0 && COMPRESSED_FILE_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase());
     }
 
     private String getZipEntryName(VirtualFile virtualFile) {
@@ -67,12 +98,19 @@ public class ZipArchiver extends Archiver {
     private void addZipEntry(VirtualFile virtualFile, ZipOutputStream zipOutputStream) throws ServerException {
         try {
             ZipEntry zipEntry = new ZipEntry(getZipEntryName(virtualFile));
-            zipOutputStream.putNextEntry(zipEntry);
             if (virtualFile.isFolder()) {
+                zipOutputStream.putNextEntry(zipEntry);
                 zipEntry.setTime(0);
             } else {
                 try (InputStream content = virtualFile.getContent()) {
-                    ByteStreams.copy(content, zipOutputStream);
+                    if (compressionLevel == Deflater.NO_COMPRESSION || isCompressed(virtualFile)) {
+                        putStoredEntry(zipEntry, content, zipOutputStream);
+                    } else {
+                        zipEntry.setMethod(ZipEntry.DEFLATED);
+                        zipOutputStream.setLevel(compressionLevel);
+                        zipOutputStream.putNextEntry(zipEntry);
+                        ByteStreams.copy(content, zipOutputStream);
+                    }
                 }
                 zipEntry.setTime(virtualFile.getLastModificationDate());
             }
@@ -84,6 +122,24 @@ public class ZipArchiver extends Archiver {
         }
     }
 
+    /**
+     * Writes content without compression. Size and CRC of stored entry must be known before its content, so content is read twice,
+     * from the same opened stream if it supports {@link InputStream#reset()} or from memory otherwise.
+     */
+    private void putStoredEntry(ZipEntry zipEntry, InputStream content, ZipOutputStream zipOutputStream) throws IOException {
+        final InputStream source = content.markSupported() ? content : new ByteArrayInputStream(ByteStreams.toByteArray(content));
+        source.mark(Integer.MAX_VALUE);
+        final CRC32 crc = new CRC32();
+        final long size = ByteStreams.copy(new CheckedInputStream(source, crc), ByteStreams.nullOutputStream());
+        source.reset();
+        zipEntry.setMethod(ZipEntry.STORED);
+        zipEntry.setSize(size);
+        zipEntry.setCompressedSize(size);
+        zipEntry.setCrc(crc.getValue());
+        zipOutputStream.putNextEntry(zipEntry);
+        ByteStreams.copy(source, zipOutputStream);
+    }
+
     @Override
     public void extract(InputStream zipInput, boolean overwrite, int stripNumber)
             throws IOException, ForbiddenException, ConflictException, ServerException {
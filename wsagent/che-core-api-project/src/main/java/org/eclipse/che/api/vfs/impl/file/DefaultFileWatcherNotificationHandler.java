@@ -10,6 +10,9 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.eclipse.che.api.vfs.Path;
@@ -18,27 +21,76 @@ import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.inject.Inject;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+/**
+ * Delivers events of file watcher to listeners. {@link FileWatcherNotificationListener}s get each event immediately.
+ * Events for {@link FileWatcherBulkNotificationListener}s are merged by {@link FileWatcherEventCoalescer} and delivered in batch
+ * when no new events come during coalesce window or when events keep coming for ten coalesce windows.
+ */
 @Singleton
 public class DefaultFileWatcherNotificationHandler implements FileWatcherNotificationHandler {
     private static final Logger LOG = LoggerFactory.getLogger(DefaultFileWatcherNotificationHandler.class);
 
-    private final VirtualFileSystemProvider             virtualFileSystemProvider;
-    private final List<FileWatcherNotificationListener> fileWatcherNotificationListeners;
+    private static final long DEFAULT_COALESCE_WINDOW_MS = 300;
+    /** Batch is delivered after this number of coalesce windows even if events keep coming. */
+    private static final int  MAX_COALESCE_WINDOWS       = 10;
+
+    private final VirtualFileSystemProvider                 virtualFileSystemProvider;
+    private final List<FileWatcherNotificationListener>     fileWatcherNotificationListeners;
+    private final List<FileWatcherBulkNotificationListener> fileWatcherBulkNotificationListeners;
+    private final Map<File, FileWatcherEventCoalescer>      coalescers;
+    private final ScheduledExecutorService                  bulkNotifier;
+
+    private long    coalesceWindowNanos;
+    private boolean flushScheduled;
+    private long    firstPendingEventTime;
+    private long    lastPendingEventTime;
 
     @Inject
     public DefaultFileWatcherNotificationHandler(VirtualFileSystemProvider virtualFileSystemProvider) {
         this.virtualFileSystemProvider = virtualFileSystemProvider;
         fileWatcherNotificationListeners = new CopyOnWriteArrayList<>();
+        fileWatcherBulkNotificationListeners = new CopyOnWriteArrayList<>();
+        coalescers = newHashMap();
+        coalesceWindowNanos = MILLISECONDS.toNanos(DEFAULT_COALESCE_WINDOW_MS);
+        bulkNotifier = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true)
+                                                                                            .setNameFormat("FileWatcherBulkNotifier-%d")
+                                                                                            .build());
+    }
+
+    @Inject(optional = true)
+    public void setCoalesceWindow(@Named("vfs.local.fs_watcher_coalesce_window_ms") long coalesceWindowMillis) {
+        if (coalesceWindowMillis < 0) {
+            throw new IllegalArgumentException(String.format("Invalid coalesce window: %d", coalesceWindowMillis));
+        }
+        synchronized (this) {
+            this.coalesceWindowNanos = MILLISECONDS.toNanos(coalesceWindowMillis);
+        }
     }
 
     @Override
     public void handleFileWatcherEvent(FileWatcherEventType eventType, File watchRoot, String subPath, boolean isDir) {
+        if (!fileWatcherBulkNotificationListeners.isEmpty()) {
+            addPendingEvent(eventType, watchRoot, subPath, isDir);
+        }
+        if (fileWatcherNotificationListeners.isEmpty()) {
+            return;
+        }
         VirtualFile virtualFile = convertToVirtualFile(watchRoot, subPath, isDir);
         if (virtualFile == null) {
             return;
@@ -50,6 +102,66 @@ public class DefaultFileWatcherNotificationHandler implements FileWatcherNotific
         }
     }
 
+    private synchronized void addPendingEvent(FileWatcherEventType eventType, File watchRoot, String subPath, boolean isDir) {
+        coalescers.computeIfAbsent(watchRoot, root -> new FileWatcherEventCoalescer()).add(eventType, subPath, isDir);
+        lastPendingEventTime = System.nanoTime();
+        if (!flushScheduled) {
+            firstPendingEventTime = lastPendingEventTime;
+            try {
+                bulkNotifier.schedule(this::flushPendingEvents, coalesceWindowNanos, NANOSECONDS);
+                flushScheduled = true;
+            } catch (RejectedExecutionException e) {
+                coalescers.clear();
+            }
+        }
+    }
+
+    private void flushPendingEvents() {
+        final Map<File, List<FileWatcherEventCoalescer.Change>> changes = newHashMap();
+        synchronized (this) {
+            final long now = System.nanoTime();
+            final long quietNanos = now - lastPendingEventTime;
+            if (quietNanos < coalesceWindowNanos && now - firstPendingEventTime < coalesceWindowNanos * MAX_COALESCE_WINDOWS) {
+                bulkNotifier.schedule(this::flushPendingEvents, coalesceWindowNanos - quietNanos, NANOSECONDS);
+                return;
+            }
+            coalescers.forEach((root, coalescer) -> changes.put(root, coalescer.drain()));
+            coalescers.clear();
+            flushScheduled = false;
+        }
+        changes.forEach(this::notifyBulkListeners);
+    }
+
+    private void notifyBulkListeners(File watchRoot, List<FileWatcherEventCoalescer.Change> changes) {
+        final List<FileWatcherEvent> events = newArrayList();
+        for (FileWatcherEventCoalescer.Change change : changes) {
+            final VirtualFile virtualFile = convertToVirtualFile(watchRoot, change.getPath(), change.isDir());
+            if (virtualFile != null) {
+                events.add(new FileWatcherEvent(virtualFile, change.getType()));
+            }
+        }
+        for (FileWatcherBulkNotificationListener listener : fileWatcherBulkNotificationListeners) {
+            final List<FileWatcherEvent> accepted = newArrayList();
+            for (FileWatcherEvent event : events) {
+                if (listener.shouldBeNotifiedFor(event.getFile())) {
+                    accepted.add(event);
+                }
+            }
+            if (!accepted.isEmpty()) {
+                try {
+                    listener.onFileWatcherEvents(accepted);
+                } catch (RuntimeException e) {
+                    LOG.error(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        bulkNotifier.shutdownNow();
+    }
+
     public void started(File watchRoot) {
         LOG.debug("Start watching file events on {}", watchRoot);
     }
@@ -68,6 +180,16 @@ public class DefaultFileWatcherNotificationHandler implements FileWatcherNotific
         return fileWatcherNotificationListeners.remove(fileWatcherNotificationListener);
     }
 
+    @Override
+    public boolean addBulkNotificationListener(FileWatcherBulkNotificationListener fileWatcherBulkNotificationListener) {
+        return fileWatcherBulkNotificationListeners.add(fileWatcherBulkNotificationListener);
+    }
+
+    @Override
+    public boolean removeBulkNotificationListener(FileWatcherBulkNotificationListener fileWatcherBulkNotificationListener) {
+        return fileWatcherBulkNotificationListeners.remove(fileWatcherBulkNotificationListener);
+    }
+
     private VirtualFile convertToVirtualFile(File root, String subPath, boolean isDir) {
         try {
             LocalVirtualFileSystem virtualFileSystem = (LocalVirtualFileSystem)virtualFileSystemProvider.getVirtualFileSystem(true);
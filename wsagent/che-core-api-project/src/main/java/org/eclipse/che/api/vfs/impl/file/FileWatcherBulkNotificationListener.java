@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Listener that gets changes of file tree in batches. Events that occur within short period of time are merged, e.g. a file that is
+ * created and then modified is reported once as created and deleted directory is reported without its children, so listener may
+ * apply the whole batch at once instead of reacting to each event of massive IO operation, like checkout of git branch.
+ *
+ * @see FileWatcherNotificationHandler#addBulkNotificationListener(FileWatcherBulkNotificationListener)
+ */
+public abstract class FileWatcherBulkNotificationListener {
+    private final List<VirtualFileFilter> eventsFilters;
+
+    public FileWatcherBulkNotificationListener(VirtualFileFilter eventsFilter) {
+        this.eventsFilters = newArrayList(eventsFilter);
+    }
+
+    public FileWatcherBulkNotificationListener(VirtualFileFilter eventsFilter, VirtualFileFilter... eventsFilters) {
+        this.eventsFilters = newArrayList(eventsFilter);
+        Collections.addAll(this.eventsFilters, eventsFilters);
+    }
+
+    public FileWatcherBulkNotificationListener(List<VirtualFileFilter> eventsFilters) {
+        this.eventsFilters = eventsFilters;
+    }
+
+    public boolean shouldBeNotifiedFor(VirtualFile virtualFile) {
+        for (VirtualFileFilter filter : eventsFilters) {
+            if (!filter.accept(virtualFile)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Receives merged changes of file tree. Directory always goes before its children. Never called with empty list.
+     */
+    public abstract void onFileWatcherEvents(List<FileWatcherEvent> events);
+}
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.VirtualFile;
+
+/**
+ * Net change of file that is delivered to {@link FileWatcherBulkNotificationListener}.
+ */
+public final class FileWatcherEvent {
+    private final VirtualFile          file;
+    private final FileWatcherEventType type;
+
+    public FileWatcherEvent(VirtualFile file, FileWatcherEventType type) {
+        this.file = file;
+        this.type = type;
+    }
+
+    public VirtualFile getFile() {
+        return file;
+    }
+
+    public FileWatcherEventType getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "FileWatcherEvent{" +
+               "file=" + file.getPath() +
+               ", type=" + type +
+               '}';
+    }
+}
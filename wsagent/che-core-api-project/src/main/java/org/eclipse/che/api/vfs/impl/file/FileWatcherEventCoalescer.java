@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static com.google.common.collect.Lists.newArrayListWithCapacity;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+
+/**
+ * Merges events of file watcher so only net change of each path is kept until events are drained:
+ * <ul>
+ * <li>file that is created and modified is reported as created</li>
+ * <li>file that is created and then deleted is not reported at all</li>
+ * <li>file that is deleted and created again is reported as modified, directory is reported as deleted and then created</li>
+ * <li>deleted directory is reported without its deleted children, any pending changes of its children are dropped</li>
+ * <li>created directory is reported without its children, whole tree of created directory has to be read by listener anyway</li>
+ * </ul>
+ * Changes are drained in order of paths, so directory always goes before its children. This class is not thread-safe.
+ */
+class FileWatcherEventCoalescer {
+    private final NavigableMap<String, Change> changes = new TreeMap<>();
+
+    void add(FileWatcherEventType type, String path, boolean isDir) {
+        final Change pending = changes.get(path);
+        switch (type) {
+            case CREATED:
+                if (hasCreatedAncestor(path)) {
+                    break;
+                }
+                if (pending == null) {
+                    changes.put(path, new Change(path, isDir, CREATED));
+                } else if (pending.type == DELETED) {
+                    pending.type = isDir ? CREATED : MODIFIED;
+                    pending.replaced = isDir;
+                }
+                if (isDir && (pending == null || pending.type == CREATED)) {
+                    clearChildren(path);
+                }
+                break;
+            case MODIFIED:
+                if (hasCreatedAncestor(path)) {
+                    break;
+                }
+                if (pending == null) {
+                    changes.put(path, new Change(path, isDir, MODIFIED));
+                } else if (pending.type == DELETED) {
+                    pending.type = MODIFIED;
+                }
+                break;
+            case DELETED:
+                if (hasDeletedAncestor(path) || hasCreatedAncestor(path)) {
+                    break;
+                }
+                if (isDir) {
+                    clearChildren(path);
+                }
+                if (pending == null) {
+                    changes.put(path, new Change(path, isDir, DELETED));
+                } else if (pending.type == CREATED && !pending.replaced) {
+                    changes.remove(path);
+                } else {
+                    pending.type = DELETED;
+                    pending.replaced = false;
+                }
+                break;
+        }
+    }
+
+    boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    int size() {
+        return changes.size();
+    }
+
+    /** Returns all pending changes and resets state of this coalescer. */
+    List<Change> drain() {
+        final List<Change> drained = newArrayListWithCapacity(changes.size());
+        for (Change change : changes.values()) {
+            if (change.replaced) {
+                drained.add(new Change(change.path, change.isDir, DELETED));
+            }
+            drained.add(change);
+        }
+        changes.clear();
+        return drained;
+    }
+
+    private boolean hasDeletedAncestor(String path) {
+        return hasAncestorOfType(path, DELETED);
+    }
+
+    private boolean hasCreatedAncestor(String path) {
+        return hasAncestorOfType(path, CREATED);
+    }
+
+    private boolean hasAncestorOfType(String path, FileWatcherEventType type) {
+        for (int i = path.lastIndexOf('/'); i > 0; i = path.lastIndexOf('/', i - 1)) {
+            final Change ancestor = changes.get(path.substring(0, i));
+            if (ancestor != null && ancestor.type == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void clearChildren(String path) {
+        // '0' follows '/' so range contains all paths that start with "path/"
+        changes.subMap(path + '/', path + '0').clear();
+    }
+
+    static class Change {
+        final String  path;
+        final boolean isDir;
+
+        FileWatcherEventType type;
+        boolean              replaced;
+
+        Change(String path, boolean isDir, FileWatcherEventType type) {
+            this.path = path;
+            this.isDir = isDir;
+            this.type = type;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        boolean isDir() {
+            return isDir;
+        }
+
+        FileWatcherEventType getType() {
+            return type;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + path;
+        }
+    }
+}
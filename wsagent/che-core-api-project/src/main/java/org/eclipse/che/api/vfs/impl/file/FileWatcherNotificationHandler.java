@@ -24,4 +24,8 @@ public interface FileWatcherNotificationHandler {
     boolean addNotificationListener(FileWatcherNotificationListener fileWatcherNotificationListener);
 
     boolean removeNotificationListener(FileWatcherNotificationListener fileWatcherNotificationListener);
+
+    boolean addBulkNotificationListener(FileWatcherBulkNotificationListener fileWatcherBulkNotificationListener);
+
+    boolean removeBulkNotificationListener(FileWatcherBulkNotificationListener fileWatcherBulkNotificationListener);
 }
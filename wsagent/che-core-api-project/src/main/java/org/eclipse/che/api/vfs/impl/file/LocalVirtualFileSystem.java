@@ -35,6 +35,7 @@ import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.api.vfs.util.DeleteOnCloseFileInputStream;
+import org.eclipse.che.api.vfs.util.FileChannelInputStream;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.Pair;
@@ -52,6 +53,14 @@ import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -60,7 +69,6 @@ import java.util.concurrent.ExecutionException;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static com.google.common.collect.Maps.newLinkedHashMap;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
@@ -89,7 +97,13 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private static final String   FILE_PROPERTIES_DIR    = VFS_SERVICE_DIR + File.separatorChar + "props";
     private static final String   PROPERTIES_FILE_SUFFIX = "_props";
 
-    private static final FilenameFilter DOT_VFS_DIR_FILTER = (dir, name) -> !(VFS_SERVICE_DIR.equals(name));
+    /** Suffix of files to which new content is written before it replaces content of the file. */
+    private static final String   TEMP_FILE_SUFFIX       = ".vfs_tmp";
+
+    private static final DirectoryStream.Filter<java.nio.file.Path> DOT_VFS_DIR_STREAM_FILTER = entry -> {
+        final String name = entry.getFileName().toString();
+        return !(VFS_SERVICE_DIR.equals(name) || name.endsWith(TEMP_FILE_SUFFIX));
+    };
 
     private static final FilenameFilter VFS_LOCK_FILTER =
             (dir, name) -> !(dir.getAbsolutePath().endsWith(FILE_LOCKS_DIR) || name.endsWith(LOCK_FILE_SUFFIX));
@@ -243,9 +257,13 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         return newArrayList(path.elements()).contains(".vfs");
     }
 
-    synchronized List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
+    /**
+     * Lists children of {@code parent}. This method does not hold any file system wide monitor, so listings of different folders
+     * (and of the same folder) may run concurrently.
+     */
+    List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
         if (parent.isFolder()) {
-            final List<VirtualFile> children = doGetChildren(parent, DOT_VFS_DIR_FILTER, filter);
+            final List<VirtualFile> children = doGetChildren(parent, DOT_VFS_DIR_STREAM_FILTER, filter);
             Collections.sort(children);
             return children;
         }
@@ -253,28 +271,28 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
-    private List<VirtualFile> doGetChildren(LocalVirtualFile parent, FilenameFilter ioFileFilter, VirtualFileFilter vfsFilter)
-            throws ServerException {
-        if (ioFileFilter == null) {
-            ioFileFilter = IoUtil.ANY_FILTER;
-        }
-
-        final String[] names = parent.toIoFile().list(ioFileFilter);
-        if (names == null) {
-            throw new ServerException(String.format("Unable get children of '%s'", parent.getPath()));
-        }
-
+    private List<VirtualFile> doGetChildren(LocalVirtualFile parent,
+                                            DirectoryStream.Filter<java.nio.file.Path> ioFileFilter,
+                                            VirtualFileFilter vfsFilter) throws ServerException {
         if (vfsFilter == null) {
             vfsFilter = VirtualFileFilter.ACCEPT_ALL;
         }
 
-        final List<VirtualFile> children = newArrayListWithCapacity(names.length);
-        for (String name : names) {
-            final Path childPath = parent.getPath().newPath(name);
-            final LocalVirtualFile child = new LocalVirtualFile(new File(ioRoot, toIoPath(childPath)), childPath, this);
-            if (vfsFilter.accept(child)) {
-                children.add(child);
+        final List<VirtualFile> children = newArrayList();
+        final Path parentPath = parent.getPath();
+        try (DirectoryStream<java.nio.file.Path> entries = java.nio.file.Files.newDirectoryStream(parent.toIoFile().toPath(),
+                                                                                                  ioFileFilter)) {
+            for (java.nio.file.Path entry : entries) {
+                final Path childPath = parentPath.newPath(entry.getFileName().toString());
+                final LocalVirtualFile child = new LocalVirtualFile(entry.toFile(), childPath, this);
+                if (vfsFilter.accept(child)) {
+                    children.add(child);
+                }
             }
+        } catch (IOException | DirectoryIteratorException e) {
+            String errorMessage = String.format("Unable get children of '%s'", parentPath);
+            LOG.error(errorMessage + "\n" + e.getMessage(), e);
+            throw new ServerException(errorMessage);
         }
 
         return children;
@@ -488,24 +506,23 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    /**
+     * Gets content of file. Content of small files is read in memory. Bigger files are streamed directly from the file system with
+     * {@link FileChannelInputStream}. Shared lock of the file is held only while the file is opened, so a caller that keeps the
+     * stream doesn't block writers of the file. Writers never change opened file but replace it, see {@link
+     * #doUpdateContent(LocalVirtualFile, InputStream)}, so the stream reads content which the file had when it was opened.
+     */
     InputStream getContent(LocalVirtualFile virtualFile) throws ForbiddenException, ServerException {
         if (virtualFile.isFile()) {
             final PathLockFactory.PathLock lock = pathLockFactory.getLock(virtualFile.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
-            File spoolFile = null;
             try {
                 final File ioFile = virtualFile.toIoFile();
                 final long fileLength = ioFile.length();
                 if (fileLength <= MAX_BUFFER_SIZE) {
                     return new ByteArrayInputStream(Files.toByteArray(ioFile));
                 }
-                // Copy this file to be able release the file lock before leave this method.
-                spoolFile = File.createTempFile("spool_file", null);
-                Files.copy(ioFile, spoolFile);
-                return new DeleteOnCloseFileInputStream(spoolFile);
+                return new FileChannelInputStream(FileChannel.open(ioFile.toPath(), StandardOpenOption.READ), null);
             } catch (IOException e) {
-                if (spoolFile != null) {
-                    FileCleaner.addFile(spoolFile);
-                }
                 String errorMessage = String.format("Unable get content of '%s'", virtualFile.getPath());
                 LOG.error(errorMessage + "\n" + e.getMessage(), e);
                 throw new ServerException(errorMessage);
@@ -537,16 +554,42 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    /**
+     * Writes content to temporary file in the same folder and moves it over the file. Streams opened by {@link
+     * #getContent(LocalVirtualFile)} keep reading the replaced file and never see partially written content.
+     */
     private void doUpdateContent(LocalVirtualFile virtualFile, InputStream content) throws ServerException {
-        try (FileOutputStream fileOut = new FileOutputStream(virtualFile.toIoFile())) {
-            ByteStreams.copy(content, fileOut);
+        final java.nio.file.Path target = virtualFile.toIoFile().toPath();
+        final java.nio.file.Path temp = target.resolveSibling('.' + virtualFile.getName() + '.' + NameGenerator.generate(null, 8)
+                                                              + TEMP_FILE_SUFFIX);
+        try {
+            try (OutputStream fileOut = java.nio.file.Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW)) {
+                ByteStreams.copy(content, fileOut);
+            }
+            copyPermissions(target, temp);
+            try {
+                java.nio.file.Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                java.nio.file.Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (IOException e) {
+            try {
+                java.nio.file.Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
             String errorMessage = String.format("Unable set content of '%s'", virtualFile.getPath());
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
             throw new ServerException(errorMessage);
         }
     }
 
+    private static void copyPermissions(java.nio.file.Path from, java.nio.file.Path to) throws IOException {
+        final PosixFileAttributeView fromAttributes = java.nio.file.Files.getFileAttributeView(from, PosixFileAttributeView.class);
+        if (fromAttributes != null && java.nio.file.Files.exists(from)) {
+            java.nio.file.Files.setPosixFilePermissions(to, fromAttributes.readAttributes().permissions());
+        }
+    }
+
     void delete(LocalVirtualFile virtualFile, String lockToken) throws ForbiddenException, ServerException {
         if (virtualFile.isRoot()) {
             throw new ForbiddenException("Unable delete root folder");
@@ -608,6 +651,18 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    void zip(LocalVirtualFile folder, OutputStream output) throws ForbiddenException, ServerException {
+        if(archiverFactory == null)
+            throw new ServerException("VFS: Could not create zip archiver. Archiver Factory is not properly configured (is null)");
+
+        if (folder.isFolder()) {
+            compress(archiverFactory.createArchiver(folder, "zip"), output);
+        } else {
+            throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder", folder.getPath()));
+        }
+    }
+
+
     void unzip(LocalVirtualFile parent, InputStream zipped, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
         if(archiverFactory == null)
@@ -633,6 +688,17 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
     }
 
+    void tar(LocalVirtualFile folder, OutputStream output) throws ForbiddenException, ServerException {
+        if(archiverFactory == null)
+            throw new ServerException("VFS: Could not create tar archiver. Archiver Factory is not properly configured (is null)");
+
+        if (folder.isFolder()) {
+            compress(archiverFactory.createArchiver(folder, "tar"), output);
+        } else {
+            throw new ForbiddenException(String.format("Unable export to tar archive. Item '%s' is not a folder", folder.getPath()));
+        }
+    }
+
     void untar(LocalVirtualFile parent, InputStream tarArchive, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
         if(archiverFactory == null)
@@ -662,6 +728,14 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
     }
 
+    private void compress(Archiver archiver, OutputStream output) throws ServerException {
+        try {
+            archiver.compress(output, dotGitFilter());
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
     private void extract(Archiver archiver, InputStream compressed, boolean overwrite, int stripNumber)
             throws ConflictException, ServerException, ForbiddenException {
         try {
@@ -10,24 +10,28 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
+import com.google.inject.Inject;
+
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.ArchiverFactory;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 
-import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.zip.Deflater;
 
 @Singleton
 public class LocalVirtualFileSystemProvider extends AbstractVirtualFileSystemProvider {
     private final File             rootDirectory;
     private final SearcherProvider searcherProvider;
 
+    private int zipCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+
     @Inject
     public LocalVirtualFileSystemProvider(@Named("che.user.workspaces.storage") File rootDirectory,
                                           SearcherProvider searcherProvider) throws IOException {
@@ -36,8 +40,17 @@ public class LocalVirtualFileSystemProvider extends AbstractVirtualFileSystemPro
         Files.createDirectories(rootDirectory.toPath());
     }
 
+    /**
+     * Sets compression level of zip archives exported from the file system, see {@link Deflater}. Already compressed files,
+     * e.g. jars or images, are always stored in archives without compression.
+     */
+    @Inject(optional = true)
+    public void setZipCompressionLevel(@Named("vfs.local.zip_compression_level") int zipCompressionLevel) {
+        this.zipCompressionLevel = zipCompressionLevel;
+    }
+
     @Override
     protected VirtualFileSystem createVirtualFileSystem(CloseCallback closeCallback) throws ServerException {
-        return new LocalVirtualFileSystem(rootDirectory, new ArchiverFactory(), searcherProvider, closeCallback);
+        return new LocalVirtualFileSystem(rootDirectory, new ArchiverFactory(zipCompressionLevel), searcherProvider, closeCallback);
     }
 }
@@ -14,9 +14,11 @@ package org.eclipse.che.api.vfs.search;
 public class QueryExpression {
     private String name;
     private String path;
+    private String pathFragment;
     private String text;
     private int    skipCount;
     private int    maxItems;
+    private String after;
 
     /** Optional file path parameter. Only file with the specified path or children are included in result. */
     public String getPath() {
@@ -28,6 +30,19 @@ public class QueryExpression {
         return this;
     }
 
+    /**
+     * Optional fragment of file path, case insensitive, e.g. {@code ctservice} or {@code server/ProjectSer}. Files which paths contain
+     * the fragment are included in result, files with slightly different paths might be included as well.
+     */
+    public String getPathFragment() {
+        return pathFragment;
+    }
+
+    public QueryExpression setPathFragment(String pathFragment) {
+        this.pathFragment = pathFragment;
+        return this;
+    }
+
     /** Optional file name parameter. Only files that matched to specified name template are included in result. */
     public String getName() {
         return name;
@@ -68,14 +83,31 @@ public class QueryExpression {
         return this;
     }
 
+    /**
+     * Opaque token of the last item of previous page of search result, see {@link SearchResult#getNextPageQueryExpression()}. If
+     * token is set search is continued right after the item that token points to and {@link #getSkipCount()} is used only as
+     * fallback if index was changed since token was issued. Unlike skip count, cost of retrieving next page with token doesn't depend
+     * on number of items retrieved before.
+     */
+    public String getAfter() {
+        return after;
+    }
+
+    public QueryExpression setAfter(String after) {
+        this.after = after;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "QueryExpression{" +
                "text='" + text + '\'' +
                ", name='" + name + '\'' +
                ", path='" + path + '\'' +
+               ", pathFragment='" + pathFragment + '\'' +
                ", skipCount=" + skipCount +
                ", maxItems=" + maxItems +
+               ", after='" + after + '\'' +
                '}';
     }
 }
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.search;
 
+import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
@@ -21,10 +22,12 @@ public interface Searcher {
      * @param query
      *         query expression
      * @return results of search
+     * @throws BadRequestException
+     *         if {@link QueryExpression#getAfter() token of the last item of previous page} is invalid
      * @throws ServerException
      *         if an error occurs
      */
-    SearchResult search(QueryExpression query) throws ServerException;
+    SearchResult search(QueryExpression query) throws BadRequestException, ServerException;
 
     /**
      * Add VirtualFile to index.
@@ -36,6 +39,19 @@ public interface Searcher {
      */
     void add(VirtualFile virtualFile) throws ServerException;
 
+    /**
+     * Brings index in line with VirtualFile that is changed outside of virtual filesystem. Unlike {@link #add(VirtualFile)}, files
+     * which are already indexed in their current state may be skipped. By default delegates to {@link #add(VirtualFile)}.
+     *
+     * @param virtualFile
+     *         file or folder, all files of folder are refreshed
+     * @throws ServerException
+     *         if an error occurs
+     */
+    default void refresh(VirtualFile virtualFile) throws ServerException {
+        add(virtualFile);
+    }
+
     /**
      * Delete VirtualFile from index.
      *
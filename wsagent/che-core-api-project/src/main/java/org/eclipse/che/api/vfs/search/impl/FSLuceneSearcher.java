@@ -10,11 +10,12 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.search.impl;
 
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.store.SingleInstanceLockFactory;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,7 +26,9 @@ import java.io.IOException;
 import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 
 /**
- * Filesystem based LuceneSearcher which cleans index directory after call method {@link #close()}.
+ * Filesystem based LuceneSearcher. Index directory is kept after call method {@link #close()}, so index survives restart of
+ * application and next searcher that uses the same directory only reconciles index with virtual filesystem instead of indexing all
+ * files again. Index that can't be read, e.g. it is broken or created by incompatible version of lucene, is removed and created again.
  *
  * @author andrew00x
  */
@@ -46,18 +49,28 @@ public class FSLuceneSearcher extends LuceneSearcher {
     @Override
     protected Directory makeDirectory() throws ServerException {
         try {
-            return FSDirectory.open(indexDirectory.toPath(), new SingleInstanceLockFactory());
+            Directory directory = FSDirectory.open(indexDirectory.toPath(), new SingleInstanceLockFactory());
+            if (DirectoryReader.indexExists(directory) && !isReadable(directory)) {
+                directory.close();
+                LOG.warn("Unable read index in directory '{}', index is created again", indexDirectory);
+                if (!deleteRecursive(indexDirectory)) {
+                    throw new ServerException(String.format("Unable delete index directory '%s'", indexDirectory));
+                }
+                directory = FSDirectory.open(indexDirectory.toPath(), new SingleInstanceLockFactory());
+            }
+            return directory;
         } catch (IOException e) {
             throw new ServerException(e);
         }
     }
 
-    @Override
-    protected void afterClose() throws IOException {
-        if (!deleteRecursive(indexDirectory)) {
-            LOG.warn("Unable delete index directory '{}', add it in FileCleaner", indexDirectory);
-            FileCleaner.addFile(indexDirectory);
+    private boolean isReadable(Directory directory) {
+        try {
+            SegmentInfos.readLatestCommit(directory);
+            return true;
+        } catch (IOException e) {
+            LOG.debug(e.getMessage(), e);
+            return false;
         }
-        super.afterClose();
     }
 }
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Throughput of indexing of file trees by {@link LuceneSearcher}. Counters are accumulated over all trees indexed by the searcher.
+ */
+public final class IndexingMetrics {
+    private final LongAdder  indexedFiles  = new LongAdder();
+    private final LongAdder  indexedBytes  = new LongAdder();
+    private final AtomicLong indexingNanos = new AtomicLong();
+
+    void fileIndexed(long bytes) {
+        indexedFiles.increment();
+        indexedBytes.add(bytes);
+    }
+
+    void treeIndexed(long nanos) {
+        indexingNanos.addAndGet(nanos);
+    }
+
+    /** Number of files added in index. */
+    public long getIndexedFiles() {
+        return indexedFiles.sum();
+    }
+
+    /** Number of bytes of content of files added in index. */
+    public long getIndexedBytes() {
+        return indexedBytes.sum();
+    }
+
+    /** Time spent for indexing of file trees in milliseconds. */
+    public long getIndexingTimeMillis() {
+        return NANOSECONDS.toMillis(indexingNanos.get());
+    }
+
+    public double getFilesPerSecond() {
+        return perSecond(getIndexedFiles());
+    }
+
+    public double getBytesPerSecond() {
+        return perSecond(getIndexedBytes());
+    }
+
+    private double perSecond(long count) {
+        final long nanos = indexingNanos.get();
+        return nanos == 0 ? 0 : count * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexingMetrics{" +
+               "indexedFiles=" + getIndexedFiles() +
+               ", indexedBytes=" + getIndexedBytes() +
+               ", indexingTimeMillis=" + getIndexingTimeMillis() +
+               ", filesPerSecond=" + (long)getFilesPerSecond() +
+               ", bytesPerSecond=" + (long)getBytesPerSecond() +
+               '}';
+    }
+}
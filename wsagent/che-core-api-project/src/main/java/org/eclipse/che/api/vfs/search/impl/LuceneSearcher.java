@@ -10,17 +10,26 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.search.impl;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.KeywordTokenizer;
 import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.miscellaneous.WordDelimiterFilter;
+import org.apache.lucene.analysis.ngram.NGramTokenFilter;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
@@ -32,10 +41,14 @@ import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
 import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.IOUtils;
+import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.VirtualFile;
@@ -54,12 +67,29 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Lucene based searcher.
@@ -71,11 +101,43 @@ public abstract class LuceneSearcher implements Searcher {
 
     private static final int RESULT_LIMIT = 1000;
 
+    /** Max number of files that are waiting for indexing while file tree is walked. */
+    private static final int    INDEXING_QUEUE_SIZE = 1024;
+    private static final int    INDEXING_THREADS    = Math.max(1, Runtime.getRuntime().availableProcessors());
+    /** Bigger buffer lets lucene flush bigger segments when many files are added at once. */
+    private static final double RAM_BUFFER_SIZE_MB  = 64;
+
+    /**
+     * Version of structure of documents and analysis of fields. Index that is left from previous run of searcher is reconciled only
+     * if it has the same version, otherwise all files are indexed again.
+     */
+    private static final String INDEX_FORMAT     = "2";
+    private static final String INDEX_FORMAT_KEY = "format";
+
+    private static final int CODE_DELIMITER_FLAGS = WordDelimiterFilter.GENERATE_WORD_PARTS
+                                                    | WordDelimiterFilter.GENERATE_NUMBER_PARTS
+                                                    | WordDelimiterFilter.SPLIT_ON_CASE_CHANGE
+                                                    | WordDelimiterFilter.SPLIT_ON_NUMERICS
+                                                    | WordDelimiterFilter.PRESERVE_ORIGINAL;
+
+    private static final String      PATH_FIELD       = "path";
+    private static final String      TEXT_FIELD       = "text";
+    /** Lower-cased bigrams and trigrams of path that let find files by fragment of path without scanning all indexed paths. */
+    private static final String      PATH_GRAMS_FIELD = "pathGrams";
+    private static final String      MODIFIED_FIELD   = "modified";
+    private static final String      LENGTH_FIELD     = "length";
+    private static final Set<String> PATH_FIELDS      = singleton(PATH_FIELD);
+    /** Stored fields that are enough to find out whether indexed file is changed. */
+    private static final Set<String> STAMP_FIELDS     = newHashSet(PATH_FIELD, MODIFIED_FIELD, LENGTH_FIELD);
+
     private final List<VirtualFileFilter>                      indexFilters;
     private final AbstractLuceneSearcherProvider.CloseCallback closeCallback;
+    private final IndexingMetrics                              indexingMetrics;
 
     private IndexWriter     luceneIndexWriter;
     private SearcherManager searcherManager;
+    private ExecutorService indexingExecutor;
+    private Analyzer        analyzer;
 
     private boolean closed = true;
 
@@ -96,6 +158,7 @@ public abstract class LuceneSearcher implements Searcher {
         this.closeCallback = closeCallback;
         indexFilters = new CopyOnWriteArrayList<>();
         indexFilters.add(indexFilter);
+        indexingMetrics = new IndexingMetrics();
     }
 
     @Override
@@ -108,12 +171,24 @@ public abstract class LuceneSearcher implements Searcher {
         return indexFilters.remove(indexFilter);
     }
 
+    /**
+     * Creates analyzer that is used for indexing and for parsing of queries. Content of files is split by whitespaces and then each
+     * word is split in parts by punctuation, case changes and digits, e.g. {@code foo.barBaz(qux_1)} is indexed as
+     * {@code foo.barbaz(qux_1)}, {@code foo}, {@code bar}, {@code baz}, {@code qux} and {@code 1}, so identifiers may be found
+     * inside of code without wildcards. Path of file is indexed as its bigrams and trigrams.
+     */
     protected Analyzer makeAnalyzer() {
         return new Analyzer() {
             @Override
             protected TokenStreamComponents createComponents(String fieldName) {
+                if (PATH_GRAMS_FIELD.equals(fieldName)) {
+                    Tokenizer tokenizer = new KeywordTokenizer();
+                    TokenStream filter = new NGramTokenFilter(new LowerCaseFilter(tokenizer), 2, 3);
+                    return new TokenStreamComponents(tokenizer, filter);
+                }
                 Tokenizer tokenizer = new WhitespaceTokenizer();
-                TokenStream filter = new LowerCaseFilter(tokenizer);
+                TokenStream filter = new WordDelimiterFilter(tokenizer, CODE_DELIMITER_FLAGS, null);
+                filter = new LowerCaseFilter(filter);
                 return new TokenStreamComponents(tokenizer, filter);
             }
         };
@@ -121,8 +196,19 @@ public abstract class LuceneSearcher implements Searcher {
 
     protected abstract Directory makeDirectory() throws ServerException;
 
+    protected IndexWriterConfig makeIndexWriterConfig() {
+        return new IndexWriterConfig(analyzer).setRAMBufferSizeMB(RAM_BUFFER_SIZE_MB);
+    }
+
+    /** Returns throughput of indexing of file trees. */
+    public IndexingMetrics getIndexingMetrics() {
+        return indexingMetrics;
+    }
+
     /**
-     * Init lucene index. Need call this method if index directory is clean. Scan all files in virtual filesystem and add to index.
+     * Init lucene index. If index directory is clean scan all files in virtual filesystem and add to index. If index directory
+     * contains index created before, e.g. before restart of application, index is reconciled with virtual filesystem, see
+     * {@link #reconcileTree(VirtualFile)}.
      *
      * @param virtualFileSystem
      *         VirtualFileSystem
@@ -131,7 +217,8 @@ public abstract class LuceneSearcher implements Searcher {
      */
     public void init(VirtualFileSystem virtualFileSystem) throws ServerException {
         doInit();
-        addTree(virtualFileSystem.getRoot());
+        indexTree(virtualFileSystem.getRoot());
+        commit();
     }
 
     public void initAsynchronously(ExecutorService executor, VirtualFileSystem virtualFileSystem) throws ServerException {
@@ -139,7 +226,8 @@ public abstract class LuceneSearcher implements Searcher {
         if (!executor.isShutdown()) {
             executor.execute(() -> {
                 try {
-                    LuceneSearcher.this.addTree(virtualFileSystem.getRoot());
+                    LuceneSearcher.this.indexTree(virtualFileSystem.getRoot());
+                    LuceneSearcher.this.commit();
                 } catch (ServerException e) {
                     LOG.error(e.getMessage());
                 }
@@ -149,18 +237,55 @@ public abstract class LuceneSearcher implements Searcher {
 
     protected final synchronized void doInit() throws ServerException {
         try {
-            luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
+            analyzer = makeAnalyzer();
+            luceneIndexWriter = new IndexWriter(makeDirectory(), makeIndexWriterConfig());
             searcherManager = new SearcherManager(luceneIndexWriter, true, new SearcherFactory());
+            indexingExecutor = Executors.newFixedThreadPool(INDEXING_THREADS, new ThreadFactoryBuilder().setDaemon(true)
+                                                                                                        .setNameFormat("LuceneIndexer-%d")
+                                                                                                        .build());
             closed = false;
         } catch (IOException e) {
             throw new ServerException(e);
         }
     }
 
+    private void indexTree(VirtualFile root) throws ServerException {
+        final IndexWriter writer = getIndexWriter();
+        if (writer.numDocs() > 0 && INDEX_FORMAT.equals(writer.getCommitData().get(INDEX_FORMAT_KEY))) {
+            reconcileTree(root);
+        } else {
+            if (writer.numDocs() > 0) {
+                LOG.info("Format of index is changed, all files are indexed again");
+                try {
+                    writer.deleteAll();
+                } catch (IOException e) {
+                    throw new ServerException(e.getMessage(), e);
+                }
+            }
+            addTree(root);
+        }
+    }
+
+    /** Commits all pending changes of index, it is done once after adding a whole tree of files instead of per each file. */
+    protected void commit() throws ServerException {
+        try {
+            getIndexWriter().setCommitData(singletonMap(INDEX_FORMAT_KEY, INDEX_FORMAT));
+            getIndexWriter().commit();
+        } catch (OutOfMemoryError oome) {
+            close();
+            throw oome;
+        } catch (IOException | AlreadyClosedException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
     public final synchronized void close() {
         if (!closed) {
+            // Queued indexing tasks are not dropped, they see the searcher closed and only release their slots,
+            // otherwise tree walker which waits for them is never woken up.
+            indexingExecutor.shutdown();
             try {
-                IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager);
+                IOUtils.close(getIndexWriter(), getIndexWriter().getDirectory(), searcherManager, analyzer);
                 afterClose();
             } catch (IOException e) {
                 LOG.error(e.getMessage(), e);
@@ -184,19 +309,33 @@ public abstract class LuceneSearcher implements Searcher {
         return luceneIndexWriter;
     }
 
+    private synchronized ExecutorService getIndexingExecutor() {
+        return indexingExecutor;
+    }
+
     @Override
-    public SearchResult search(QueryExpression query) throws ServerException {
+    public SearchResult search(QueryExpression query) throws BadRequestException, ServerException {
         IndexSearcher luceneSearcher = null;
         try {
             final long startTime = System.currentTimeMillis();
             searcherManager.maybeRefresh();
             luceneSearcher = searcherManager.acquire();
+            final long indexVersion = ((DirectoryReader)luceneSearcher.getIndexReader()).getVersion();
 
             Query luceneQuery = createLuceneQuery(query);
 
             ScoreDoc after = null;
-            final int numSkipDocs = Math.max(0, query.getSkipCount());
-            if (numSkipDocs > 0) {
+            int numSkipDocs = Math.max(0, query.getSkipCount());
+            final SearchCursor cursor = query.getAfter() == null ? null : SearchCursor.parse(query.getAfter());
+            if (cursor != null && cursor.indexVersion == indexVersion) {
+                // token comes from client, searchAfter fails with doc that is out of index
+                if (cursor.doc < 0 || cursor.doc >= luceneSearcher.getIndexReader().maxDoc() || cursor.offset < 0) {
+                    throw new BadRequestException(String.format("Invalid search cursor '%s'", query.getAfter()));
+                }
+                after = new ScoreDoc(cursor.doc, cursor.score);
+                numSkipDocs = cursor.offset;
+            } else if (numSkipDocs > 0) {
+                // Documents ids are changed when index is changed, so cursor is useless and items must be skipped one by one.
                 after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
             }
 
@@ -204,19 +343,21 @@ public abstract class LuceneSearcher implements Searcher {
             TopDocs topDocs = luceneSearcher.searchAfter(after, luceneQuery, numDocs);
             final int totalHitsNum = topDocs.totalHits;
 
-            List<SearchResultEntry> results = newArrayList();
-            for (int i = 0; i < topDocs.scoreDocs.length; i++) {
-                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
-                String filePath = luceneSearcher.doc(scoreDoc.doc).getField("path").stringValue();
+            final List<SearchResultEntry> results = newArrayList();
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                final String filePath = luceneSearcher.doc(scoreDoc.doc, PATH_FIELDS).get(PATH_FIELD);
                 results.add(new SearchResultEntry(filePath));
             }
 
             final long elapsedTimeMillis = System.currentTimeMillis() - startTime;
 
-            boolean hasMoreToRetrieve = numSkipDocs + topDocs.scoreDocs.length + 1 < totalHitsNum;
+            final int retrievedDocs = numSkipDocs + topDocs.scoreDocs.length;
+            boolean hasMoreToRetrieve = topDocs.scoreDocs.length > 0 && retrievedDocs < totalHitsNum;
             QueryExpression nextPageQueryExpression = null;
             if (hasMoreToRetrieve) {
-                nextPageQueryExpression = createNextPageQuery(query, numSkipDocs + topDocs.scoreDocs.length);
+                final ScoreDoc last = topDocs.scoreDocs[topDocs.scoreDocs.length - 1];
+                nextPageQueryExpression = createNextPageQuery(query, retrievedDocs)
+                        .setAfter(new SearchCursor(indexVersion, last.doc, last.score, retrievedDocs).toString());
             }
 
             return SearchResult.aSearchResult()
@@ -241,16 +382,23 @@ public abstract class LuceneSearcher implements Searcher {
         final String name = query.getName();
         final String path = query.getPath();
         final String text = query.getText();
+        final String pathFragment = query.getPathFragment();
         if (path != null) {
-            luceneQuery.add(new PrefixQuery(new Term("path", path)), BooleanClause.Occur.MUST);
+            luceneQuery.add(new PrefixQuery(new Term(PATH_FIELD, path)), BooleanClause.Occur.MUST);
+        }
+        if (pathFragment != null && !pathFragment.isEmpty()) {
+            luceneQuery.add(createPathFragmentQuery(pathFragment), BooleanClause.Occur.MUST);
         }
         if (name != null) {
             luceneQuery.add(new WildcardQuery(new Term("name", name)), BooleanClause.Occur.MUST);
         }
         if (text != null) {
-            QueryParser qParser = new QueryParser("text", makeAnalyzer());
+            // QueryParser isn't thread-safe but it is cheap, so each query gets own parser.
+            final QueryParser parser = new QueryParser(TEXT_FIELD, analyzer);
+            // Word which is split in few parts by analyzer is searched as phrase of its parts, not as any of them.
+            parser.setAutoGeneratePhraseQueries(true);
             try {
-                luceneQuery.add(qParser.parse(text), BooleanClause.Occur.MUST);
+                luceneQuery.add(parser.parse(text), BooleanClause.Occur.MUST);
             } catch (ParseException e) {
                 throw new ServerException(e.getMessage());
             }
@@ -258,6 +406,30 @@ public abstract class LuceneSearcher implements Searcher {
         return luceneQuery;
     }
 
+    /**
+     * Creates query for files which paths contain trigrams of {@code fragment}. Up to quarter of trigrams of long fragment may be
+     * missed in path, so misspelled fragment still finds file. Files which paths contain more trigrams of fragment get bigger score.
+     */
+    private Query createPathFragmentQuery(String fragment) {
+        final String lowerCaseFragment = fragment.toLowerCase();
+        if (lowerCaseFragment.length() == 1) {
+            return new PrefixQuery(new Term(PATH_GRAMS_FIELD, lowerCaseFragment));
+        }
+        if (lowerCaseFragment.length() == 2) {
+            return new TermQuery(new Term(PATH_GRAMS_FIELD, lowerCaseFragment));
+        }
+        final Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= lowerCaseFragment.length(); i++) {
+            trigrams.add(lowerCaseFragment.substring(i, i + 3));
+        }
+        final BooleanQuery fragmentQuery = new BooleanQuery();
+        for (String trigram : trigrams) {
+            fragmentQuery.add(new TermQuery(new Term(PATH_GRAMS_FIELD, trigram)), BooleanClause.Occur.SHOULD);
+        }
+        fragmentQuery.setMinimumNumberShouldMatch(trigrams.size() - trigrams.size() / 4);
+        return fragmentQuery;
+    }
+
     private ScoreDoc skipScoreDocs(IndexSearcher luceneSearcher, Query luceneQuery, int numSkipDocs) throws IOException {
         final int readFrameSize = Math.min(numSkipDocs, RESULT_LIMIT);
         ScoreDoc scoreDoc = null;
@@ -283,6 +455,7 @@ public abstract class LuceneSearcher implements Searcher {
         return new QueryExpression().setText(originalQuery.getText())
                                     .setName(originalQuery.getName())
                                     .setPath(originalQuery.getPath())
+                                    .setPathFragment(originalQuery.getPathFragment())
                                     .setSkipCount(newSkipCount)
                                     .setMaxItems(originalQuery.getMaxItems());
     }
@@ -300,26 +473,202 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
+    /**
+     * Files that are indexed with the same modification date and length as they have now are not read again, so changes that are
+     * already applied to index by virtual filesystem itself are not indexed twice.
+     */
+    @Override
+    public final void refresh(VirtualFile virtualFile) throws ServerException {
+        if (virtualFile.isFolder()) {
+            reconcileTree(virtualFile);
+        } else if (!isIndexedInCurrentState(virtualFile)) {
+            addFile(virtualFile);
+        }
+    }
+
+    /**
+     * Adds all files of the tree in index. Tree is walked in the caller thread while content of files is read and added in index by
+     * pool of indexing threads. Number of files waiting for indexing is limited, so walking of the tree stops when indexing threads
+     * can't keep up with it.
+     */
     protected void addTree(VirtualFile tree) throws ServerException {
-        final long start = System.currentTimeMillis();
+        addTree(tree, file -> true);
+    }
+
+    /**
+     * Brings index that is left from previous run of searcher in line with the tree. Modification date and length of each file are
+     * stored in index, only files that are not found in index or differ from stored state are read and indexed again. Documents of
+     * files that don't exist in the tree any more are removed from index.
+     */
+    protected void reconcileTree(VirtualFile tree) throws ServerException {
+        final Map<String, long[]> stamps = readStamps(tree.getPath().toString());
+        final int indexedBefore = stamps.size();
+        // Predicate is applied in the walking thread only, so plain map is fine here.
+        addTree(tree, file -> {
+            final long[] stamp = stamps.remove(file.getPath().toString());
+            return stamp == null || stamp[0] != file.getLastModificationDate() || stamp[1] != getLengthQuietly(file);
+        });
+        try {
+            if (!stamps.isEmpty()) {
+                getIndexWriter().deleteDocuments(stamps.keySet().stream().map(path -> new Term(PATH_FIELD, path)).toArray(Term[]::new));
+            }
+        } catch (OutOfMemoryError oome) {
+            close();
+            throw oome;
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        LOG.debug("Reconciled index of {} with {} documents, {} documents of removed files deleted",
+                  tree.getPath(), indexedBefore, stamps.size());
+    }
+
+    /**
+     * Reads paths of indexed files under {@code root} with their modification date and length stored in index. Only documents of
+     * the sub-tree are visited, they are found by prefix of their path.
+     */
+    private Map<String, long[]> readStamps(String root) throws ServerException {
+        final String prefix = "/".equals(root) ? root : root + "/";
+        final Map<String, long[]> stamps = new HashMap<>();
+        IndexSearcher luceneSearcher = null;
+        try {
+            searcherManager.maybeRefresh();
+            luceneSearcher = searcherManager.acquire();
+            luceneSearcher.search(new PrefixQuery(new Term(PATH_FIELD, prefix)), new SimpleCollector() {
+                private LeafReader reader;
+
+                @Override
+                protected void doSetNextReader(LeafReaderContext context) throws IOException {
+                    reader = context.reader();
+                }
+
+                @Override
+                public void collect(int doc) throws IOException {
+                    final Document document = reader.document(doc, STAMP_FIELDS);
+                    stamps.put(document.get(PATH_FIELD), readStamp(document));
+                }
+
+                @Override
+                public boolean needsScores() {
+                    return false;
+                }
+            });
+            return stamps;
+        } catch (IOException | AlreadyClosedException e) {
+            throw new ServerException(e.getMessage(), e);
+        } finally {
+            try {
+                searcherManager.release(luceneSearcher);
+            } catch (IOException e) {
+                LOG.error(e.getMessage());
+            }
+        }
+    }
+
+    /** Checks whether file is indexed with the same modification date and length as it has now. */
+    private boolean isIndexedInCurrentState(VirtualFile virtualFile) throws ServerException {
+        IndexSearcher luceneSearcher = null;
+        try {
+            // sees changes that are added by virtual filesystem but not committed yet
+            searcherManager.maybeRefresh();
+            luceneSearcher = searcherManager.acquire();
+            final TopDocs topDocs = luceneSearcher.search(new TermQuery(new Term(PATH_FIELD, virtualFile.getPath().toString())), 1);
+            if (topDocs.scoreDocs.length == 0) {
+                return false;
+            }
+            final long[] stamp = readStamp(luceneSearcher.doc(topDocs.scoreDocs[0].doc, STAMP_FIELDS));
+            return stamp[0] == virtualFile.getLastModificationDate() && stamp[1] == virtualFile.getLength();
+        } catch (IOException | AlreadyClosedException e) {
+            throw new ServerException(e.getMessage(), e);
+        } finally {
+            try {
+                searcherManager.release(luceneSearcher);
+            } catch (IOException e) {
+                LOG.error(e.getMessage());
+            }
+        }
+    }
+
+    /** Reads modification date and length of file stored in document, documents created without them are always indexed again. */
+    private static long[] readStamp(Document doc) {
+        final Number modified = doc.getField(MODIFIED_FIELD) == null ? null : doc.getField(MODIFIED_FIELD).numericValue();
+        final Number length = doc.getField(LENGTH_FIELD) == null ? null : doc.getField(LENGTH_FIELD).numericValue();
+        return new long[]{modified == null ? -1 : modified.longValue(), length == null ? -1 : length.longValue()};
+    }
+
+    private static long getLengthQuietly(VirtualFile file) {
+        try {
+            return file.getLength();
+        } catch (ServerException e) {
+            return -1;
+        }
+    }
+
+    private void addTree(VirtualFile tree, Predicate<VirtualFile> needsIndexing) throws ServerException {
+        final long start = System.nanoTime();
+        final ExecutorService executor = getIndexingExecutor();
+        final Semaphore queueSlots = new Semaphore(INDEXING_QUEUE_SIZE);
+        final Phaser pendingFiles = new Phaser(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final LongAdder indexedFiles = new LongAdder();
         final LinkedList<VirtualFile> q = new LinkedList<>();
         q.add(tree);
-        int indexedFiles = 0;
-        while (!q.isEmpty()) {
-            final VirtualFile folder = q.pop();
-            if (folder.exists()) {
-                for (VirtualFile child : folder.getChildren()) {
-                    if (child.isFolder()) {
-                        q.push(child);
-                    } else {
-                        addFile(child);
-                        indexedFiles++;
+        try {
+            while (!q.isEmpty() && failure.get() == null) {
+                if (isClosed()) {
+                    throw new ServerException("Unable add files in index. Searcher is closed");
+                }
+                final VirtualFile folder = q.pop();
+                if (folder.exists()) {
+                    for (VirtualFile child : folder.getChildren()) {
+                        if (child.isFolder()) {
+                            q.push(child);
+                        } else if (needsIndexing.test(child)) {
+                            queueSlots.acquire();
+                            pendingFiles.register();
+                            try {
+                                executor.execute(() -> {
+                                    try {
+                                        if (failure.get() == null && !isClosed()) {
+                                            final long length = child.getLength();
+                                            addFile(child);
+                                            indexedFiles.increment();
+                                            indexingMetrics.fileIndexed(length);
+                                        }
+                                    } catch (Throwable e) {
+                                        failure.compareAndSet(null, e);
+                                    } finally {
+                                        queueSlots.release();
+                                        pendingFiles.arriveAndDeregister();
+                                    }
+                                });
+                            } catch (RejectedExecutionException e) {
+                                queueSlots.release();
+                                pendingFiles.arriveAndDeregister();
+                                throw new ServerException("Unable add files in index. Searcher is closed");
+                            }
+                        }
                     }
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Indexing of " + tree.getPath() + " is interrupted");
+        } finally {
+            pendingFiles.arriveAndAwaitAdvance();
+            indexingMetrics.treeIndexed(System.nanoTime() - start);
         }
-        final long end = System.currentTimeMillis();
-        LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, tree.getPath(), (end - start));
+
+        final Throwable error = failure.get();
+        if (error instanceof ServerException) {
+            throw (ServerException)error;
+        } else if (error instanceof Error) {
+            throw (Error)error;
+        } else if (error != null) {
+            throw new ServerException(error.getMessage(), error);
+        }
+
+        final long elapsedMillis = NANOSECONDS.toMillis(System.nanoTime() - start);
+        LOG.debug("Indexed {} files from {}, time: {} ms, {}", indexedFiles.sum(), tree.getPath(), elapsedMillis, indexingMetrics);
     }
 
     protected void addFile(VirtualFile virtualFile) throws ServerException {
@@ -380,10 +729,14 @@ public abstract class LuceneSearcher implements Searcher {
 
     protected Document createDocument(VirtualFile virtualFile, Reader reader) throws ServerException {
         final Document doc = new Document();
-        doc.add(new StringField("path", virtualFile.getPath().toString(), Field.Store.YES));
+        doc.add(new StringField(PATH_FIELD, virtualFile.getPath().toString(), Field.Store.YES));
         doc.add(new StringField("name", virtualFile.getName(), Field.Store.YES));
+        doc.add(new TextField(PATH_GRAMS_FIELD, virtualFile.getPath().toString(), Field.Store.NO));
+        // State of file is taken before its content is read, so change of file made while it is indexed is caught by next reconcile.
+        doc.add(new StoredField(MODIFIED_FIELD, virtualFile.getLastModificationDate()));
+        doc.add(new StoredField(LENGTH_FIELD, virtualFile.getLength()));
         if (reader != null) {
-            doc.add(new TextField("text", reader));
+            doc.add(new TextField(TEXT_FIELD, reader));
         }
         return doc;
     }
@@ -396,4 +749,40 @@ public abstract class LuceneSearcher implements Searcher {
         }
         return true;
     }
+
+    /**
+     * Position of last item of page of search result. Lucene continues search after it without re-scoring of items of previous pages
+     * while index is not changed. Cursor is sent to client as opaque token.
+     */
+    private static final class SearchCursor {
+        static SearchCursor parse(String token) throws BadRequestException {
+            try {
+                final String[] parts = new String(Base64.getUrlDecoder().decode(token), UTF_8).split(":");
+                return new SearchCursor(Long.parseLong(parts[0]),
+                                        Integer.parseInt(parts[1]),
+                                        Float.intBitsToFloat(Integer.parseInt(parts[2])),
+                                        Integer.parseInt(parts[3]));
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new BadRequestException(String.format("Invalid search cursor '%s'", token));
+            }
+        }
+
+        final long  indexVersion;
+        final int   doc;
+        final float score;
+        final int   offset;
+
+        SearchCursor(long indexVersion, int doc, float score, int offset) {
+            this.indexVersion = indexVersion;
+            this.doc = doc;
+            this.score = score;
+            this.offset = offset;
+        }
+
+        @Override
+        public String toString() {
+            final String token = indexVersion + ":" + doc + ":" + Float.floatToIntBits(score) + ":" + offset;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(UTF_8));
+        }
+    }
 }
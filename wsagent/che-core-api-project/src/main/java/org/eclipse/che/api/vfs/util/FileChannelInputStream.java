@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * InputStream over {@link FileChannel}. Content of file may be sent to the OutputStream with {@link #transferTo(OutputStream)}
+ * that lets the channel move bytes without copying them through the java heap.
+ * <p/>
+ * Callback passed to the constructor is invoked once when the stream is closed or the end of the file is reached, whatever
+ * happens first. It may be used for releasing resources associated with the stream, e.g. lock of the file. Marked stream is not
+ * closed at the end of the file, so it may be reset and read again.
+ * <p/>
+ * Reading methods are synchronized, position of the stream is consistent when it is shared between threads.
+ */
+public final class FileChannelInputStream extends InputStream {
+    private final FileChannel   channel;
+    private final Runnable      onClose;
+    private final AtomicBoolean closed;
+
+    private long    position;
+    private long    mark = -1;
+    private boolean eof;
+
+    public FileChannelInputStream(FileChannel channel, Runnable onClose) {
+        this.channel = channel;
+        this.onClose = onClose;
+        this.closed = new AtomicBoolean();
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        final int n = read(b, 0, 1);
+        return n == -1 ? -1 : (b[0] & 0xFF);
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (eof) {
+            return -1;
+        }
+        ensureOpen();
+        if (len == 0) {
+            return 0;
+        }
+        final int n = channel.read(ByteBuffer.wrap(b, off, len), position);
+        if (n == -1) {
+            eof = true;
+            if (mark == -1) {
+                close();
+            }
+            return -1;
+        }
+        position += n;
+        return n;
+    }
+
+    @Override
+    public synchronized long skip(long n) throws IOException {
+        if (eof) {
+            return 0;
+        }
+        ensureOpen();
+        if (n <= 0) {
+            return 0;
+        }
+        final long skipped = Math.min(n, Math.max(0, channel.size() - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public synchronized int available() throws IOException {
+        if (closed.get()) {
+            return 0;
+        }
+        return (int)Math.min(Integer.MAX_VALUE, Math.max(0, channel.size() - position));
+    }
+
+    /** Size of the file which is read by this stream. */
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        mark = position;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        ensureOpen();
+        position = Math.max(mark, 0);
+        eof = false;
+    }
+
+    /**
+     * Sends all remaining bytes of the file to {@code output} and closes this stream. Output stream is not closed.
+     *
+     * @return number of transferred bytes
+     */
+    public synchronized long transferTo(OutputStream output) throws IOException {
+        ensureOpen();
+        try {
+            final WritableByteChannel target = Channels.newChannel(output);
+            final long size = channel.size();
+            final long start = position;
+            while (position < size) {
+                final long n = channel.transferTo(position, size - position, target);
+                if (n <= 0) {
+                    break;
+                }
+                position += n;
+            }
+            output.flush();
+            return position - start;
+        } finally {
+            close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed.compareAndSet(false, true)) {
+            try {
+                channel.close();
+            } finally {
+                if (onClose != null) {
+                    onClose.run();
+                }
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed.get()) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
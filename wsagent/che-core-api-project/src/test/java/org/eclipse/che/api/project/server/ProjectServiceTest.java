@@ -1686,6 +1686,42 @@ public class ProjectServiceTest {
         Assert.assertTrue(paths.contains("/my_project/x/y/__test.txt"));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSearchNextPageWithToken() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FolderEntry folder = myProject.getBaseFolder().createFolder("a");
+        for (int i = 0; i < 5; i++) {
+            folder.createFile("test" + i + ".txt", "searchhit".getBytes());
+        }
+
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/search/my_project?text=searchhit&maxItems=3",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        Set<String> paths = ((List<ItemReference>)response.getEntity()).stream().map(ItemReference::getPath).collect(Collectors.toSet());
+        assertEquals(paths.size(), 3);
+        Object after = response.getHttpHeaders().getFirst(ProjectService.NEXT_PAGE_AFTER_HEADER);
+        Assert.assertNotNull(after);
+
+        response = launcher.service(GET,
+                                    "http://localhost:8080/api/project/search/my_project?text=searchhit&maxItems=3&skipCount=3&after=" + after,
+                                    "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        List<ItemReference> nextPage = (List<ItemReference>)response.getEntity();
+        assertEquals(nextPage.size(), 2);
+        nextPage.forEach(item -> Assert.assertFalse(paths.contains(item.getPath())));
+        Assert.assertNull(response.getHttpHeaders().getFirst(ProjectService.NEXT_PAGE_AFTER_HEADER));
+    }
+
+    @Test
+    public void testSearchWithInvalidToken() throws Exception {
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/search/my_project?text=searchhit&after=invalid",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 400, "Error: " + response.getEntity());
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void testSearchParticularSequenceWords() throws Exception {
@@ -10,10 +10,12 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server.importer;
 
+import org.eclipse.che.api.project.server.importer.ProjectImportOutputWSLineConsumer.OutputMode;
 import org.everrest.websockets.message.ChannelBroadcastMessage;
 import org.mockito.ArgumentCaptor;
 import org.testng.annotations.Test;
 
+import static java.util.Arrays.asList;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertEquals;
@@ -30,11 +32,60 @@ public class ProjectImportOutputWSLineConsumerTest {
         ProjectImportOutputWSLineConsumer consumer = spy(new ProjectImportOutputWSLineConsumer("project", "workspace", 300));
 
         //when
-        consumer.sendMessage("message");
+        consumer.writeLine("message");
+        consumer.close();
 
         //then
         verify(consumer).sendMessageToWS(argumentCaptor.capture());
         assertEquals(argumentCaptor.getValue().getChannel(), "importProject:output:workspace:project");
         assertEquals(argumentCaptor.getValue().getBody(), "{\"num\":1, \"line\":\"message\"}");
     }
+
+    @Test
+    public void shouldSendAllLinesWrittenBelowDelayInOneMessage() throws Exception {
+        //given
+        ArgumentCaptor<ChannelBroadcastMessage> argumentCaptor = ArgumentCaptor.forClass(ChannelBroadcastMessage.class);
+        ProjectImportOutputWSLineConsumer consumer = spy(new ProjectImportOutputWSLineConsumer("project", "workspace", 60_000));
+
+        //when
+        consumer.writeLine("first");
+        consumer.writeLine("second");
+        consumer.close();
+
+        //then
+        verify(consumer).sendMessageToWS(argumentCaptor.capture());
+        assertEquals(argumentCaptor.getValue().getChannel(), "importProject:output:workspace:project");
+        assertEquals(argumentCaptor.getValue().getBody(), "{\"num\":1, \"line\":\"first\\nsecond\"}");
+    }
+
+    @Test
+    public void shouldSendSummaryOfLinesWrittenBelowDelay() throws Exception {
+        //given
+        ArgumentCaptor<ChannelBroadcastMessage> argumentCaptor = ArgumentCaptor.forClass(ChannelBroadcastMessage.class);
+        ProjectImportOutputWSLineConsumer consumer = spy(new ProjectImportOutputWSLineConsumer("project", "workspace", 60_000,
+                                                                                               OutputMode.SUMMARY));
+
+        //when
+        consumer.writeLine("first");
+        consumer.writeLine("second");
+        consumer.close();
+
+        //then
+        verify(consumer).sendMessageToWS(argumentCaptor.capture());
+        assertEquals(argumentCaptor.getValue().getBody(), "{\"num\":1, \"line\":\"second\", \"lines\":2}");
+    }
+
+    @Test
+    public void shouldNotCountMarkerOfDroppedLinesInSummary() throws Exception {
+        //given
+        ProjectImportOutputWSLineConsumer consumer = new ProjectImportOutputWSLineConsumer("project", "workspace", 60_000,
+                                                                                           OutputMode.SUMMARY);
+
+        //when
+        String marker = consumer.dropMarker(5);
+        String body = consumer.encodeFrame(asList(marker, "first", "second"));
+
+        //then
+        assertEquals(body, "{\"num\":1, \"line\":\"second\", \"lines\":2}");
+    }
 }
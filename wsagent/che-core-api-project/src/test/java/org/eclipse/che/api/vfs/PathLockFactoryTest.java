@@ -236,4 +236,138 @@ public class PathLockFactoryTest extends TestCase {
         waiter.await();
         assertEquals(2, acquired.get());
     }
+
+    public void testChildLockPreventsExclusiveLockOfParent() throws Exception {
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false).acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        try {
+            pathLockFactory.getLock(path.getParent().getParent(), true).acquire(100);
+            fail();
+        } catch (RuntimeException e) {
+            // OK
+        } finally {
+            finisher.countDown();
+        }
+        t.join();
+        // Shared lock of child is released, parent may be locked now.
+        pathLockFactory.getLock(path.getParent().getParent(), true).acquire(100).release();
+        pathLockFactory.checkClean();
+    }
+
+    public void testExclusiveLocksOfUnrelatedPaths() throws Exception {
+        final Path sibling = path.getParent().newPath("d");
+        final CountDownLatch starter = new CountDownLatch(1);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                PathLockFactory.PathLock lock = pathLockFactory.getLock(path, true).acquire();
+                starter.countDown();
+                try {
+                    finisher.await();
+                } catch (InterruptedException ignored) {
+                } finally {
+                    lock.release();
+                }
+            }
+        };
+        t.start();
+        starter.await();
+        try {
+            // Must not wait for lock of sibling path.
+            PathLockFactory.PathLock siblingLock = pathLockFactory.getLock(sibling, true).acquire(100);
+            assertTrue(siblingLock.isExclusive());
+            siblingLock.release();
+        } finally {
+            finisher.countDown();
+        }
+        t.join();
+        pathLockFactory.checkClean();
+    }
+
+    public void testReleaseLockInOtherThread() throws Exception {
+        final PathLockFactory.PathLock lock = pathLockFactory.getLock(path, true).acquire(100);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                lock.release();
+            }
+        };
+        t.start();
+        t.join();
+        pathLockFactory.getLock(path, true).acquire(100).release();
+        pathLockFactory.checkClean();
+    }
+
+    public void testInterruptedWaiterDoesNotLeaveLockNode() throws Exception {
+        final PathLockFactory.PathLock lock = pathLockFactory.getLock(path, true).acquire(100);
+        final CountDownLatch finisher = new CountDownLatch(1);
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    pathLockFactory.getLock(path.getParent(), true).acquire();
+                    fail();
+                } catch (RuntimeException e) {
+                    // OK
+                } finally {
+                    finisher.countDown();
+                }
+            }
+        };
+        t.start();
+        Thread.sleep(100);
+        t.interrupt();
+        finisher.await();
+        lock.release();
+        pathLockFactory.checkClean();
+    }
+
+    public void testWaitersThatTimeOutDoNotLeaveLockNodes() throws Exception {
+        final int threads = 8;
+        final CountDownLatch waiter = new CountDownLatch(threads);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 200; i++) {
+                        try {
+                            PathLockFactory.PathLock lock = pathLockFactory.getLock(i % 2 == 0 ? path : path.getParent(), true)
+                                                                           .acquire(1);
+                            try {
+                                Thread.sleep(1);
+                            } finally {
+                                lock.release();
+                            }
+                        } catch (RuntimeException ignored) {
+                            // timeout
+                        }
+                    }
+                } catch (InterruptedException ignored) {
+                } finally {
+                    waiter.countDown();
+                }
+            }
+        };
+        for (int i = 0; i < threads; i++) {
+            new Thread(task).start();
+        }
+        waiter.await();
+        pathLockFactory.checkClean();
+    }
 }
@@ -11,6 +11,7 @@
 package org.eclipse.che.api.vfs;
 
 import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
@@ -32,19 +33,28 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ZipArchiverTest {
@@ -105,6 +115,61 @@ public class ZipArchiverTest {
         assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
     }
 
+    @Test
+    public void compressesFolderToArchiveWithoutCompression() throws Exception {
+        VirtualFile folder = createFileTreeForArchiving();
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+        Map<String, String> entries = getFileTreeAsList(folder).stream()
+                                                               .collect(toMap(f -> getZipEntryName(folder, f),
+                                                                              this::readContentUnchecked));
+
+        new ZipArchiver(folder, Deflater.NO_COMPRESSION).compress(compressedFolder);
+        assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
+        for (ZipEntry zipEntry : readFileEntries(compressedFolder.toByteArray())) {
+            assertEquals(ZipEntry.STORED, zipEntry.getMethod());
+            assertEquals(TEST_CONTENT_BYTES.length, zipEntry.getSize());
+            assertEquals(TEST_CONTENT_BYTES.length, zipEntry.getCompressedSize());
+        }
+    }
+
+    @Test
+    public void storesFilesWithCompressedFormatsWithoutCompression() throws Exception {
+        VirtualFile folder = createFileTreeForArchiving();
+        byte[] image = new byte[300 * 1024];
+        new Random().nextBytes(image);
+        folder.getChild(Path.of("a")).createFile("image.png", new ByteArrayInputStream(image));
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+
+        new ZipArchiver(folder, Deflater.BEST_COMPRESSION).compress(compressedFolder);
+
+        Map<String, ZipEntry> zipEntries = readFileEntries(compressedFolder.toByteArray()).stream()
+                                                                                          .collect(toMap(ZipEntry::getName, e -> e));
+        assertEquals(4, zipEntries.size());
+        ZipEntry imageEntry = zipEntries.get("a/image.png");
+        assertEquals(ZipEntry.STORED, imageEntry.getMethod());
+        assertEquals(image.length, imageEntry.getSize());
+        assertEquals(image.length, imageEntry.getCompressedSize());
+        assertEquals(ZipEntry.DEFLATED, zipEntries.get("a/_a.txt").getMethod());
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(compressedFolder.toByteArray()))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                if (zipEntry.getName().equals("a/image.png")) {
+                    assertTrue(Arrays.equals(image, ByteStreams.toByteArray(zip)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void doesNotCloseOutputAfterCompression() throws Exception {
+        VirtualFile folder = createFileTreeForArchiving();
+        OutputStream output = spy(new ByteArrayOutputStream());
+
+        new ZipArchiver(folder).compress(output);
+
+        verify(output, never()).close();
+    }
+
     @Test
     public void extractsArchiveToFolder() throws Exception {
         byte[] archive = createTestZipArchive();
@@ -199,6 +264,17 @@ public class ZipArchiverTest {
         return entries;
     }
 
+    /** Reads entries of files from the central directory of zip archive, it has size and method of all entries. */
+    private List<ZipEntry> readFileEntries(byte[] archive) throws Exception {
+        File archiveFile = new File(testDirectory, NameGenerator.generate("archive-", 4) + ".zip");
+        Files.write(archive, archiveFile);
+        try (ZipFile zipFile = new ZipFile(archiveFile)) {
+            return zipFile.stream().filter(e -> !e.isDirectory()).collect(toList());
+        } finally {
+            assertTrue(archiveFile.delete());
+        }
+    }
+
     private String readContentUnchecked(VirtualFile virtualFile) {
         if (virtualFile.isFolder()) {
             return "<none>";
@@ -14,17 +14,26 @@ import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
 import org.eclipse.che.commons.lang.NameGenerator;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.io.File;
+import java.util.List;
 
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
 import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -34,7 +43,8 @@ import static org.mockito.Mockito.when;
 public class DefaultFileWatcherNotificationHandlerTest {
     private File                   testDirectory;
 
-    private FileWatcherNotificationListener notificationListener;
+    private FileWatcherNotificationListener     notificationListener;
+    private FileWatcherBulkNotificationListener bulkNotificationListener;
     private LocalVirtualFileSystem virtualFileSystem;
 
     private Path virtualFilePath;
@@ -54,6 +64,9 @@ public class DefaultFileWatcherNotificationHandlerTest {
 
         notificationHandler = new DefaultFileWatcherNotificationHandler(virtualFileSystemProvider);
         notificationHandler.addNotificationListener(notificationListener);
+        notificationHandler.setCoalesceWindow(50);
+        bulkNotificationListener = mock(FileWatcherBulkNotificationListener.class);
+        when(bulkNotificationListener.shouldBeNotifiedFor(any(VirtualFile.class))).thenReturn(true);
 
         virtualFilePath = Path.of("/a/b/c");
         virtualFile =  new LocalVirtualFile(testDirectory, virtualFilePath, virtualFileSystem);
@@ -61,6 +74,11 @@ public class DefaultFileWatcherNotificationHandlerTest {
         when(notificationListener.shouldBeNotifiedFor(virtualFile)).thenReturn(true);
     }
 
+    @After
+    public void tearDown() throws Exception {
+        notificationHandler.stop();
+    }
+
     @Test
     public void notifiesFileWatcherNotificationListenersWhenPathIsCreated() throws Exception {
         notificationHandler.handleFileWatcherEvent(CREATED, testDirectory, "/a/b/c", true);
@@ -91,4 +109,32 @@ public class DefaultFileWatcherNotificationHandlerTest {
         verify(notificationListener).shouldBeNotifiedFor(virtualFile);
         verify(notificationListener).onFileWatcherEvent(virtualFile, MODIFIED);
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void notifiesBulkNotificationListenersWithMergedEvents() throws Exception {
+        notificationHandler.addBulkNotificationListener(bulkNotificationListener);
+
+        notificationHandler.handleFileWatcherEvent(CREATED, testDirectory, "/a/b/c", false);
+        notificationHandler.handleFileWatcherEvent(MODIFIED, testDirectory, "/a/b/c", false);
+        notificationHandler.handleFileWatcherEvent(MODIFIED, testDirectory, "/a/b/c", false);
+
+        ArgumentCaptor<List> events = ArgumentCaptor.forClass(List.class);
+        verify(bulkNotificationListener, timeout(2000)).onFileWatcherEvents(events.capture());
+        assertEquals(1, events.getValue().size());
+        FileWatcherEvent event = (FileWatcherEvent)events.getValue().get(0);
+        assertSame(virtualFile, event.getFile());
+        assertEquals(CREATED, event.getType());
+    }
+
+    @Test
+    public void doesNotNotifyBulkNotificationListenersAboutFileThatIsCreatedAndDeleted() throws Exception {
+        notificationHandler.addBulkNotificationListener(bulkNotificationListener);
+
+        notificationHandler.handleFileWatcherEvent(CREATED, testDirectory, "/a/b/c", false);
+        notificationHandler.handleFileWatcherEvent(DELETED, testDirectory, "/a/b/c", false);
+
+        Thread.sleep(500);
+        verify(bulkNotificationListener, never()).onFileWatcherEvents(anyListOf(FileWatcherEvent.class));
+    }
 }
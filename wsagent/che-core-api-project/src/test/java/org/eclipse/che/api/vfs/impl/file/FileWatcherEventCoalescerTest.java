@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.stream.Collectors.toList;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.CREATED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.DELETED;
+import static org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType.MODIFIED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FileWatcherEventCoalescerTest {
+    private FileWatcherEventCoalescer coalescer;
+
+    @Before
+    public void setUp() throws Exception {
+        coalescer = new FileWatcherEventCoalescer();
+    }
+
+    @Test
+    public void reportsCreatedAndModifiedFileAsCreated() throws Exception {
+        coalescer.add(CREATED, "a/file", false);
+        coalescer.add(MODIFIED, "a/file", false);
+        coalescer.add(MODIFIED, "a/file", false);
+
+        assertEquals(newArrayList("CREATED a/file"), drain());
+    }
+
+    @Test
+    public void dropsFileThatIsCreatedAndDeleted() throws Exception {
+        coalescer.add(CREATED, "a/file", false);
+        coalescer.add(MODIFIED, "a/file", false);
+        coalescer.add(DELETED, "a/file", false);
+
+        assertTrue(coalescer.isEmpty());
+    }
+
+    @Test
+    public void reportsDeletedAndCreatedFileAsModified() throws Exception {
+        coalescer.add(DELETED, "a/file", false);
+        coalescer.add(CREATED, "a/file", false);
+
+        assertEquals(newArrayList("MODIFIED a/file"), drain());
+    }
+
+    @Test
+    public void reportsDeletedAndCreatedDirectoryAsDeletedAndThenCreated() throws Exception {
+        coalescer.add(DELETED, "a", true);
+        coalescer.add(CREATED, "a", true);
+        coalescer.add(CREATED, "a/file", false);
+
+        assertEquals(newArrayList("DELETED a", "CREATED a"), drain());
+    }
+
+    @Test
+    public void collapsesCreatedTreeToItsRoot() throws Exception {
+        coalescer.add(MODIFIED, "a/b/file1", false);
+        coalescer.add(CREATED, "a/b", true);
+        coalescer.add(CREATED, "a/b/c", true);
+        coalescer.add(CREATED, "a/b/c/file2", false);
+        coalescer.add(MODIFIED, "a/b/c/file2", false);
+        coalescer.add(DELETED, "a/b/file3", false);
+        coalescer.add(MODIFIED, "a/bb", false);
+
+        assertEquals(newArrayList("CREATED a/b", "MODIFIED a/bb"), drain());
+    }
+
+    @Test
+    public void keepsChangesOfChildrenOfModifiedDirectory() throws Exception {
+        coalescer.add(MODIFIED, "a", true);
+        coalescer.add(CREATED, "a/file", false);
+        coalescer.add(CREATED, "a", true);
+
+        assertEquals(newArrayList("MODIFIED a", "CREATED a/file"), drain());
+    }
+
+    @Test
+    public void collapsesDeletedTreeToItsRoot() throws Exception {
+        coalescer.add(MODIFIED, "a/b/file1", false);
+        coalescer.add(CREATED, "a/b/c", true);
+        coalescer.add(DELETED, "a/b/file2", false);
+        coalescer.add(DELETED, "a/b", true);
+        coalescer.add(DELETED, "a/b/c", true);
+        coalescer.add(DELETED, "a/b/file1", false);
+        coalescer.add(MODIFIED, "a/bb", false);
+
+        assertEquals(newArrayList("DELETED a/b", "MODIFIED a/bb"), drain());
+    }
+
+    @Test
+    public void reportsDirectoryBeforeItsChildren() throws Exception {
+        coalescer.add(CREATED, "a/b/file", false);
+        coalescer.add(MODIFIED, "a/b", true);
+        coalescer.add(MODIFIED, "a", true);
+        coalescer.add(CREATED, "a-file", false);
+
+        List<String> changes = drain();
+        assertEquals(4, changes.size());
+        assertTrue(changes.indexOf("MODIFIED a") < changes.indexOf("MODIFIED a/b"));
+        assertTrue(changes.indexOf("MODIFIED a/b") < changes.indexOf("CREATED a/b/file"));
+    }
+
+    @Test
+    public void resetsStateAfterDrain() throws Exception {
+        coalescer.add(CREATED, "a/file", false);
+        drain();
+        coalescer.add(DELETED, "a/file", false);
+
+        assertEquals(newArrayList("DELETED a/file"), drain());
+    }
+
+    private List<String> drain() {
+        return coalescer.drain().stream().map(FileWatcherEventCoalescer.Change::toString).collect(toList());
+    }
+}
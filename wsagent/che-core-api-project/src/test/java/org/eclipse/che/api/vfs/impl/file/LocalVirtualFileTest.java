@@ -28,6 +28,7 @@ import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileVisitor;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.eclipse.che.api.vfs.util.FileChannelInputStream;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.Pair;
@@ -45,14 +46,21 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -356,6 +364,38 @@ public class LocalVirtualFileTest {
         assertEquals(expectedResult, children);
     }
 
+    @Test
+    public void getsChildrenConcurrently() throws Exception {
+        VirtualFile root = getRoot();
+        File dotVfs = new File(root.toIoFile(), ".vfs");
+        assertTrue(dotVfs.exists() || dotVfs.mkdir());
+        List<VirtualFile> expectedResult = newArrayList();
+        for (int i = 0; i < 100; i++) {
+            expectedResult.add(root.createFile(generateFileName(), DEFAULT_CONTENT));
+        }
+        Collections.sort(expectedResult);
+
+        int threadNumber = 4 * (Runtime.getRuntime().availableProcessors() + 1);
+        ExecutorService executor = Executors.newFixedThreadPool(threadNumber);
+        CountDownLatch startLatch = new CountDownLatch(threadNumber);
+        List<Future<List<VirtualFile>>> futures = newArrayList();
+        try {
+            for (int i = 0; i < threadNumber; i++) {
+                futures.add(executor.submit(() -> {
+                    startLatch.countDown();
+                    startLatch.await();
+                    return root.getChildren();
+                }));
+            }
+
+            for (Future<List<VirtualFile>> future : futures) {
+                assertEquals(expectedResult, future.get(30, SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void getsChild() throws Exception {
         VirtualFile root = getRoot();
@@ -399,6 +439,109 @@ public class LocalVirtualFileTest {
         assertEquals(DEFAULT_CONTENT, new String(bytes));
     }
 
+    @Test
+    public void streamsContentOfBigFileDirectlyFromFileSystem() throws Exception {
+        VirtualFile root = getRoot();
+        byte[] bigContent = new byte[LocalVirtualFileSystem.MAX_BUFFER_SIZE * 2 + 1];
+        new Random().nextBytes(bigContent);
+        VirtualFile file = root.createFile(generateFileName(), new ByteArrayInputStream(bigContent));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream content = file.getContent()) {
+            assertTrue(content instanceof FileChannelInputStream);
+            ((FileChannelInputStream)content).transferTo(bytes);
+        }
+
+        assertionHelper.assertThatIoFileHasContent(file.getPath(), bigContent);
+        assertTrue(Arrays.equals(bigContent, bytes.toByteArray()));
+    }
+
+    @Test
+    public void releasesLockOfBigFileWhenContentIsRead() throws Exception {
+        VirtualFile root = getRoot();
+        byte[] bigContent = new byte[LocalVirtualFileSystem.MAX_BUFFER_SIZE * 2 + 1];
+        new Random().nextBytes(bigContent);
+        VirtualFile file = root.createFile(generateFileName(), new ByteArrayInputStream(bigContent));
+
+        InputStream content = file.getContent();
+        byte[] bytes = ByteStreams.toByteArray(content);
+        file.updateContent(DEFAULT_CONTENT);
+
+        assertTrue(Arrays.equals(bigContent, bytes));
+        assertionHelper.assertThatIoFileHasContent(file.getPath(), DEFAULT_CONTENT_BYTES);
+    }
+
+    @Test
+    public void doesNotBlockUpdateOfBigFileWhileContentStreamIsOpened() throws Exception {
+        VirtualFile root = getRoot();
+        byte[] bigContent = new byte[LocalVirtualFileSystem.MAX_BUFFER_SIZE * 2 + 1];
+        new Random().nextBytes(bigContent);
+        VirtualFile file = root.createFile(generateFileName(), new ByteArrayInputStream(bigContent));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (InputStream content = file.getContent()) {
+            executor.submit(() -> file.updateContent(DEFAULT_CONTENT)).get(10, SECONDS);
+            assertionHelper.assertThatIoFileHasContent(file.getPath(), DEFAULT_CONTENT_BYTES);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void readsContentWhichBigFileHadWhenStreamWasOpenedWhileFileIsUpdated() throws Exception {
+        VirtualFile root = getRoot();
+        byte[] bigContent = new byte[LocalVirtualFileSystem.MAX_BUFFER_SIZE * 2 + 1];
+        new Random().nextBytes(bigContent);
+        VirtualFile file = root.createFile(generateFileName(), new ByteArrayInputStream(bigContent));
+        byte[] newContent = new byte[LocalVirtualFileSystem.MAX_BUFFER_SIZE * 3];
+        new Random().nextBytes(newContent);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (InputStream content = file.getContent()) {
+            byte[] buf = new byte[LocalVirtualFileSystem.MAX_BUFFER_SIZE];
+            bytes.write(buf, 0, content.read(buf));
+            executor.submit(() -> file.updateContent(new ByteArrayInputStream(newContent))).get(10, SECONDS);
+            ByteStreams.copy(content, bytes);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(Arrays.equals(bigContent, bytes.toByteArray()));
+        assertionHelper.assertThatIoFileHasContent(file.getPath(), newContent);
+        assertEquals(newArrayList(file), root.getChildren());
+    }
+
+    @Test
+    public void readsEitherOldOrNewContentOfBigFileWhileItIsUpdatedConcurrently() throws Exception {
+        VirtualFile root = getRoot();
+        byte[] contentA = new byte[LocalVirtualFileSystem.MAX_BUFFER_SIZE * 2];
+        Arrays.fill(contentA, (byte)'a');
+        byte[] contentB = new byte[LocalVirtualFileSystem.MAX_BUFFER_SIZE * 3];
+        Arrays.fill(contentB, (byte)'b');
+        VirtualFile file = root.createFile(generateFileName(), new ByteArrayInputStream(contentA));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    file.updateContent(new ByteArrayInputStream(i % 2 == 0 ? contentB : contentA));
+                }
+                return null;
+            });
+            while (!writer.isDone()) {
+                byte[] bytes;
+                try (InputStream content = file.getContent()) {
+                    bytes = ByteStreams.toByteArray(content);
+                }
+                assertTrue(Arrays.equals(contentA, bytes) || Arrays.equals(contentB, bytes));
+            }
+            writer.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void getsContentAsBytes() throws Exception {
         VirtualFile root = getRoot();
@@ -0,0 +1,501 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import com.google.common.base.Optional;
+
+import org.eclipse.che.api.core.BadRequestException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatcher;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests of {@link LuceneSearcher} which don't depend on type of index directory. Each implementation of searcher gets all of them
+ * by extending this class.
+ */
+public abstract class LuceneSearcherTest {
+    protected static final String[] TEST_CONTENT = {
+            "Apollo set several major human spaceflight milestones",
+            "Maybe you should think twice",
+            "To be or not to be",
+            "In early 1961, direct ascent was generally the mission mode in favor at NASA"
+    };
+
+    protected VirtualFileFilter                            filter;
+    protected LuceneSearcher                               searcher;
+    protected AbstractLuceneSearcherProvider.CloseCallback closeCallback;
+
+    @Before
+    public void setUp() throws Exception {
+        filter = mock(VirtualFileFilter.class);
+        when(filter.accept(any(VirtualFile.class))).thenReturn(true);
+
+        closeCallback = mock(AbstractLuceneSearcherProvider.CloseCallback.class);
+        searcher = createSearcher(filter, closeCallback);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        searcher.close();
+    }
+
+    /** Creates searcher under test, it may be called more than once in one test. */
+    protected abstract LuceneSearcher createSearcher(VirtualFileFilter filter,
+                                                     AbstractLuceneSearcherProvider.CloseCallback closeCallback) throws Exception;
+
+    @Test
+    public void initializesIndexForExistedFiles() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        folder.createFile("zzz.txt", TEST_CONTENT[1]);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("think")).getFilePaths();
+        assertEquals(newArrayList("/folder/zzz.txt"), paths);
+    }
+
+    @Test
+    public void initializesIndexForBigFileTreeAndCollectsIndexingMetrics() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        long contentLength = 0;
+        for (int i = 0; i < 10; i++) {
+            VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder" + i);
+            for (int j = 0; j < 200; j++) {
+                String content = TEST_CONTENT[j % TEST_CONTENT.length];
+                folder.createFile(String.format("file%03d.txt", j), content);
+                contentLength += content.length();
+            }
+        }
+        searcher.init(virtualFileSystem);
+
+        assertEquals(500, searcher.search(new QueryExpression().setText("think")).getTotalHits());
+        assertEquals(2000, searcher.getIndexingMetrics().getIndexedFiles());
+        assertEquals(contentLength, searcher.getIndexingMetrics().getIndexedBytes());
+    }
+
+    @Test
+    public void refreshesOnlyFilesChangedSinceTheyWereIndexed() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        searcher.init(virtualFileSystem);
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        VirtualFile unchanged = folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        VirtualFile changed = folder.createFile("yyy.txt", TEST_CONTENT[0]);
+        searcher.add(folder);
+        long indexedFiles = searcher.getIndexingMetrics().getIndexedFiles();
+
+        changed.updateContent(TEST_CONTENT[1]);
+        reset(filter);
+        when(filter.accept(any(VirtualFile.class))).thenReturn(true);
+        searcher.refresh(unchanged);
+        searcher.refresh(folder);
+
+        verify(filter, never()).accept(withName("xxx.txt"));
+        assertEquals(indexedFiles + 1, searcher.getIndexingMetrics().getIndexedFiles());
+        assertEquals(newArrayList("/folder/yyy.txt"), searcher.search(new QueryExpression().setText("think")).getFilePaths());
+    }
+
+    @Test
+    public void refreshesOnlyDocumentsOfRefreshedFolder() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("a");
+        VirtualFile deleted = folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        VirtualFile sibling = virtualFileSystem.getRoot().createFolder("ab").createFile("yyy.txt", TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+
+        deleted.delete();
+        sibling.delete();
+        searcher.refresh(folder);
+
+        assertEquals(newArrayList("/ab/yyy.txt"), searcher.search(new QueryExpression().setText("be")).getFilePaths());
+    }
+
+    @Test
+    public void addsSingleFileInIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        searcher.init(virtualFileSystem);
+        VirtualFile file = virtualFileSystem.getRoot().createFolder("aaa").createFile("aaa.txt", TEST_CONTENT[1]);
+
+        searcher.add(file);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("should")).getFilePaths();
+        assertEquals(newArrayList(file.getPath().toString()), paths);
+    }
+
+    @Test
+    public void addsFileTreeInIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        searcher.init(virtualFileSystem);
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        folder.createFile("zzz.txt", TEST_CONTENT[1]);
+
+        searcher.add(virtualFileSystem.getRoot());
+
+        List<String> paths = searcher.search(new QueryExpression().setText("be")).getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+        paths = searcher.search(new QueryExpression().setText("should")).getFilePaths();
+        assertEquals(newArrayList("/folder/zzz.txt"), paths);
+    }
+
+    @Test
+    public void updatesSingleFileInIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile file = virtualFileSystem.getRoot().createFolder("aaa").createFile("aaa.txt", TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("should")).getFilePaths();
+        assertTrue(paths.isEmpty());
+
+        file.updateContent(TEST_CONTENT[1]);
+        searcher.update(file);
+
+        paths = searcher.search(new QueryExpression().setText("should")).getFilePaths();
+
+        assertEquals(newArrayList(file.getPath().toString()), paths);
+    }
+
+    @Test
+    public void deletesSingleFileFromIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile file = virtualFileSystem.getRoot().createFolder("aaa").createFile("aaa.txt", TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("be")).getFilePaths();
+        assertEquals(newArrayList(file.getPath().toString()), paths);
+
+        searcher.delete(file.getPath().toString(), file.isFile());
+
+        paths = searcher.search(new QueryExpression().setText("be")).getFilePaths();
+        assertTrue(paths.isEmpty());
+    }
+
+    @Test
+    public void deletesFileTreeFromIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        folder.createFile("zzz.txt", TEST_CONTENT[1]);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("be")).getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+        paths = searcher.search(new QueryExpression().setText("should")).getFilePaths();
+        assertEquals(newArrayList("/folder/zzz.txt"), paths);
+
+        searcher.delete("/folder", false);
+
+        paths = searcher.search(new QueryExpression().setText("be")).getFilePaths();
+        assertTrue(paths.isEmpty());
+        paths = searcher.search(new QueryExpression().setText("should")).getFilePaths();
+        assertTrue(paths.isEmpty());
+    }
+
+    @Test
+    public void searchesByTextAndFileName() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        folder.createFile("zzz.txt", TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("be").setName("xxx.txt")).getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+    }
+
+    @Test
+    public void searchesByTextAndPath() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder1 = virtualFileSystem.getRoot().createFolder("folder1/a/b");
+        VirtualFile folder2 = virtualFileSystem.getRoot().createFolder("folder2");
+        folder1.createFile("xxx.txt", TEST_CONTENT[2]);
+        folder2.createFile("zzz.txt", TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("be").setPath("/folder1")).getFilePaths();
+        assertEquals(newArrayList("/folder1/a/b/xxx.txt"), paths);
+    }
+
+    @Test
+    public void searchesByTextAndPathAndFileName() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder1 = virtualFileSystem.getRoot().createFolder("folder1/a/b");
+        VirtualFile folder2 = virtualFileSystem.getRoot().createFolder("folder2/a/b");
+        folder1.createFile("xxx.txt", TEST_CONTENT[2]);
+        folder1.createFile("yyy.txt", TEST_CONTENT[2]);
+        folder2.createFile("zzz.txt", TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("be").setPath("/folder1").setName("xxx.txt")).getFilePaths();
+        assertEquals(newArrayList("/folder1/a/b/xxx.txt"), paths);
+    }
+
+    @Test
+    public void searchesIdentifiersInsideOfCode() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("Code.java", "return foo.barBaz(qux_value);");
+        folder.createFile("text.txt", TEST_CONTENT[0]);
+        searcher.init(virtualFileSystem);
+
+        assertEquals(newArrayList("/folder/Code.java"), searcher.search(new QueryExpression().setText("barBaz")).getFilePaths());
+        assertEquals(newArrayList("/folder/Code.java"), searcher.search(new QueryExpression().setText("baz")).getFilePaths());
+        assertEquals(newArrayList("/folder/Code.java"), searcher.search(new QueryExpression().setText("qux")).getFilePaths());
+        assertEquals(newArrayList("/folder/Code.java"), searcher.search(new QueryExpression().setText("foo.barBaz")).getFilePaths());
+        assertTrue(searcher.search(new QueryExpression().setText("baz.foo")).getFilePaths().isEmpty());
+    }
+
+    @Test
+    public void searchesFilesByFragmentOfPath() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("server");
+        folder.createFile("ProjectService.java", "");
+        folder.createFile("ProjectManager.java", "");
+        virtualFileSystem.getRoot().createFolder("client").createFile("ServiceClient.java", "");
+        searcher.init(virtualFileSystem);
+
+        assertEquals(newArrayList("/server/ProjectService.java"),
+                     searcher.search(new QueryExpression().setPathFragment("ctservice")).getFilePaths());
+        assertEquals("/server/ProjectService.java",
+                     searcher.search(new QueryExpression().setPathFragment("server/ProjectServ")).getFilePaths().get(0));
+        assertEquals(newArrayList("/server/ProjectService.java"),
+                     searcher.search(new QueryExpression().setPathFragment("ProjectServise")).getFilePaths());
+        List<String> paths = searcher.search(new QueryExpression().setPathFragment("Service")).getFilePaths();
+        assertEquals(2, paths.size());
+        assertTrue(paths.containsAll(newArrayList("/server/ProjectService.java", "/client/ServiceClient.java")));
+    }
+
+    @Test
+    public void closesLuceneIndexWriterWhenSearcherClosed() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        searcher.init(virtualFileSystem);
+
+        searcher.close();
+
+        assertTrue(searcher.isClosed());
+        assertFalse(searcher.getIndexWriter().isOpen());
+    }
+
+    @Test
+    public void doesNotHangWhenSearcherIsClosedDuringIndexing() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 1000; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%03d.txt", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        when(filter.accept(withName("file100.txt"))).thenAnswer(invocation -> {
+            searcher.close();
+            return true;
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> initialization = executor.submit(() -> {
+                searcher.init(virtualFileSystem);
+                return null;
+            });
+            initialization.get(10, SECONDS);
+            fail("ServerException expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ServerException);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(searcher.isClosed());
+    }
+
+    @Test
+    public void notifiesCallbackWhenSearcherClosed() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        searcher.init(virtualFileSystem);
+
+        searcher.close();
+        verify(closeCallback).onClose();
+    }
+
+    @Test
+    public void excludesFilesFromIndexWithFilter() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        folder.createFile("yyy.txt", TEST_CONTENT[2]);
+        folder.createFile("zzz.txt", TEST_CONTENT[2]);
+
+        when(filter.accept(withName("yyy.txt"))).thenReturn(false);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("be")).getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt", "/folder/zzz.txt"), paths);
+    }
+
+    @Test
+    public void limitsNumberOfSearchResultsWhenMaxItemIsSet() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("mission").setMaxItems(5));
+
+        assertEquals(25, result.getTotalHits());
+        assertEquals(5, result.getFilePaths().size());
+    }
+
+    @Test
+    public void generatesQueryExpressionForRetrievingNextPageOfResults() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(7));
+
+        assertEquals(25, result.getTotalHits());
+
+        Optional<QueryExpression> optionalNextPageQueryExpression = result.getNextPageQueryExpression();
+        assertTrue(optionalNextPageQueryExpression.isPresent());
+
+        QueryExpression nextPageQueryExpression = optionalNextPageQueryExpression.get();
+        assertEquals("spaceflight", nextPageQueryExpression.getText());
+        assertEquals(7, nextPageQueryExpression.getSkipCount());
+        assertEquals(7, nextPageQueryExpression.getMaxItems());
+    }
+
+    @Test
+    public void retrievesSearchResultWithPages() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(8));
+        assertEquals(8, firstPage.getFilePaths().size());
+
+        QueryExpression nextPageQueryExpression = firstPage.getNextPageQueryExpression().get();
+        nextPageQueryExpression.setMaxItems(100);
+
+        SearchResult lastPage = searcher.search(nextPageQueryExpression);
+        assertEquals(17, lastPage.getFilePaths().size());
+
+        assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+    }
+
+    @Test
+    public void retrievesAllPagesOfSearchResultWithCursor() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        Set<String> paths = new HashSet<>();
+        SearchResult page = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(8));
+        paths.addAll(page.getFilePaths());
+        while (page.getNextPageQueryExpression().isPresent()) {
+            QueryExpression nextPageQueryExpression = page.getNextPageQueryExpression().get();
+            assertNotNull(nextPageQueryExpression.getAfter());
+            page = searcher.search(nextPageQueryExpression);
+            assertTrue(Collections.disjoint(paths, page.getFilePaths()));
+            paths.addAll(page.getFilePaths());
+        }
+
+        assertEquals(25, paths.size());
+    }
+
+    @Test
+    public void retrievesNextPageWhenIndexIsChangedAfterPreviousPage() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(8));
+        searcher.add(virtualFileSystem.getRoot().createFile("file100", TEST_CONTENT[1]));
+        SearchResult lastPage = searcher.search(firstPage.getNextPageQueryExpression().get().setMaxItems(100));
+
+        assertEquals(17, lastPage.getFilePaths().size());
+        assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void failsWhenTokenOfNextPageCanNotBeParsed() throws Exception {
+        searcher.init(virtualFileSystem());
+
+        searcher.search(new QueryExpression().setText("spaceflight").setAfter("not a token"));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void failsWhenTokenOfNextPageRefersToDocumentOutOfIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 10; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[0]);
+        }
+        searcher.init(virtualFileSystem);
+        String after = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(2))
+                               .getNextPageQueryExpression().get().getAfter();
+        String[] parts = new String(Base64.getUrlDecoder().decode(after), UTF_8).split(":");
+        parts[1] = "1000000";
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(String.join(":", parts).getBytes(UTF_8));
+
+        searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(2).setAfter(forged));
+    }
+
+    protected VirtualFileSystem virtualFileSystem() throws Exception {
+        return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
+    }
+
+    protected static VirtualFile withName(String name) {
+        return argThat(new ArgumentMatcher<VirtualFile>() {
+            @Override
+            public boolean matches(Object argument) {
+                return name.equals(((VirtualFile)argument).getName());
+            }
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.shared.dto.event;
+
+import org.eclipse.che.api.core.notification.EventOrigin;
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * Sent by workspace agent to the master once agent is initialized,
+ * so master doesn't need to wait for the next ping to find out that agent is up.
+ */
+@EventOrigin("wsagent")
+@DTO
+public interface WsAgentStartedEvent {
+    String getWorkspaceId();
+
+    void setWorkspaceId(String workspaceId);
+
+    WsAgentStartedEvent withWorkspaceId(String workspaceId);
+}
@@ -25,10 +25,10 @@ import org.eclipse.che.api.core.model.machine.MachineConfig;
 import org.eclipse.che.api.core.model.machine.MachineStatus;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.core.util.BatchingWebsocketLineConsumer;
 import org.eclipse.che.api.core.util.CompositeLineConsumer;
 import org.eclipse.che.api.core.util.FileLineConsumer;
 import org.eclipse.che.api.core.util.LineConsumer;
-import org.eclipse.che.api.core.util.WebsocketLineConsumer;
 import org.eclipse.che.api.machine.server.dao.SnapshotDao;
 import org.eclipse.che.api.machine.server.event.InstanceStateEvent;
 import org.eclipse.che.api.machine.server.exception.InvalidRecipeException;
@@ -68,11 +68,11 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 import static org.eclipse.che.api.machine.server.event.InstanceStateEvent.Type.DIE;
@@ -126,6 +126,14 @@ public class MachineManager {
         this.machineCleaner = new MachineCleaner();
     }
 
+    /**
+     * Returns executor of asynchronous machine operations. Components that run machine operations concurrently,
+     * e.g. start machines of an environment, should use it instead of creating own threads.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
     /**
      * Synchronously creates and starts machine from scratch.
      *
@@ -318,8 +326,8 @@ public class MachineManager {
             throw new BadRequestException("Invalid machine name " + machineConfig.getName());
         }
 
-        for (MachineImpl machine : machineRegistry.getMachines()) {
-            if (machine.getWorkspaceId().equals(workspaceId) && machine.getConfig().getName().equals(machineConfig.getName())) {
+        for (MachineImpl machine : machineRegistry.getMachines(workspaceId)) {
+            if (machine.getConfig().getName().equals(machineConfig.getName())) {
                 throw new ConflictException("Machine with name " + machineConfig.getName() + " already exists");
             }
         }
@@ -484,11 +492,8 @@ public class MachineManager {
      *         workspace binding
      * @return list of machines or empty list
      */
-    public List<MachineImpl> getMachines(String workspaceId) throws MachineException, BadRequestException {
-        return machineRegistry.getMachines()
-                              .stream()
-                              .filter(machine -> machine.getWorkspaceId().equals(workspaceId))
-                              .collect(Collectors.toList());
+    public List<MachineImpl> getMachines(String workspaceId) throws MachineException {
+        return new ArrayList<>(machineRegistry.getMachines(workspaceId));
     }
 
     /**
@@ -969,7 +974,7 @@ public class MachineManager {
 
     private LineConsumer getLogger(LineConsumer fileLogger, String outputChannel) throws MachineException {
         if (outputChannel != null) {
-            return new CompositeLineConsumer(fileLogger, new WebsocketLineConsumer(outputChannel));
+            return new CompositeLineConsumer(fileLogger, new BatchingWebsocketLineConsumer(outputChannel));
         }
         return fileLogger;
     }
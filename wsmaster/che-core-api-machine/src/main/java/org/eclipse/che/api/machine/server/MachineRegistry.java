@@ -17,41 +17,54 @@ import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
 
 import javax.inject.Singleton;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
 
 /**
- * Holds active machines
+ * Holds active machines.
+ *
+ * <p>Machines are indexed by identifier and by workspace. Reads don't block and see consistent snapshot
+ * of the registry, writes are serialized and replace the snapshot, so registry is optimized for frequent reads,
+ * e.g. polling of status of machines, and rare changes.
  *
  * @author Alexander Garagatyi
  */
 @Singleton
 public class MachineRegistry {
-    // TODO add locks per workspace or machine
-    private final HashMap<String, Instance>    instances;
-    private final HashMap<String, MachineImpl> machines;
+    private final Object lock;
+
+    private volatile Snapshot snapshot;
 
     public MachineRegistry() {
-        instances = new HashMap<>();
-        machines = new HashMap<>();
+        lock = new Object();
+        snapshot = new Snapshot(Collections.emptyMap(), Collections.emptyMap());
     }
 
-    //TODO return unmodifiable lists
-
     /**
      * Get all active machines
      *
      * @throws MachineException
      *         if any error occurs
      */
-    public synchronized List<MachineImpl> getMachines() throws MachineException {
-        final List<MachineImpl> list = new ArrayList<>(machines.size() + instances.size());
-        list.addAll(machines.values());
-        list.addAll(instances.values().stream().map(this::toMachine).collect(Collectors.toList()));
-        return Collections.unmodifiableList(list);
+    public List<MachineImpl> getMachines() throws MachineException {
+        return toMachines(snapshot.machines);
+    }
+
+    /**
+     * Get all active machines of specific workspace.
+     *
+     * @param workspaceId
+     *         id of workspace
+     * @return list of machines or empty list
+     * @throws MachineException
+     *         if any error occurs
+     */
+    public List<MachineImpl> getMachines(String workspaceId) throws MachineException {
+        return toMachines(snapshot.machinesByWorkspace.getOrDefault(workspaceId, Collections.emptyMap()));
     }
 
     /**
@@ -64,17 +77,12 @@ public class MachineRegistry {
      * @throws MachineException
      *         if other error occurs
      */
-    public synchronized MachineImpl getMachine(String machineId) throws NotFoundException, MachineException {
-        MachineImpl machine = machines.get(machineId);
-        if (machine == null) {
-            final Instance instance = instances.get(machineId);
-            if (instance == null) {
-                throw new NotFoundException("Machine " + machineId + " is not found");
-            }
-            machine = toMachine(instance);
+    public MachineImpl getMachine(String machineId) throws NotFoundException, MachineException {
+        final Entry entry = snapshot.machines.get(machineId);
+        if (entry == null) {
+            throw new NotFoundException("Machine " + machineId + " is not found");
         }
-
-        return machine;
+        return entry.toMachine();
     }
 
     /**
@@ -83,8 +91,8 @@ public class MachineRegistry {
      * @param machineId
      *         unique machine identifier
      */
-    public synchronized boolean isExist(String machineId) {
-        return machines.containsKey(machineId) || instances.containsKey(machineId);
+    public boolean isExist(String machineId) {
+        return snapshot.machines.containsKey(machineId);
     }
 
     /**
@@ -97,10 +105,10 @@ public class MachineRegistry {
      * @throws MachineException
      *         if other error occurs
      */
-    public synchronized MachineImpl getDevMachine(String workspaceId) throws NotFoundException, MachineException {
-        for (Instance instance : instances.values()) {
-            if (instance.getWorkspaceId().equals(workspaceId) && instance.getConfig().isDev()) {
-                return toMachine(instance);
+    public MachineImpl getDevMachine(String workspaceId) throws NotFoundException, MachineException {
+        for (Entry entry : snapshot.machinesByWorkspace.getOrDefault(workspaceId, Collections.emptyMap()).values()) {
+            if (entry.instance != null && entry.instance.getConfig().isDev()) {
+                return entry.toMachine();
             }
         }
 
@@ -118,12 +126,12 @@ public class MachineRegistry {
      * @throws MachineException
      *         if other error occurs
      */
-    public synchronized Instance getInstance(String machineId) throws NotFoundException, MachineException {
-        final Instance instance = instances.get(machineId);
-        if (instance == null) {
+    public Instance getInstance(String machineId) throws NotFoundException, MachineException {
+        final Entry entry = snapshot.machines.get(machineId);
+        if (entry == null || entry.instance == null) {
             throw new NotFoundException("Machine " + machineId + " is not found");
         } else {
-            return instance;
+            return entry.instance;
         }
     }
 
@@ -137,11 +145,13 @@ public class MachineRegistry {
      * @throws MachineException
      *         if any other error occurs
      */
-    public synchronized void addMachine(MachineImpl machine) throws MachineException, ConflictException {
-        if (machines.containsKey(machine.getId())) {
-            throw new ConflictException("Machine with id " + machine.getId() + " is already exist");
+    public void addMachine(MachineImpl machine) throws MachineException, ConflictException {
+        synchronized (lock) {
+            if (snapshot.machines.containsKey(machine.getId())) {
+                throw new ConflictException("Machine with id " + machine.getId() + " is already exist");
+            }
+            snapshot = snapshot.put(new Entry(machine.getId(), machine.getWorkspaceId(), machine, null));
         }
-        machines.put(machine.getId(), machine);
     }
 
     /**
@@ -154,12 +164,13 @@ public class MachineRegistry {
      * @throws MachineException
      *         if any other error occurs
      */
-    public synchronized void update(Instance instance) throws NotFoundException, MachineException {
-        if (!instances.containsKey(instance.getId()) && !machines.containsKey(instance.getId())) {
-            throw new NotFoundException("Machine " + instance.getId() + " not found");
-        } else {
-            instances.put(instance.getId(), instance);
-            machines.remove(instance.getId());
+    public void update(Instance instance) throws NotFoundException, MachineException {
+        synchronized (lock) {
+            if (!snapshot.machines.containsKey(instance.getId())) {
+                throw new NotFoundException("Machine " + instance.getId() + " not found");
+            } else {
+                snapshot = snapshot.put(new Entry(instance.getId(), instance.getWorkspaceId(), null, instance));
+            }
         }
     }
 
@@ -171,21 +182,88 @@ public class MachineRegistry {
      * @throws NotFoundException
      *         if machine with specified id not found
      */
-    public synchronized void remove(String machineId) throws NotFoundException {
-        final Instance instance = instances.remove(machineId);
-        final MachineImpl machine = machines.remove(machineId);
-        if (null == instance && null == machine) {
-            throw new NotFoundException("Machine " + machineId + " is not found");
+    public void remove(String machineId) throws NotFoundException {
+        synchronized (lock) {
+            final Entry entry = snapshot.machines.get(machineId);
+            if (entry == null) {
+                throw new NotFoundException("Machine " + machineId + " is not found");
+            }
+            snapshot = snapshot.remove(entry);
+        }
+    }
+
+    private static List<MachineImpl> toMachines(Map<String, Entry> entries) {
+        return Collections.unmodifiableList(entries.values()
+                                                   .stream()
+                                                   .map(Entry::toMachine)
+                                                   .collect(toList()));
+    }
+
+    /** Machine which is not running yet or instance of running machine. */
+    private static final class Entry {
+        final String      id;
+        final String      workspaceId;
+        final MachineImpl machine;
+        final Instance    instance;
+
+        Entry(String id, String workspaceId, MachineImpl machine, Instance instance) {
+            this.id = id;
+            this.workspaceId = workspaceId;
+            this.machine = machine;
+            this.instance = instance;
+        }
+
+        MachineImpl toMachine() {
+            if (machine != null) {
+                return machine;
+            }
+            return new MachineImpl(instance.getConfig(),
+                                   instance.getId(),
+                                   instance.getWorkspaceId(),
+                                   instance.getEnvName(),
+                                   instance.getOwner(),
+                                   instance.getStatus(),
+                                   instance.getRuntime());
         }
     }
 
-    private MachineImpl toMachine(Instance instance) {
-        return new MachineImpl(instance.getConfig(),
-                               instance.getId(),
-                               instance.getWorkspaceId(),
-                               instance.getEnvName(),
-                               instance.getOwner(),
-                               instance.getStatus(),
-                               instance.getRuntime());
+    /**
+     * Immutable state of the registry. Change copies the map of all machines and the map of machines of affected workspace,
+     * maps of other workspaces are shared between snapshots.
+     */
+    private static final class Snapshot {
+        final Map<String, Entry>              machines;
+        final Map<String, Map<String, Entry>> machinesByWorkspace;
+
+        Snapshot(Map<String, Entry> machines, Map<String, Map<String, Entry>> machinesByWorkspace) {
+            this.machines = machines;
+            this.machinesByWorkspace = machinesByWorkspace;
+        }
+
+        Snapshot put(Entry entry) {
+            final Map<String, Entry> newMachines = new HashMap<>(machines);
+            newMachines.put(entry.id, entry);
+            final Map<String, Entry> workspaceMachines = new HashMap<>(machinesByWorkspace.getOrDefault(entry.workspaceId,
+                                                                                                         Collections.emptyMap()));
+            workspaceMachines.put(entry.id, entry);
+            final Map<String, Map<String, Entry>> newMachinesByWorkspace = new HashMap<>(machinesByWorkspace);
+            newMachinesByWorkspace.put(entry.workspaceId, workspaceMachines);
+            return new Snapshot(newMachines, newMachinesByWorkspace);
+        }
+
+        Snapshot remove(Entry entry) {
+            final Map<String, Entry> newMachines = new HashMap<>(machines);
+            newMachines.remove(entry.id);
+            final Map<String, Entry> workspaceMachines = new HashMap<>(machinesByWorkspace.getOrDefault(entry.workspaceId,
+                                                                                                         Collections.emptyMap()));
+            workspaceMachines.remove(entry.id);
+            final Map<String, Map<String, Entry>> newMachinesByWorkspace = new HashMap<>(machinesByWorkspace);
+            if (workspaceMachines.isEmpty()) {
+                newMachinesByWorkspace.remove(entry.workspaceId);
+            } else {
+                newMachinesByWorkspace.put(entry.workspaceId, workspaceMachines);
+            }
+            return new Snapshot(newMachines, newMachinesByWorkspace);
+        }
     }
 }
@@ -10,12 +10,16 @@
  *******************************************************************************/
 package org.eclipse.che.api.machine.server.event;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.core.util.BatchingWebsocketLineConsumer;
 import org.eclipse.che.api.machine.shared.dto.event.MachineProcessEvent;
 import org.eclipse.che.dto.server.DtoFactory;
-import org.everrest.websockets.WSConnectionContext;
-import org.everrest.websockets.message.ChannelBroadcastMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,9 +27,16 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.io.IOException;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 /**
- * Send machine process events using websocket channel to the clients
+ * Send machine process events using websocket channel to the clients.
+ * <p/>
+ * Events are sent in order they are published but not in the thread that publishes event. Each event is sent in separate
+ * websocket message. Publisher is never blocked, since it may be thread that delivers other events of {@link EventService}, if too
+ * many events of machine are waiting for sending the newest events are dropped.
  *
  * @author Alexander Garagatyi
  */
@@ -33,25 +44,59 @@ import javax.inject.Singleton;
 public class MachineProcessMessenger implements EventSubscriber<MachineProcessEvent> {
     private static final Logger LOG = LoggerFactory.getLogger(MachineProcessMessenger.class);
 
-    private final EventService eventService;
+    private static final int CHANNEL_CAPACITY = 1024;
+
+    private final EventService                                         eventService;
+    private final LoadingCache<String, BatchingWebsocketLineConsumer> channels;
 
     @Inject
     public MachineProcessMessenger(EventService eventService) {
         this.eventService = eventService;
+        final RemovalListener<String, BatchingWebsocketLineConsumer> closer = notification -> closeChannel(notification.getValue());
+        this.channels = CacheBuilder.newBuilder()
+                                    .expireAfterAccess(1, MINUTES)
+                                    .removalListener(closer)
+                                    .build(new CacheLoader<String, BatchingWebsocketLineConsumer>() {
+                                        @Override
+                                        public BatchingWebsocketLineConsumer load(String machineId) {
+                                            return newChannel(machineId);
+                                        }
+                                    });
     }
 
     @Override
     public void onEvent(MachineProcessEvent event) {
         try {
-            final ChannelBroadcastMessage bm = new ChannelBroadcastMessage();
-            bm.setChannel("machine:process:" + event.getMachineId());
-            bm.setBody(DtoFactory.getInstance().toJson(event));
-            WSConnectionContext.sendMessage(bm);
+            channels.getUnchecked(event.getMachineId()).writeLine(DtoFactory.getInstance().toJson(event));
         } catch (Exception e) {
             LOG.error(e.getLocalizedMessage(), e);
         }
     }
 
+    private BatchingWebsocketLineConsumer newChannel(String machineId) {
+        // client expects one event per message
+        return new BatchingWebsocketLineConsumer("machine:process:" + machineId,
+                                                 1,
+                                                 BatchingWebsocketLineConsumer.DEFAULT_MAX_FRAME_SIZE,
+                                                 0,
+                                                 CHANNEL_CAPACITY,
+                                                 BatchingWebsocketLineConsumer.OverflowPolicy.DROP_NEWEST) {
+            @Override
+            protected String dropMarker(long dropped) {
+                LOG.warn("{} process events of machine {} are dropped, client doesn't keep up with them", dropped, machineId);
+                return null;
+            }
+        };
+    }
+
+    private void closeChannel(BatchingWebsocketLineConsumer channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+    }
+
     @PostConstruct
     private void subscribe() {
         eventService.subscribe(this);
@@ -60,5 +105,6 @@ public class MachineProcessMessenger implements EventSubscriber<MachineProcessEv
     @PreDestroy
     private void unsubscribe() {
         eventService.unsubscribe(this);
+        channels.invalidateAll();
     }
 }
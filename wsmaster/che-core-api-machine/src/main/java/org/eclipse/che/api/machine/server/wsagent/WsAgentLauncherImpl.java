@@ -10,11 +10,16 @@
  *******************************************************************************/
 package org.eclipse.che.api.machine.server.wsagent;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
 import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.model.machine.Server;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.rest.HttpJsonRequest;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.HttpJsonResponse;
@@ -22,10 +27,12 @@ import org.eclipse.che.api.machine.server.MachineManager;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.CommandImpl;
 import org.eclipse.che.api.machine.shared.Constants;
+import org.eclipse.che.api.machine.shared.dto.event.WsAgentStartedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.inject.Inject;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
@@ -33,9 +40,27 @@ import javax.ws.rs.HttpMethod;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
- * Starts ws agent in the machine and waits until ws agent sends notification about its start
+ * Starts ws agent in the machine and waits until ws agent sends notification about its start.
+ *
+ * <p>Agent publishes {@link WsAgentStartedEvent} once it is initialized, the event makes launcher ping agent
+ * immediately. Regular pings are kept as fallback for the case when event is lost, e.g. agent is not connected
+ * to the master event bus yet, delay between them grows exponentially from {@code machine.ws_agent.ping_delay_ms}
+ * to {@code machine.ws_agent.ping_max_delay_ms}. Pings are performed by shared scheduler, so launcher doesn't
+ * occupy thread of caller with pinging.
  *
  * @author Alexander Garagatyi
  */
@@ -48,18 +73,27 @@ public class WsAgentLauncherImpl implements WsAgentLauncher {
 
     private static final String WS_AGENT_PROCESS_OUTPUT_CHANNEL = "workspace:%s:ext-server:output";
     private static final String WS_AGENT_SERVER_NOT_FOUND_ERROR = "Workspace agent server not found in dev machine.";
+    private static final long   DEFAULT_PING_MAX_DELAY_MS       = 10_000;
 
-    private final Provider<MachineManager> machineManagerProvider;
-    private final HttpJsonRequestFactory   httpJsonRequestFactory;
-    private final String                   wsAgentStartCommandLine;
-    private final long                     wsAgentMaxStartTimeMs;
-    private final long                     wsAgentPingDelayMs;
-    private final int                      wsAgentPingConnectionTimeoutMs;
-    private final String                   pingTimedOutErrorMessage;
+    private final Provider<MachineManager>             machineManagerProvider;
+    private final HttpJsonRequestFactory               httpJsonRequestFactory;
+    private final EventService                         eventService;
+    private final String                               wsAgentStartCommandLine;
+    private final long                                 wsAgentMaxStartTimeMs;
+    private final long                                 wsAgentPingDelayMs;
+    private final int                                  wsAgentPingConnectionTimeoutMs;
+    private final String                               pingTimedOutErrorMessage;
+    private final ConcurrentMap<String, WsAgentPinger> pingers;
+    private final ScheduledExecutorService             pingScheduler;
+    private final EventSubscriber<WsAgentStartedEvent> wsAgentStartedSubscriber;
+    private final WsAgentStartMetrics                  metrics;
+
+    private long wsAgentPingMaxDelayMs;
 
     @Inject
     public WsAgentLauncherImpl(Provider<MachineManager> machineManagerProvider,
                                HttpJsonRequestFactory httpJsonRequestFactory,
+                               EventService eventService,
                                @Named(WS_AGENT_PROCESS_START_COMMAND) String wsAgentStartCommandLine,
                                @Named("machine.ws_agent.max_start_time_ms") long wsAgentMaxStartTimeMs,
                                @Named("machine.ws_agent.ping_delay_ms") long wsAgentPingDelayMs,
@@ -67,42 +101,88 @@ public class WsAgentLauncherImpl implements WsAgentLauncher {
                                @Named("machine.ws_agent.ping_timed_out_error_msg") String pingTimedOutErrorMessage) {
         this.machineManagerProvider = machineManagerProvider;
         this.httpJsonRequestFactory = httpJsonRequestFactory;
+        this.eventService = eventService;
         this.wsAgentStartCommandLine = wsAgentStartCommandLine;
         this.wsAgentMaxStartTimeMs = wsAgentMaxStartTimeMs;
         this.wsAgentPingDelayMs = wsAgentPingDelayMs;
         this.wsAgentPingConnectionTimeoutMs = wsAgentPingConnectionTimeoutMs;
         this.pingTimedOutErrorMessage = pingTimedOutErrorMessage;
+        this.wsAgentPingMaxDelayMs = Math.max(wsAgentPingDelayMs, DEFAULT_PING_MAX_DELAY_MS);
+        this.pingers = new ConcurrentHashMap<>();
+        this.pingScheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(),
+                                                              new ThreadFactoryBuilder().setNameFormat("WsAgentPinger-%d")
+                                                                                        .setDaemon(true)
+                                                                                        .build());
+        this.wsAgentStartedSubscriber = new EventSubscriber<WsAgentStartedEvent>() {
+            @Override
+            public void onEvent(WsAgentStartedEvent event) {
+                final WsAgentPinger pinger = pingers.get(event.getWorkspaceId());
+                if (pinger != null) {
+                    pinger.agentStarted();
+                }
+            }
+        };
+        this.metrics = new WsAgentStartMetrics();
+    }
+
+    /** Sets the upper bound of delay between pings, the delay is doubled after each unsuccessful ping. */
+    @Inject(optional = true)
+    public void setWsAgentPingMaxDelayMs(@Named("machine.ws_agent.ping_max_delay_ms") long wsAgentPingMaxDelayMs) {
+        if (wsAgentPingMaxDelayMs < wsAgentPingDelayMs) {
+            throw new IllegalArgumentException("Max delay between pings may not be less than initial delay: " + wsAgentPingMaxDelayMs);
+        }
+        this.wsAgentPingMaxDelayMs = wsAgentPingMaxDelayMs;
     }
 
     public static String getWsAgentProcessOutputChannel(String workspaceId) {
         return String.format(WS_AGENT_PROCESS_OUTPUT_CHANNEL, workspaceId);
     }
 
+    /** Returns start times of agents launched by this launcher. */
+    public WsAgentStartMetrics getStartMetrics() {
+        return metrics;
+    }
+
     @Override
     public void startWsAgent(String workspaceId) throws NotFoundException, MachineException, InterruptedException {
         final Machine devMachine = getMachineManager().getDevMachine(workspaceId);
         final HttpJsonRequest wsAgentPingRequest = createPingRequest(devMachine);
         final String wsAgentPingUrl = wsAgentPingRequest.getUrl();
+        // register pinger before agent is launched to get its start event in any case
+        final WsAgentPinger pinger = new WsAgentPinger(wsAgentPingRequest);
+        pingers.put(workspaceId, pinger);
         try {
             getMachineManager().exec(devMachine.getId(),
                                      new CommandImpl(WS_AGENT_PROCESS_NAME, wsAgentStartCommandLine, "Arbitrary"),
                                      getWsAgentProcessOutputChannel(workspaceId));
             final long pingStartTimestamp = System.currentTimeMillis();
+            final long pingStartNanos = System.nanoTime();
             LOG.debug("Starts pinging ws agent. Workspace ID:{}. Url:{}. Timestamp:{}",
                       workspaceId,
                       wsAgentPingUrl,
                       pingStartTimestamp);
 
-            while (System.currentTimeMillis() - pingStartTimestamp < wsAgentMaxStartTimeMs) {
-                if (pingWsAgent(wsAgentPingRequest)) {
-                    return;
-                } else {
-                    Thread.sleep(wsAgentPingDelayMs);
-                }
+            pinger.start();
+            try {
+                pinger.ready.get(wsAgentMaxStartTimeMs, MILLISECONDS);
+                metrics.started(System.nanoTime() - pingStartNanos, pinger.pushed, pinger.savedNanos);
+                LOG.debug("Ws agent started. Workspace ID:{}. Start time:{}ms. Reported by agent:{}",
+                          workspaceId,
+                          NANOSECONDS.toMillis(System.nanoTime() - pingStartNanos),
+                          pinger.pushed);
+                return;
+            } catch (ExecutionException pingExc) {
+                final Throwable cause = pingExc.getCause();
+                throw new MachineException(cause.getLocalizedMessage(), cause);
+            } catch (TimeoutException ignored) {
             }
         } catch (BadRequestException wsAgentLaunchingExc) {
             throw new MachineException(wsAgentLaunchingExc.getLocalizedMessage(), wsAgentLaunchingExc);
+        } finally {
+            pingers.remove(workspaceId, pinger);
+            pinger.cancel();
         }
+        metrics.failed();
         LOG.error("Fail pinging ws agent. Workspace ID:{}. Url:{}. Timestamp:{}", workspaceId, wsAgentPingUrl);
         throw new MachineException(pingTimedOutErrorMessage);
     }
@@ -127,6 +207,17 @@ public class WsAgentLauncherImpl implements WsAgentLauncher {
                                      .setTimeout(wsAgentPingConnectionTimeoutMs);
     }
 
+    @PostConstruct
+    void subscribe() {
+        eventService.subscribe(wsAgentStartedSubscriber);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        eventService.unsubscribe(wsAgentStartedSubscriber);
+        pingScheduler.shutdownNow();
+    }
+
     private boolean pingWsAgent(HttpJsonRequest wsAgentPingRequest) throws MachineException {
         try {
             final HttpJsonResponse pingResponse = wsAgentPingRequest.request();
@@ -141,4 +232,88 @@ public class WsAgentLauncherImpl implements WsAgentLauncher {
     private MachineManager getMachineManager() {
         return machineManagerProvider.get();
     }
+
+    /**
+     * Pings agent of single workspace until it responds. Each ping gets sequence number,
+     * unsuccessful ping schedules the next one only if nothing else was scheduled after it,
+     * so ping requested by agent's start event replaces scheduled regular ping.
+     */
+    private class WsAgentPinger {
+        final HttpJsonRequest         request;
+        final CompletableFuture<Void> ready;
+
+        // guarded by this
+        ScheduledFuture<?> nextPing;
+        long               lastPing;
+        long               pushedPing;
+        long               delayMs;
+        // written before ready is completed
+        boolean            pushed;
+        long               savedNanos;
+
+        WsAgentPinger(HttpJsonRequest request) {
+            this.request = request;
+            this.ready = new CompletableFuture<>();
+            this.delayMs = wsAgentPingDelayMs;
+        }
+
+        synchronized void start() {
+            if (lastPing == 0) {
+                schedule(0);
+            }
+        }
+
+        synchronized void agentStarted() {
+            if (ready.isDone()) {
+                return;
+            }
+            if (nextPing != null) {
+                savedNanos = Math.max(0, nextPing.getDelay(NANOSECONDS));
+                nextPing.cancel(false);
+            }
+            delayMs = wsAgentPingDelayMs;
+            schedule(0);
+            pushedPing = lastPing;
+        }
+
+        synchronized void cancel() {
+            ready.cancel(false);
+            if (nextPing != null) {
+                nextPing.cancel(false);
+            }
+        }
+
+        private void schedule(long delay) {
+            final long ping = ++lastPing;
+            try {
+                nextPing = pingScheduler.schedule(() -> ping(ping), delay, MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                ready.completeExceptionally(new MachineException("Unable to ping ws agent, launcher is stopped"));
+            }
+        }
+
+        private void ping(long ping) {
+            if (ready.isDone()) {
+                return;
+            }
+            try {
+                if (pingWsAgent(request)) {
+                    synchronized (this) {
+                        pushed = ping == pushedPing;
+                    }
+                    ready.complete(null);
+                    return;
+                }
+            } catch (RuntimeException | MachineException e) {
+                ready.completeExceptionally(e);
+                return;
+            }
+            synchronized (this) {
+                if (ping == lastPing && !ready.isDone()) {
+                    schedule(delayMs);
+                    delayMs = Math.min(delayMs * 2, wsAgentPingMaxDelayMs);
+                }
+            }
+        }
+    }
 }
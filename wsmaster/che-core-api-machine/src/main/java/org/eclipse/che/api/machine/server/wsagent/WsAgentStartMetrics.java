@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server.wsagent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Start times of workspace agents launched by {@link WsAgentLauncherImpl}. Start time is measured from the moment agent
+ * process is launched till the moment agent responds to ping.
+ */
+public final class WsAgentStartMetrics {
+    private final LongAdder  starts        = new LongAdder();
+    private final LongAdder  pushedStarts  = new LongAdder();
+    private final LongAdder  failedStarts  = new LongAdder();
+    private final LongAdder  startNanos    = new LongAdder();
+    private final AtomicLong maxStartNanos = new AtomicLong();
+    private final LongAdder  savedNanos    = new LongAdder();
+
+    void started(long nanos, boolean pushed, long saved) {
+        starts.increment();
+        startNanos.add(nanos);
+        maxStartNanos.accumulateAndGet(nanos, Math::max);
+        if (pushed) {
+            pushedStarts.increment();
+            savedNanos.add(saved);
+        }
+    }
+
+    void failed() {
+        failedStarts.increment();
+    }
+
+    /** Number of agents that started successfully. */
+    public long getStarts() {
+        return starts.sum();
+    }
+
+    /** Number of agents which start was detected right after agent reported about it. */
+    public long getPushedStarts() {
+        return pushedStarts.sum();
+    }
+
+    /** Number of agents which start was detected by regular ping. */
+    public long getPolledStarts() {
+        return getStarts() - getPushedStarts();
+    }
+
+    /** Number of agents that didn't start in time. */
+    public long getFailedStarts() {
+        return failedStarts.sum();
+    }
+
+    public long getAverageStartTimeMillis() {
+        final long count = getStarts();
+        return count == 0 ? 0 : NANOSECONDS.toMillis(startNanos.sum() / count);
+    }
+
+    public long getMaxStartTimeMillis() {
+        return NANOSECONDS.toMillis(maxStartNanos.get());
+    }
+
+    /** Time that would be spent waiting for the next regular ping if agents didn't report about start, in milliseconds. */
+    public long getSavedTimeMillis() {
+        return NANOSECONDS.toMillis(savedNanos.sum());
+    }
+
+    @Override
+    public String toString() {
+        return "WsAgentStartMetrics{" +
+               "starts=" + getStarts() +
+               ", pushedStarts=" + getPushedStarts() +
+               ", polledStarts=" + getPolledStarts() +
+               ", failedStarts=" + getFailedStarts() +
+               ", averageStartTimeMillis=" + getAverageStartTimeMillis() +
+               ", maxStartTimeMillis=" + getMaxStartTimeMillis() +
+               ", savedTimeMillis=" + getSavedTimeMillis() +
+               '}';
+    }
+}
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.server;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.model.machine.MachineStatus;
+import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
+import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
+import org.eclipse.che.api.machine.server.spi.Instance;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class MachineRegistryTest {
+
+    MachineRegistry registry;
+
+    @BeforeMethod
+    public void setUp() {
+        registry = new MachineRegistry();
+    }
+
+    @Test
+    public void machinesAreIndexedByWorkspace() throws Exception {
+        registry.addMachine(machine("machine1", "workspace1", true));
+        registry.addMachine(machine("machine2", "workspace1", false));
+        registry.addMachine(machine("machine3", "workspace2", true));
+
+        assertEquals(ids(registry.getMachines("workspace1")), asList("machine1", "machine2"));
+        assertEquals(ids(registry.getMachines("workspace2")), asList("machine3"));
+        assertTrue(registry.getMachines("workspace3").isEmpty());
+        assertEquals(ids(registry.getMachines()), asList("machine1", "machine2", "machine3"));
+    }
+
+    @Test(expectedExceptions = ConflictException.class)
+    public void shouldNotAddMachineWithTheSameId() throws Exception {
+        registry.addMachine(machine("machine1", "workspace1", true));
+        registry.addMachine(machine("machine1", "workspace2", true));
+    }
+
+    @Test
+    public void devMachineIsFoundWhenItIsRunning() throws Exception {
+        final MachineImpl devMachine = machine("machine1", "workspace1", true);
+        registry.addMachine(devMachine);
+        registry.addMachine(machine("machine2", "workspace1", false));
+        try {
+            registry.getDevMachine("workspace1");
+            fail("Dev machine is not running yet");
+        } catch (NotFoundException expected) {
+        }
+
+        final Instance instance = instance(devMachine);
+        registry.update(instance);
+
+        assertEquals(registry.getDevMachine("workspace1").getId(), "machine1");
+        assertEquals(registry.getInstance("machine1"), instance);
+        assertEquals(registry.getMachine("machine1").getStatus(), MachineStatus.RUNNING);
+        assertEquals(registry.getMachines("workspace1").size(), 2);
+    }
+
+    @Test
+    public void removedMachineIsRemovedFromWorkspaceIndex() throws Exception {
+        registry.addMachine(machine("machine1", "workspace1", true));
+        registry.addMachine(machine("machine2", "workspace1", false));
+
+        registry.remove("machine1");
+
+        assertFalse(registry.isExist("machine1"));
+        assertEquals(ids(registry.getMachines("workspace1")), asList("machine2"));
+    }
+
+    @Test(expectedExceptions = NotFoundException.class)
+    public void shouldThrowNotFoundExceptionWhenRemovingUnknownMachine() throws Exception {
+        registry.remove("machine1");
+    }
+
+    @Test
+    public void statusPollingSeesConsistentSnapshotsWhileMachinesAreStartedAndStopped() throws Exception {
+        final int workspaces = 100;
+        final MachineImpl[] machines = new MachineImpl[workspaces];
+        final Instance[] instances = new Instance[workspaces];
+        for (int i = 0; i < workspaces; i++) {
+            final MachineImpl devMachine = machine("dev" + i, "workspace" + i, true);
+            registry.addMachine(devMachine);
+            registry.update(instance(devMachine));
+            machines[i] = machine("db" + i, "workspace" + i, false);
+            instances[i] = instance(machines[i]);
+            registry.addMachine(machines[i]);
+        }
+        final AtomicBoolean stop = new AtomicBoolean();
+        final ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            final Future<?> writer = executor.submit(() -> {
+                for (int n = 0; !stop.get(); n++) {
+                    final int i = n % workspaces;
+                    registry.remove(machines[i].getId());
+                    registry.addMachine(machines[i]);
+                    registry.update(instances[i]);
+                }
+                return null;
+            });
+            final List<Future<?>> readers = asList(executor.submit(() -> poll(workspaces, stop)),
+                                                   executor.submit(() -> poll(workspaces, stop)),
+                                                   executor.submit(() -> poll(workspaces, stop)),
+                                                   executor.submit(() -> poll(workspaces, stop)));
+            TimeUnit.MILLISECONDS.sleep(500);
+            stop.set(true);
+            writer.get(10, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            stop.set(true);
+            executor.shutdownNow();
+        }
+        assertEquals(registry.getMachines().size(), workspaces * 2);
+    }
+
+    private Void poll(int workspaces, AtomicBoolean stop) throws Exception {
+        for (int n = 0; !stop.get(); n++) {
+            final String workspaceId = "workspace" + n % workspaces;
+            final List<MachineImpl> machines = registry.getMachines(workspaceId);
+            // machine is either not running or running, it is never missed or duplicated
+            assertTrue(machines.size() == 1 || machines.size() == 2, "Unexpected machines " + machines);
+            for (MachineImpl machine : machines) {
+                assertEquals(machine.getWorkspaceId(), workspaceId);
+            }
+            assertEquals(registry.getDevMachine(workspaceId).getId(), "dev" + n % workspaces);
+        }
+        return null;
+    }
+
+    private static MachineImpl machine(String id, String workspaceId, boolean isDev) {
+        return new MachineImpl(MachineConfigImpl.builder()
+                                                .setDev(isDev)
+                                                .setName(id)
+                                                .setType("docker")
+                                                .build(),
+                               id,
+                               workspaceId,
+                               "env",
+                               "owner",
+                               MachineStatus.CREATING,
+                               null);
+    }
+
+    private static Instance instance(MachineImpl machine) {
+        // stub only mock doesn't record invocations, it is polled by many threads
+        final Instance instance = mock(Instance.class, withSettings().stubOnly());
+        when(instance.getId()).thenReturn(machine.getId());
+        when(instance.getWorkspaceId()).thenReturn(machine.getWorkspaceId());
+        when(instance.getEnvName()).thenReturn(machine.getEnvName());
+        when(instance.getOwner()).thenReturn(machine.getOwner());
+        when(instance.getConfig()).thenReturn(machine.getConfig());
+        when(instance.getStatus()).thenReturn(MachineStatus.RUNNING);
+        return instance;
+    }
+
+    private static List<String> ids(List<MachineImpl> machines) {
+        return machines.stream().map(MachineImpl::getId).sorted().collect(Collectors.toList());
+    }
+}
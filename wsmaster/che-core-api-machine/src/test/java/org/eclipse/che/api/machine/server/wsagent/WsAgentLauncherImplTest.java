@@ -15,6 +15,7 @@ import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.Command;
 import org.eclipse.che.api.core.model.machine.Server;
+import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.rest.HttpJsonRequest;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.HttpJsonResponse;
@@ -25,9 +26,12 @@ import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineRuntimeInfoImpl;
 import org.eclipse.che.api.machine.server.model.impl.ServerImpl;
 import org.eclipse.che.api.machine.shared.Constants;
+import org.eclipse.che.api.machine.shared.dto.event.WsAgentStartedEvent;
 import org.eclipse.che.commons.test.SelfReturningAnswer;
+import org.eclipse.che.dto.server.DtoFactory;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
@@ -46,6 +50,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 @Listeners(MockitoTestNGListener.class)
 public class WsAgentLauncherImplTest {
@@ -76,18 +81,14 @@ public class WsAgentLauncherImplTest {
     @Mock
     private MachineRuntimeInfoImpl machineRuntime;
 
+    private EventService        eventService;
     private HttpJsonRequest     pingRequest;
     private WsAgentLauncherImpl wsAgentLauncher;
 
     @BeforeMethod
     public void setUp() throws Exception {
-        wsAgentLauncher = new WsAgentLauncherImpl(() -> machineManager,
-                                                  requestFactory,
-                                                  WS_AGENT_START_CMD_LINE,
-                                                  WS_AGENT_MAX_START_TIME_MS,
-                                                  WS_AGENT_PING_DELAY_MS,
-                                                  WS_AGENT_PING_CONN_TIMEOUT_MS,
-                                                  WS_AGENT_TIMED_OUT_MESSAGE);
+        eventService = new EventService();
+        wsAgentLauncher = createLauncher(WS_AGENT_PING_DELAY_MS);
         pingRequest = mock(HttpJsonRequest.class, new SelfReturningAnswer());
         when(machineManager.getDevMachine(WS_ID)).thenReturn(machine);
         when(machine.getId()).thenReturn(MACHINE_ID);
@@ -98,6 +99,11 @@ public class WsAgentLauncherImplTest {
         when(pingResponse.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
     }
 
+    @AfterMethod
+    public void tearDown() throws Exception {
+        wsAgentLauncher.shutdown();
+    }
+
     @Test
     public void shouldStartWsAgentUsingMachineExec() throws Exception {
         wsAgentLauncher.startWsAgent(WS_ID);
@@ -165,6 +171,37 @@ public class WsAgentLauncherImplTest {
         verify(pingResponse).getResponseCode();
     }
 
+    @Test
+    public void shouldPingWsAgentRightAfterWsAgentReportsItsStart() throws Exception {
+        wsAgentLauncher.shutdown();
+        // regular ping is not performed before the start timeout
+        wsAgentLauncher = createLauncher(WS_AGENT_MAX_START_TIME_MS * 60);
+        when(pingRequest.request()).thenAnswer(invocation -> {
+            eventService.publish(DtoFactory.newDto(WsAgentStartedEvent.class).withWorkspaceId(WS_ID));
+            throw new ServerException("");
+        }).thenReturn(pingResponse);
+
+        wsAgentLauncher.startWsAgent(WS_ID);
+
+        verify(pingRequest, times(2)).request();
+        assertEquals(wsAgentLauncher.getStartMetrics().getStarts(), 1);
+        assertEquals(wsAgentLauncher.getStartMetrics().getPushedStarts(), 1);
+    }
+
+    @Test
+    public void shouldIgnoreStartEventOfOtherWorkspace() throws Exception {
+        when(pingRequest.request()).thenAnswer(invocation -> {
+            eventService.publish(DtoFactory.newDto(WsAgentStartedEvent.class).withWorkspaceId("otherWsId"));
+            throw new ServerException("");
+        }).thenReturn(pingResponse);
+
+        wsAgentLauncher.startWsAgent(WS_ID);
+
+        verify(pingRequest, times(2)).request();
+        assertEquals(wsAgentLauncher.getStartMetrics().getPushedStarts(), 0);
+        assertEquals(wsAgentLauncher.getStartMetrics().getPolledStarts(), 1);
+    }
+
     @Test(expectedExceptions = NotFoundException.class, expectedExceptionsMessageRegExp = "Test exception")
     public void shouldThrowNotFoundExceptionIfMachineManagerGetDevMachineForWsThrowsNotFoundException() throws Exception {
         final String notExistingWsId = "notExistingWsId";
@@ -227,4 +264,17 @@ public class WsAgentLauncherImplTest {
 
         wsAgentLauncher.startWsAgent(WS_ID);
     }
+
+    private WsAgentLauncherImpl createLauncher(long pingDelayMs) {
+        final WsAgentLauncherImpl launcher = new WsAgentLauncherImpl(() -> machineManager,
+                                                                     requestFactory,
+                                                                     eventService,
+                                                                     WS_AGENT_START_CMD_LINE,
+                                                                     WS_AGENT_MAX_START_TIME_MS,
+                                                                     pingDelayMs,
+                                                                     WS_AGENT_PING_CONN_TIMEOUT_MS,
+                                                                     WS_AGENT_TIMED_OUT_MESSAGE);
+        launcher.subscribe();
+        return launcher;
+    }
 }
@@ -45,5 +45,11 @@ public final class Constants {
 
     public static final String LINK_REL_GET_WORKSPACE_EVENTS_CHANNEL = "get workspace events channel";
 
+    /**
+     * Environment variable of machine config which holds comma separated names of machines of the same environment
+     * that must be started before the machine.
+     */
+    public static final String MACHINE_DEPENDENCIES_VARIABLE = "CHE_MACHINE_DEPENDS_ON";
+
     private Constants() {}
 }
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.workspace.server;
+
+import com.google.common.base.Splitter;
+
+import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.eclipse.che.api.workspace.shared.Constants.MACHINE_DEPENDENCIES_VARIABLE;
+
+/**
+ * Order of start of machines of an environment.
+ *
+ * <p>Machine may declare machines it depends on with {@code CHE_MACHINE_DEPENDS_ON} environment variable, names of
+ * machines which are not in this order are ignored. Machine is ready to start when all machines it depends on are started.
+ * Machines which depend, directly or not, on machine that failed to start are never ready, neither are machines with
+ * circular dependencies, see {@link #pollRemaining()}.
+ *
+ * <p>The instance isn't thread-safe.
+ */
+class MachineStartOrder {
+    private static final Splitter NAMES_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+    private final Map<String, MachineConfigImpl> waiting;
+    private final Map<String, Set<String>>       dependencies;
+    private final Map<String, Set<String>>       dependents;
+    private final Deque<MachineConfigImpl>       ready;
+
+    MachineStartOrder(List<MachineConfigImpl> configs) {
+        waiting = new LinkedHashMap<>();
+        dependencies = new HashMap<>();
+        dependents = new HashMap<>();
+        ready = new ArrayDeque<>();
+        for (MachineConfigImpl config : configs) {
+            waiting.put(config.getName(), config);
+        }
+        for (MachineConfigImpl config : configs) {
+            final Set<String> names = new HashSet<>();
+            final String declared = config.getEnvVariables().get(MACHINE_DEPENDENCIES_VARIABLE);
+            if (declared != null) {
+                for (String name : NAMES_SPLITTER.split(declared)) {
+                    if (waiting.containsKey(name) && !name.equals(config.getName())) {
+                        names.add(name);
+                        dependents.computeIfAbsent(name, n -> new HashSet<>()).add(config.getName());
+                    }
+                }
+            }
+            dependencies.put(config.getName(), names);
+        }
+        for (MachineConfigImpl config : configs) {
+            if (dependencies.get(config.getName()).isEmpty()) {
+                ready.add(waiting.remove(config.getName()));
+            }
+        }
+    }
+
+    /** Returns the next machine which is ready to start or {@code null} if there is no such machine at the moment. */
+    MachineConfigImpl pollReady() {
+        return ready.poll();
+    }
+
+    /** Marks machine as started, machines that wait for it may become ready. */
+    void started(MachineConfigImpl config) {
+        for (String dependent : dependents.getOrDefault(config.getName(), Collections.emptySet())) {
+            final Set<String> names = dependencies.get(dependent);
+            names.remove(config.getName());
+            if (names.isEmpty() && waiting.containsKey(dependent)) {
+                ready.add(waiting.remove(dependent));
+            }
+        }
+    }
+
+    /**
+     * Marks machine as failed to start.
+     *
+     * @return machines that won't be started because they depend on the failed machine
+     */
+    List<MachineConfigImpl> failed(MachineConfigImpl config) {
+        final List<MachineConfigImpl> skipped = new ArrayList<>();
+        final Deque<String> failed = new ArrayDeque<>();
+        failed.add(config.getName());
+        while (!failed.isEmpty()) {
+            for (String dependent : dependents.getOrDefault(failed.poll(), Collections.emptySet())) {
+                final MachineConfigImpl skippedConfig = waiting.remove(dependent);
+                if (skippedConfig != null) {
+                    skipped.add(skippedConfig);
+                    failed.add(dependent);
+                }
+            }
+        }
+        return skipped;
+    }
+
+    /** Removes and returns machines that are neither ready nor skipped, e.g. machines with circular dependencies. */
+    List<MachineConfigImpl> pollRemaining() {
+        final List<MachineConfigImpl> remaining = new ArrayList<>(waiting.values());
+        waiting.clear();
+        return remaining;
+    }
+}
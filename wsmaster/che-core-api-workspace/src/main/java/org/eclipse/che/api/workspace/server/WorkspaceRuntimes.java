@@ -12,6 +12,9 @@ package org.eclipse.che.api.workspace.server;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.Striped;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.inject.Inject;
 
 import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.ConflictException;
@@ -25,9 +28,8 @@ import org.eclipse.che.api.core.model.workspace.WorkspaceRuntime;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.notification.EventSubscriber;
-import org.eclipse.che.api.core.util.AbstractLineConsumer;
+import org.eclipse.che.api.core.util.BatchingWebsocketLineConsumer;
 import org.eclipse.che.api.core.util.LineConsumer;
-import org.eclipse.che.api.core.util.WebsocketMessageConsumer;
 import org.eclipse.che.api.machine.server.MachineManager;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
@@ -39,26 +41,34 @@ import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceRuntimeImpl;
 import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent;
 import org.eclipse.che.api.workspace.shared.dto.event.WorkspaceStatusEvent.EventType;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
-import java.io.IOException;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.function.Predicate;
 
 import static java.lang.String.format;
 import static org.eclipse.che.api.machine.shared.Constants.ENVIRONMENT_OUTPUT_CHANNEL_TEMPLATE;
+import static org.eclipse.che.api.workspace.shared.Constants.MACHINE_DEPENDENCIES_VARIABLE;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
 
 /**
@@ -87,6 +97,10 @@ public class WorkspaceRuntimes {
     private static final Logger                 LOG     = LoggerFactory.getLogger(WorkspaceRuntimes.class);
     // 16 - experimental value for stripes count, it comes from default hash map size
     private static final Striped<ReadWriteLock> STRIPED = Striped.readWriteLock(16);
+    private static final Gson                   GSON    = new GsonBuilder().disableHtmlEscaping().create();
+
+    /** Default number of machines of an environment which are started at the same time. */
+    public static final int DEFAULT_MACHINE_START_PARALLELISM = 4;
 
     @VisibleForTesting
     final Map<String, RuntimeDescriptor>        descriptors;
@@ -99,6 +113,7 @@ public class WorkspaceRuntimes {
     private final EventSubscriber<MachineStatusEvent> removeMachineEventSubscriber;
 
     private volatile boolean isPreDestroyInvoked;
+    private          int     machineStartParallelism = DEFAULT_MACHINE_START_PARALLELISM;
 
     @Inject
     public WorkspaceRuntimes(MachineManager machineManager, EventService eventService) {
@@ -110,6 +125,18 @@ public class WorkspaceRuntimes {
         this.removeMachineEventSubscriber = new RemoveMachineEventSubscriber();
     }
 
+    /**
+     * Sets the number of non-dev machines of an environment which are started at the same time,
+     * machines are started one after another if {@code parallelism} is {@code 1}.
+     */
+    @Inject(optional = true)
+    public void setMachineStartParallelism(@Named("workspace.runtime.machine_start_parallelism") int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Machine start parallelism must be positive: " + parallelism);
+        }
+        this.machineStartParallelism = parallelism;
+    }
+
     /**
      * Returns the runtime descriptor describing currently starting/running/stopping
      * workspace runtime.
@@ -147,6 +174,10 @@ public class WorkspaceRuntimes {
      * If dev-machine start failed then method will throw appropriate
      * {@link ServerException}. During the start of the workspace its
      * runtime is visible with {@link WorkspaceStatus#STARTING} status.
+     * The other machines are started concurrently, a machine is started
+     * after the machines it declares in the
+     * {@link org.eclipse.che.api.workspace.shared.Constants#MACHINE_DEPENDENCIES_VARIABLE}
+     * environment variable.
      *
      * <p>If {@link #stop} method executed after dev machine is started but
      * another machines haven't been started yet then {@link ConflictException}
@@ -449,79 +480,37 @@ public class WorkspaceRuntimes {
                                                     ConflictException {
         publishEvent(EventType.STARTING, workspaceId, null);
 
-        // Starting all the machines one by one by getting configs
-        // from the corresponding starting queue.
-        // Config will be null only if there are no machines left in the queue
-        MachineConfigImpl config = queuePeekOrFail(workspaceId);
-        while (config != null) {
-
-            // According to WorkspaceStatus specification the workspace start
-            // is failed when dev-machine start is failed, so if any error
-            // occurs during machine creation and the machine is dev-machine
-            // then start fail is reported and start resources such as queue
-            // and descriptor must be cleaned up
-            MachineImpl machine = null;
-            try {
-                machine = startMachine(config, workspaceId, envName, recover);
-            } catch (RuntimeException | ServerException | ConflictException | NotFoundException x) {
-                if (config.isDev()) {
-                    publishEvent(EventType.ERROR, workspaceId, x.getLocalizedMessage());
-                    cleanupStartResources(workspaceId);
-                    throw x;
-                }
-                LOG.error(format("Error while creating non-dev machine '%s' in workspace '%s', environment '%s'",
-                                 config.getName(),
-                                 workspaceId,
-                                 envName),
-                          x);
-            }
-
-            // Machine destroying is an expensive operation which must be
-            // performed outside of the lock, this section checks if
-            // the workspace wasn't stopped while it is starting and sets
-            // polled flag to true if the workspace wasn't stopped plus
-            // polls the proceeded machine configuration from the queue
-            boolean queuePolled = false;
-            acquireWriteLock(workspaceId);
-            try {
-                ensurePreDestroyIsNotExecuted();
-                final Queue<MachineConfigImpl> queue = startQueues.get(workspaceId);
-                if (queue != null) {
-                    queue.poll();
-                    queuePolled = true;
-                    if (machine != null) {
-                        final RuntimeDescriptor descriptor = descriptors.get(workspaceId);
-                        if (config.isDev()) {
-                            descriptor.getRuntime().setDevMachine(machine);
-                            descriptor.setRuntimeStatus(WorkspaceStatus.RUNNING);
-                        }
-                        descriptor.getRuntime().getMachines().add(machine);
-                    }
-                }
-            } finally {
-                releaseWriteLock(workspaceId);
-            }
-
-            // Event publication should be performed outside of the lock
-            // as it may take some time to notify subscribers
-            if (machine != null && config.isDev()) {
-                publishEvent(EventType.RUNNING, workspaceId, null);
-            }
+        // Dev-machine is the head of the queue and it is started before
+        // the other machines, which means that the other machines may rely on it.
+        // According to WorkspaceStatus specification the workspace start
+        // is failed when dev-machine start is failed, so if any error
+        // occurs during machine creation then start fail is reported
+        // and start resources such as queue and descriptor must be cleaned up
+        final MachineConfigImpl devConfig = queuePeekOrFail(workspaceId);
+        final MachineImpl devMachine;
+        try {
+            devMachine = startMachine(devConfig, workspaceId, envName, recover);
+        } catch (RuntimeException | ServerException | ConflictException | NotFoundException x) {
+            publishEvent(EventType.ERROR, workspaceId, x.getLocalizedMessage());
+            cleanupStartResources(workspaceId);
+            throw x;
+        }
+        final boolean devConfigPolled = completeMachineStart(workspaceId, devConfig, devMachine);
 
-            // If machine config is not polled from the queue
-            // then workspace was stopped and newly created machine
-            // must be destroyed(if such exists)
-            if (!queuePolled) {
-                if (machine != null) {
-                    machineManager.destroy(machine.getId(), false);
-                }
-                throw new ConflictException(format("Workspace '%s' start interrupted. Workspace stopped before all its machines started",
-                                                   workspaceId));
+        // Event publication should be performed outside of the lock
+        // as it may take some time to notify subscribers
+        if (devMachine != null && devConfigPolled) {
+            publishEvent(EventType.RUNNING, workspaceId, null);
+        }
+        if (!devConfigPolled) {
+            if (devMachine != null) {
+                machineManager.destroy(devMachine.getId(), false);
             }
-
-            config = queuePeekOrFail(workspaceId);
+            throw startInterrupted(workspaceId);
         }
 
+        startNonDevMachines(workspaceId, envName, recover);
+
         // All the machines tried to start which means that queue
         // should be empty and can be normally removed, but in the case of
         // some unlucky timing, the workspace may be stopped and started again
@@ -541,6 +530,204 @@ public class WorkspaceRuntimes {
         }
     }
 
+    /**
+     * Starts the machines which are left in the queue after dev-machine is started.
+     *
+     * <p>Machines are started concurrently on the executor of {@link MachineManager}, at most
+     * {@link #setMachineStartParallelism(int) parallelism} machines at the same time, in order defined by
+     * {@link MachineStartOrder}. Failed machine doesn't fail the workspace start, but machines which depend
+     * on it are not started. If the workspace is stopped meanwhile, machines which are not started yet
+     * are not started at all, this method waits for the machines which are currently starting, destroys them
+     * and reports the interruption.
+     */
+    private void startNonDevMachines(String workspaceId,
+                                     String envName,
+                                     boolean recover) throws ServerException,
+                                                             NotFoundException,
+                                                             ConflictException {
+        final MachineStartOrder order = new MachineStartOrder(queueCopyOrFail(workspaceId));
+        final CompletionService<MachineStartResult> completion = new ExecutorCompletionService<>(getMachineStartExecutor(workspaceId));
+        int starting = 0;
+        boolean interrupted = false;
+        Exception error = null;
+        while (true) {
+            MachineConfigImpl config;
+            while (!interrupted && error == null && starting < machineStartParallelism && (config = order.pollReady()) != null) {
+                final MachineConfigImpl startConfig = config;
+                final Callable<MachineStartResult> task = () -> startNonDevMachine(startConfig, workspaceId, envName, recover);
+                completion.submit(ThreadLocalPropagateContext.wrap(task));
+                starting++;
+            }
+            if (starting == 0) {
+                break;
+            }
+
+            final MachineStartResult result;
+            try {
+                result = completion.take().get();
+            } catch (InterruptedException x) {
+                Thread.currentThread().interrupt();
+                throw new ServerException(format("Interrupted while starting machines of workspace '%s'", workspaceId), x);
+            } catch (ExecutionException x) {
+                starting--;
+                if (error == null) {
+                    error = x.getCause() instanceof Exception ? (Exception)x.getCause() : new ServerException(x.getCause());
+                }
+                continue;
+            }
+            starting--;
+
+            if (!result.polled) {
+                interrupted = true;
+            } else if (result.machine != null) {
+                order.started(result.config);
+            } else {
+                for (MachineConfigImpl skipped : order.failed(result.config)) {
+                    LOG.error("Machine '{}' of workspace '{}' is not started because machine '{}' it depends on failed to start",
+                              skipped.getName(),
+                              workspaceId,
+                              result.config.getName());
+                    if (!interrupted && error == null) {
+                        try {
+                            interrupted = !completeMachineStart(workspaceId, skipped, null);
+                        } catch (ServerException x) {
+                            error = x;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (error == null && !interrupted) {
+            for (MachineConfigImpl unresolved : order.pollRemaining()) {
+                LOG.error("Machine '{}' of workspace '{}' is not started because of circular dependencies between machines",
+                          unresolved.getName(),
+                          workspaceId);
+                if (!completeMachineStart(workspaceId, unresolved, null)) {
+                    throw startInterrupted(workspaceId);
+                }
+            }
+        }
+
+        if (error instanceof ServerException) {
+            throw (ServerException)error;
+        }
+        if (error instanceof NotFoundException) {
+            throw (NotFoundException)error;
+        }
+        if (error instanceof ConflictException) {
+            throw (ConflictException)error;
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException)error;
+        }
+        if (error != null) {
+            throw new ServerException(error.getLocalizedMessage(), error);
+        }
+        if (interrupted) {
+            throw startInterrupted(workspaceId);
+        }
+    }
+
+    /**
+     * Starts non-dev machine, failure of the machine start is logged and reported with {@code null} machine in the result.
+     * If the workspace is stopped before or while the machine is starting, the machine isn't started or is destroyed.
+     */
+    private MachineStartResult startNonDevMachine(MachineConfigImpl config,
+                                                  String workspaceId,
+                                                  String envName,
+                                                  boolean recover) throws ServerException,
+                                                                          NotFoundException {
+        try {
+            queuePeekOrFail(workspaceId);
+        } catch (ConflictException x) {
+            return new MachineStartResult(config, null, false);
+        }
+
+        MachineImpl machine = null;
+        try {
+            machine = startMachine(config, workspaceId, envName, recover);
+        } catch (RuntimeException | ServerException | ConflictException | NotFoundException x) {
+            LOG.error(format("Error while creating non-dev machine '%s' in workspace '%s', environment '%s'",
+                             config.getName(),
+                             workspaceId,
+                             envName),
+                      x);
+        }
+
+        // If machine config is not polled from the queue
+        // then workspace was stopped and newly created machine
+        // must be destroyed(if such exists)
+        final boolean polled = completeMachineStart(workspaceId, config, machine);
+        if (!polled && machine != null) {
+            machineManager.destroy(machine.getId(), false);
+        }
+        return new MachineStartResult(config, machine, polled);
+    }
+
+    /**
+     * Removes the machine config from the start queue and adds the started machine to the workspace runtime.
+     *
+     * <p>Machine destroying is an expensive operation which must be performed outside of the lock,
+     * so this method only checks if the workspace wasn't stopped while the machine was starting.
+     *
+     * @param machine
+     *         started machine or {@code null} if machine start failed
+     * @return true if config is polled from the queue, false if workspace was stopped and machine must be destroyed
+     * @throws ServerException
+     *         only if pre destroy has been invoked
+     */
+    private boolean completeMachineStart(String workspaceId,
+                                         MachineConfigImpl config,
+                                         MachineImpl machine) throws ServerException {
+        acquireWriteLock(workspaceId);
+        try {
+            ensurePreDestroyIsNotExecuted();
+            final Queue<MachineConfigImpl> queue = startQueues.get(workspaceId);
+            // the queue may be recreated by stop and start of the workspace, so configs are compared by identity
+            if (queue == null || !queue.removeIf(queued -> queued == config)) {
+                return false;
+            }
+            if (machine != null) {
+                final RuntimeDescriptor descriptor = descriptors.get(workspaceId);
+                if (config.isDev()) {
+                    descriptor.getRuntime().setDevMachine(machine);
+                    descriptor.setRuntimeStatus(WorkspaceStatus.RUNNING);
+                }
+                descriptor.getRuntime().getMachines().add(machine);
+            }
+            return true;
+        } finally {
+            releaseWriteLock(workspaceId);
+        }
+    }
+
+    /** Returns executor which starts machines, machines are started in the calling thread if parallel start is disabled. */
+    private Executor getMachineStartExecutor(String workspaceId) {
+        if (machineStartParallelism == 1) {
+            return Runnable::run;
+        }
+        final Executor executor = machineManager.getExecutor();
+        if (executor == null) {
+            LOG.warn("Machine manager doesn't provide executor, machines of workspace '{}' are started one after another " +
+                     "although start parallelism is {}", workspaceId, machineStartParallelism);
+            return Runnable::run;
+        }
+        return task -> {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException x) {
+                // machine manager is stopping, start will fail in the calling thread
+                task.run();
+            }
+        };
+    }
+
+    private static ConflictException startInterrupted(String workspaceId) {
+        return new ConflictException(format("Workspace '%s' start interrupted. Workspace stopped before all its machines started",
+                                            workspaceId));
+    }
+
     /**
      * Gets head config from the queue associated with the given {@code workspaceId}.
      *
@@ -572,6 +759,31 @@ public class WorkspaceRuntimes {
         }
     }
 
+    /**
+     * Returns copy of the queue associated with the given {@code workspaceId}.
+     *
+     * @throws ConflictException
+     *         when queue doesn't exist which means that {@link #stop(String)} executed
+     *         before all the machines started
+     * @throws ServerException
+     *         only if pre destroy has been invoked before queue is copied
+     */
+    private List<MachineConfigImpl> queueCopyOrFail(String workspaceId) throws ConflictException, ServerException {
+        acquireReadLock(workspaceId);
+        try {
+            ensurePreDestroyIsNotExecuted();
+            final Queue<MachineConfigImpl> queue = startQueues.get(workspaceId);
+            if (queue == null) {
+                throw new ConflictException(
+                        format("Workspace '%s' start interrupted. Workspace was stopped before all its machines were started",
+                               workspaceId));
+            }
+            return new ArrayList<>(queue);
+        } finally {
+            releaseReadLock(workspaceId);
+        }
+    }
+
     /**
      * Starts the machine from the configuration, returns null if machine start failed.
      */
@@ -583,13 +795,14 @@ public class WorkspaceRuntimes {
                                                              ConflictException {
 
         LineConsumer machineLogger = getMachineLogger(workspaceId, config.getName());
+        final MachineConfigImpl machineConfig = withoutStartDependencies(config);
 
         MachineImpl machine;
         try {
             if (recover) {
-                machine = machineManager.recoverMachine(config, workspaceId, envName, machineLogger);
+                machine = machineManager.recoverMachine(machineConfig, workspaceId, envName, machineLogger);
             } else {
-                machine = machineManager.createMachineSync(config, workspaceId, envName, machineLogger);
+                machine = machineManager.createMachineSync(machineConfig, workspaceId, envName, machineLogger);
             }
         } catch (ConflictException x) {
             // The conflict is because of the already running machine
@@ -606,11 +819,10 @@ public class WorkspaceRuntimes {
             // and considers that the machine is started correctly, if it is impossible
             // to find the corresponding machine then the fail will be reported
             // and workspace runtime state will be changed according to the machine config context.
-            final Optional<MachineImpl> machineOpt = machineManager.getMachines()
+            final Optional<MachineImpl> machineOpt = machineManager.getMachines(workspaceId)
                                                                    .stream()
-                                                                   .filter(m -> m.getWorkspaceId().equals(workspaceId)
-                                                                                && m.getEnvName().equals(envName)
-                                                                                && m.getConfig().equals(config))
+                                                                   .filter(m -> m.getEnvName().equals(envName)
+                                                                                && m.getConfig().equals(machineConfig))
                                                                    .findAny();
             if (machineOpt.isPresent() && machineOpt.get().getStatus() == MachineStatus.RUNNING) {
                 machine = machineOpt.get();
@@ -624,17 +836,48 @@ public class WorkspaceRuntimes {
         return machine;
     }
 
+    /**
+     * Returns copy of {@code config} without {@link org.eclipse.che.api.workspace.shared.Constants#MACHINE_DEPENDENCIES_VARIABLE},
+     * the variable only defines order of start of machines and must not get into the machine environment.
+     */
+    private static MachineConfigImpl withoutStartDependencies(MachineConfigImpl config) {
+        if (config.getEnvVariables() == null || !config.getEnvVariables().containsKey(MACHINE_DEPENDENCIES_VARIABLE)) {
+            return config;
+        }
+        final Map<String, String> envVariables = new HashMap<>(config.getEnvVariables());
+        envVariables.remove(MACHINE_DEPENDENCIES_VARIABLE);
+        return MachineConfigImpl.builder()
+                                .fromConfig(config)
+                                .setEnvVariables(envVariables)
+                                .build();
+    }
+
+    /**
+     * Returns consumer that sends machine output to the environment output channel. Lines are batched, each websocket message
+     * holds one {@link MachineLogMessage} with all lines of batch.
+     */
     protected LineConsumer getMachineLogger(String workspaceId, String machineName) throws ServerException {
-        WebsocketMessageConsumer<MachineLogMessage> envMessageConsumer =
-                new WebsocketMessageConsumer<>(format(ENVIRONMENT_OUTPUT_CHANNEL_TEMPLATE, workspaceId));
-        return new AbstractLineConsumer() {
+        return new BatchingWebsocketLineConsumer(format(ENVIRONMENT_OUTPUT_CHANNEL_TEMPLATE, workspaceId)) {
             @Override
-            public void writeLine(String line) throws IOException {
-                envMessageConsumer.consume(new MachineLogMessageImpl(machineName, line));
+            protected String encodeFrame(List<String> lines) {
+                return GSON.toJson(new MachineLogMessageImpl(machineName, String.join("\n", lines)));
             }
         };
     }
 
+    /** Result of start of non-dev machine. */
+    private static class MachineStartResult {
+        final MachineConfigImpl config;
+        final MachineImpl       machine;
+        final boolean           polled;
+
+        MachineStartResult(MachineConfigImpl config, MachineImpl machine, boolean polled) {
+            this.config = config;
+            this.machine = machine;
+            this.polled = polled;
+        }
+    }
+
     /**
      * Wrapper for the {@link WorkspaceRuntime} instance.
      * Knows the state of the started workspace runtime,
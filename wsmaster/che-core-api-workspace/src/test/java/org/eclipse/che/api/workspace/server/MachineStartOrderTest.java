@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.workspace.server;
+
+import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
+import static org.eclipse.che.api.workspace.shared.Constants.MACHINE_DEPENDENCIES_VARIABLE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class MachineStartOrderTest {
+
+    @Test
+    public void machinesWithoutDependenciesAreReadyInOrderTheyAreDeclared() {
+        final MachineStartOrder order = new MachineStartOrder(asList(config("db"), config("cache"), config("web", "unknown")));
+
+        assertEquals(names(pollAllReady(order)), asList("db", "cache", "web"));
+    }
+
+    @Test
+    public void machineIsReadyWhenAllItsDependenciesAreStarted() {
+        final MachineConfigImpl db = config("db");
+        final MachineConfigImpl cache = config("cache");
+        final MachineConfigImpl web = config("web", "db, cache");
+        final MachineStartOrder order = new MachineStartOrder(asList(web, db, cache));
+
+        assertEquals(names(pollAllReady(order)), asList("db", "cache"));
+        order.started(db);
+        assertNull(order.pollReady());
+        order.started(cache);
+        assertEquals(names(pollAllReady(order)), singletonList("web"));
+        assertEquals(order.pollRemaining(), emptyList());
+    }
+
+    @Test
+    public void machinesWhichDependOnFailedMachineAreSkipped() {
+        final MachineConfigImpl db = config("db");
+        final MachineConfigImpl app = config("app", "db");
+        final MachineConfigImpl web = config("web", "app");
+        final MachineStartOrder order = new MachineStartOrder(asList(db, app, web, config("cache")));
+
+        assertEquals(names(pollAllReady(order)), asList("db", "cache"));
+        assertEquals(names(order.failed(db)), asList("app", "web"));
+        assertNull(order.pollReady());
+        assertEquals(order.pollRemaining(), emptyList());
+    }
+
+    @Test
+    public void machinesWithCircularDependenciesAreNeverReady() {
+        final MachineStartOrder order = new MachineStartOrder(asList(config("a", "b"), config("b", "a"), config("c")));
+
+        assertEquals(names(pollAllReady(order)), singletonList("c"));
+        assertEquals(names(order.pollRemaining()), asList("a", "b"));
+    }
+
+    private static MachineConfigImpl config(String name, String dependencies) {
+        return MachineConfigImpl.builder()
+                                .setName(name)
+                                .setDev(false)
+                                .setType("docker")
+                                .setEnvVariables(singletonMap(MACHINE_DEPENDENCIES_VARIABLE, dependencies))
+                                .build();
+    }
+
+    private static MachineConfigImpl config(String name) {
+        return MachineConfigImpl.builder()
+                                .setName(name)
+                                .setDev(false)
+                                .setType("docker")
+                                .setEnvVariables(emptyMap())
+                                .build();
+    }
+
+    private static List<MachineConfigImpl> pollAllReady(MachineStartOrder order) {
+        final List<MachineConfigImpl> ready = new ArrayList<>();
+        for (MachineConfigImpl config = order.pollReady(); config != null; config = order.pollReady()) {
+            ready.add(config);
+        }
+        return ready;
+    }
+
+    private static List<String> names(List<MachineConfigImpl> configs) {
+        return configs.stream().map(MachineConfigImpl::getName).collect(toList());
+    }
+}
@@ -43,13 +43,24 @@ import org.testng.annotations.Test;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toSet;
 import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.RUNNING;
 import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STARTING;
 import static org.eclipse.che.api.core.model.workspace.WorkspaceStatus.STOPPING;
+import static org.eclipse.che.api.workspace.shared.Constants.MACHINE_DEPENDENCIES_VARIABLE;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyObject;
@@ -69,6 +80,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 /**
  * @author Yevhenii Voevodin
@@ -237,6 +249,187 @@ public class WorkspaceRuntimesTest {
         verify(machineManager, times(2)).createMachineSync(any(), any(), any(), any(LineConsumer.class));
     }
 
+    @Test
+    public void startShouldSkipMachineWhichDependsOnFailedToStartMachine() throws Exception {
+        final WorkspaceImpl workspace = createWorkspace();
+        workspace.getConfig()
+                 .getEnvironments()
+                 .get(0)
+                 .getMachineConfigs()
+                 .add(MachineConfigImpl.builder()
+                                       .fromConfig(createConfig(false))
+                                       .setName("dependent")
+                                       .setEnvVariables(singletonMap(MACHINE_DEPENDENCIES_VARIABLE, "non-dev"))
+                                       .build());
+
+        doAnswer(invocation -> {
+            final MachineConfig machineCfg = (MachineConfig)invocation.getArguments()[0];
+            if (machineCfg.getName().equals("non-dev")) {
+                throw new MachineException("Failed to start");
+            }
+            return createMachine((MachineConfig)invocation.getArguments()[0]);
+        }).when(machineManager).createMachineSync(any(), anyString(), anyString(), any(LineConsumer.class));
+
+        runtimes.start(workspace, workspace.getConfig().getDefaultEnv());
+
+        final RuntimeDescriptor descriptor = runtimes.get(workspace.getId());
+        assertEquals(descriptor.getRuntime().getMachines().size(), 1);
+        assertEquals(descriptor.getRuntimeStatus(), RUNNING);
+        assertFalse(runtimes.startQueues.containsKey(workspace.getId()));
+        verify(machineManager, times(2)).createMachineSync(any(), any(), any(), any(LineConsumer.class));
+    }
+
+    @Test
+    public void shouldStartMachinesConcurrentlyAfterMachinesTheyDependOn() throws Exception {
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        when(machineManager.getExecutor()).thenReturn(executor);
+        final WorkspaceImpl workspace = createWorkspace();
+        workspace.getConfig()
+                 .getEnvironments()
+                 .get(0)
+                 .getMachineConfigs()
+                 .addAll(asList(createNonDevConfig("a", null),
+                                createNonDevConfig("b", "a"),
+                                createNonDevConfig("c", "b"),
+                                createNonDevConfig("d", null)));
+        // 'a' and 'd' don't depend on anything, so they are started at the same time
+        final CountDownLatch independentStarted = new CountDownLatch(2);
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            final MachineConfig machineCfg = (MachineConfig)invocation.getArguments()[0];
+            events.add("start " + machineCfg.getName());
+            if (asList("a", "d").contains(machineCfg.getName())) {
+                independentStarted.countDown();
+                if (!independentStarted.await(5, TimeUnit.SECONDS)) {
+                    throw new MachineException("Machines 'a' and 'd' are not started concurrently");
+                }
+            }
+            events.add("created " + machineCfg.getName());
+            return createMachine(machineCfg);
+        }).when(machineManager).createMachineSync(any(), anyString(), anyString(), any(LineConsumer.class));
+
+        try {
+            runtimes.start(workspace, workspace.getConfig().getDefaultEnv());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final RuntimeDescriptor descriptor = runtimes.get(workspace.getId());
+        assertEquals(descriptor.getRuntime().getMachines().size(), 6);
+        assertEquals(descriptor.getRuntimeStatus(), RUNNING);
+        assertTrue(events.indexOf("created a") < events.indexOf("start b"), events.toString());
+        assertTrue(events.indexOf("created b") < events.indexOf("start c"), events.toString());
+    }
+
+    @Test
+    public void shouldNotStartDependentsOfFailedMachineWhenMachinesAreStartedConcurrently() throws Exception {
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        when(machineManager.getExecutor()).thenReturn(executor);
+        final WorkspaceImpl workspace = createWorkspace();
+        workspace.getConfig()
+                 .getEnvironments()
+                 .get(0)
+                 .getMachineConfigs()
+                 .addAll(asList(createNonDevConfig("a", null),
+                                createNonDevConfig("b", "a"),
+                                createNonDevConfig("c", "b"),
+                                createNonDevConfig("d", null)));
+        final List<String> started = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            final MachineConfig machineCfg = (MachineConfig)invocation.getArguments()[0];
+            started.add(machineCfg.getName());
+            if (machineCfg.getName().equals("a")) {
+                throw new MachineException("Failed to start");
+            }
+            return createMachine(machineCfg);
+        }).when(machineManager).createMachineSync(any(), anyString(), anyString(), any(LineConsumer.class));
+
+        try {
+            runtimes.start(workspace, workspace.getConfig().getDefaultEnv());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final RuntimeDescriptor descriptor = runtimes.get(workspace.getId());
+        assertEquals(descriptor.getRuntimeStatus(), RUNNING);
+        assertEquals(descriptor.getRuntime()
+                               .getMachines()
+                               .stream()
+                               .map(machine -> machine.getConfig().getName())
+                               .collect(toSet()),
+                     new HashSet<>(asList("dev-machine", "non-dev", "d")));
+        assertFalse(started.contains("b"));
+        assertFalse(started.contains("c"));
+        assertFalse(runtimes.startQueues.containsKey(workspace.getId()));
+    }
+
+    @Test
+    public void shouldNotStartQueuedMachinesIfWorkspaceIsStoppedWhileMachinesAreStartedConcurrently() throws Exception {
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        when(machineManager.getExecutor()).thenReturn(executor);
+        runtimes.setMachineStartParallelism(2);
+        final WorkspaceImpl workspace = createWorkspace();
+        workspace.getConfig()
+                 .getEnvironments()
+                 .get(0)
+                 .getMachineConfigs()
+                 .addAll(asList(createNonDevConfig("a", null), createNonDevConfig("b", null)));
+        final CountDownLatch aStarting = new CountDownLatch(1);
+        final CountDownLatch stopped = new CountDownLatch(1);
+        final List<String> started = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            final MachineConfig machineCfg = (MachineConfig)invocation.getArguments()[0];
+            started.add(machineCfg.getName());
+            if (machineCfg.getName().equals("non-dev")) {
+                aStarting.await(5, TimeUnit.SECONDS);
+                runtimes.stop(workspace.getId());
+                stopped.countDown();
+            } else if (machineCfg.getName().equals("a")) {
+                // machine is still starting when the workspace is stopped
+                aStarting.countDown();
+                stopped.await(5, TimeUnit.SECONDS);
+            }
+            return createMachine(machineCfg);
+        }).when(machineManager).createMachineSync(any(), anyString(), anyString(), any(LineConsumer.class));
+
+        try {
+            runtimes.start(workspace, workspace.getConfig().getDefaultEnv());
+            fail("Workspace start must be interrupted");
+        } catch (ConflictException x) {
+            assertEquals(x.getMessage(), "Workspace '" + workspace.getId() + "' start interrupted. " +
+                                         "Workspace stopped before all its machines started");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertFalse(started.contains("b"));
+        // dev-machine is destroyed by stop, 'non-dev' and 'a' are destroyed after they are started
+        verify(machineManager, times(3)).destroy(any(), anyBoolean());
+    }
+
+    @Test
+    public void shouldNotPassStartDependenciesToMachineManager() throws Exception {
+        final WorkspaceImpl workspace = createWorkspace();
+        workspace.getConfig()
+                 .getEnvironments()
+                 .get(0)
+                 .getMachineConfigs()
+                 .add(createNonDevConfig("dependent", "non-dev"));
+        final List<MachineConfig> configs = new ArrayList<>();
+        doAnswer(invocation -> {
+            final MachineConfig machineCfg = (MachineConfig)invocation.getArguments()[0];
+            configs.add(machineCfg);
+            return createMachine(machineCfg);
+        }).when(machineManager).createMachineSync(any(), anyString(), anyString(), any(LineConsumer.class));
+
+        runtimes.start(workspace, workspace.getConfig().getDefaultEnv());
+
+        assertEquals(configs.size(), 3);
+        for (MachineConfig config : configs) {
+            assertFalse(config.getEnvVariables().containsKey(MACHINE_DEPENDENCIES_VARIABLE), config.getName());
+        }
+    }
+
     @Test
     public void shouldNotDestroyNonDevMachineIfRegistryWasStoppedWhileDevMachineWasStarting() throws Exception {
         final WorkspaceImpl workspace = createWorkspace();
@@ -650,7 +843,7 @@ public class WorkspaceRuntimesTest {
         // prepare machine
         final MachineImpl machine = createMachine(true);
         machine.setStatus(MachineStatus.RUNNING);
-        when(machineManager.getMachines()).thenReturn(singletonList(machine));
+        when(machineManager.getMachines(machine.getWorkspaceId())).thenReturn(singletonList(machine));
         // force machine manager to throw conflict exception
         final RuntimeDescriptor descriptorMock = mock(RuntimeDescriptor.class);
         when(descriptorMock.getRuntimeStatus()).thenReturn(WorkspaceStatus.RUNNING);
@@ -662,7 +855,7 @@ public class WorkspaceRuntimesTest {
         final RuntimeDescriptor descriptor = runtimes.start(workspace, workspace.getConfig().getDefaultEnv());
 
         assertEquals(descriptor.getRuntime().getDevMachine(), machine);
-        verify(machineManager).getMachines();
+        verify(machineManager).getMachines(machine.getWorkspaceId());
     }
 
     @DataProvider(name = "workspaceStatusesExceptOfRunning")
@@ -727,6 +920,14 @@ public class WorkspaceRuntimesTest {
                                 .build();
     }
 
+    private static MachineConfigImpl createNonDevConfig(String name, String dependsOn) {
+        return MachineConfigImpl.builder()
+                                .fromConfig(createConfig(false))
+                                .setName(name)
+                                .setEnvVariables(dependsOn == null ? emptyMap() : singletonMap(MACHINE_DEPENDENCIES_VARIABLE, dependsOn))
+                                .build();
+    }
+
     private static WorkspaceImpl createWorkspace() {
         final MachineConfigImpl devCfg = createConfig(true);
         final MachineConfigImpl nonDevCfg = MachineConfigImpl.builder()
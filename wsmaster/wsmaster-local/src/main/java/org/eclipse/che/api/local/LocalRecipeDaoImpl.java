@@ -16,7 +16,7 @@ import com.google.inject.Inject;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
-import org.eclipse.che.api.local.storage.LocalStorage;
+import org.eclipse.che.api.local.storage.JournaledLocalStorage;
 import org.eclipse.che.api.local.storage.LocalStorageFactory;
 import org.eclipse.che.api.machine.server.dao.RecipeDao;
 import org.eclipse.che.api.machine.server.recipe.RecipeImpl;
@@ -25,129 +25,124 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.lang.String.format;
 
 /**
+ * @implNote recipes are indexed by tags, reads don't block, writes are guarded by <i>this</i> instance
+ *
  * @author Eugene Voevodin
  * @author Anton Korneta
  */
 @Singleton
 public class LocalRecipeDaoImpl implements RecipeDao {
 
-    private final Map<String, RecipeImpl> recipes;
-    private final ReadWriteLock           lock;
-    private final LocalStorage            recipeStorage;
+    private final TagIndexedMap<RecipeImpl>         recipes;
+    private final JournaledLocalStorage<RecipeImpl> recipeStorage;
 
     @Inject
     public LocalRecipeDaoImpl(LocalStorageFactory storageFactory) throws IOException {
-        this.recipeStorage = storageFactory.create("recipes.json");
-        this.recipes = new HashMap<>();
-        this.lock = new ReentrantReadWriteLock();
+        this.recipes = new TagIndexedMap<>(RecipeImpl::getId, RecipeImpl::getTags);
+        this.recipeStorage = storageFactory.createJournaled("recipes.json",
+                                                            new TypeToken<Map<String, RecipeImpl>>() {},
+                                                            Collections.emptyMap(),
+                                                            recipes::toMap);
     }
 
     @PostConstruct
-    public void loadRecipes() {
-        recipes.putAll(recipeStorage.loadMap(new TypeToken<Map<String, RecipeImpl>>() {}));
+    public synchronized void loadRecipes() throws IOException {
+        recipeStorage.load().values().forEach(recipes::put);
     }
 
     @PreDestroy
-    public void saveRecipes() throws IOException {
-        recipeStorage.store(recipes);
+    public synchronized void saveRecipes() throws IOException {
+        recipeStorage.compact(recipes.toMap());
+        recipeStorage.close();
     }
 
     @Override
-    public void create(RecipeImpl recipe) throws ConflictException {
-        lock.writeLock().lock();
-        try {
-            if (recipes.containsKey(recipe.getId())) {
-                throw new ConflictException(format("Recipe with id %s already exists", recipe.getId()));
-            }
-            recipes.put(recipe.getId(), recipe);
-        } finally {
-            lock.writeLock().unlock();
+    public synchronized void create(RecipeImpl recipe) throws ConflictException, ServerException {
+        if (recipes.containsKey(recipe.getId())) {
+            throw new ConflictException(format("Recipe with id %s already exists", recipe.getId()));
         }
+        doPut(new RecipeImpl(recipe));
     }
 
     @Override
-    public RecipeImpl update(RecipeImpl update) throws NotFoundException {
-        lock.writeLock().lock();
-        try {
-            final RecipeImpl target = recipes.get(update.getId());
-            if (target == null) {
-                throw new NotFoundException(format("Recipe with id '%s' was not found", update.getId()));
-            }
-            if (update.getType() != null) {
-                target.setType(update.getType());
-            }
-            if (update.getScript() != null) {
-                target.setScript(update.getScript());
-            }
-            if (update.getDescription() != null) {
-                target.setDescription(update.getDescription());
-            }
-            if (update.getName() != null) {
-                target.setName(update.getName());
-            }
-            if (!update.getTags().isEmpty()) {
-                target.setTags(update.getTags());
-            }
-            if (update.getAcl() != null && !update.getAcl().isEmpty()) {
-                target.setAcl(update.getAcl());
-            }
-
-            return new RecipeImpl(target);
-        } finally {
-            lock.writeLock().unlock();
+    public synchronized RecipeImpl update(RecipeImpl update) throws NotFoundException, ServerException {
+        final RecipeImpl existing = recipes.get(update.getId());
+        if (existing == null) {
+            throw new NotFoundException(format("Recipe with id '%s' was not found", update.getId()));
+        }
+        // stored recipe is replaced only when the change is written to storage
+        final RecipeImpl target = new RecipeImpl(existing);
+        if (update.getType() != null) {
+            target.setType(update.getType());
+        }
+        if (update.getScript() != null) {
+            target.setScript(update.getScript());
         }
+        if (update.getDescription() != null) {
+            target.setDescription(update.getDescription());
+        }
+        if (update.getName() != null) {
+            target.setName(update.getName());
+        }
+        if (!update.getTags().isEmpty()) {
+            target.setTags(update.getTags());
+        }
+        if (update.getAcl() != null && !update.getAcl().isEmpty()) {
+            target.setAcl(update.getAcl());
+        }
+        doPut(target);
+
+        return new RecipeImpl(target);
     }
 
     @Override
-    public void remove(String id) {
-        lock.writeLock().lock();
-        try {
+    public synchronized void remove(String id) throws ServerException {
+        if (recipes.containsKey(id)) {
+            try {
+                recipeStorage.remove(id);
+            } catch (IOException x) {
+                throw new ServerException(x.getLocalizedMessage(), x);
+            }
             recipes.remove(id);
-        } finally {
-            lock.writeLock().unlock();
         }
     }
 
     @Override
     public RecipeImpl getById(String id) throws NotFoundException {
-        lock.readLock().lock();
-        try {
-            final RecipeImpl recipe = recipes.get(id);
-            if (recipe == null) {
-                throw new NotFoundException(format("Recipe with id %s was not found", id));
-            }
-            return new RecipeImpl(recipe);
-        } finally {
-            lock.readLock().unlock();
+        final RecipeImpl recipe = recipes.get(id);
+        if (recipe == null) {
+            throw new NotFoundException(format("Recipe with id %s was not found", id));
         }
+        return new RecipeImpl(recipe);
     }
 
     @Override
     public List<RecipeImpl> search(String user, List<String> tags, String type, int skipCount, int maxItems) throws ServerException {
-        lock.readLock().lock();
+        Stream<RecipeImpl> recipesStream = recipes.search(tags)
+                                                  .filter(recipe -> type == null || type.equals(recipe.getType()))
+                                                  .skip(skipCount);
+        if (maxItems != 0) {
+            recipesStream = recipesStream.limit(maxItems);
+        }
+        return recipesStream.map(RecipeImpl::new)
+                            .collect(Collectors.toList());
+    }
+
+    private void doPut(RecipeImpl recipe) throws ServerException {
         try {
-            Stream<RecipeImpl> recipesStream = recipes.values()
-                                                      .stream()
-                                                      .filter(recipe -> (tags == null || recipe.getTags().containsAll(tags))
-                                                                        && (type == null || type.equals(recipe.getType())))
-                                                      .skip(skipCount);
-            if (maxItems != 0) {
-                recipesStream = recipesStream.limit(maxItems);
-            }
-            return recipesStream.collect(Collectors.toList());
-        } finally {
-            lock.readLock().unlock();
+            recipeStorage.put(recipe.getId(), recipe);
+        } catch (IOException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
         }
+        recipes.put(recipe);
     }
 }
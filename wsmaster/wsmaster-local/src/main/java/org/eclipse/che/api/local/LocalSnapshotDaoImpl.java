@@ -14,7 +14,7 @@ import com.google.common.reflect.TypeToken;
 
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.model.machine.MachineSource;
-import org.eclipse.che.api.local.storage.LocalStorage;
+import org.eclipse.che.api.local.storage.JournaledLocalStorage;
 import org.eclipse.che.api.local.storage.LocalStorageFactory;
 import org.eclipse.che.api.machine.server.dao.SnapshotDao;
 import org.eclipse.che.api.machine.server.exception.SnapshotException;
@@ -44,13 +44,16 @@ import static java.util.stream.Collectors.toList;
 @Singleton
 public class LocalSnapshotDaoImpl implements SnapshotDao {
 
-    private final Map<String, SnapshotImpl> snapshots;
-    private final LocalStorage              snapshotStorage;
+    private final Map<String, SnapshotImpl>           snapshots;
+    private final JournaledLocalStorage<SnapshotImpl> snapshotStorage;
 
     @Inject
     public LocalSnapshotDaoImpl(LocalStorageFactory storageFactory) throws IOException {
         snapshots = new HashMap<>();
-        snapshotStorage = storageFactory.create("snapshots.json", singletonMap(MachineSource.class, new MachineSourceAdapter()));
+        snapshotStorage = storageFactory.createJournaled("snapshots.json",
+                                                         new TypeToken<Map<String, SnapshotImpl>>() {},
+                                                         singletonMap(MachineSource.class, new MachineSourceAdapter()),
+                                                         () -> snapshots);
     }
 
     @Override
@@ -77,6 +80,15 @@ public class LocalSnapshotDaoImpl implements SnapshotDao {
     public synchronized void saveSnapshot(SnapshotImpl snapshot) throws SnapshotException {
         Objects.requireNonNull(snapshot, "Required non-null snapshot");
         final Optional<SnapshotImpl> opt = doGetSnapshot(snapshot.getWorkspaceId(), snapshot.getEnvName(), snapshot.getMachineName());
+        try {
+            if (opt.isPresent()) {
+                snapshotStorage.replace(opt.get().getId(), snapshot.getId(), snapshot);
+            } else {
+                snapshotStorage.put(snapshot.getId(), snapshot);
+            }
+        } catch (IOException x) {
+            throw new SnapshotException(x.getLocalizedMessage(), x);
+        }
         if (opt.isPresent()) {
             snapshots.remove(opt.get().getId());
         }
@@ -93,17 +105,25 @@ public class LocalSnapshotDaoImpl implements SnapshotDao {
 
     @Override
     public synchronized void removeSnapshot(String snapshotId) throws NotFoundException, SnapshotException {
-        snapshots.remove(snapshotId);
+        if (snapshots.containsKey(snapshotId)) {
+            try {
+                snapshotStorage.remove(snapshotId);
+            } catch (IOException x) {
+                throw new SnapshotException(x.getLocalizedMessage(), x);
+            }
+            snapshots.remove(snapshotId);
+        }
     }
 
     @PostConstruct
-    public synchronized void loadSnapshots() {
-        snapshots.putAll(snapshotStorage.loadMap(new TypeToken<Map<String, SnapshotImpl>>() {}));
+    public synchronized void loadSnapshots() throws IOException {
+        snapshots.putAll(snapshotStorage.load());
     }
 
     @PreDestroy
     public synchronized void saveSnapshots() throws IOException {
-        snapshotStorage.store(snapshots);
+        snapshotStorage.compact(snapshots);
+        snapshotStorage.close();
     }
 
     private Optional<SnapshotImpl> doGetSnapshot(String workspaceId, String envName, String machineName) {
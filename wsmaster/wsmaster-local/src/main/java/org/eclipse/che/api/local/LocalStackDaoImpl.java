@@ -25,11 +25,7 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import java.io.IOException;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Stream;
 
 import static java.lang.String.format;
@@ -39,110 +35,93 @@ import static java.util.stream.Collectors.toList;
 /**
  * Implementation local storage for {@link Stack}
  *
+ * @implNote stacks are indexed by tags, reads don't block, writes are guarded by <i>this</i> instance
+ *
  * @author Alexander Andrienko
  */
 @Singleton
 public class LocalStackDaoImpl implements StackDao {
 
-    private final StackLocalStorage      stackStorage;
-    private final Map<String, StackImpl> stacks;
-    private final ReadWriteLock          lock;
+    private final StackLocalStorage        stackStorage;
+    private final TagIndexedMap<StackImpl> stacks;
 
     @Inject
     public LocalStackDaoImpl(StackLocalStorage stackLocalStorage) throws IOException {
         this.stackStorage = stackLocalStorage;
-        this.stacks = new LinkedHashMap<>();
-        this.lock = new ReentrantReadWriteLock();
+        this.stacks = new TagIndexedMap<>(StackImpl::getId, StackImpl::getTags);
+        stackStorage.setState(stacks::toMap);
     }
 
     @PostConstruct
-    public void start() {
-        lock.readLock().lock();
-        stacks.putAll(stackStorage.loadMap());
-        lock.readLock().unlock();
+    public synchronized void start() throws IOException {
+        stackStorage.loadMap().values().forEach(stacks::put);
     }
 
     @PreDestroy
-    public void stop() throws IOException {
-        lock.writeLock().lock();
-        stackStorage.store(stacks);
-        lock.writeLock().unlock();
+    public synchronized void stop() throws IOException {
+        stackStorage.store(stacks.toMap());
     }
 
     @Override
-    public void create(StackImpl stack) throws ConflictException, ServerException {
+    public synchronized void create(StackImpl stack) throws ConflictException, ServerException {
         requireNonNull(stack, "Stack required");
-        lock.writeLock().lock();
-        try {
-            if (stacks.containsKey(stack.getId())) {
-                throw new ConflictException(format("Stack with id %s is already exist", stack.getId()));
-            }
-            stacks.put(stack.getId(), stack);
-        } finally {
-            lock.writeLock().unlock();
+        if (stacks.containsKey(stack.getId())) {
+            throw new ConflictException(format("Stack with id %s is already exist", stack.getId()));
         }
+        doPut(new StackImpl(stack));
     }
 
     @Override
     public StackImpl getById(String id) throws NotFoundException {
         requireNonNull(id, "Stack id required");
-        lock.readLock().lock();
-        try {
-            final StackImpl stack = stacks.get(id);
-            if (stack == null) {
-                throw new NotFoundException(format("Stack with id %s was not found", id));
-            }
-            return new StackImpl(stack);
-        } finally {
-            lock.readLock().unlock();
+        final StackImpl stack = stacks.get(id);
+        if (stack == null) {
+            throw new NotFoundException(format("Stack with id %s was not found", id));
         }
+        return new StackImpl(stack);
     }
 
     @Override
-    public void remove(String id) throws ServerException {
+    public synchronized void remove(String id) throws ServerException {
         requireNonNull(id, "Stack id required");
-        lock.writeLock().lock();
-        try {
+        if (stacks.containsKey(id)) {
+            try {
+                stackStorage.remove(id);
+            } catch (IOException x) {
+                throw new ServerException(x.getLocalizedMessage(), x);
+            }
             stacks.remove(id);
-        } finally {
-            lock.writeLock().unlock();
         }
     }
 
     @Override
-    public StackImpl update(StackImpl update) throws NotFoundException, ServerException {
+    public synchronized StackImpl update(StackImpl update) throws NotFoundException, ServerException {
         requireNonNull(update, "Stack required");
         requireNonNull(update.getId(), "Stack id required");
-        lock.writeLock().lock();
-        try {
-            String updateId = update.getId();
-            if (!stacks.containsKey(updateId)) {
-                throw new NotFoundException(format("Stack with id %s was not found", updateId));
-            }
-            stacks.replace(updateId, update);
-            return new StackImpl(update);
-        } finally {
-            lock.writeLock().unlock();
+        String updateId = update.getId();
+        if (!stacks.containsKey(updateId)) {
+            throw new NotFoundException(format("Stack with id %s was not found", updateId));
         }
+        doPut(new StackImpl(update));
+        return new StackImpl(update);
     }
 
     @Override
     public List<StackImpl> searchStacks(String user, @Nullable List<String> tags, int skipCount, int maxItems) {
-        lock.readLock().lock();
-        try {
-            Stream<StackImpl> stacksStream = stacks.values()
-                                                   .stream()
-                                                   .skip(skipCount)
-                                                   .filter(decoratedStack -> tags == null ||
-                                                                             decoratedStack.getTags().containsAll(tags));
-            if (maxItems != 0) {
-                stacksStream = stacksStream.limit(maxItems);
-            }
+        Stream<StackImpl> stacksStream = stacks.search(tags).skip(skipCount);
+        if (maxItems != 0) {
+            stacksStream = stacksStream.limit(maxItems);
+        }
+        return stacksStream.map(StackImpl::new)
+                           .collect(toList());
+    }
 
-            return stacksStream.map(StackImpl::new)
-                               .collect(toList());
-        } finally {
-            lock.readLock().unlock();
+    private void doPut(StackImpl stack) throws ServerException {
+        try {
+            stackStorage.put(stack);
+        } catch (IOException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
         }
+        stacks.put(stack);
     }
 }
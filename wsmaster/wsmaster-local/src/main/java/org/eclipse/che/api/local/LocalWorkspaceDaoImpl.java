@@ -19,7 +19,7 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.Recipe;
 import org.eclipse.che.api.core.model.project.ProjectConfig;
 import org.eclipse.che.api.core.model.workspace.WorkspaceStatus;
-import org.eclipse.che.api.local.storage.LocalStorage;
+import org.eclipse.che.api.local.storage.JournaledLocalStorage;
 import org.eclipse.che.api.local.storage.LocalStorageFactory;
 import org.eclipse.che.api.machine.server.recipe.adapters.RecipeTypeAdapter;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
@@ -30,11 +30,11 @@ import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
@@ -42,10 +42,11 @@ import static java.util.stream.Collectors.toList;
 /**
  * In memory based implementation of {@link WorkspaceDao}.
  *
- * <p>{@link #loadWorkspaces() Loads} & {@link #saveWorkspaces() stores} in memory workspaces
- * to/from filesystem, when component starts/stops.
+ * <p>{@link #loadWorkspaces() Loads} in memory workspaces from filesystem when component starts,
+ * every change is written to the journal of {@link JournaledLocalStorage} before it is applied
+ * and the whole state is {@link #saveWorkspaces() stored} when component stops.
  *
- * @implNote it is thread-safe, guarded by <i>this</i> instance
+ * @implNote workspaces are indexed by namespace and name, reads don't block, writes are guarded by <i>this</i> instance
  *
  * @author Eugene Voevodin
  * @author Dmitry Shnurenko
@@ -54,28 +55,34 @@ import static java.util.stream.Collectors.toList;
 @Singleton
 public class LocalWorkspaceDaoImpl implements WorkspaceDao {
 
-    private final Map<String, WorkspaceImpl> workspaces;
-    private final LocalStorage               localStorage;
+    private final ConcurrentMap<String, WorkspaceImpl>                 workspaces;
+    private final ConcurrentMap<String, ConcurrentMap<String, String>> idsByNamespace;
+    private final JournaledLocalStorage<WorkspaceImpl>                 localStorage;
 
     @Inject
     public LocalWorkspaceDaoImpl(LocalStorageFactory factory) throws IOException {
         final Map<Class<?>, Object> adapters = ImmutableMap.of(Recipe.class, new RecipeTypeAdapter(),
                                                                ProjectConfig.class, new ProjectConfigAdapter());
-        this.localStorage = factory.create("workspaces.json", adapters);
-        this.workspaces = new HashMap<>();
+        this.workspaces = new ConcurrentHashMap<>();
+        this.idsByNamespace = new ConcurrentHashMap<>();
+        this.localStorage = factory.createJournaled("workspaces.json",
+                                                    new TypeToken<Map<String, WorkspaceImpl>>() {},
+                                                    adapters,
+                                                    () -> workspaces);
     }
 
     @PostConstruct
-    public synchronized void loadWorkspaces() {
-        workspaces.putAll(localStorage.loadMap(new TypeToken<Map<String, WorkspaceImpl>>() {}));
-        for (WorkspaceImpl workspace : workspaces.values()) {
+    public synchronized void loadWorkspaces() throws IOException {
+        for (WorkspaceImpl workspace : localStorage.load().values()) {
             workspace.setRuntime(null);
+            index(workspace);
         }
     }
 
     @PreDestroy
     public synchronized void saveWorkspaces() throws IOException {
-        localStorage.store(workspaces);
+        localStorage.compact(workspaces);
+        localStorage.close();
     }
 
     @Override
@@ -83,14 +90,14 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
         if (workspaces.containsKey(workspace.getId())) {
             throw new ConflictException("Workspace with id " + workspace.getId() + " already exists");
         }
-        if (find(workspace.getConfig().getName(), workspace.getNamespace()).isPresent()) {
+        if (findId(workspace.getConfig().getName(), workspace.getNamespace()) != null) {
             throw new ConflictException(format("Workspace with name %s and owner %s already exists",
                                                workspace.getConfig().getName(),
                                                workspace.getNamespace()));
         }
         workspace.setRuntime(null);
         workspace.setStatus(WorkspaceStatus.STOPPED);
-        workspaces.put(workspace.getId(), new WorkspaceImpl(workspace));
+        doPut(new WorkspaceImpl(workspace));
         return workspace;
     }
 
@@ -100,19 +107,33 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
         if (!workspaces.containsKey(workspace.getId())) {
             throw new NotFoundException("Workspace with id " + workspace.getId() + " was not found");
         }
+        final String sameNameId = findId(workspace.getConfig().getName(), workspace.getNamespace());
+        if (sameNameId != null && !sameNameId.equals(workspace.getId())) {
+            throw new ConflictException(format("Workspace with name %s and owner %s already exists",
+                                               workspace.getConfig().getName(),
+                                               workspace.getNamespace()));
+        }
         workspace.setStatus(null);
         workspace.setRuntime(null);
-        workspaces.put(workspace.getId(), new WorkspaceImpl(workspace));
+        doPut(new WorkspaceImpl(workspace));
         return workspace;
     }
 
     @Override
     public synchronized void remove(String id) throws ConflictException, ServerException {
-        workspaces.remove(id);
+        final WorkspaceImpl workspace = workspaces.get(id);
+        if (workspace != null) {
+            try {
+                localStorage.remove(id);
+            } catch (IOException x) {
+                throw new ServerException(x.getLocalizedMessage(), x);
+            }
+            unindex(workspace);
+        }
     }
 
     @Override
-    public synchronized WorkspaceImpl get(String id) throws NotFoundException, ServerException {
+    public WorkspaceImpl get(String id) throws NotFoundException, ServerException {
         final WorkspaceImpl workspace = workspaces.get(id);
         if (workspace == null) {
             throw new NotFoundException("Workspace with id " + id + " was not found");
@@ -121,32 +142,75 @@ public class LocalWorkspaceDaoImpl implements WorkspaceDao {
     }
 
     @Override
-    public synchronized WorkspaceImpl get(String name, String namespace) throws NotFoundException, ServerException {
-        final Optional<WorkspaceImpl> wsOpt = find(name, namespace);
-        if (!wsOpt.isPresent()) {
+    public WorkspaceImpl get(String name, String namespace) throws NotFoundException, ServerException {
+        final String id = findId(name, namespace);
+        final WorkspaceImpl workspace = id == null ? null : workspaces.get(id);
+        if (workspace == null) {
             throw new NotFoundException(format("Workspace with name %s and owner %s was not found", name, namespace));
         }
-        return new WorkspaceImpl(wsOpt.get());
+        return new WorkspaceImpl(workspace);
+    }
+
+    @Override
+    public List<WorkspaceImpl> getByNamespace(String namespace) throws ServerException {
+        final Map<String, String> ids = namespace == null ? null : idsByNamespace.get(namespace);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        return ids.values()
+                  .stream()
+                  .map(workspaces::get)
+                  .filter(workspace -> workspace != null)
+                  .map(WorkspaceImpl::new)
+                  .collect(toList());
     }
 
     @Override
-    public synchronized List<WorkspaceImpl> getByNamespace(String namespace) throws ServerException {
+    public List<WorkspaceImpl> getWorkspaces(String userId) throws ServerException {
         return workspaces.values()
                          .stream()
-                         .filter(ws -> ws.getNamespace().equals(namespace))
                          .map(WorkspaceImpl::new)
                          .collect(toList());
     }
 
-    @Override
-    public List<WorkspaceImpl> getWorkspaces(String userId) throws ServerException {
-        return new ArrayList<>(workspaces.values());
+    private void doPut(WorkspaceImpl workspace) throws ServerException {
+        try {
+            localStorage.put(workspace.getId(), workspace);
+        } catch (IOException x) {
+            throw new ServerException(x.getLocalizedMessage(), x);
+        }
+        final WorkspaceImpl existing = workspaces.get(workspace.getId());
+        index(workspace);
+        // workspace is renamed or moved to another namespace
+        if (existing != null && !(existing.getNamespace().equals(workspace.getNamespace())
+                                  && existing.getConfig().getName().equals(workspace.getConfig().getName()))) {
+            unindexName(existing);
+        }
     }
 
-    private Optional<WorkspaceImpl> find(String name, String owner) {
-        return workspaces.values()
-                         .stream()
-                         .filter(ws -> ws.getConfig().getName().equals(name) && ws.getNamespace().equals(owner))
-                         .findFirst();
+    private void index(WorkspaceImpl workspace) {
+        workspaces.put(workspace.getId(), workspace);
+        idsByNamespace.computeIfAbsent(workspace.getNamespace(), namespace -> new ConcurrentHashMap<>())
+                      .put(workspace.getConfig().getName(), workspace.getId());
+    }
+
+    private void unindex(WorkspaceImpl workspace) {
+        unindexName(workspace);
+        workspaces.remove(workspace.getId());
+    }
+
+    private void unindexName(WorkspaceImpl workspace) {
+        final ConcurrentMap<String, String> names = idsByNamespace.get(workspace.getNamespace());
+        if (names != null) {
+            names.remove(workspace.getConfig().getName(), workspace.getId());
+            if (names.isEmpty()) {
+                idsByNamespace.remove(workspace.getNamespace(), names);
+            }
+        }
+    }
+
+    private String findId(String name, String namespace) {
+        final Map<String, String> ids = namespace == null ? null : idsByNamespace.get(namespace);
+        return ids == null || name == null ? null : ids.get(name);
     }
 }
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Objects mapped by identifier and indexed by tags. Objects are kept in order they are added, replaced object keeps its position.
+ * <p/>
+ * Reads are lock-free and see state of the map at some point during the read, writes must be serialized by the caller.
+ * Stored objects must not be changed, they must be replaced with {@link #put(Object)}.
+ */
+final class TagIndexedMap<T> {
+    private final Function<T, String>                       idFunction;
+    private final Function<T, ? extends Collection<String>> tagsFunction;
+    private final ConcurrentMap<String, Entry>              entries;
+    private final ConcurrentNavigableMap<Long, T>           objects;
+    private final ConcurrentMap<String, NavigableSet<Long>> positionsByTag;
+
+    private long nextPosition;
+
+    TagIndexedMap(Function<T, String> idFunction, Function<T, ? extends Collection<String>> tagsFunction) {
+        this.idFunction = idFunction;
+        this.tagsFunction = tagsFunction;
+        this.entries = new ConcurrentHashMap<>();
+        this.objects = new ConcurrentSkipListMap<>();
+        this.positionsByTag = new ConcurrentHashMap<>();
+    }
+
+    T get(String id) {
+        final Entry entry = entries.get(id);
+        return entry == null ? null : objects.get(entry.position);
+    }
+
+    boolean containsKey(String id) {
+        return entries.containsKey(id);
+    }
+
+    /** Adds {@code object} or replaces object with the same identifier. */
+    void put(T object) {
+        final String id = idFunction.apply(object);
+        final Entry existing = entries.get(id);
+        // tags are copied, so index isn't affected if list of tags of the object is changed later
+        final Set<String> newTags = new HashSet<>(tagsFunction.apply(object));
+        if (existing == null) {
+            final Long position = nextPosition++;
+            objects.put(position, object);
+            addTags(newTags, position);
+            entries.put(id, new Entry(position, newTags));
+        } else {
+            addTags(newTags, existing.position);
+            objects.put(existing.position, object);
+            final Set<String> oldTags = new HashSet<>(existing.tags);
+            oldTags.removeAll(newTags);
+            removeTags(oldTags, existing.position);
+            entries.put(id, new Entry(existing.position, newTags));
+        }
+    }
+
+    /** Removes object with identifier {@code id}, returns removed object or {@code null} if there is no such object. */
+    T remove(String id) {
+        final Entry entry = entries.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        final T removed = objects.remove(entry.position);
+        removeTags(entry.tags, entry.position);
+        return removed;
+    }
+
+    /**
+     * Returns objects that have all {@code tags} in order they are added. Objects are found by intersection of index entries of
+     * tags, starting from the most selective tag.
+     *
+     * @param tags
+     *         tags to search objects, if {@code null} or empty all objects are returned
+     */
+    Stream<T> search(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return objects.values().stream();
+        }
+        final List<NavigableSet<Long>> entries = new ArrayList<>(tags.size());
+        for (String tag : new HashSet<>(tags)) {
+            final NavigableSet<Long> entry = positionsByTag.get(tag);
+            if (entry == null) {
+                return Stream.empty();
+            }
+            entries.add(entry);
+        }
+        // size of concurrent set isn't constant time operation, but number of tags is small
+        entries.sort(Comparator.comparingInt(Set::size));
+        final List<NavigableSet<Long>> others = entries.subList(1, entries.size());
+        return entries.get(0)
+                      .stream()
+                      .filter(position -> others.stream().allMatch(entry -> entry.contains(position)))
+                      .map(objects::get)
+                      .filter(object -> object != null);
+    }
+
+    /** Returns copy of this map in order objects are added. */
+    Map<String, T> toMap() {
+        final Map<String, T> copy = new LinkedHashMap<>();
+        for (T object : objects.values()) {
+            copy.put(idFunction.apply(object), object);
+        }
+        return copy;
+    }
+
+    private void addTags(Collection<String> tags, Long position) {
+        for (String tag : tags) {
+            positionsByTag.computeIfAbsent(tag, t -> new ConcurrentSkipListSet<>()).add(position);
+        }
+    }
+
+    private void removeTags(Collection<String> tags, Long position) {
+        for (String tag : tags) {
+            final NavigableSet<Long> entry = positionsByTag.get(tag);
+            if (entry != null) {
+                entry.remove(position);
+                if (entry.isEmpty()) {
+                    positionsByTag.remove(tag, entry);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        final Long        position;
+        final Set<String> tags;
+
+        Entry(Long position, Set<String> tags) {
+            this.position = position;
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,456 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local.storage;
+
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * File system storage for map of model objects that persists every change when it is made.
+ * <p/>
+ * Storage consists of two files. Snapshot, e.g. {@code workspaces.json}, has the same format as file of {@link LocalStorage}.
+ * Journal, e.g. {@code workspaces.json.journal}, contains changes made after the snapshot was written, one JSON record per line.
+ * {@link #put(String, Object)} and {@link #remove(String)} append record to the journal, so cost of change doesn't depend on
+ * number of stored objects. When journal gets {@code compactionThreshold} records, the current state is written to a new
+ * snapshot and the journal is started over. The first line of journal holds checksum of snapshot it belongs to, journal which
+ * doesn't match snapshot, e.g. after crash in the middle of compaction or after snapshot is edited manually, is ignored.
+ * <p/>
+ * {@link #load()} reads snapshot and applies records of journal to it. Incomplete record at the end of journal, i.e. the last
+ * record without line separator, which is left after crash, is discarded. Complete record that is invalid isn't skipped, storage
+ * fails to load and journal is left as is, so that neither this record nor records after it are lost. How often journal is synced
+ * to disk is defined by {@link FsyncPolicy}.
+ * <p/>
+ * Storage isn't aware of objects, it gets them from state supplier when compaction is needed. Changes must be written to the
+ * storage before they are applied to the state and the state must not be changed while storage writes it, usually both are
+ * guarded by the same lock.
+ */
+public class JournaledLocalStorage<V> implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(JournaledLocalStorage.class);
+
+    public static final int  DEFAULT_COMPACTION_THRESHOLD = 1000;
+    public static final long DEFAULT_FSYNC_INTERVAL_MS    = 1000;
+
+    private static final String JOURNAL_SUFFIX  = ".journal";
+    private static final String TMP_SUFFIX      = ".tmp";
+    private static final String CHECKSUM_FIELD  = "snapshotChecksum";
+    private static final String OPERATION_FIELD = "op";
+    private static final String KEY_FIELD       = "key";
+    private static final String VALUE_FIELD     = "value";
+    private static final String REPLACES_FIELD  = "replaces";
+    private static final String PUT             = "put";
+    private static final String REMOVE          = "remove";
+
+    /** When changes written to journal are synced to disk. */
+    public enum FsyncPolicy {
+        /** Before {@link #put(String, Object)} or {@link #remove(String)} returns, change survives crash of operating system. */
+        ALWAYS,
+        /** Periodically, crash of operating system may lose changes made during the last interval. */
+        INTERVAL,
+        /** When operating system decides, change survives crash of application but not crash of operating system. */
+        NEVER
+    }
+
+    private static volatile ScheduledExecutorService fsyncExecutor;
+
+    private final Path                     snapshotFile;
+    private final Path                     journalFile;
+    private final Gson                     snapshotGson;
+    private final Gson                     journalGson;
+    private final Type                     mapType;
+    private final Type                     valueType;
+    private final Supplier<Map<String, V>> state;
+    private final FsyncPolicy              fsyncPolicy;
+    private final long                     fsyncIntervalMillis;
+    private final int                      compactionThreshold;
+
+    // guarded by this
+    private FileChannel        journal;
+    private int                journalRecords;
+    private boolean            unsynced;
+    private ScheduledFuture<?> fsyncTask;
+
+    /**
+     * @param rootDir
+     *         directory of storage files, it must exist
+     * @param fileName
+     *         name of snapshot file
+     * @param mapToken
+     *         type of stored map
+     * @param typeAdapters
+     *         types and object adapters when need a special serialization
+     * @param state
+     *         supplier of the current state, it is used for compaction of journal
+     * @param fsyncPolicy
+     *         when changes are synced to disk
+     * @param fsyncIntervalMillis
+     *         interval for {@link FsyncPolicy#INTERVAL} policy
+     * @param compactionThreshold
+     *         number of records in journal which triggers compaction
+     */
+    public JournaledLocalStorage(Path rootDir,
+                                 String fileName,
+                                 TypeToken<Map<String, V>> mapToken,
+                                 Map<Class<?>, Object> typeAdapters,
+                                 Supplier<Map<String, V>> state,
+                                 FsyncPolicy fsyncPolicy,
+                                 long fsyncIntervalMillis,
+                                 int compactionThreshold) {
+        if (compactionThreshold < 1 || fsyncIntervalMillis < 1) {
+            throw new IllegalArgumentException("Compaction threshold and fsync interval must be positive");
+        }
+        this.snapshotFile = rootDir.resolve(fileName);
+        this.journalFile = rootDir.resolve(fileName + JOURNAL_SUFFIX);
+        this.mapType = mapToken.getType();
+        this.valueType = mapToken.resolveType(Map.class.getTypeParameters()[1]).getType();
+        this.state = state;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.compactionThreshold = compactionThreshold;
+        final GsonBuilder builder = new GsonBuilder();
+        for (Map.Entry<Class<?>, Object> adapter : typeAdapters.entrySet()) {
+            builder.registerTypeAdapter(adapter.getKey(), adapter.getValue());
+        }
+        this.journalGson = builder.create();
+        this.snapshotGson = builder.setPrettyPrinting().create();
+    }
+
+    /**
+     * Reads snapshot and applies journal to it.
+     *
+     * @return stored objects, if snapshot contains invalid JSON or doesn't exist objects are restored from journal only
+     * @throws IOException
+     *         if an I/O error occurs while reading or recovering journal or if journal contains invalid record
+     */
+    public synchronized Map<String, V> load() throws IOException {
+        final byte[] snapshot = readSnapshot();
+        final Map<String, V> result = new LinkedHashMap<>();
+        if (snapshot.length > 0) {
+            try {
+                final Map<String, V> stored = snapshotGson.fromJson(new String(snapshot, UTF_8), mapType);
+                if (stored != null) {
+                    result.putAll(stored);
+                }
+            } catch (JsonParseException e) {
+                LOG.warn(snapshotFile.getFileName() + " contains invalid JSON content");
+            }
+        }
+        openJournal(checksum(snapshot), result);
+        return result;
+    }
+
+    /**
+     * Writes {@code value} with {@code key} to journal.
+     *
+     * @throws IOException
+     *         if an I/O error occurs, in this case change must not be applied to the state
+     */
+    public synchronized void put(String key, V value) throws IOException {
+        final JsonObject record = new JsonObject();
+        record.addProperty(OPERATION_FIELD, PUT);
+        record.addProperty(KEY_FIELD, key);
+        record.add(VALUE_FIELD, journalGson.toJsonTree(value, valueType));
+        append(record);
+    }
+
+    /**
+     * Writes {@code value} with {@code key} to journal in place of value with {@code replacedKey}. Removal and put are written as
+     * one record, so after crash either both are restored or none of them.
+     *
+     * @throws IOException
+     *         if an I/O error occurs, in this case change must not be applied to the state
+     */
+    public synchronized void replace(String replacedKey, String key, V value) throws IOException {
+        final JsonObject record = new JsonObject();
+        record.addProperty(OPERATION_FIELD, PUT);
+        record.addProperty(KEY_FIELD, key);
+        record.addProperty(REPLACES_FIELD, replacedKey);
+        record.add(VALUE_FIELD, journalGson.toJsonTree(value, valueType));
+        append(record);
+    }
+
+    /**
+     * Writes removal of value with {@code key} to journal.
+     *
+     * @throws IOException
+     *         if an I/O error occurs, in this case change must not be applied to the state
+     */
+    public synchronized void remove(String key) throws IOException {
+        final JsonObject record = new JsonObject();
+        record.addProperty(OPERATION_FIELD, REMOVE);
+        record.addProperty(KEY_FIELD, key);
+        append(record);
+    }
+
+    /**
+     * Writes {@code objects} to new snapshot and starts journal over. Snapshot is replaced atomically, crash during compaction
+     * leaves either the old snapshot with its journal or the new one.
+     */
+    public synchronized void compact(Map<String, V> objects) throws IOException {
+        final byte[] snapshot = snapshotGson.toJson(objects).getBytes(UTF_8);
+        final Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + TMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(tmp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            writeFully(channel, ByteBuffer.wrap(snapshot));
+            channel.force(true);
+        }
+        try {
+            Files.move(tmp, snapshotFile, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, snapshotFile, REPLACE_EXISTING);
+        }
+        resetJournal(checksum(snapshot));
+    }
+
+    /** Number of records in journal. */
+    public synchronized int getJournalRecords() {
+        return journalRecords;
+    }
+
+    /** Syncs journal to disk and closes it, storage opens journal again if it is changed after closing. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (fsyncTask != null) {
+            fsyncTask.cancel(false);
+            fsyncTask = null;
+        }
+        if (journal != null) {
+            try {
+                if (unsynced) {
+                    journal.force(false);
+                    unsynced = false;
+                }
+            } finally {
+                journal.close();
+                journal = null;
+            }
+        }
+    }
+
+    private void append(JsonObject record) throws IOException {
+        if (journal == null) {
+            openJournal(checksum(readSnapshot()), null);
+        } else if (journalRecords >= compactionThreshold && state != null) {
+            compact(state.get());
+        }
+        writeFully(journal, ByteBuffer.wrap((journalGson.toJson(record) + '\n').getBytes(UTF_8)));
+        journalRecords++;
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            journal.force(false);
+        } else {
+            unsynced = true;
+        }
+    }
+
+    /**
+     * Opens journal for appending. Records of journal that belongs to snapshot with {@code snapshotChecksum} are applied to
+     * {@code target}, if it isn't {@code null}, and incomplete record at the end of journal is truncated. Journal that belongs to
+     * other snapshot is started over.
+     *
+     * @throws IOException
+     *         if an I/O error occurs or if journal contains invalid complete record, journal isn't changed in this case
+     */
+    private void openJournal(long snapshotChecksum, Map<String, V> target) throws IOException {
+        close();
+        byte[] content;
+        try {
+            content = Files.readAllBytes(journalFile);
+        } catch (NoSuchFileException e) {
+            content = new byte[0];
+        }
+        int start = 0;
+        int end = indexOf(content, start);
+        if (end < 0 || readChecksum(content, start, end) != snapshotChecksum) {
+            if (content.length > 0) {
+                LOG.warn("{} doesn't belong to {} and is ignored", journalFile.getFileName(), snapshotFile.getFileName());
+            }
+            resetJournal(snapshotChecksum);
+            return;
+        }
+        int records = 0;
+        for (start = end + 1; (end = indexOf(content, start)) >= 0; start = end + 1) {
+            try {
+                final JsonObject record = new JsonParser().parse(new String(content, start, end - start, UTF_8)).getAsJsonObject();
+                apply(record, target);
+                records++;
+            } catch (JsonParseException | IllegalStateException e) {
+                // record is written along with line separator, so it isn't left by crash, don't discard it and records after it
+                throw new IOException(String.format("%s contains invalid record at position %d, fix or remove it to load storage",
+                                                    journalFile, start), e);
+            }
+        }
+        if (start < content.length) {
+            LOG.warn("{} contains incomplete record at position {}, which is discarded", journalFile.getFileName(), start);
+        }
+        journal = FileChannel.open(journalFile, WRITE);
+        journal.truncate(start);
+        journal.position(start);
+        journalRecords = records;
+        startFsync();
+    }
+
+    private void resetJournal(long snapshotChecksum) throws IOException {
+        close();
+        final JsonObject header = new JsonObject();
+        header.addProperty(CHECKSUM_FIELD, snapshotChecksum);
+        journal = FileChannel.open(journalFile, CREATE, WRITE, TRUNCATE_EXISTING);
+        writeFully(journal, ByteBuffer.wrap((journalGson.toJson(header) + '\n').getBytes(UTF_8)));
+        journal.force(true);
+        journalRecords = 0;
+        startFsync();
+    }
+
+    /**
+     * Applies journal record to {@code target}.
+     *
+     * @throws IllegalStateException
+     *         if record is not valid, e.g. it doesn't have operation or key
+     */
+    private void apply(JsonObject record, Map<String, V> target) {
+        final String operation = getString(record, OPERATION_FIELD);
+        final String key = getString(record, KEY_FIELD);
+        if (operation == null || key == null) {
+            throw new IllegalStateException("Record doesn't have operation or key");
+        }
+        if (PUT.equals(operation)) {
+            if (!record.has(VALUE_FIELD)) {
+                throw new IllegalStateException("Record doesn't have value");
+            }
+            final V value = journalGson.fromJson(record.get(VALUE_FIELD), valueType);
+            final String replacedKey = getString(record, REPLACES_FIELD);
+            if (target != null) {
+                if (replacedKey != null) {
+                    target.remove(replacedKey);
+                }
+                target.put(key, value);
+            }
+        } else if (REMOVE.equals(operation)) {
+            if (target != null) {
+                target.remove(key);
+            }
+        } else {
+            throw new IllegalStateException("Unknown operation " + operation);
+        }
+    }
+
+    private static String getString(JsonObject record, String field) {
+        final JsonElement element = record.get(field);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+
+    private void startFsync() {
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            fsyncTask = getFsyncExecutor().scheduleWithFixedDelay(this::sync,
+                                                                  fsyncIntervalMillis,
+                                                                  fsyncIntervalMillis,
+                                                                  MILLISECONDS);
+        }
+    }
+
+    private synchronized void sync() {
+        if (journal != null && unsynced) {
+            try {
+                journal.force(false);
+                unsynced = false;
+            } catch (IOException e) {
+                LOG.error(String.format("Unable sync %s to disk", journalFile), e);
+            }
+        }
+    }
+
+    private byte[] readSnapshot() throws IOException {
+        try {
+            return Files.readAllBytes(snapshotFile);
+        } catch (NoSuchFileException e) {
+            return new byte[0];
+        }
+    }
+
+    private long readChecksum(byte[] content, int start, int end) {
+        try {
+            final JsonObject header = new JsonParser().parse(new String(content, start, end - start, UTF_8)).getAsJsonObject();
+            return header.get(CHECKSUM_FIELD).getAsLong();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static long checksum(byte[] content) {
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    private static int indexOf(byte[] content, int from) {
+        for (int i = from; i < content.length; i++) {
+            if (content[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ScheduledExecutorService getFsyncExecutor() {
+        ScheduledExecutorService executor = fsyncExecutor;
+        if (executor == null) {
+            synchronized (JournaledLocalStorage.class) {
+                executor = fsyncExecutor;
+                if (executor == null) {
+                    final ScheduledThreadPoolExecutor newExecutor =
+                            new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setDaemon(true)
+                                                                                         .setNameFormat("LocalStorageFsync-%d")
+                                                                                         .build());
+                    newExecutor.setRemoveOnCancelPolicy(true);
+                    fsyncExecutor = executor = newExecutor;
+                }
+            }
+        }
+        return executor;
+    }
+}
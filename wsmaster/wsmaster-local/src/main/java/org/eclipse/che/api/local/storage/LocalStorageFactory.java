@@ -10,12 +10,18 @@
  *******************************************************************************/
 package org.eclipse.che.api.local.storage;
 
+import com.google.common.reflect.TypeToken;
+import com.google.inject.Inject;
+
+import org.eclipse.che.api.local.storage.JournaledLocalStorage.FsyncPolicy;
 
-import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Factory for injection to LocalStorage stored file.
@@ -28,9 +34,43 @@ public class LocalStorageFactory {
     /** Path to storage root folder. */
     private final String pathToStorage;
 
+    private FsyncPolicy fsyncPolicy;
+    private long        fsyncIntervalMillis;
+    private int         compactionThreshold;
+
     @Inject
     public LocalStorageFactory(@Named("che.conf.storage") String pathToStorage) {
         this.pathToStorage = pathToStorage;
+        this.fsyncPolicy = FsyncPolicy.INTERVAL;
+        this.fsyncIntervalMillis = JournaledLocalStorage.DEFAULT_FSYNC_INTERVAL_MS;
+        this.compactionThreshold = JournaledLocalStorage.DEFAULT_COMPACTION_THRESHOLD;
+    }
+
+    /**
+     * Sets when changes of journaled storages are synced to disk, see {@link FsyncPolicy}. Value is case insensitive name of
+     * policy, e.g. {@code always}, {@code interval} or {@code never}.
+     */
+    @Inject(optional = true)
+    public void setFsyncPolicy(@Named("che.conf.storage.fsync_policy") String fsyncPolicy) {
+        this.fsyncPolicy = FsyncPolicy.valueOf(fsyncPolicy.toUpperCase());
+    }
+
+    /** Sets interval in milliseconds between syncs of journaled storages for {@link FsyncPolicy#INTERVAL} policy. */
+    @Inject(optional = true)
+    public void setFsyncInterval(@Named("che.conf.storage.fsync_interval_ms") long fsyncIntervalMillis) {
+        if (fsyncIntervalMillis < 1) {
+            throw new IllegalArgumentException(String.format("Invalid fsync interval: %d", fsyncIntervalMillis));
+        }
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+    }
+
+    /** Sets number of records in journal that triggers writing of new snapshot of journaled storage. */
+    @Inject(optional = true)
+    public void setCompactionThreshold(@Named("che.conf.storage.compaction_threshold") int compactionThreshold) {
+        if (compactionThreshold < 1) {
+            throw new IllegalArgumentException(String.format("Invalid compaction threshold: %d", compactionThreshold));
+        }
+        this.compactionThreshold = compactionThreshold;
     }
 
     /**
@@ -56,4 +96,35 @@ public class LocalStorageFactory {
     public LocalStorage create(String fileName, Map<Class<?>, Object> typeAdapters) throws IOException {
         return new LocalStorage(pathToStorage, fileName, typeAdapters);
     }
-}
\ No newline at end of file
+
+    /**
+     * @param fileName
+     *         name of snapshot file in local storage.
+     * @param mapToken
+     *         type of stored map.
+     * @param typeAdapters
+     *         types and object adapters when need a special deserialization.
+     * @param state
+     *         supplier of the current state of stored map, it is used for compaction of journal.
+     * @return instance of JournaledLocalStorage.
+     * @throws IOException
+     *         occurs when cannot create root storage directory.
+     */
+    public <V> JournaledLocalStorage<V> createJournaled(String fileName,
+                                                        TypeToken<Map<String, V>> mapToken,
+                                                        Map<Class<?>, Object> typeAdapters,
+                                                        Supplier<Map<String, V>> state) throws IOException {
+        final File rootDir = new File(pathToStorage);
+        if (!rootDir.exists() && !rootDir.mkdirs()) {
+            throw new IOException("Impossible to create root folder for local storage");
+        }
+        return new JournaledLocalStorage<>(Paths.get(pathToStorage),
+                                           fileName,
+                                           mapToken,
+                                           typeAdapters,
+                                           state,
+                                           fsyncPolicy,
+                                           fsyncIntervalMillis,
+                                           compactionThreshold);
+    }
+}
@@ -14,7 +14,8 @@ import com.google.common.reflect.TypeToken;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
-import org.eclipse.che.api.local.storage.LocalStorage;
+import org.eclipse.che.api.local.storage.JournaledLocalStorage;
+import org.eclipse.che.api.local.storage.LocalStorageFactory;
 import org.eclipse.che.api.workspace.server.model.impl.stack.StackImpl;
 import org.eclipse.che.api.workspace.server.stack.image.StackIcon;
 import org.slf4j.Logger;
@@ -25,7 +26,9 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static java.lang.String.format;
 import static java.nio.file.StandardOpenOption.CREATE;
@@ -33,7 +36,8 @@ import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import static org.apache.commons.io.FileUtils.deleteDirectory;
 
 /**
- * Local {@link StackImpl} storage for storing stacks and their {@link StackIcon}
+ * Local {@link StackImpl} storage for storing stacks and their {@link StackIcon}.
+ * Changes of stacks are written to the journal of {@link JournaledLocalStorage}, icons are written to files when stack is changed.
  *
  * @author Alexander Andrienko
  */
@@ -45,15 +49,35 @@ public class StackLocalStorage {
     private static final String STACK_STORAGE_FILE = "stacks.json";
     private static final String ICON_FOLDER_NAME   = "images";
 
-    private final LocalStorage localStorage;
-    private final Path         iconFolderPath;
+    private final LocalStorageFactory storageFactory;
+    private final Path                iconFolderPath;
+
+    private JournaledLocalStorage<StackImpl> localStorage;
+
+    public StackLocalStorage(String pathToStorage) throws IOException {
+        this(new LocalStorageFactory(pathToStorage), pathToStorage);
+    }
 
     @Inject
-    public StackLocalStorage(@Named("che.conf.storage") String pathToStorage) throws IOException {
-        this.localStorage = new LocalStorage(pathToStorage, STACK_STORAGE_FILE);
+    public StackLocalStorage(LocalStorageFactory storageFactory, @Named("che.conf.storage") String pathToStorage) throws IOException {
+        this.storageFactory = storageFactory;
         this.iconFolderPath = Paths.get(pathToStorage, ICON_FOLDER_NAME);
     }
 
+    /**
+     * Sets supplier of the current stacks which is used for writing of snapshot of storage, must be called before any other
+     * method of storage.
+     *
+     * @param stacks
+     *         supplier of map, where key is id of the {@link StackImpl} and value is {@link StackImpl}
+     */
+    public void setState(Supplier<Map<String, StackImpl>> stacks) throws IOException {
+        this.localStorage = storageFactory.createJournaled(STACK_STORAGE_FILE,
+                                                           new TypeToken<Map<String, StackImpl>>() {},
+                                                           Collections.emptyMap(),
+                                                           stacks);
+    }
+
     /**
      * Store map {@code stacks} to the local stack storage
      *
@@ -62,7 +86,8 @@ public class StackLocalStorage {
      * @throws IOException
      */
     public void store(Map<String, StackImpl> stacks) throws IOException {
-        localStorage.store(stacks);
+        localStorage.compact(stacks);
+        localStorage.close();
         deleteDirectory(iconFolderPath.toFile());
         stacks.values().forEach(this::saveIcon);
     }
@@ -70,15 +95,37 @@ public class StackLocalStorage {
     /**
      * Load map(where key is id of the {@link StackImpl} and value is {@link StackImpl}) from local stack storage.
      */
-    public Map<String, StackImpl> loadMap() {
-        Map<String, StackImpl> stackMap = localStorage.loadMap(new TypeToken<Map<String, StackImpl>>() {
-        });
+    public Map<String, StackImpl> loadMap() throws IOException {
+        Map<String, StackImpl> stackMap = localStorage.load();
         for (StackImpl stack : stackMap.values()) {
             setIconData(stack, iconFolderPath);
         }
         return stackMap;
     }
 
+    /**
+     * Writes {@code stack} and its icon to the local stack storage.
+     *
+     * @throws IOException
+     *         if stack can't be written, in this case stack must not be changed in memory
+     */
+    public void put(StackImpl stack) throws IOException {
+        localStorage.put(stack.getId(), stack);
+        deleteDirectory(iconFolderPath.resolve(stack.getId()).toFile());
+        saveIcon(stack);
+    }
+
+    /**
+     * Removes stack with {@code id} and its icon from the local stack storage.
+     *
+     * @throws IOException
+     *         if removal can't be written, in this case stack must not be removed from memory
+     */
+    public void remove(String id) throws IOException {
+        localStorage.remove(id);
+        deleteDirectory(iconFolderPath.resolve(id).toFile());
+    }
+
     /**
      * Set binary data to {@link StackIcon} of the {@code stack}. Stack icon files store in the by {@code stackIconFolderPath}
      * Icon data stores in the local storage by path:
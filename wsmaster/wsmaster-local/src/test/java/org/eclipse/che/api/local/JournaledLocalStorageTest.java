@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import com.google.common.reflect.TypeToken;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.che.api.local.storage.JournaledLocalStorage;
+import org.eclipse.che.api.local.storage.JournaledLocalStorage.FsyncPolicy;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.fail;
+
+public class JournaledLocalStorageTest {
+
+    private Path                storageRoot;
+    private Map<String, String> state;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        final URL url = Thread.currentThread().getContextClassLoader().getResource(".");
+        assertNotNull(url);
+        storageRoot = Paths.get(url.toURI()).getParent().resolve("journaled_storage");
+        FileUtils.deleteDirectory(storageRoot.toFile());
+        Files.createDirectories(storageRoot);
+        state = new HashMap<>();
+    }
+
+    @AfterMethod
+    public void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(storageRoot.toFile());
+    }
+
+    @Test
+    public void restoresChangesFromJournalWithoutSnapshot() throws Exception {
+        final JournaledLocalStorage<String> storage = createStorage(FsyncPolicy.ALWAYS, 100);
+        storage.put("a", "1");
+        storage.put("b", "2");
+        storage.put("a", "3");
+        storage.remove("b");
+        // emulate crash, storage isn't closed
+
+        assertEquals(createStorage(FsyncPolicy.ALWAYS, 100).load(), Collections.singletonMap("a", "3"));
+    }
+
+    @Test
+    public void appliesJournalToSnapshot() throws Exception {
+        final JournaledLocalStorage<String> storage = createStorage(FsyncPolicy.INTERVAL, 100);
+        state.put("a", "1");
+        state.put("b", "2");
+        storage.compact(state);
+        storage.remove("a");
+        storage.put("c", "3");
+        storage.close();
+
+        final Map<String, String> expected = new HashMap<>();
+        expected.put("b", "2");
+        expected.put("c", "3");
+        assertEquals(createStorage(FsyncPolicy.INTERVAL, 100).load(), expected);
+    }
+
+    @Test
+    public void discardsIncompleteRecordAtTheEndOfJournal() throws Exception {
+        final JournaledLocalStorage<String> storage = createStorage(FsyncPolicy.NEVER, 100);
+        storage.put("a", "1");
+        storage.close();
+        Files.write(storageRoot.resolve("test.json.journal"), "{\"op\":\"put\",\"key\":\"b\",\"va".getBytes(UTF_8), APPEND);
+
+        final JournaledLocalStorage<String> recovered = createStorage(FsyncPolicy.NEVER, 100);
+        assertEquals(recovered.load(), Collections.singletonMap("a", "1"));
+        recovered.put("c", "2");
+        recovered.close();
+
+        final Map<String, String> expected = new HashMap<>();
+        expected.put("a", "1");
+        expected.put("c", "2");
+        assertEquals(createStorage(FsyncPolicy.NEVER, 100).load(), expected);
+    }
+
+    @Test
+    public void failsToLoadJournalWithInvalidCompleteRecordAndKeepsJournal() throws Exception {
+        final JournaledLocalStorage<String> storage = createStorage(FsyncPolicy.NEVER, 100);
+        storage.put("a", "1");
+        storage.close();
+        final Path journal = storageRoot.resolve("test.json.journal");
+        Files.write(journal,
+                    "{\"key\":\"b\",\"value\":\"2\"}\n{\"op\":\"put\",\"key\":\"c\",\"value\":\"3\"}\n".getBytes(UTF_8),
+                    APPEND);
+        final byte[] content = Files.readAllBytes(journal);
+
+        try {
+            createStorage(FsyncPolicy.NEVER, 100).load();
+            fail("Journal with invalid record must not be loaded");
+        } catch (IOException expected) {
+        }
+
+        assertEquals(Files.readAllBytes(journal), content);
+    }
+
+    @Test
+    public void failsToLoadJournalWithInvalidJsonInCompleteRecord() throws Exception {
+        final JournaledLocalStorage<String> storage = createStorage(FsyncPolicy.NEVER, 100);
+        storage.put("a", "1");
+        storage.close();
+        Files.write(storageRoot.resolve("test.json.journal"), "{\"op\":\"put\",\"key\":\"b\",\"va\n".getBytes(UTF_8), APPEND);
+
+        try {
+            createStorage(FsyncPolicy.NEVER, 100).load();
+            fail("Journal with invalid record must not be loaded");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void restoresReplacementOfValueFromSingleRecord() throws Exception {
+        final JournaledLocalStorage<String> storage = createStorage(FsyncPolicy.ALWAYS, 100);
+        storage.put("a", "1");
+        storage.put("b", "2");
+        storage.replace("a", "c", "3");
+        // emulate crash, storage isn't closed
+
+        final Map<String, String> expected = new HashMap<>();
+        expected.put("b", "2");
+        expected.put("c", "3");
+        assertEquals(createStorage(FsyncPolicy.ALWAYS, 100).load(), expected);
+        assertEquals(storage.getJournalRecords(), 3);
+    }
+
+    @Test
+    public void writesSnapshotWhenJournalGetsCompactionThreshold() throws Exception {
+        final JournaledLocalStorage<String> storage = createStorage(FsyncPolicy.NEVER, 2);
+        put(storage, "a", "1");
+        put(storage, "b", "2");
+        assertFalse(Files.exists(storageRoot.resolve("test.json")));
+
+        put(storage, "c", "3");
+
+        assertEquals(storage.getJournalRecords(), 1);
+        assertEquals(new String(Files.readAllBytes(storageRoot.resolve("test.json")), UTF_8),
+                     "{\n  \"a\": \"1\",\n  \"b\": \"2\"\n}");
+        storage.close();
+        assertEquals(createStorage(FsyncPolicy.NEVER, 2).load(), state);
+    }
+
+    @Test
+    public void ignoresJournalOfOtherSnapshot() throws Exception {
+        final JournaledLocalStorage<String> storage = createStorage(FsyncPolicy.NEVER, 100);
+        storage.put("a", "1");
+        storage.close();
+        Files.write(storageRoot.resolve("test.json"), "{\"b\": \"2\"}".getBytes(UTF_8));
+
+        assertEquals(createStorage(FsyncPolicy.NEVER, 100).load(), Collections.singletonMap("b", "2"));
+    }
+
+    private void put(JournaledLocalStorage<String> storage, String key, String value) throws IOException {
+        storage.put(key, value);
+        state.put(key, value);
+    }
+
+    private JournaledLocalStorage<String> createStorage(FsyncPolicy fsyncPolicy, int compactionThreshold) {
+        return new JournaledLocalStorage<>(storageRoot,
+                                           "test.json",
+                                           new TypeToken<Map<String, String>>() {},
+                                           Collections.emptyMap(),
+                                           () -> state,
+                                           fsyncPolicy,
+                                           JournaledLocalStorage.DEFAULT_FSYNC_INTERVAL_MS,
+                                           compactionThreshold);
+    }
+}
@@ -13,6 +13,9 @@ package org.eclipse.che.api.local;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
+import org.apache.commons.io.FileUtils;
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.local.storage.LocalStorageFactory;
 import org.eclipse.che.api.machine.server.model.impl.CommandImpl;
 import org.eclipse.che.api.machine.server.model.impl.LimitsImpl;
@@ -25,27 +28,35 @@ import org.eclipse.che.api.workspace.server.model.impl.ProjectConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.SourceStorageImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static java.nio.file.Files.readAllBytes;
 import static java.nio.file.Files.write;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toSet;
 import static org.eclipse.che.commons.lang.NameGenerator.generate;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.fail;
 
 /**
  * @author Eugene Voevodin
@@ -56,17 +67,23 @@ public class LocalWorkspaceDaoTest {
 
     LocalWorkspaceDaoImpl workspaceDao;
     Path                  workspacesPath;
+    Path                  storageRoot;
 
     @BeforeMethod
     public void setUp() throws Exception {
         final URL url = Thread.currentThread().getContextClassLoader().getResource(".");
         assertNotNull(url);
         final Path targetDir = Paths.get(url.toURI()).getParent();
-        final Path storageRoot = targetDir.resolve("workspaces");
+        storageRoot = Files.createTempDirectory(targetDir, "workspaces");
         workspacesPath = storageRoot.resolve("workspaces.json");
         workspaceDao = new LocalWorkspaceDaoImpl(new LocalStorageFactory(storageRoot.toString()));
     }
 
+    @AfterMethod
+    public void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(storageRoot.toFile());
+    }
+
     @Test
     public void testWorkspaceSerialization() throws Exception {
         final WorkspaceImpl workspace = createWorkspace();
@@ -88,7 +105,122 @@ public class LocalWorkspaceDaoTest {
         assertEquals(result, workspace);
     }
 
+    @Test(expectedExceptions = ConflictException.class)
+    public void throwsConflictWhenWorkspaceIsRenamedToNameOfOtherWorkspaceInNamespace() throws Exception {
+        final WorkspaceImpl workspace1 = createWorkspace("ws1", "user123");
+        final WorkspaceImpl workspace2 = createWorkspace("ws2", "user123");
+        workspaceDao.create(workspace1);
+        workspaceDao.create(workspace2);
+
+        workspace2.getConfig().setName("ws1");
+        workspaceDao.update(workspace2);
+    }
+
+    @Test
+    public void keepsIndexesWhenRenameFailsWithConflict() throws Exception {
+        final WorkspaceImpl workspace1 = createWorkspace("ws1", "user123");
+        final WorkspaceImpl workspace2 = createWorkspace("ws2", "user123");
+        workspaceDao.create(workspace1);
+        workspaceDao.create(workspace2);
+
+        workspace2.getConfig().setName("ws1");
+        try {
+            workspaceDao.update(workspace2);
+            fail("Workspace must not be renamed to name of other workspace");
+        } catch (ConflictException expected) {
+        }
+
+        assertEquals(workspaceDao.get("ws1", "user123").getId(), workspace1.getId());
+        assertEquals(workspaceDao.get("ws2", "user123").getId(), workspace2.getId());
+        assertEquals(namesOf(workspaceDao.getByNamespace("user123")), new HashSet<>(asList("ws1", "ws2")));
+    }
+
+    @Test
+    public void findsRenamedWorkspaceByNewNameOnly() throws Exception {
+        final WorkspaceImpl workspace = createWorkspace("ws1", "user123");
+        workspaceDao.create(workspace);
+
+        workspace.getConfig().setName("ws2");
+        workspaceDao.update(workspace);
+
+        assertEquals(workspaceDao.get("ws2", "user123").getId(), workspace.getId());
+        assertEquals(namesOf(workspaceDao.getByNamespace("user123")), singleton("ws2"));
+        try {
+            workspaceDao.get("ws1", "user123");
+            fail("Workspace must not be found by its old name");
+        } catch (NotFoundException expected) {
+        }
+    }
+
+    @Test
+    public void allowsToCreateWorkspaceWithOldNameOfRenamedWorkspace() throws Exception {
+        final WorkspaceImpl workspace = createWorkspace("ws1", "user123");
+        workspaceDao.create(workspace);
+        workspace.getConfig().setName("ws2");
+        workspaceDao.update(workspace);
+
+        final WorkspaceImpl other = createWorkspace("ws1", "user123");
+        workspaceDao.create(other);
+
+        assertEquals(workspaceDao.get("ws1", "user123").getId(), other.getId());
+        assertEquals(workspaceDao.get("ws2", "user123").getId(), workspace.getId());
+        assertEquals(namesOf(workspaceDao.getByNamespace("user123")), new HashSet<>(asList("ws1", "ws2")));
+    }
+
+    @Test
+    public void keepsIndexesWhenWorkspaceIsUpdatedWithoutRename() throws Exception {
+        final WorkspaceImpl workspace = createWorkspace("ws1", "user123");
+        workspaceDao.create(workspace);
+
+        workspace.getConfig().setDescription("new description");
+        workspaceDao.update(workspace);
+
+        assertEquals(workspaceDao.get("ws1", "user123").getConfig().getDescription(), "new description");
+        assertEquals(namesOf(workspaceDao.getByNamespace("user123")), singleton("ws1"));
+    }
+
+    @Test
+    public void removesWorkspaceFromIndexes() throws Exception {
+        final WorkspaceImpl workspace1 = createWorkspace("ws1", "user123");
+        final WorkspaceImpl workspace2 = createWorkspace("ws2", "user123");
+        workspaceDao.create(workspace1);
+        workspaceDao.create(workspace2);
+
+        workspaceDao.remove(workspace1.getId());
+
+        assertEquals(namesOf(workspaceDao.getByNamespace("user123")), singleton("ws2"));
+        try {
+            workspaceDao.get("ws1", "user123");
+            fail("Removed workspace must not be found by name");
+        } catch (NotFoundException expected) {
+        }
+        // name is free again
+        workspaceDao.create(createWorkspace("ws1", "user123"));
+    }
+
+    @Test
+    public void restoresIndexesOfRenamedWorkspaceFromJournal() throws Exception {
+        final WorkspaceImpl workspace = createWorkspace("ws1", "user123");
+        workspaceDao.create(workspace);
+        workspace.getConfig().setName("ws2");
+        workspaceDao.update(workspace);
+
+        final LocalWorkspaceDaoImpl restored = new LocalWorkspaceDaoImpl(new LocalStorageFactory(storageRoot.toString()));
+        restored.loadWorkspaces();
+
+        assertEquals(restored.get("ws2", "user123").getId(), workspace.getId());
+        assertEquals(namesOf(restored.getByNamespace("user123")), singleton("ws2"));
+    }
+
+    private static Set<String> namesOf(List<WorkspaceImpl> workspaces) {
+        return workspaces.stream().map(workspace -> workspace.getConfig().getName()).collect(toSet());
+    }
+
     private static WorkspaceImpl createWorkspace() {
+        return createWorkspace("test-workspace-name", "user123");
+    }
+
+    private static WorkspaceImpl createWorkspace(String name, String namespace) {
         // environments
         final RecipeImpl recipe = new RecipeImpl();
         recipe.setType("dockerfile");
@@ -165,13 +297,13 @@ public class LocalWorkspaceDaoTest {
 
         return WorkspaceImpl.builder()
                             .setId(generate("workspace", 16))
-                            .setConfig(new WorkspaceConfigImpl("test-workspace-name",
+                            .setConfig(new WorkspaceConfigImpl(name,
                                                                "This is test workspace",
                                                                env1.getName(),
                                                                commands,
                                                                projects,
                                                                environments))
-                            .setNamespace("user123")
+                            .setNamespace(namespace)
                             .build();
     }
 }
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import org.eclipse.che.api.machine.server.recipe.RecipeImpl;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+public class TagIndexedMapTest {
+
+    TagIndexedMap<RecipeImpl> map;
+
+    @BeforeMethod
+    public void setUp() {
+        map = new TagIndexedMap<>(RecipeImpl::getId, RecipeImpl::getTags);
+        map.put(recipe("recipe1", "java", "maven"));
+        map.put(recipe("recipe2", "java"));
+        map.put(recipe("recipe3", "java", "maven", "tomcat"));
+        map.put(recipe("recipe4", "node"));
+    }
+
+    @Test
+    public void searchesByIntersectionOfTagsInOrderObjectsAreAdded() {
+        assertEquals(ids(map.search(asList("maven", "java"))), asList("recipe1", "recipe3"));
+        assertEquals(ids(map.search(singletonList("tomcat"))), singletonList("recipe3"));
+        assertEquals(ids(map.search(asList("java", "node"))), emptyList());
+        assertEquals(ids(map.search(singletonList("unknown"))), emptyList());
+    }
+
+    @Test
+    public void returnsAllObjectsWhenTagsAreNotSpecified() {
+        assertEquals(ids(map.search(null)), asList("recipe1", "recipe2", "recipe3", "recipe4"));
+        assertEquals(ids(map.search(emptyList())), asList("recipe1", "recipe2", "recipe3", "recipe4"));
+    }
+
+    @Test
+    public void replacedObjectKeepsPositionAndIsReindexed() {
+        map.put(recipe("recipe1", "node"));
+
+        assertEquals(ids(map.search(singletonList("maven"))), singletonList("recipe3"));
+        assertEquals(ids(map.search(singletonList("node"))), asList("recipe1", "recipe4"));
+        assertEquals(new ArrayList<>(map.toMap().keySet()), asList("recipe1", "recipe2", "recipe3", "recipe4"));
+    }
+
+    @Test
+    public void removedObjectIsRemovedFromIndex() {
+        map.remove("recipe3");
+
+        assertNull(map.get("recipe3"));
+        assertFalse(map.containsKey("recipe3"));
+        assertEquals(ids(map.search(singletonList("tomcat"))), emptyList());
+        assertEquals(ids(map.search(singletonList("maven"))), singletonList("recipe1"));
+    }
+
+    @Test
+    public void indexIsNotAffectedByChangesOfTagsOfStoredObject() {
+        map.get("recipe2").getTags().add("maven");
+
+        assertEquals(ids(map.search(singletonList("maven"))), asList("recipe1", "recipe3"));
+        map.remove("recipe2");
+        assertEquals(ids(map.search(singletonList("java"))), asList("recipe1", "recipe3"));
+    }
+
+    private static RecipeImpl recipe(String id, String... tags) {
+        return new RecipeImpl().withId(id).withTags(new ArrayList<>(asList(tags)));
+    }
+
+    private static List<String> ids(Stream<RecipeImpl> recipes) {
+        return recipes.map(RecipeImpl::getId).collect(toList());
+    }
+}